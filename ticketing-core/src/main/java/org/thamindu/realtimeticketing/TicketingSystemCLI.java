@@ -7,6 +7,7 @@ import org.thamindu.realtimeticketing.model.Customer;
 import org.thamindu.realtimeticketing.model.TicketPool;
 import org.thamindu.realtimeticketing.model.Vendor;
 import org.thamindu.realtimeticketing.service.InputService;
+import org.thamindu.realtimeticketing.util.EventLogAggregator;
 
 import java.io.File;
 import java.io.IOException;
@@ -125,6 +126,7 @@ public class TicketingSystemCLI {
             executorService.shutdownNow();
             Thread.currentThread().interrupt();
         }
+            EventLogAggregator.getDefault().flush(); // Log the counts of the last, partial interval.
             logger.info("Simulation complete. All tickets added and sold.");
 
     }
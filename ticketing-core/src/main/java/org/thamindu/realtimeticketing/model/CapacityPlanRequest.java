@@ -0,0 +1,122 @@
+package org.thamindu.realtimeticketing.model;
+
+/**
+ * A capacity planning request: a range for each configuration parameter, whose combinations
+ * are each simulated.
+ *
+ * <p><strong>Rationale:</strong> Mirrors the fields of {@link Configuration}, so a chosen
+ * combination can be copied straight into {@code system_config.json}.</p>
+ */
+public class CapacityPlanRequest {
+
+    /**
+     * The range of total tickets to try.
+     */
+    private ParameterRange totalTickets;
+    /**
+     * The range of vendor release rates to try.
+     */
+    private ParameterRange ticketReleaseRate;
+    /**
+     * The range of customer retrieval rates to try.
+     */
+    private ParameterRange customerRetrievalRate;
+    /**
+     * The range of pool capacities to try.
+     */
+    private ParameterRange maxTicketCapacity;
+    /**
+     * The longest simulated time, in seconds, before a run is abandoned.
+     */
+    private int maxVirtualSeconds = 3600;
+
+    /**
+     * Gets the range of total tickets to try.
+     *
+     * @return the range of total tickets to try.
+     */
+    public ParameterRange getTotalTickets() {
+        return totalTickets;
+    }
+
+    /**
+     * Sets the range of total tickets to try.
+     *
+     * @param totalTickets the range of total tickets to try.
+     */
+    public void setTotalTickets(ParameterRange totalTickets) {
+        this.totalTickets = totalTickets;
+    }
+
+    /**
+     * Gets the range of vendor release rates to try.
+     *
+     * @return the range of vendor release rates to try.
+     */
+    public ParameterRange getTicketReleaseRate() {
+        return ticketReleaseRate;
+    }
+
+    /**
+     * Sets the range of vendor release rates to try.
+     *
+     * @param ticketReleaseRate the range of vendor release rates to try.
+     */
+    public void setTicketReleaseRate(ParameterRange ticketReleaseRate) {
+        this.ticketReleaseRate = ticketReleaseRate;
+    }
+
+    /**
+     * Gets the range of customer retrieval rates to try.
+     *
+     * @return the range of customer retrieval rates to try.
+     */
+    public ParameterRange getCustomerRetrievalRate() {
+        return customerRetrievalRate;
+    }
+
+    /**
+     * Sets the range of customer retrieval rates to try.
+     *
+     * @param customerRetrievalRate the range of customer retrieval rates to try.
+     */
+    public void setCustomerRetrievalRate(ParameterRange customerRetrievalRate) {
+        this.customerRetrievalRate = customerRetrievalRate;
+    }
+
+    /**
+     * Gets the range of pool capacities to try.
+     *
+     * @return the range of pool capacities to try.
+     */
+    public ParameterRange getMaxTicketCapacity() {
+        return maxTicketCapacity;
+    }
+
+    /**
+     * Sets the range of pool capacities to try.
+     *
+     * @param maxTicketCapacity the range of pool capacities to try.
+     */
+    public void setMaxTicketCapacity(ParameterRange maxTicketCapacity) {
+        this.maxTicketCapacity = maxTicketCapacity;
+    }
+
+    /**
+     * Gets the longest simulated time, in seconds, before a run is abandoned.
+     *
+     * @return the longest simulated time, in seconds, before a run is abandoned.
+     */
+    public int getMaxVirtualSeconds() {
+        return maxVirtualSeconds;
+    }
+
+    /**
+     * Sets the longest simulated time, in seconds, before a run is abandoned.
+     *
+     * @param maxVirtualSeconds the longest simulated time, in seconds, before a run is abandoned.
+     */
+    public void setMaxVirtualSeconds(int maxVirtualSeconds) {
+        this.maxVirtualSeconds = maxVirtualSeconds;
+    }
+}
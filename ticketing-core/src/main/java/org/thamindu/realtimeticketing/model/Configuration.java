@@ -2,13 +2,12 @@ package org.thamindu.realtimeticketing.model;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 import org.thamindu.realtimeticketing.util.LoggerUtil;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents the configuration settings for the Real-Time Event Ticketing System.
@@ -39,6 +38,11 @@ public class Configuration implements Serializable {
      */
     private static final String CONFIG_FILE = System.getProperty("config.file.path", DEFAULT_CONFIG_FILE);
 
+    /**
+     * Number of times a configuration has been saved successfully by this process.
+     */
+    private static final AtomicLong SAVE_COUNT = new AtomicLong();
+
     /**
      * Logger instance for the Configuration class.
      * Used for logging configuration-related events and messages.
@@ -110,7 +114,6 @@ public class Configuration implements Serializable {
             try (Reader reader = new FileReader(file)){
                 Gson gson = new Gson();
                 Configuration config = gson.fromJson(reader, Configuration.class);
-//                logger.info("Configuration loaded from {}",CONFIG_FILE);
                 return config;
             }
         } else {
@@ -131,7 +134,22 @@ public class Configuration implements Serializable {
             logger.info("Configuration saved to {}", CONFIG_FILE);
         }catch (IOException e){
             logger.error("Error saving the configuration: {}", e.getMessage());
+            return;
         }
+        SAVE_COUNT.incrementAndGet();
+    }
+
+    /**
+     * Gets a version of the saved configuration that changes whenever it is saved by this process
+     * or the configuration file is modified by another.
+     *
+     * @return the configuration version.
+     *
+     * <p><strong>Rationale:</strong> Checking the version costs a counter read and a file
+     * timestamp lookup, where loading the configuration parses the whole file.</p>
+     */
+    public static String getVersion(){
+        return SAVE_COUNT.get() + "." + new File(CONFIG_FILE).lastModified();
     }
 
     /**
@@ -0,0 +1,241 @@
+package org.thamindu.realtimeticketing.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.thamindu.realtimeticketing.util.AggregatingEventLogger;
+import org.thamindu.realtimeticketing.util.EventLogAggregator;
+import org.thamindu.realtimeticketing.util.TicketingEvents;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a Customer in the ticketing system.
+ * A Customer retrieves tickets from the TicketPool at a specified rate and interval.
+ *
+ * <p>This class implements the {@code Runnable} interface to allow concurrent execution
+ * of multiple customers. By simulating customers as separate threads, the system
+ * can mimic real-world scenarios where multiple customers attempt to retrieve tickets
+ * simultaneously.</p>
+ *
+ * <p><strong>Rationale:</strong> Implementing customers as threads allows for scalable
+ * and realistic simulation of customer behavior in a concurrent environment.</p>
+ */
+public class Customer implements Runnable{
+
+    /**
+     * Logger instance for logging customer-related events.
+     */
+    private static final Logger logger = LogManager.getLogger(Customer.class);
+
+    /**
+     * The unique identifier for the customer.
+     */
+    private final String customerId;
+    /**
+     * The rate at which the customer retrieves tickets per interval.
+     */
+    private final int ticketRetrievalRate;
+    /**
+     * The interval (in milliseconds) between ticket retrieval attempts.
+     */
+    private final int retrievalInterval;
+    /**
+     * The ticket pool from which the customer retrieves tickets.
+     */
+    private final TicketPool ticketPool;
+    /**
+     * The tiered pool from which the customer retrieves tickets, or null when buying from a single pool.
+     */
+    private final TieredTicketPool tieredTicketPool;
+    /**
+     * The price tiers the customer will buy from, most preferred first.
+     */
+    private final List<String> tierPreference;
+    /**
+     * Whether each interval's tickets are bought together as one all-or-nothing purchase.
+     */
+    private volatile boolean atomicBatch = false;
+    /**
+     * A volatile flag to safely manage the running state of the Customer thread.
+     * Volatile ensures visibility of changes across threads.
+     */
+    public volatile boolean isRunning = true;
+
+    /**
+     * Constructs a Customer with the specified ID, ticket retrieval rate, retrieval interval, and ticket pool.
+     *
+     * @param customerId          the unique identifier for the customer
+     * @param ticketRetrievalRate the rate at which the customer retrieves tickets per interval
+     * @param retrievalInterval   the interval (in milliseconds) between retrieval attempts
+     * @param ticketPool          the ticket pool from which the customer retrieves tickets
+     * @throws IllegalArgumentException if the ticket retrieval rate is negative or retrieval interval is not positive
+     *
+     * <p><strong>Rationale:</strong> Parameters are validated to prevent invalid configurations
+     * that could lead to unintended behavior or system crashes.</p>
+     */
+    public Customer(String customerId, int ticketRetrievalRate, int retrievalInterval, TicketPool ticketPool) {
+        // Validate parameters to ensure meaningful operations
+        if (ticketRetrievalRate < 0 || retrievalInterval <= 0){
+            logger.error("Invalid parameters for customer: {}", ticketRetrievalRate);
+            throw new IllegalArgumentException("TicketRetrievalRate and retrievalInterval must be positive");
+        }
+        this.customerId = customerId;
+        this.ticketRetrievalRate = ticketRetrievalRate;
+        this.retrievalInterval = retrievalInterval;
+        this.ticketPool = ticketPool;
+        this.tieredTicketPool = null;
+        this.tierPreference = List.of();
+
+        logger.info("Customer {} initialised with ticket retrieval rate {} and interval: {}", customerId, ticketRetrievalRate, retrievalInterval);
+    }
+
+    /**
+     * Constructs a Customer that buys from a tiered pool, falling back through its preferred tiers.
+     *
+     * @param customerId          the unique identifier for the customer
+     * @param ticketRetrievalRate the rate at which the customer retrieves tickets per interval
+     * @param retrievalInterval   the interval (in milliseconds) between retrieval attempts
+     * @param tieredTicketPool    the tiered pool from which the customer retrieves tickets
+     * @param tierPreference      the tiers the customer will buy from, most preferred first
+     * @throws IllegalArgumentException if the parameters are invalid or the preference names an unknown tier
+     */
+    public Customer(String customerId, int ticketRetrievalRate, int retrievalInterval,
+                    TieredTicketPool tieredTicketPool, List<String> tierPreference) {
+        if (ticketRetrievalRate < 0 || retrievalInterval <= 0 || tierPreference.isEmpty()){
+            logger.error("Invalid parameters for customer: {}", ticketRetrievalRate);
+            throw new IllegalArgumentException("TicketRetrievalRate and retrievalInterval must be positive and at least one tier preferred");
+        }
+        tierPreference.forEach(tieredTicketPool::getTier); // Fail fast on unknown tiers.
+        this.customerId = customerId;
+        this.ticketRetrievalRate = ticketRetrievalRate;
+        this.retrievalInterval = retrievalInterval;
+        this.ticketPool = null;
+        this.tieredTicketPool = tieredTicketPool;
+        this.tierPreference = List.copyOf(tierPreference);
+
+        logger.info("Customer {} initialised with ticket retrieval rate {}, interval {} and tier preference {}",
+                customerId, ticketRetrievalRate, retrievalInterval, tierPreference);
+    }
+
+    /**
+     * Gets the customer ID.
+     * @return the customer ID
+     */
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Gets the ticket retrieval rate.
+     *
+     * @return the ticket retrieval rate
+     */
+    public int getTicketRetrievalRate() {
+        return ticketRetrievalRate;
+    }
+
+    /**
+     * Gets the retrieval interval.
+     *
+     * @return the retrieval interval in milliseconds
+     */
+    public int getRetrievalInterval() {
+        return retrievalInterval;
+    }
+
+    /**
+     * Sets whether the customer buys each interval's tickets together, receiving either all
+     * {@code ticketRetrievalRate} tickets or none. Only applies to customers of a single pool. A
+     * batch larger than the pool's capacity, or than the tickets still unsold, is reduced to fit,
+     * since it could otherwise never be claimed.
+     *
+     * @param atomicBatch true to buy tickets as one all-or-nothing purchase.
+     */
+    public void setAtomicBatch(boolean atomicBatch) {
+        this.atomicBatch = atomicBatch;
+    }
+
+    /**
+     * Stops the customer from retrieving tickets by setting the running flag to false.
+     *
+     * <p><strong>Rationale:</strong> Using a volatile boolean allows for safe thread termination
+     * without the risks associated with {@code Thread.stop()}, which is deprecated.</p>
+     */
+    public void stop(){
+        isRunning = false;
+    }
+
+    /**
+     * Runs the customer thread, attempting to retrieve tickets from the ticket pool
+     * at the specified rate and interval.
+     *
+     * <p>This method simulates a customer making multiple ticket retrieval attempts,
+     * pausing between each batch of attempts to mimic real-world behavior.</p>
+     *
+     * <p><strong>Rationale:</strong> The loop structure allows the customer to repeatedly
+     * attempt ticket retrieval, and the sleep interval simulates delays between attempts,
+     * adding realism to the simulation.</p>
+     */
+    @Override
+    public void run() {
+        logger.info("Customer {} started.", customerId);
+        TicketingEvents.Worker worker = new TicketingEvents.Worker();
+        worker.begin();
+        try {
+            // Retrievals are summarised by the aggregator of the pool the customer buys from.
+            EventLogAggregator eventLog = ticketPool != null ? ticketPool.getEventLog()
+                    : tieredTicketPool.getTier(tierPreference.get(0)).getEventLog();
+            AggregatingEventLogger retrievedLog = eventLog.logger(logger,
+                    "Customer {} retrieved {} tickets in last {}", "Customer {} retrieved ticket: {}");
+            while (isRunning){
+                try {
+                    boolean exhausted = false; // Whether the pool ran out of tickets this round.
+                    if (atomicBatch && ticketPool != null && ticketRetrievalRate > 0) {
+                        // Claim the whole batch at once so other customers cannot interleave.
+                        int batch = Math.min(ticketRetrievalRate, Math.min(ticketPool.getMaxCapacity(),
+                                ticketPool.getTotalTickets() - ticketPool.getTicketsSold()));
+                        List<String> tickets = batch <= 0 ? List.of()
+                                : ticketPool.claimTickets(batch, retrievalInterval, TimeUnit.MILLISECONDS);
+                        for (String ticket : tickets) {
+                            retrievedLog.record(customerId, ticket);
+                        }
+                        exhausted = tickets.isEmpty();
+                    } else {
+                        for (int i = 0; i < ticketRetrievalRate; i++) {
+                            // Attempt to remove a ticket from the ticket pool, or from the preferred tiers
+                            String ticket = tieredTicketPool != null
+                                    ? tieredTicketPool.removeTicket(tierPreference)
+                                    : ticketPool.removeTicket();
+                            if (ticket == null){
+                                // No more tickets are available; exit the loop
+                                exhausted = true;
+                                break;
+                            }
+                            retrievedLog.record(customerId, ticket);
+                        }
+                    }
+                    // Pause between retrieval attempts to simulate real-time operations
+                    if (ticketPool != null) {
+                        // The pause ends early once the pool drains or stops; then leave only when nothing is left.
+                        if (!ticketPool.pace(retrievalInterval) && exhausted) {
+                            break;
+                        }
+                    } else {
+                        Thread.sleep(retrievalInterval);
+                    }
+                } catch (InterruptedException e){
+                    logger.error("Customer {} interrupted.", customerId);
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            // Committed even if the loop throws, so the recording shows every worker's lifetime.
+            logger.info("Customer {} stopped.", customerId);
+            worker.workerId = customerId;
+            worker.role = "customer";
+            worker.commit();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.thamindu.realtimeticketing.model;
+
+/**
+ * Priority classes for customers waiting for a ticket.
+ * Each class has a weight that sets its share of tickets while several classes are waiting.
+ *
+ * <p><strong>Rationale:</strong> Weighted shares let presale and VIP buyers be served first
+ * without starving general buyers, who still receive a fixed fraction of the supply.</p>
+ */
+public enum CustomerPriority {
+    /** VIP buyers, served most often. */
+    VIP(4),
+    /** Presale buyers. */
+    PRESALE(2),
+    /** General-admission buyers. */
+    GENERAL(1);
+
+    /**
+     * The relative share of tickets given to this class.
+     */
+    private final int weight;
+
+    /**
+     * Constructs a priority class with the specified weight.
+     *
+     * @param weight the relative share of tickets given to this class.
+     */
+    CustomerPriority(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the relative share of tickets given to this class.
+     *
+     * @return the weight.
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
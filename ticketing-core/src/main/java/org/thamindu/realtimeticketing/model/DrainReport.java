@@ -0,0 +1,193 @@
+package org.thamindu.realtimeticketing.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accounts for every ticket of a simulation once it has been drained and stopped.
+ * Each ticket is either sold, still in the pool, or was never released by a vendor.
+ *
+ * <p><strong>Rationale:</strong> A stop that interrupts workers mid-operation can leave tickets
+ * counted as added but never sold. Reporting the three buckets side by side makes any such gap
+ * visible instead of silently losing tickets.</p>
+ */
+public class DrainReport {
+
+    /**
+     * The largest number of unsold ticket IDs listed in a report.
+     */
+    public static final int MAX_LISTED_TICKETS = 100;
+
+    /**
+     * The total number of tickets in the simulation.
+     */
+    private final int totalTickets;
+    /**
+     * The number of tickets vendors released into the pool.
+     */
+    private final int ticketsAdded;
+    /**
+     * The number of tickets sold.
+     */
+    private final int ticketsSold;
+    /**
+     * The number of released tickets still in the pool.
+     */
+    private final int ticketsInPool;
+    /**
+     * Up to {@link #MAX_LISTED_TICKETS} IDs of the tickets still in the pool.
+     */
+    private final List<String> unsoldTickets;
+    /**
+     * How long the drain and stop took, in milliseconds.
+     */
+    private final long drainMillis;
+    /**
+     * Whether the drain deadline passed before the pool was empty.
+     */
+    private final boolean deadlineExceeded;
+    /**
+     * Whether worker threads had to be interrupted because they did not finish in time.
+     */
+    private final boolean workersInterrupted;
+
+    /**
+     * Constructs a DrainReport.
+     *
+     * @param totalTickets       the total number of tickets in the simulation.
+     * @param ticketsAdded       the number of tickets vendors released into the pool.
+     * @param ticketsSold        the number of tickets sold.
+     * @param ticketsInPool      the number of released tickets still in the pool.
+     * @param unsoldTickets      up to {@link #MAX_LISTED_TICKETS} IDs of the tickets still in the pool.
+     * @param drainMillis        how long the drain and stop took, in milliseconds.
+     * @param deadlineExceeded   whether the drain deadline passed before the pool was empty.
+     * @param workersInterrupted whether worker threads had to be interrupted.
+     */
+    public DrainReport(int totalTickets, int ticketsAdded, int ticketsSold, int ticketsInPool, List<String> unsoldTickets,
+                       long drainMillis, boolean deadlineExceeded, boolean workersInterrupted) {
+        this.totalTickets = totalTickets;
+        this.ticketsAdded = ticketsAdded;
+        this.ticketsSold = ticketsSold;
+        this.ticketsInPool = ticketsInPool;
+        this.unsoldTickets = List.copyOf(unsoldTickets);
+        this.drainMillis = drainMillis;
+        this.deadlineExceeded = deadlineExceeded;
+        this.workersInterrupted = workersInterrupted;
+    }
+
+    /**
+     * Gets the number of tickets vendors never released.
+     *
+     * @return the total number of tickets minus the number released.
+     */
+    public int getNeverReleased() {
+        return totalTickets - ticketsAdded;
+    }
+
+    /**
+     * Checks that every ticket is sold, in the pool, or was never released.
+     *
+     * @return true if the three counts add up to the total number of tickets.
+     */
+    public boolean isFullyAccounted() {
+        return ticketsSold + ticketsInPool + getNeverReleased() == totalTickets;
+    }
+
+    /**
+     * Gets the total number of tickets in the simulation.
+     *
+     * @return the total number of tickets.
+     */
+    public int getTotalTickets() {
+        return totalTickets;
+    }
+
+    /**
+     * Gets the number of tickets vendors released into the pool.
+     *
+     * @return the number of tickets added.
+     */
+    public int getTicketsAdded() {
+        return ticketsAdded;
+    }
+
+    /**
+     * Gets the number of tickets sold.
+     *
+     * @return the number of tickets sold.
+     */
+    public int getTicketsSold() {
+        return ticketsSold;
+    }
+
+    /**
+     * Gets the number of released tickets still in the pool.
+     *
+     * @return the number of unsold released tickets.
+     */
+    public int getTicketsInPool() {
+        return ticketsInPool;
+    }
+
+    /**
+     * Gets the IDs of tickets still in the pool.
+     *
+     * @return up to {@link #MAX_LISTED_TICKETS} unsold ticket IDs.
+     */
+    public List<String> getUnsoldTickets() {
+        return unsoldTickets;
+    }
+
+    /**
+     * Gets how long the drain and stop took.
+     *
+     * @return the duration in milliseconds.
+     */
+    public long getDrainMillis() {
+        return drainMillis;
+    }
+
+    /**
+     * Checks whether the drain deadline passed before the pool was empty.
+     *
+     * @return true if the deadline was exceeded.
+     */
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+
+    /**
+     * Checks whether worker threads had to be interrupted.
+     *
+     * @return true if any worker was interrupted.
+     */
+    public boolean isWorkersInterrupted() {
+        return workersInterrupted;
+    }
+
+    /**
+     * Converts the report into a map suitable for a JSON response body.
+     *
+     * @return the report as a map.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("totalTickets", totalTickets);
+        body.put("ticketsAdded", ticketsAdded);
+        body.put("ticketsSold", ticketsSold);
+        body.put("ticketsInPool", ticketsInPool);
+        body.put("neverReleased", getNeverReleased());
+        body.put("fullyAccounted", isFullyAccounted());
+        body.put("unsoldTickets", unsoldTickets);
+        body.put("drainMillis", drainMillis);
+        body.put("deadlineExceeded", deadlineExceeded);
+        body.put("workersInterrupted", workersInterrupted);
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return "DrainReport" + toMap();
+    }
+}
@@ -0,0 +1,55 @@
+package org.thamindu.realtimeticketing.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The default {@link TicketStateIndex}: a {@code ConcurrentHashMap} from ticket ID to state.
+ *
+ * <p><strong>Rationale:</strong> A concurrent hash index makes looking up, refunding and
+ * requeuing a specific ticket O(1) without holding the pool's monitor, and costs nothing to set up
+ * for small events.</p>
+ */
+public class HeapTicketStateIndex implements TicketStateIndex {
+
+    /**
+     * Ticket states by ticket ID.
+     */
+    private final Map<String, TicketState> states = new ConcurrentHashMap<>();
+
+    @Override
+    public TicketState get(String ticketId) {
+        return states.get(ticketId);
+    }
+
+    @Override
+    public void put(String ticketId, TicketState state) {
+        states.put(ticketId, state);
+    }
+
+    @Override
+    public boolean replace(String ticketId, TicketState expected, TicketState update) {
+        return states.replace(ticketId, expected, update);
+    }
+
+    @Override
+    public List<String> find(TicketState state, int limit) {
+        List<String> found = new ArrayList<>();
+        for (Map.Entry<String, TicketState> entry : states.entrySet()) {
+            if (found.size() >= limit) {
+                break;
+            }
+            if (entry.getValue() == state) {
+                found.add(entry.getKey());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void clear() {
+        states.clear();
+    }
+}
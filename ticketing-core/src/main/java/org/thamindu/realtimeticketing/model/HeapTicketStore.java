@@ -0,0 +1,57 @@
+package org.thamindu.realtimeticketing.model;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The default {@link TicketStore}: a synchronized {@code LinkedList} of ticket ID strings.
+ *
+ * <p><strong>Rationale:</strong> Simple and fast for typical events, where the pool holds a
+ * modest number of tickets at a time.</p>
+ */
+public class HeapTicketStore implements TicketStore {
+
+    /**
+     * The queued tickets.
+     */
+    private final LinkedList<String> tickets = new LinkedList<>();
+    /**
+     * Synchronized view of the queue, through which every access goes.
+     */
+    private final List<String> synchronizedTickets = Collections.synchronizedList(tickets);
+
+    @Override
+    public void add(String ticketId) {
+        synchronizedTickets.add(ticketId);
+    }
+
+    @Override
+    public void addFirst(String ticketId) {
+        synchronized (synchronizedTickets) {
+            tickets.addFirst(ticketId);
+        }
+    }
+
+    @Override
+    public String removeFirst() {
+        synchronized (synchronizedTickets) {
+            return tickets.removeFirst();
+        }
+    }
+
+    @Override
+    public int size() {
+        return synchronizedTickets.size();
+    }
+
+    @Override
+    public void clear() {
+        synchronizedTickets.clear();
+    }
+
+    @Override
+    public String toString() {
+        return synchronizedTickets.toString();
+    }
+}
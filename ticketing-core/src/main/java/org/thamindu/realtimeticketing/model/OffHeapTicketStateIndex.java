@@ -0,0 +1,254 @@
+package org.thamindu.realtimeticketing.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link TicketStateIndex} that keeps ticket states in direct {@code ByteBuffer}s, outside the
+ * Java heap, paired with the {@link OffHeapTicketStore}.
+ *
+ * <p>The pool numbers its tickets with one sequence across all vendors, so a ticket ID of the form
+ * {@code <base>-<sequence>} is indexed by its sequence number alone. Each sequence has a 4-byte slot
+ * holding the index of the ticket's base, kept once in a dictionary, and its state; slots are
+ * updated with a compare-and-set through a {@code VarHandle}, and buffers are allocated in chunks
+ * the first time a sequence in their range is used. IDs without a sequence number, or whose
+ * sequence is already taken by another base, are kept in a small heap map instead.</p>
+ *
+ * <p><strong>Rationale:</strong> A heap map entry with its ID string costs around 100 bytes per
+ * ticket, every one of which the garbage collector traces, and the index holds every ticket of the
+ * event, not just the queued ones. Here a ticket costs 4 bytes off-heap, so the off-heap store is
+ * not undone by the index beside it.</p>
+ */
+public class OffHeapTicketStateIndex implements TicketStateIndex {
+
+    /**
+     * View of a slot buffer as an array of {@code int}s, supporting atomic access.
+     */
+    private static final VarHandle SLOTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    /**
+     * Number of slots per allocated buffer.
+     */
+    private static final int CHUNK_SLOTS = 1 << 16;
+    /**
+     * Number of chunks needed to cover every sequence number {@link OffHeapTicketStore} recognises.
+     */
+    private static final int MAX_CHUNKS = 999_999_999 / CHUNK_SLOTS + 1;
+    /**
+     * Number of low bits of a slot holding the state.
+     */
+    private static final int STATE_BITS = 2;
+    /**
+     * Ticket states by ordinal, cached to avoid copying {@code TicketState.values()} on every lookup.
+     */
+    private static final TicketState[] STATES = TicketState.values();
+
+    /**
+     * Slot buffers by sequence range, allocated on first use.
+     */
+    private final AtomicReferenceArray<ByteBuffer> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    /**
+     * Index of each distinct ID base.
+     */
+    private final Map<String, Integer> baseIndex = new ConcurrentHashMap<>();
+    /**
+     * Distinct ID bases, by index.
+     */
+    private final List<String> bases = new CopyOnWriteArrayList<>();
+    /**
+     * States of tickets that cannot be kept in a slot.
+     */
+    private final Map<String, TicketState> others = new ConcurrentHashMap<>();
+
+    @Override
+    public TicketState get(String ticketId) {
+        int dash = ticketId.lastIndexOf('-');
+        if (dash < 0 || !OffHeapTicketStore.isSequence(ticketId, dash + 1)) {
+            return others.get(ticketId);
+        }
+        Integer base = baseIndex.get(ticketId.substring(0, dash));
+        ByteBuffer chunk = base == null ? null : chunks.get(sequence(ticketId, dash) / CHUNK_SLOTS);
+        if (chunk != null) {
+            int slot = (int) SLOTS.getVolatile(chunk, offset(sequence(ticketId, dash)));
+            if (slot != 0 && baseOf(slot) == base) {
+                return STATES[slot & ((1 << STATE_BITS) - 1)];
+            }
+        }
+        return others.get(ticketId);
+    }
+
+    @Override
+    public void put(String ticketId, TicketState state) {
+        int dash = ticketId.lastIndexOf('-');
+        if (dash < 0 || !OffHeapTicketStore.isSequence(ticketId, dash + 1)) {
+            others.put(ticketId, state);
+            return;
+        }
+        int base = indexOf(ticketId.substring(0, dash));
+        int sequence = sequence(ticketId, dash);
+        ByteBuffer chunk = chunk(sequence / CHUNK_SLOTS);
+        int offset = offset(sequence);
+        int update = pack(base, state);
+        while (true) {
+            int slot = (int) SLOTS.getVolatile(chunk, offset);
+            if (slot != 0 && baseOf(slot) != base) {
+                others.put(ticketId, state); // The sequence belongs to a ticket of another base.
+                return;
+            }
+            if (SLOTS.compareAndSet(chunk, offset, slot, update)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(String ticketId, TicketState expected, TicketState update) {
+        int dash = ticketId.lastIndexOf('-');
+        if (dash < 0 || !OffHeapTicketStore.isSequence(ticketId, dash + 1)) {
+            return others.replace(ticketId, expected, update);
+        }
+        Integer base = baseIndex.get(ticketId.substring(0, dash));
+        ByteBuffer chunk = base == null ? null : chunks.get(sequence(ticketId, dash) / CHUNK_SLOTS);
+        if (chunk != null) {
+            int offset = offset(sequence(ticketId, dash));
+            int slot = (int) SLOTS.getVolatile(chunk, offset);
+            if (slot != 0 && baseOf(slot) == base) {
+                return slot == pack(base, expected) && SLOTS.compareAndSet(chunk, offset, slot, pack(base, update));
+            }
+        }
+        return others.replace(ticketId, expected, update);
+    }
+
+    @Override
+    public List<String> find(TicketState state, int limit) {
+        List<String> found = new ArrayList<>();
+        for (int c = 0; c < MAX_CHUNKS && found.size() < limit; c++) {
+            ByteBuffer chunk = chunks.get(c);
+            if (chunk == null) {
+                continue;
+            }
+            for (int i = 0; i < CHUNK_SLOTS && found.size() < limit; i++) {
+                int slot = (int) SLOTS.getVolatile(chunk, i * Integer.BYTES);
+                if (slot != 0 && STATES[slot & ((1 << STATE_BITS) - 1)] == state) {
+                    found.add(bases.get(baseOf(slot)) + "-" + (c * CHUNK_SLOTS + i));
+                }
+            }
+        }
+        for (Map.Entry<String, TicketState> entry : others.entrySet()) {
+            if (found.size() >= limit) {
+                break;
+            }
+            if (entry.getValue() == state) {
+                found.add(entry.getKey());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int c = 0; c < MAX_CHUNKS; c++) {
+            chunks.set(c, null);
+        }
+        baseIndex.clear();
+        bases.clear();
+        others.clear();
+    }
+
+    /**
+     * Gets the number of off-heap bytes allocated for slots.
+     *
+     * @return the allocated buffer capacity, in bytes.
+     */
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (int c = 0; c < MAX_CHUNKS; c++) {
+            ByteBuffer chunk = chunks.get(c);
+            bytes += chunk == null ? 0 : chunk.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the index of an ID base, adding it to the dictionary if it is new.
+     *
+     * @param base the ID base.
+     * @return the base's index.
+     */
+    private int indexOf(String base) {
+        Integer index = baseIndex.get(base);
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            return baseIndex.computeIfAbsent(base, b -> {
+                bases.add(b);
+                return bases.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Gets the buffer covering a range of sequence numbers, allocating it on first use.
+     *
+     * @param index the chunk index.
+     * @return the buffer.
+     */
+    private ByteBuffer chunk(int index) {
+        ByteBuffer chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, ByteBuffer.allocateDirect(CHUNK_SLOTS * Integer.BYTES));
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+
+    /**
+     * Parses the sequence number at the end of a ticket ID.
+     *
+     * @param ticketId the ticket ID, known to end in a sequence number.
+     * @param dash     the position of the dash before the sequence number.
+     * @return the sequence number.
+     */
+    private static int sequence(String ticketId, int dash) {
+        return Integer.parseInt(ticketId, dash + 1, ticketId.length(), 10);
+    }
+
+    /**
+     * Gets a sequence number's byte offset within its buffer.
+     *
+     * @param sequence the sequence number.
+     * @return the offset.
+     */
+    private static int offset(int sequence) {
+        return (sequence % CHUNK_SLOTS) * Integer.BYTES;
+    }
+
+    /**
+     * Packs a base index and a state into a slot; never zero, which marks an empty slot.
+     *
+     * @param base  the base index.
+     * @param state the state.
+     * @return the slot value.
+     */
+    private static int pack(int base, TicketState state) {
+        return (base + 1) << STATE_BITS | state.ordinal();
+    }
+
+    /**
+     * Unpacks the base index from an occupied slot.
+     *
+     * @param slot the slot value.
+     * @return the base index.
+     */
+    private static int baseOf(int slot) {
+        return (slot >>> STATE_BITS) - 1;
+    }
+}
@@ -0,0 +1,130 @@
+package org.thamindu.realtimeticketing.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An inclusive range of integer values, stepped from {@code min} to {@code max}.
+ * A range with only {@code min} set holds that single value.
+ *
+ * <p><strong>Rationale:</strong> Sweeps over configuration parameters are described compactly
+ * as ranges and expanded only when the runs are planned.</p>
+ */
+public class ParameterRange {
+
+    /**
+     * The first value.
+     */
+    private int min;
+    /**
+     * The last value; values beyond it are not produced.
+     */
+    private int max;
+    /**
+     * The distance between values.
+     */
+    private int step = 1;
+
+    /**
+     * Default constructor, used when a range is read from a request body.
+     */
+    public ParameterRange() {
+    }
+
+    /**
+     * Constructs a range.
+     *
+     * @param min  the first value.
+     * @param max  the last value.
+     * @param step the distance between values.
+     */
+    public ParameterRange(int min, int max, int step) {
+        this.min = min;
+        this.max = max;
+        this.step = step;
+    }
+
+    /**
+     * Expands the range into its values.
+     *
+     * @return the values from {@code min} to {@code max}, or just {@code min} if {@code max} is not above it.
+     * @throws IllegalArgumentException if {@code min} or {@code step} is not positive.
+     */
+    public List<Integer> values() {
+        if (min <= 0 || step <= 0) {
+            throw new IllegalArgumentException("Range minimum and step must be positive.");
+        }
+        List<Integer> values = new ArrayList<>();
+        for (long value = min; value <= Math.max(min, max); value += step) {
+            values.add((int) value);
+        }
+        return values;
+    }
+
+    /**
+     * Counts the values in the range without expanding it.
+     *
+     * @return the number of values {@link #values()} would produce.
+     * @throws IllegalArgumentException if {@code min} or {@code step} is not positive.
+     */
+    public long size() {
+        if (min <= 0 || step <= 0) {
+            throw new IllegalArgumentException("Range minimum and step must be positive.");
+        }
+        return ((long) Math.max(min, max) - min) / step + 1;
+    }
+
+    /**
+     * Gets the first value.
+     *
+     * @return the first value.
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * Sets the first value.
+     *
+     * @param min the first value.
+     */
+    public void setMin(int min) {
+        this.min = min;
+    }
+
+    /**
+     * Gets the last value.
+     *
+     * @return the last value.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Sets the last value.
+     *
+     * @param max the last value.
+     */
+    public void setMax(int max) {
+        this.max = max;
+    }
+
+    /**
+     * Gets the distance between values.
+     *
+     * @return the distance between values.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Sets the distance between values.
+     *
+     * @param step the distance between values.
+     */
+    public void setStep(int step) {
+        this.step = step;
+    }
+}
@@ -0,0 +1,227 @@
+package org.thamindu.realtimeticketing.model;
+
+import org.thamindu.realtimeticketing.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queues customers waiting asynchronously for a ticket, one lock-free FIFO per priority class.
+ * Waiters within a class are served strictly first-come, first-served; across classes, tickets are
+ * shared by weighted round-robin according to {@link CustomerPriority#getWeight()}.
+ *
+ * <p><strong>Rationale:</strong> Per-class {@code ConcurrentLinkedDeque}s and an atomic round-robin
+ * cursor add priorities without a global lock, so the hand-off path stays lock-free. Wait times
+ * are recorded per class so that fairness and latency can be measured rather than assumed.</p>
+ */
+public class PriorityWaiterQueue {
+
+    /**
+     * A customer waiting for a ticket.
+     */
+    private static final class Waiter {
+        private final CompletableFuture<String> future;
+        private final long enqueuedNanos;
+
+        private Waiter(CompletableFuture<String> future) {
+            this.future = future;
+            this.enqueuedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Priority classes in order of precedence.
+     */
+    private static final CustomerPriority[] CLASSES = CustomerPriority.values();
+
+    /**
+     * One FIFO of waiters per priority class.
+     */
+    private final EnumMap<CustomerPriority, ConcurrentLinkedDeque<Waiter>> queues = new EnumMap<>(CustomerPriority.class);
+    /**
+     * Wait time of served waiters, per priority class.
+     */
+    private final EnumMap<CustomerPriority, LatencyHistogram> waitTimes = new EnumMap<>(CustomerPriority.class);
+    /**
+     * Number of waiters that left without a ticket, per priority class.
+     */
+    private final EnumMap<CustomerPriority, LongAdder> abandoned = new EnumMap<>(CustomerPriority.class);
+    /**
+     * The weighted round-robin order in which classes are offered tickets.
+     */
+    private final CustomerPriority[] schedule;
+    /**
+     * Position in the round-robin schedule.
+     */
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * Constructs an empty queue.
+     */
+    public PriorityWaiterQueue() {
+        for (CustomerPriority priority : CLASSES) {
+            queues.put(priority, new ConcurrentLinkedDeque<>());
+            waitTimes.put(priority, new LatencyHistogram());
+            abandoned.put(priority, new LongAdder());
+        }
+        this.schedule = buildSchedule();
+    }
+
+    /**
+     * Adds a waiter to the back of its class's queue.
+     *
+     * @param priority the waiter's priority class.
+     * @param future   the future to complete with a ticket.
+     */
+    public void offer(CustomerPriority priority, CompletableFuture<String> future) {
+        queues.get(priority).offerLast(new Waiter(future));
+    }
+
+    /**
+     * Completes the next live waiter, chosen by weighted round-robin, with a ticket.
+     * Waiters that were cancelled or timed out are discarded on the way.
+     *
+     * @param ticket the ticket to hand off.
+     * @return true if a waiter accepted the ticket, false if no live waiter remains.
+     */
+    public boolean handOff(String ticket) {
+        int start = Math.floorMod(cursor.getAndIncrement(), schedule.length);
+        if (handOff(schedule[start], ticket)) {
+            return true;
+        }
+        // The scheduled class is empty; fall back to the others in order of precedence.
+        for (CustomerPriority priority : CLASSES) {
+            if (priority != schedule[start] && handOff(priority, ticket)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any waiters are queued, including ones not yet discarded.
+     *
+     * @return true if no waiters are queued.
+     */
+    public boolean isEmpty() {
+        for (CustomerPriority priority : CLASSES) {
+            if (!queues.get(priority).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes every waiter, returning their futures.
+     *
+     * @return the futures of all removed waiters.
+     */
+    public List<CompletableFuture<String>> drain() {
+        List<CompletableFuture<String>> drained = new ArrayList<>();
+        for (CustomerPriority priority : CLASSES) {
+            Waiter waiter;
+            while ((waiter = queues.get(priority).pollFirst()) != null) {
+                drained.add(waiter.future);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Discards waiters that were cancelled or timed out.
+     */
+    public void purge() {
+        for (CustomerPriority priority : CLASSES) {
+            queues.get(priority).removeIf(waiter -> {
+                if (waiter.future.isDone()) {
+                    abandoned.get(priority).increment();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Reports measured service and latency per priority class.
+     *
+     * @return for each class: its weight, queued waiters, tickets served, share of all tickets
+     * served, waiters that gave up, and mean, 99th percentile and maximum wait in milliseconds.
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        long totalServed = 0;
+        for (CustomerPriority priority : CLASSES) {
+            totalServed += waitTimes.get(priority).getCount();
+        }
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        for (CustomerPriority priority : CLASSES) {
+            LatencyHistogram histogram = waitTimes.get(priority);
+            Map<String, Object> classStatistics = new LinkedHashMap<>();
+            classStatistics.put("weight", priority.getWeight());
+            classStatistics.put("waiting", queues.get(priority).size());
+            classStatistics.put("served", histogram.getCount());
+            classStatistics.put("serviceShare", totalServed == 0 ? 0.0 : (double) histogram.getCount() / totalServed);
+            classStatistics.put("abandoned", abandoned.get(priority).sum());
+            classStatistics.put("meanWaitMs", histogram.getMeanNanos() / 1_000_000.0);
+            classStatistics.put("p99WaitMs", histogram.getPercentileNanos(99) / 1_000_000.0);
+            classStatistics.put("maxWaitMs", histogram.getMaxNanos() / 1_000_000.0);
+            statistics.put(priority.name(), classStatistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Completes the oldest live waiter of a class with a ticket.
+     *
+     * @param priority the class to serve.
+     * @param ticket   the ticket to hand off.
+     * @return true if a waiter accepted the ticket.
+     */
+    private boolean handOff(CustomerPriority priority, String ticket) {
+        ConcurrentLinkedDeque<Waiter> queue = queues.get(priority);
+        Waiter waiter;
+        while ((waiter = queue.pollFirst()) != null) {
+            if (waiter.future.complete(ticket)) {
+                waitTimes.get(priority).record(System.nanoTime() - waiter.enqueuedNanos);
+                return true;
+            }
+            abandoned.get(priority).increment();
+        }
+        return false;
+    }
+
+    /**
+     * Builds a smooth weighted round-robin schedule, interleaving classes so that no class
+     * waits longer than necessary for its turn.
+     *
+     * @return the schedule, with each class appearing as many times as its weight.
+     */
+    private static CustomerPriority[] buildSchedule() {
+        int totalWeight = 0;
+        for (CustomerPriority priority : CLASSES) {
+            totalWeight += priority.getWeight();
+        }
+        CustomerPriority[] schedule = new CustomerPriority[totalWeight];
+        int[] current = new int[CLASSES.length];
+        for (int slot = 0; slot < totalWeight; slot++) {
+            int best = 0;
+            for (int i = 0; i < CLASSES.length; i++) {
+                current[i] += CLASSES[i].getWeight();
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= totalWeight;
+            schedule[slot] = CLASSES[best];
+        }
+        return schedule;
+    }
+}
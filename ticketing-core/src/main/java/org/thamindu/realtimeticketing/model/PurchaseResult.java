@@ -0,0 +1,186 @@
+package org.thamindu.realtimeticketing.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents the outcome of a single ticket purchase request.
+ * A result carries the customer, the ticket that was sold (if any) and a status that
+ * the REST layer translates into an HTTP response.
+ *
+ * <p><strong>Rationale:</strong> Keeping the outcome independent of HTTP types lets the
+ * purchase path be completed asynchronously by whichever thread supplies the ticket.</p>
+ */
+public class PurchaseResult {
+
+    /**
+     * Possible outcomes of a purchase request.
+     */
+    public enum Status {
+        /** A ticket was sold to the customer. */
+        PURCHASED,
+        /** No ticket became available before the request timed out. */
+        TIMED_OUT,
+        /** Ticket sales are stopped, so the request could not be served. */
+        UNAVAILABLE,
+        /** The customer has not been admitted from the waiting room. */
+        NOT_ADMITTED,
+        /** The customer has made too many purchase attempts in a short time. */
+        RATE_LIMITED,
+        /** The customer has already bought the maximum number of tickets. */
+        QUOTA_EXCEEDED
+    }
+
+    /**
+     * The outcome of the request.
+     */
+    private final Status status;
+    /**
+     * The customer who made the request.
+     */
+    private final String customerId;
+    /**
+     * The ticket sold to the customer, or null if no ticket was sold.
+     */
+    private final String ticketId;
+    /**
+     * A human-readable description of the outcome.
+     */
+    private final String message;
+    /**
+     * Whether this is the outcome of an earlier request, replayed for a duplicate.
+     */
+    private final boolean replay;
+
+    /**
+     * Constructs a PurchaseResult.
+     *
+     * @param status     the outcome of the request.
+     * @param customerId the customer who made the request.
+     * @param ticketId   the ticket sold to the customer, or null if none was sold.
+     * @param message    a human-readable description of the outcome.
+     */
+    public PurchaseResult(Status status, String customerId, String ticketId, String message) {
+        this(status, customerId, ticketId, message, false);
+    }
+
+    /**
+     * Constructs a PurchaseResult.
+     *
+     * @param status     the outcome of the request.
+     * @param customerId the customer who made the request.
+     * @param ticketId   the ticket sold to the customer, or null if none was sold.
+     * @param message    a human-readable description of the outcome.
+     * @param replay     whether the outcome is replayed from an earlier request.
+     */
+    private PurchaseResult(Status status, String customerId, String ticketId, String message, boolean replay) {
+        this.status = status;
+        this.customerId = customerId;
+        this.ticketId = ticketId;
+        this.message = message;
+        this.replay = replay;
+    }
+
+    /**
+     * Creates a result for a successful purchase.
+     *
+     * @param customerId the customer who bought the ticket.
+     * @param ticketId   the ticket that was sold.
+     * @return a {@code PURCHASED} result.
+     */
+    public static PurchaseResult purchased(String customerId, String ticketId) {
+        return new PurchaseResult(Status.PURCHASED, customerId, ticketId, "Ticket purchased successfully.");
+    }
+
+    /**
+     * Creates a copy of this result to replay for a duplicate request.
+     *
+     * @return the same outcome, marked as a replay.
+     */
+    public PurchaseResult asReplay() {
+        return new PurchaseResult(status, customerId, ticketId, message, true);
+    }
+
+    /**
+     * Gets the outcome of the request.
+     *
+     * @return the status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the customer who made the request.
+     *
+     * @return the customer ID.
+     */
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Gets the ticket sold to the customer.
+     *
+     * @return the ticket ID, or null if no ticket was sold.
+     */
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    /**
+     * Gets the description of the outcome.
+     *
+     * @return the message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Checks whether a ticket was sold.
+     *
+     * @return true if the status is {@code PURCHASED}, false otherwise.
+     */
+    public boolean isPurchased() {
+        return status == Status.PURCHASED;
+    }
+
+    /**
+     * Checks whether this outcome was replayed from an earlier request rather than produced by this one.
+     *
+     * <p><strong>Rationale:</strong> Only the request that claimed a ticket may give it back when its
+     * response cannot be delivered; a replay that undid the sale would take the ticket from a
+     * client that did receive it.</p>
+     *
+     * @return true for a replayed outcome.
+     */
+    public boolean isReplay() {
+        return replay;
+    }
+
+    /**
+     * Converts the result into a response body.
+     *
+     * @return a map of the result's fields, omitting the ticket ID when no ticket was sold.
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("status", status.name());
+        body.put("customerId", customerId);
+        if (ticketId != null) {
+            body.put("ticketId", ticketId);
+        }
+        body.put("message", message);
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return "PurchaseResult{" +
+                "status=" + status +
+                ", customerId=" + customerId +
+                ", ticketId=" + ticketId +
+                "}";
+    }
+}
@@ -0,0 +1,1141 @@
+package org.thamindu.realtimeticketing.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.thamindu.realtimeticketing.util.AggregatingEventLogger;
+import org.thamindu.realtimeticketing.util.EventLogAggregator;
+import org.thamindu.realtimeticketing.util.TicketTracer;
+import org.thamindu.realtimeticketing.util.TicketingEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents the shared ticket pool in the Real-Time Event Ticketing System.
+ * This class acts as a synchronized queue where tickets are added by vendors and retrieved by customers.
+ *
+ * <p><strong>Rationale:</strong> A shared resource like a ticket pool requires thread-safe operations
+ * to ensure data integrity in a concurrent environment. Semaphores and synchronized blocks are
+ * used to manage access and prevent race conditions.</p>
+ */
+public class TicketPool {
+
+    /**
+     * Logger instance for logging events in the TicketPool.
+     */
+    private static final Logger logger = LogManager.getLogger(TicketPool.class);
+    /**
+     * A thread-safe queue to store tickets in the pool.
+     */
+    private final TicketStore tickets;
+    /**
+     * The total number of tickets to be processed.
+     */
+    private int totalTickets; // Total number of tickets to be processed.
+    /**
+     * The maximum capacity of the pool at any given time.
+     */
+    private int maxCapacity; // Maximum capacity of the pool at any given time.
+    /**
+     * The number of tickets available to be added to the pool.
+     */
+    private int ticketsAdded = 0; // Counter for the total number of tickets added.
+    /**
+     * The number of tickets available to be added to the pool.
+     */
+    private int ticketsSold = 0; // Counter for the total number of tickets retrieved (sold).
+    /**
+     * The number of tickets available to be added to the pool.
+     */
+    private int availableTickets = totalTickets; // The Number of tickets remaining to be added.
+    /**
+     * Semaphore to track available tickets for retrieval.
+     */
+    private Semaphore ticketsAvailable; // Semaphore to track available tickets for retrieval.
+    /**
+     * Semaphore to track available space for adding tickets.
+     */
+    private ReducibleSemaphore spaceAvailable; // Semaphore to track available space for adding tickets.
+    /**
+     * Semaphore to track available tickets for retrieval.
+     */
+    private volatile boolean isStopped = false; // Flag to manage simulation state.
+    /**
+     * Whether the pool is draining: vendors may no longer add tickets, but customers may still buy
+     * the tickets already in the pool.
+     */
+    private volatile boolean isDraining = false;
+    /**
+     * Released when the pool starts draining or stops, ending every pacing wait at once.
+     *
+     * <p><strong>Rationale:</strong> Vendors and customers pause between operations. Pausing on
+     * this latch instead of in {@code Thread.sleep} lets a stop wake them immediately, so they never
+     * have to be interrupted in the middle of an operation.</p>
+     */
+    private volatile CountDownLatch haltSignal = new CountDownLatch(1);
+    /**
+     * Callers waiting asynchronously for a ticket, in one lock-free FIFO per priority class.
+     *
+     * <p><strong>Rationale:</strong> Parking a {@code CompletableFuture} instead of a thread lets
+     * servlet or event-loop callers wait for inventory without blocking one thread per waiter.</p>
+     */
+    private final PriorityWaiterQueue waiters = new PriorityWaiterQueue();
+    /**
+     * Number of waiters that were cancelled or timed out since the last purge of the waiter queue.
+     */
+    private final AtomicInteger abandonedWaiters = new AtomicInteger();
+    /**
+     * Number of abandoned waiters tolerated before the waiter queue is purged.
+     */
+    private static final int WAITER_PURGE_THRESHOLD = 1024;
+    /**
+     * Longest pause (in milliseconds) between attempts of a multi-ticket claim.
+     */
+    private static final long MAX_CLAIM_BACKOFF_MS = 50;
+
+    /**
+     * A fair semaphore whose permits can be taken away without waiting, so that a rolled-back
+     * sale can occupy space the pool does not have.
+     */
+    private static final class ReducibleSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        private ReducibleSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+    /**
+     * The state of every ticket released into the pool, keyed by ticket ID; created by the ticket
+     * store, so an off-heap store keeps its states off-heap too.
+     *
+     * <p><strong>Rationale:</strong> An index makes looking up, refunding and requeuing a specific
+     * ticket O(1), even for events with millions of tickets, where searching the queue would be
+     * O(n) and would hold the pool's monitor throughout.</p>
+     */
+    private final TicketStateIndex ticketStates;
+    /**
+     * Receives returned tickets before they re-enter the pool, or null if none is registered.
+     */
+    private volatile TicketReturnListener returnListener;
+    /**
+     * Listeners notified of every sale and refund.
+     */
+    private final List<TicketSaleListener> saleListeners = new CopyOnWriteArrayList<>();
+    /**
+     * Samples ticket lifecycles and purchase latencies; traces nothing until a sample rate is set.
+     */
+    private volatile TicketTracer tracer = new TicketTracer(0);
+    /**
+     * Summarises per-ticket events of this pool, and of the customers buying from it.
+     */
+    private volatile EventLogAggregator eventLog = EventLogAggregator.getDefault();
+    /**
+     * Summarises ticket additions per ticket base instead of logging a line per ticket.
+     */
+    private volatile AggregatingEventLogger addedLog = addedLog(eventLog);
+    /**
+     * Summarises blocking ticket removals per ticket base instead of logging a line per ticket.
+     */
+    private volatile AggregatingEventLogger removedLog = removedLog(eventLog);
+    /**
+     * Incremented whenever the pool's counters change, so that readers can tell cheaply whether
+     * anything changed since they last looked.
+     */
+    private final AtomicLong stateVersion = new AtomicLong();
+
+    /**
+     * Stops the simulation by setting the stopped flag to true.
+     *
+     * <p><strong>Rationale:</strong> A volatile flag ensures consistent visibility across threads,
+     * allowing for safe termination of operations.</p>
+     */
+    public void stopSimulation(){
+        isStopped = true;
+        haltSignal.countDown();
+        // Wake threads parked in addTicket or removeTicket; they see the stopped flag and return.
+        spaceAvailable.release(spaceAvailable.getQueueLength());
+        ticketsAvailable.release(ticketsAvailable.getQueueLength());
+        releaseWaiters();
+    }
+
+    /**
+     * Starts draining the pool: no further tickets are added, but tickets already in the pool can
+     * still be bought, and every pacing wait ends at once so that buyers take them without delay.
+     * Vendors waiting for space are woken and give up.
+     *
+     * <p><strong>Rationale:</strong> Draining before stopping lets in-flight sales complete, so a
+     * stop leaves each ticket either sold or still in the pool, never half-processed.</p>
+     */
+    public void startDrain(){
+        isDraining = true;
+        haltSignal.countDown();
+        spaceAvailable.release(spaceAvailable.getQueueLength());
+    }
+
+    /**
+     * Checks whether the pool is draining.
+     *
+     * @return true after {@link #startDrain()} until the pool is reinitialized.
+     */
+    public boolean isDraining(){
+        return isDraining;
+    }
+
+    /**
+     * Pauses the caller between operations, returning early if the pool starts draining or stops.
+     *
+     * @param millis the longest time to pause, in milliseconds.
+     * @return true if the full pause elapsed, false if it ended early because the pool is draining or stopped.
+     * @throws InterruptedException if the thread is interrupted while paused.
+     */
+    public boolean pace(long millis) throws InterruptedException {
+        return !haltSignal.await(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lists tickets that were released but not sold.
+     *
+     * @param limit the largest number of ticket IDs to return.
+     * @return up to {@code limit} IDs of tickets still available in the pool.
+     */
+    public List<String> getUnsoldTickets(int limit){
+        return ticketStates.find(TicketState.AVAILABLE, limit);
+    }
+
+    /**
+     * Singleton instance of TicketPool.
+     */
+    private static TicketPool instance;
+
+    /**
+     * Constructs a TicketPool with a specified maximum capacity and total tickets.
+     *
+     * @param maxCapacity the maximum number of tickets that can be held in the pool at a time.
+     * @param totalTickets the total number of tickets to be added to the pool.
+     * @throws IllegalArgumentException if the maximum capacity is less than or equal to zero.
+     *
+     * <p><strong>Rationale:</strong> Constructor ensures proper initialization of critical
+     * fields and prevents invalid configurations.</p>
+     */
+    public TicketPool(int maxCapacity, int totalTickets){
+        this(maxCapacity, totalTickets, new HeapTicketStore());
+    }
+
+    /**
+     * Constructs a TicketPool whose queued tickets are kept in the configured type of store.
+     *
+     * @param maxCapacity the maximum number of tickets that can be held in the pool at a time.
+     * @param totalTickets the total number of tickets to be added to the pool.
+     * @param storeType {@code offheap} to keep queued tickets outside the heap; {@code heap} otherwise.
+     * @throws IllegalArgumentException if the maximum capacity is less than or equal to zero.
+     */
+    public TicketPool(int maxCapacity, int totalTickets, String storeType){
+        this(maxCapacity, totalTickets, TicketStore.create(storeType));
+    }
+
+    /**
+     * Constructs a TicketPool that keeps its queued tickets in the given store.
+     *
+     * @param maxCapacity the maximum number of tickets that can be held in the pool at a time.
+     * @param totalTickets the total number of tickets to be added to the pool.
+     * @param tickets the empty store that will hold queued tickets.
+     * @throws IllegalArgumentException if the maximum capacity is less than or equal to zero.
+     */
+    public TicketPool(int maxCapacity, int totalTickets, TicketStore tickets){
+        if (maxCapacity <= 0) {
+            logger.error("Invalid maximum capacity: {}", maxCapacity);
+            throw new IllegalArgumentException("Max capacity must be greater than zero.");
+        }
+        this.tickets = tickets;
+        this.ticketStates = tickets.createStateIndex();
+        this.maxCapacity = maxCapacity;
+        this.totalTickets = totalTickets;
+        this.availableTickets = totalTickets;
+
+        // Initialize semaphores to control ticket pool access.
+        // Fair semaphores serve blocked threads in arrival order, so no customer starves.
+        this.ticketsAvailable = new Semaphore(0, true); //initially no tickets available
+        this.spaceAvailable = new ReducibleSemaphore(maxCapacity); //initially, all space is available
+        logger.debug("TicketPool instance created"); // Debug: the capacity planner creates thousands.
+    }
+
+    /**
+     * Adds a ticket to the pool.
+     *
+     * @param ticketBase the base identifier for the ticket.
+     * @return true if the ticket was successfully added, false otherwise.
+     *
+     * <p><strong>Rationale:</strong> Synchronization ensures thread-safe ticket addition,
+     * while semaphores prevent overfilling the pool.</p>
+     */
+    public boolean addTicket(String ticketBase){
+        if (isStopped || isDraining) return false;
+        try{
+            //waits for space become available.
+            acquire(spaceAvailable, "space", "permitWait.space");
+
+            TicketingEvents.MonitorHold hold = new TicketingEvents.MonitorHold();
+            String ticketId;
+            synchronized (this){
+                hold.begin();
+                if (isStopped || isDraining) return false; // Exit if the simulation has been stopped or is draining.
+                if (ticketsAdded >= totalTickets){
+                    spaceAvailable.release(); // Release the permit back if no more tickets can be added.
+                    return true;
+                }
+                if (tickets.size() >= maxCapacity){
+                    logger.info("Max capacity reached. Waiting...");
+                    return false;
+                }
+                // Generate a unique ticket ID and add it to the pool.
+                ticketId = ticketBase + "-" + ticketsAdded;
+                tickets.add(ticketId);
+                ticketStates.put(ticketId, TicketState.AVAILABLE);
+                ticketsAdded++;
+                stateVersion.incrementAndGet();
+                addedLog.record(ticketBase, ticketId);
+            }
+            hold.operation = "addTicket";
+            hold.commit();
+            emitAdded(ticketId, false);
+            tracer.ticketAdded(ticketId);
+            ticketsAvailable.release(); // Signal that a ticket is available for retrieval.
+        } catch (InterruptedException e){
+            logger.error("Thread interrupted while waiting to add tickets while waiting to add.");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try{
+            pace(1000);
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt(); // The ticket was added; only the pause was cut short.
+        }
+        return true;
+    }
+
+    /**
+     * Removes a ticket from the pool.
+     *
+     * @return the removed ticket, or null if the pool is empty or stopped.
+     *
+     * <p><strong>Rationale:</strong> Synchronization ensures thread-safe ticket retrieval,
+     * while semaphores prevent retrieving from an empty pool.</p>
+     */
+    public String removeTicket(){
+        if (isStopped) return null;
+        String ticket;
+        long started = tracer.startTimer();
+        try{
+            // Wait for a ticket to become available in the pool.
+            acquire(ticketsAvailable, "tickets", "permitWait.tickets");
+
+            if (isStopped) return null;
+
+            if (ticketsAdded >= totalTickets){
+                ticketsAvailable.release(); // Release the permit back
+            }
+            TicketingEvents.MonitorHold hold = new TicketingEvents.MonitorHold();
+            synchronized (this){
+                hold.begin();
+                if (tickets.isEmpty()){
+                    if (isDraining) return null; // Nothing left to sell and nothing more coming.
+                    logger.info("Ticket pool is empty. Waiting...");
+                }
+                ticket = tickets.removeFirst(); // Remove and return the first ticket in the queue.
+                ticketsSold++;
+                ticketStates.put(ticket, TicketState.SOLD);
+
+                if (availableTickets > 0){
+                    availableTickets --;
+                }
+                stateVersion.incrementAndGet();
+                if (ticket != null) {
+                    removedLog.record(ticket.substring(0, Math.max(0, ticket.lastIndexOf('-'))), ticket);
+                }
+
+            }
+            hold.operation = "removeTicket";
+            hold.commit();
+            emitSold(ticket, "blocking");
+            if (ticket != null){
+                tracer.ticketSold(ticket, "blocking");
+                tracer.stopTimer("purchase.blocking", started);
+            }
+            notifySold(ticket);
+            // Signal that space is now available in the pool.
+            spaceAvailable.release();
+        } catch (InterruptedException e){
+            logger.error("Thread interrupted while waiting to add tickets while waiting to remove.");
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try{
+            pace(1000);
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt(); // The ticket was sold; only the pause was cut short.
+        }
+        return ticket;
+    }
+
+    /**
+     * Offers a ticket to the pool without blocking the caller.
+     * If a customer is already waiting asynchronously, the ticket is handed to the oldest
+     * waiter directly and never enters the queue.
+     *
+     * @param ticketBase the base identifier for the ticket.
+     * @return true if the ticket was handed off or queued, false if the pool is full, stopped
+     * or all tickets have already been released.
+     *
+     * <p><strong>Rationale:</strong> A direct hand-off skips the queue and both semaphores,
+     * so a waiting buyer is served as soon as a vendor supplies a ticket.</p>
+     */
+    public boolean offerTicket(String ticketBase){
+        if (!spaceAvailable.tryAcquire()) {
+            return false; // Pool is full; the vendor may retry later.
+        }
+        String ticketId;
+        synchronized (this){
+            if (isStopped || isDraining || ticketsAdded >= totalTickets){
+                spaceAvailable.release();
+                return false;
+            }
+            ticketId = ticketBase + "-" + ticketsAdded;
+            ticketsAdded++;
+            stateVersion.incrementAndGet();
+        }
+        ticketStates.put(ticketId, TicketState.AVAILABLE);
+        tracer.ticketAdded(ticketId);
+        logger.debug("Ticket offered: {}", ticketId);
+
+        if (handOff(ticketId)){
+            emitAdded(ticketId, true);
+            spaceAvailable.release(); // The ticket never occupied a slot in the pool.
+            return true;
+        }
+        synchronized (this){
+            tickets.add(ticketId);
+        }
+        emitAdded(ticketId, false);
+        ticketsAvailable.release();
+        drainWaiters(); // A waiter may have registered after the hand-off attempt.
+        return true;
+    }
+
+    /**
+     * Requests a ticket as a general-admission customer without blocking the caller.
+     *
+     * @return a future completed with a ticket as soon as one is available, or with {@code null}
+     * if the pool is stopped or reinitialized first. Cancelling the future withdraws the request.
+     */
+    public CompletableFuture<String> requestTicket(){
+        return requestTicket(CustomerPriority.GENERAL);
+    }
+
+    /**
+     * Requests a ticket without blocking the caller.
+     *
+     * @param priority the priority class of the customer.
+     * @return a future completed with a ticket as soon as one is available, or with {@code null}
+     * if the pool is stopped or reinitialized first. Cancelling the future withdraws the request.
+     *
+     * <p><strong>Rationale:</strong> Waiters are parked in lock-free per-class FIFOs and completed by
+     * whichever thread supplies the next ticket, so no thread is held while waiting.</p>
+     */
+    public CompletableFuture<String> requestTicket(CustomerPriority priority){
+        CompletableFuture<String> waiter = new CompletableFuture<>();
+        if (isStopped){
+            waiter.complete(null);
+            return waiter;
+        }
+        TicketTracer tracer = this.tracer;
+        long started = tracer.startTimer();
+        waiter.whenComplete((ticket, error) -> {
+            if (ticket != null){
+                tracer.stopTimer("purchase.async", started);
+            }
+            if (error != null && abandonedWaiters.incrementAndGet() >= WAITER_PURGE_THRESHOLD){
+                abandonedWaiters.set(0);
+                waiters.purge();
+            }
+        });
+        waiters.offer(priority, waiter);
+        if (isStopped){
+            // The pool stopped after the check above and may have released its waiters before this one joined.
+            releaseWaiters();
+            return waiter;
+        }
+        drainWaiters(); // Serve the waiter immediately if tickets are already queued.
+        return waiter;
+    }
+
+    /**
+     * Requests a ticket without blocking the caller, giving up after the specified timeout.
+     *
+     * @param priority the priority class of the customer.
+     * @param timeout the maximum time to wait.
+     * @param unit the unit of the timeout.
+     * @return a future completed with a ticket, or exceptionally with a
+     * {@code TimeoutException} if no ticket became available in time.
+     */
+    public CompletableFuture<String> requestTicket(CustomerPriority priority, long timeout, TimeUnit unit){
+        return requestTicket(priority).orTimeout(timeout, unit);
+    }
+
+    /**
+     * Requests a ticket as a general-admission customer, giving up after the specified timeout.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit the unit of the timeout.
+     * @return a future completed with a ticket, or exceptionally with a
+     * {@code TimeoutException} if no ticket became available in time.
+     */
+    public CompletableFuture<String> requestTicket(long timeout, TimeUnit unit){
+        return requestTicket(CustomerPriority.GENERAL, timeout, unit);
+    }
+
+    /**
+     * Reports service and wait-time statistics for asynchronous waiters, per priority class.
+     *
+     * @return the statistics, keyed by priority class name.
+     */
+    public Map<String, Map<String, Object>> getWaiterStatistics(){
+        return waiters.getStatistics();
+    }
+
+    /**
+     * Removes a ticket from the pool if one is immediately available.
+     *
+     * @return the removed ticket, or null if the pool is empty or stopped.
+     */
+    public String tryRemoveTicket(){
+        if (isStopped || !ticketsAvailable.tryAcquire()){
+            return null;
+        }
+        return takeQueuedTicket();
+    }
+
+    /**
+     * Removes a ticket from the pool, waiting up to the specified time for one to become available.
+     * Unlike {@link #removeTicket()}, the caller is not paused after a successful removal.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit the unit of the timeout.
+     * @return the removed ticket, or null if none became available in time or the pool is stopped.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public String pollTicket(long timeout, TimeUnit unit) throws InterruptedException {
+        long started = tracer.startTimer();
+        if (isStopped || !ticketsAvailable.tryAcquire(timeout, unit)){
+            return null;
+        }
+        String ticket = takeQueuedTicket();
+        if (ticket != null){
+            tracer.stopTimer("purchase.poll", started);
+        }
+        return ticket;
+    }
+
+    /**
+     * Claims several tickets as one all-or-nothing purchase, waiting up to the specified time.
+     * Either every requested ticket is sold to the caller or none is.
+     *
+     * @param count the number of tickets to claim.
+     * @param timeout the maximum time to wait.
+     * @param unit the unit of the timeout.
+     * @return the claimed tickets in queue order, or an empty list if they could not all be claimed
+     * in time, not enough tickets remain, or the pool is stopped.
+     * @throws IllegalArgumentException if the count is not positive or exceeds the pool's capacity,
+     * so that the claim could never succeed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     *
+     * <p><strong>Rationale:</strong> All {@code count} permits are taken in a single
+     * {@code tryAcquire(count)} and the tickets are dequeued in one short synchronized block, so no
+     * lock is held while waiting and a partial claim is simply handed back. The claim retries with
+     * a non-queuing {@code tryAcquire} and a short backoff instead of queuing on the fair semaphore,
+     * because a queued multi-permit request would stall every single-ticket buyer behind it.</p>
+     */
+    public List<String> claimTickets(int count, long timeout, TimeUnit unit) throws InterruptedException {
+        if (count <= 0 || count > maxCapacity){
+            throw new IllegalArgumentException("Ticket count must be between 1 and the pool capacity (" + maxCapacity + ").");
+        }
+        long started = tracer.startTimer();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long backoffMillis = 1;
+        while (!isStopped){
+            synchronized (this){
+                if (totalTickets - ticketsSold < count){
+                    return List.of(); // Not enough tickets left to ever satisfy the claim.
+                }
+            }
+            if (ticketsAvailable.tryAcquire(count)){
+                List<String> claimed = takeQueuedTickets(count);
+                if (claimed != null){
+                    tracer.stopTimer("purchase.claim", started);
+                    return claimed;
+                }
+            }
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0){
+                break;
+            }
+            Thread.sleep(Math.min(backoffMillis, remainingMillis));
+            backoffMillis = Math.min(backoffMillis * 2, MAX_CLAIM_BACKOFF_MS);
+        }
+        return List.of();
+    }
+
+    /**
+     * Takes several queued tickets at once and records their sale. The caller must hold
+     * {@code count} {@code ticketsAvailable} permits, which are all given back if fewer than
+     * {@code count} tickets are queued.
+     *
+     * @param count the number of tickets to take.
+     * @return the sold tickets, or null if not enough tickets were queued.
+     */
+    private List<String> takeQueuedTickets(int count){
+        List<String> claimed = new ArrayList<>(count);
+        TicketingEvents.MonitorHold hold = new TicketingEvents.MonitorHold();
+        synchronized (this){
+            hold.begin();
+            if (tickets.size() >= count){
+                for (int i = 0; i < count; i++){
+                    String ticket = tickets.removeFirst();
+                    ticketStates.put(ticket, TicketState.SOLD);
+                    claimed.add(ticket);
+                }
+                ticketsSold += count;
+                availableTickets = Math.max(0, availableTickets - count);
+                stateVersion.incrementAndGet();
+            }
+        }
+        hold.operation = "claimTickets";
+        hold.commit();
+        if (claimed.isEmpty()){
+            ticketsAvailable.release(count);
+            return null;
+        }
+        for (String ticket : claimed){
+            emitSold(ticket, "claim");
+            tracer.ticketSold(ticket, "claim");
+            notifySold(ticket);
+        }
+        spaceAvailable.release(count);
+        logger.debug("Tickets claimed together: {}", claimed);
+        return claimed;
+    }
+
+    /**
+     * Takes the first queued ticket and records the sale. The caller must hold a
+     * {@code ticketsAvailable} permit, which is given back if the queue turns out to be empty.
+     *
+     * @return the sold ticket, or null if the queue was empty.
+     */
+    private String takeQueuedTicket(){
+        String ticket = pollQueuedTicket();
+        if (ticket == null){
+            ticketsAvailable.release();
+            return null;
+        }
+        recordSale(ticket);
+        spaceAvailable.release();
+        return ticket;
+    }
+
+    /**
+     * Refunds a sold ticket, returning it to inventory. The ticket is offered first to the
+     * registered {@link TicketReturnListener}, then to the next asynchronous waiter, and only
+     * otherwise queued behind the tickets already in the pool.
+     *
+     * @param ticketId the ticket to refund.
+     * @return true if the ticket was returned to inventory, false if it is unknown, not sold,
+     * already refunded, refused by a {@link TicketSaleListener} (for example because it has been
+     * used at the gate), or the pool is full or stopped.
+     *
+     * <p><strong>Rationale:</strong> The ticket index is claimed with a compare-and-set from
+     * {@code SOLD} to {@code AVAILABLE}, so concurrent refunds of the same ticket cannot both succeed,
+     * and the requeue then follows the same path as a vendor's {@code offerTicket}.</p>
+     */
+    public boolean refundTicket(String ticketId){
+        if (isStopped || !unsell(ticketId)){
+            return false;
+        }
+        logger.info("Ticket refunded: {}", ticketId);
+        if (handBack(ticketId)){
+            return true;
+        }
+        if (!spaceAvailable.tryAcquire()){
+            // No room to requeue it; the sale stands.
+            synchronized (this){
+                ticketsSold++;
+                availableTickets--;
+                stateVersion.incrementAndGet();
+            }
+            ticketStates.put(ticketId, TicketState.SOLD);
+            notifySold(ticketId);
+            return false;
+        }
+        synchronized (this){
+            tickets.add(ticketId);
+        }
+        ticketsAvailable.release();
+        drainWaiters();
+        return true;
+    }
+
+    /**
+     * Undoes the sale of a ticket that never reached its buyer, such as a reservation that was
+     * withdrawn or failed, or a purchase whose response could not be delivered. Unlike
+     * {@link #refundTicket(String)}, the ticket is returned even if vendors have filled the pool or
+     * the pool has stopped: it goes to the {@link TicketReturnListener} or the next asynchronous
+     * waiter if there is one, and otherwise back to the head of the queue.
+     *
+     * @param ticketId the ticket whose sale is undone.
+     * @return true if the ticket was returned to inventory, false if it is unknown, not sold,
+     * already returned, or refused by a {@link TicketSaleListener} because it has been used.
+     *
+     * <p><strong>Rationale:</strong> A rollback that could fail would leave the ticket sold to
+     * nobody. A ticket requeued into a full pool takes a space permit it does not have, leaving the
+     * count of free space negative, so vendors wait until a sale makes room for it again and the
+     * pool exceeds its capacity by at most the tickets rolled back.</p>
+     */
+    public boolean rollbackSale(String ticketId){
+        if (!unsell(ticketId)){
+            return false;
+        }
+        logger.info("Sale of ticket {} rolled back.", ticketId);
+        if (!isStopped && handBack(ticketId)){
+            return true;
+        }
+        if (!spaceAvailable.tryAcquire()){
+            spaceAvailable.reducePermits(1); // Over capacity until a sale frees a space.
+        }
+        synchronized (this){
+            tickets.addFirst(ticketId); // It was sold first, so it is sold first again.
+        }
+        ticketsAvailable.release();
+        drainWaiters();
+        return true;
+    }
+
+    /**
+     * Marks a sold ticket available again and updates the counters, unless a
+     * {@link TicketSaleListener} refuses because the ticket has been used.
+     *
+     * @param ticketId the ticket to take back.
+     * @return true if the ticket is available again, false if it was not sold or was refused.
+     */
+    private boolean unsell(String ticketId){
+        if (!ticketStates.replace(ticketId, TicketState.SOLD, TicketState.AVAILABLE)){
+            return false;
+        }
+        List<TicketSaleListener> allowed = new ArrayList<>();
+        for (TicketSaleListener listener : saleListeners){
+            if (!listener.onRefundRequested(ticketId)){
+                // The sale stands: restore the ticket for the listeners that had already let it go.
+                ticketStates.put(ticketId, TicketState.SOLD);
+                allowed.forEach(previous -> previous.onTicketSold(ticketId));
+                logger.info("Refund of ticket {} refused.", ticketId);
+                return false;
+            }
+            allowed.add(listener);
+        }
+        synchronized (this){
+            ticketsSold--;
+            availableTickets++;
+            stateVersion.incrementAndGet();
+        }
+        tracer.ticketAdded(ticketId);
+        for (TicketSaleListener listener : saleListeners){
+            listener.onTicketRefunded(ticketId);
+        }
+        return true;
+    }
+
+    /**
+     * Hands a ticket taken back from a buyer to the {@link TicketReturnListener} or the next
+     * asynchronous waiter, selling it again.
+     *
+     * @param ticketId the ticket taken back.
+     * @return true if it was handed over, false if it must be queued.
+     */
+    private boolean handBack(String ticketId){
+        TicketReturnListener listener = returnListener;
+        if (listener != null && listener.onTicketReturned(ticketId)){
+            recordSale(ticketId); // Handed over directly; it never re-enters the pool.
+            return true;
+        }
+        return handOff(ticketId);
+    }
+
+    /**
+     * Registers the listener that receives returned tickets before they re-enter the pool.
+     *
+     * @param returnListener the listener, or null to remove it.
+     */
+    public void setReturnListener(TicketReturnListener returnListener){
+        this.returnListener = returnListener;
+    }
+
+    /**
+     * Registers a listener to be notified of every sale and refund.
+     *
+     * @param listener the listener to add.
+     */
+    public void addSaleListener(TicketSaleListener listener){
+        saleListeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered sale listener.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeSaleListener(TicketSaleListener listener){
+        saleListeners.remove(listener);
+    }
+
+    /**
+     * Looks up the state of a ticket.
+     *
+     * @param ticketId the ticket to look up.
+     * @return the ticket's state, or null if no such ticket was released into the pool.
+     */
+    public TicketState getTicketState(String ticketId){
+        return ticketStates.get(ticketId);
+    }
+
+    /**
+     * Replaces the tracer that samples ticket lifecycles and purchase latencies.
+     *
+     * @param tracer the new tracer.
+     */
+    public void setTracer(TicketTracer tracer){
+        this.tracer = tracer;
+    }
+
+    /**
+     * Gets the tracer that samples ticket lifecycles and purchase latencies.
+     *
+     * @return the tracer.
+     */
+    public TicketTracer getTracer(){
+        return tracer;
+    }
+
+    /**
+     * Replaces the aggregator that summarises per-ticket log events.
+     *
+     * @param eventLog the new aggregator.
+     */
+    public void setEventLog(EventLogAggregator eventLog){
+        this.addedLog = addedLog(eventLog);
+        this.removedLog = removedLog(eventLog);
+        this.eventLog = eventLog;
+    }
+
+    /**
+     * Gets the aggregator that summarises per-ticket log events.
+     *
+     * @return the aggregator.
+     */
+    public EventLogAggregator getEventLog(){
+        return eventLog;
+    }
+
+    /**
+     * Gets the aggregating logger of ticket additions.
+     *
+     * @param eventLog the aggregator that owns it.
+     * @return the aggregating logger.
+     */
+    private static AggregatingEventLogger addedLog(EventLogAggregator eventLog){
+        return eventLog.logger(logger, "Tickets added for {}: {} in last {}", "Ticket added for {}: {}");
+    }
+
+    /**
+     * Gets the aggregating logger of blocking ticket removals.
+     *
+     * @param eventLog the aggregator that owns it.
+     * @return the aggregating logger.
+     */
+    private static AggregatingEventLogger removedLog(EventLogAggregator eventLog){
+        return eventLog.logger(logger, "Tickets removed for {}: {} in last {}", "Ticket removed for {}: {}");
+    }
+
+    /**
+     * Hands a ticket to the next live asynchronous waiter, chosen by weighted round-robin
+     * across priority classes and first-come, first-served within a class.
+     *
+     * @param ticket the ticket to hand off.
+     * @return true if a waiter accepted the ticket, false if there were no live waiters.
+     */
+    private boolean handOff(String ticket){
+        if (waiters.handOff(ticket)){
+            recordSale(ticket);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Serves queued tickets to asynchronous waiters until either side runs out.
+     *
+     * <p><strong>Rationale:</strong> Both producers and waiters call this after publishing,
+     * so a waiter that registers concurrently with a new ticket is never left parked.</p>
+     */
+    private void drainWaiters(){
+        while (!waiters.isEmpty() && !isStopped){
+            if (!ticketsAvailable.tryAcquire()){
+                return;
+            }
+            String ticket = pollQueuedTicket();
+            if (ticket == null){
+                ticketsAvailable.release();
+                return;
+            }
+            if (!handOff(ticket)){
+                // Every waiter left in the meantime; put the ticket back at the head of the queue.
+                synchronized (this){
+                    tickets.addFirst(ticket);
+                }
+                ticketsAvailable.release();
+                return;
+            }
+            spaceAvailable.release();
+        }
+    }
+
+    /**
+     * Removes the first queued ticket. The caller must hold a {@code ticketsAvailable} permit.
+     *
+     * @return the first queued ticket, or null if the queue is empty.
+     */
+    private synchronized String pollQueuedTicket(){
+        return tickets.isEmpty() ? null : tickets.removeFirst();
+    }
+
+    /**
+     * Updates the sale counters for a ticket handed out through the non-blocking API.
+     *
+     * @param ticket the ticket that was sold.
+     */
+    private void recordSale(String ticket){
+        synchronized (this){
+            ticketsSold++;
+            if (availableTickets > 0){
+                availableTickets--;
+            }
+            ticketStates.put(ticket, TicketState.SOLD);
+            stateVersion.incrementAndGet();
+        }
+        logger.debug("Ticket sold: {}", ticket);
+        emitSold(ticket, "nonBlocking");
+        tracer.ticketSold(ticket, "nonBlocking");
+        notifySold(ticket);
+    }
+
+    /**
+     * Takes a permit from one of the pool's semaphores, recording the wait as a JFR event and,
+     * if sampled, in the tracer.
+     *
+     * @param semaphore the semaphore to acquire.
+     * @param name      the name of the semaphore in the event.
+     * @param stage     the name of the wait in the tracer.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    private void acquire(Semaphore semaphore, String name, String stage) throws InterruptedException {
+        long started = tracer.startTimer();
+        TicketingEvents.PermitWait wait = new TicketingEvents.PermitWait();
+        wait.begin();
+        semaphore.acquire();
+        wait.semaphore = name;
+        wait.commit();
+        tracer.stopTimer(stage, started);
+    }
+
+    /**
+     * Emits a JFR event for a released ticket if the event is enabled.
+     *
+     * @param ticketId  the released ticket.
+     * @param handedOff true if the ticket went straight to a waiting buyer.
+     */
+    private static void emitAdded(String ticketId, boolean handedOff){
+        TicketingEvents.TicketAdded event = new TicketingEvents.TicketAdded();
+        if (event.isEnabled()){
+            event.ticketId = ticketId;
+            event.handedOff = handedOff;
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits a JFR event for a sold ticket if the event is enabled.
+     *
+     * @param ticketId the sold ticket.
+     * @param path     how the ticket was bought.
+     */
+    private static void emitSold(String ticketId, String path){
+        TicketingEvents.TicketSold event = new TicketingEvents.TicketSold();
+        if (event.isEnabled()){
+            event.ticketId = ticketId;
+            event.path = path;
+            event.commit();
+        }
+    }
+
+    /**
+     * Notifies the sale listeners of a sold ticket.
+     *
+     * @param ticket the ticket that was sold.
+     */
+    private void notifySold(String ticket){
+        for (TicketSaleListener listener : saleListeners){
+            listener.onTicketSold(ticket);
+        }
+    }
+
+    /**
+     * Completes every pending asynchronous waiter with {@code null}.
+     */
+    private void releaseWaiters(){
+        for (CompletableFuture<String> waiter : waiters.drain()){
+            waiter.complete(null);
+        }
+    }
+
+    /**
+     * Returns the total number of tickets.
+     *
+     * @return the total number of tickets.
+     */
+    public int getTotalTickets() {
+        return totalTickets; // Return the `totalTickets` field from your class
+    }
+
+    /**
+     * Returns the number of tickets sold.
+     *
+     * @return the number of tickets sold.
+     */
+    public int getTicketsSold() {
+        return ticketsSold; // Return the number of tickets sold
+    }
+
+    /**
+     * Returns the number of available tickets.
+     *
+     * @return the number of available tickets.
+     */
+    public int getAvailableTickets() {
+        return availableTickets;
+    }
+
+    /**
+     * Sets the number of available tickets.
+     *
+     * @param availableTickets the number of available tickets to set.
+     */
+    public void setAvailableTickets(int availableTickets) {
+        this.availableTickets = availableTickets;
+        stateVersion.incrementAndGet();
+    }
+
+    /**
+     * Gets the version of the pool's state, which changes whenever tickets are added, sold or
+     * refunded, or the pool is reinitialized.
+     *
+     * @return the state version.
+     *
+     * <p><strong>Rationale:</strong> Pollers compare versions instead of the counters themselves,
+     * so an unchanged pool can be reported as unchanged without building a response.</p>
+     */
+    public long getStateVersion() {
+        return stateVersion.get();
+    }
+
+    /**
+     * Returns the number of tickets added to the pool.
+     *
+     * @return the number of tickets added.
+     */
+    public int getTicketsAdded() {
+        return ticketsAdded;
+    }
+
+    /**
+     * Gets the number of tickets currently in the pool.
+     *
+     * @return the number of tickets currently in the pool.
+     */
+    public int getCurrentSize() {
+        int size = tickets.size();
+//        logger.info("Current pool size queried: {}", size);
+        return size;
+    }
+
+    /**
+     * Gets the maximum capacity of the ticket pool.
+     *
+     * @return the maximum capacity of the pool.
+     */
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Checks if the simulation is complete.
+     *
+     * @return true if all tickets have been added and the pool is empty, false otherwise.
+     */
+    public boolean isSimulationComplete(){
+        synchronized (this){
+            return (ticketsAdded >= totalTickets && tickets.isEmpty());
+        }
+    }
+
+    @Override
+    public String toString(){
+        return "TicketPool{" +
+                "tickets=" + tickets +
+                ", maxCapacity=" + maxCapacity +
+                "}";
+    }
+
+    /**
+     * Reinitialized the TicketPool with new parameters.
+     *
+     * @param maxCapacity the new maximum capacity of the pool.
+     * @param totalTickets the new total number of tickets.
+     */
+    public void initialize(int maxCapacity, int totalTickets) {
+        this.maxCapacity = maxCapacity;
+        this.totalTickets = totalTickets;
+        this.tickets.clear();
+        this.ticketStates.clear();
+        this.ticketsAdded = 0;
+        this.ticketsSold = 0;
+        this.availableTickets = totalTickets;
+        this.ticketsAvailable = new Semaphore(0, true);
+        this.spaceAvailable = new ReducibleSemaphore(maxCapacity);
+        this.isStopped = false;
+        this.isDraining = false;
+        this.haltSignal = new CountDownLatch(1);
+        this.tracer.clear();
+        this.stateVersion.incrementAndGet();
+        releaseWaiters();
+//        logger.info("TicketPool reinitialized: Max Capacity = {}, Total Tickets = {}", maxCapacity, totalTickets);
+    }
+}
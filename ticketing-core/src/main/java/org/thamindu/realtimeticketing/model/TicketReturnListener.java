@@ -0,0 +1,20 @@
+package org.thamindu.realtimeticketing.model;
+
+/**
+ * Receives tickets returned to a {@link TicketPool}, for example by a refund, before they
+ * re-enter general inventory.
+ *
+ * <p><strong>Rationale:</strong> A hook lets a sold-out waitlist claim returned tickets directly,
+ * without the pool depending on how or where interested customers are kept.</p>
+ */
+public interface TicketReturnListener {
+
+    /**
+     * Offers a returned ticket to the listener.
+     *
+     * @param ticketId the returned ticket.
+     * @return true if the listener took the ticket, in which case it counts as sold again;
+     * false to let the ticket go back into the pool.
+     */
+    boolean onTicketReturned(String ticketId);
+}
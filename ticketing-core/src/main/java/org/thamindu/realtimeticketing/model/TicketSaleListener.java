@@ -0,0 +1,40 @@
+package org.thamindu.realtimeticketing.model;
+
+/**
+ * Receives notice of every ticket a {@link TicketPool} sells or takes back through a refund.
+ * Listeners are called on the selling thread, outside the pool's monitor, so they must be quick
+ * and must not block.
+ *
+ * <p><strong>Rationale:</strong> Indexes that live outside the pool, such as the gate check-in
+ * set, stay current as sales happen without the pool knowing what they are.</p>
+ */
+public interface TicketSaleListener {
+
+    /**
+     * Called after a ticket has been sold.
+     *
+     * @param ticketId the sold ticket.
+     */
+    void onTicketSold(String ticketId);
+
+    /**
+     * Called before a sold ticket is refunded, so that a listener can refuse the refund, for
+     * example because the ticket has already been used. A listener that allows it should stop
+     * treating the ticket as valid; if another listener refuses, {@link #onTicketSold(String)} is
+     * called again to restore it.
+     *
+     * @param ticketId the ticket to be refunded.
+     * @return true to allow the refund; false to refuse it.
+     */
+    default boolean onRefundRequested(String ticketId) {
+        return true;
+    }
+
+    /**
+     * Called after a sold ticket has been refunded and is no longer valid for its buyer.
+     *
+     * @param ticketId the refunded ticket.
+     */
+    default void onTicketRefunded(String ticketId) {
+    }
+}
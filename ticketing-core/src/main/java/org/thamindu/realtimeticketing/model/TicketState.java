@@ -0,0 +1,14 @@
+package org.thamindu.realtimeticketing.model;
+
+/**
+ * Lifecycle states of a ticket released into a {@link TicketPool}.
+ *
+ * <p><strong>Rationale:</strong> Tracking each ticket's state in a concurrent index lets a refund
+ * find and claim a specific ticket with a single compare-and-set, without scanning the queue.</p>
+ */
+public enum TicketState {
+    /** The ticket is in the pool, or being handed to a buyer, and can be sold. */
+    AVAILABLE,
+    /** The ticket has been sold and can be refunded. */
+    SOLD
+}
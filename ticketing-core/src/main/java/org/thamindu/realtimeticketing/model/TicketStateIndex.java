@@ -0,0 +1,54 @@
+package org.thamindu.realtimeticketing.model;
+
+import java.util.List;
+
+/**
+ * The state of every ticket released into a {@link TicketPool}, keyed by ticket ID.
+ * Implementations must be safe for concurrent use.
+ *
+ * <p><strong>Rationale:</strong> The index holds an entry for every ticket of the event, sold or
+ * not, so it is by far the pool's largest structure. Keeping it behind a small interface lets each
+ * {@link TicketStore} pair itself with an index kept in the same kind of memory.</p>
+ */
+public interface TicketStateIndex {
+
+    /**
+     * Gets the state of a ticket.
+     *
+     * @param ticketId the ticket.
+     * @return the ticket's state, or null if it was never released into the pool.
+     */
+    TicketState get(String ticketId);
+
+    /**
+     * Sets the state of a ticket.
+     *
+     * @param ticketId the ticket.
+     * @param state    the new state.
+     */
+    void put(String ticketId, TicketState state);
+
+    /**
+     * Atomically moves a ticket from one state to another.
+     *
+     * @param ticketId the ticket.
+     * @param expected the state the ticket must be in.
+     * @param update   the state to move it to.
+     * @return true if the ticket was in the expected state and was moved.
+     */
+    boolean replace(String ticketId, TicketState expected, TicketState update);
+
+    /**
+     * Lists tickets in a given state.
+     *
+     * @param state the state.
+     * @param limit the largest number of ticket IDs to return.
+     * @return up to {@code limit} IDs of tickets in the state.
+     */
+    List<String> find(TicketState state, int limit);
+
+    /**
+     * Removes every ticket.
+     */
+    void clear();
+}
@@ -0,0 +1,74 @@
+package org.thamindu.realtimeticketing.model;
+
+/**
+ * The queue of unsold tickets held by a {@link TicketPool}, in first-in, first-out order.
+ * Implementations must be safe for concurrent use.
+ *
+ * <p><strong>Rationale:</strong> Keeping the storage behind a small interface lets very large
+ * events swap the default heap list for a compact off-heap store without changing how the pool
+ * hands out tickets.</p>
+ */
+public interface TicketStore {
+
+    /**
+     * Adds a ticket at the back of the queue.
+     *
+     * @param ticketId the ticket to add.
+     */
+    void add(String ticketId);
+
+    /**
+     * Adds a ticket at the front of the queue, so that it is the next one removed.
+     *
+     * @param ticketId the ticket to add.
+     */
+    void addFirst(String ticketId);
+
+    /**
+     * Removes the ticket at the front of the queue.
+     *
+     * @return the removed ticket.
+     * @throws java.util.NoSuchElementException if the store is empty.
+     */
+    String removeFirst();
+
+    /**
+     * Gets the number of tickets in the store.
+     *
+     * @return the number of tickets.
+     */
+    int size();
+
+    /**
+     * Checks whether the store holds no tickets.
+     *
+     * @return true if the store is empty.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes every ticket.
+     */
+    void clear();
+
+    /**
+     * Creates the index that tracks the state of every ticket a pool using this store releases.
+     *
+     * @return a new, empty index kept in the same kind of memory as this store; a {@link HeapTicketStateIndex} by default.
+     */
+    default TicketStateIndex createStateIndex() {
+        return new HeapTicketStateIndex();
+    }
+
+    /**
+     * Creates a store of the named type.
+     *
+     * @param type {@code offheap} for an {@link OffHeapTicketStore}; anything else for a {@link HeapTicketStore}.
+     * @return a new, empty store.
+     */
+    static TicketStore create(String type) {
+        return "offheap".equalsIgnoreCase(type) ? new OffHeapTicketStore() : new HeapTicketStore();
+    }
+}
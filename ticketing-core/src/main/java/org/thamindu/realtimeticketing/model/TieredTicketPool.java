@@ -0,0 +1,177 @@
+package org.thamindu.realtimeticketing.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the inventory of one event split into price tiers (for example, general and premium seats).
+ * Each tier is an independent {@link TicketPool} with its own capacity, queue, semaphores and counters.
+ *
+ * <p>This is a library API of the core engine: programs that embed it build the tiers and run
+ * {@link Vendor}s and {@link Customer}s against them directly. The web application and its
+ * simulation sessions sell from a single untiered pool and do not use it.</p>
+ *
+ * <p><strong>Rationale:</strong> Buyers of different tiers never contend on the same monitor or
+ * semaphores, so a rush on cheap seats does not slow down premium sales and each tier scales with
+ * its own demand. Aggregate figures are sums over a handful of tiers and stay cheap to read.</p>
+ */
+public class TieredTicketPool {
+
+    /**
+     * Logger instance for logging tiered pool events.
+     */
+    private static final Logger logger = LogManager.getLogger(TieredTicketPool.class);
+
+    /**
+     * How long (in milliseconds) a customer waits on their preferred tier when every tier is empty.
+     */
+    private static final long PREFERRED_TIER_WAIT_MS = 1000;
+
+    /**
+     * Tier pools by tier name.
+     */
+    private final Map<String, TicketPool> tiers = new ConcurrentHashMap<>();
+    /**
+     * Tier names in the order they were added.
+     */
+    private volatile List<String> tierNames = List.of();
+
+    /**
+     * Adds a tier with its own capacity and ticket total.
+     *
+     * @param name         the tier name, e.g. {@code PREMIUM}.
+     * @param maxCapacity  the maximum number of tickets the tier holds at a time.
+     * @param totalTickets the total number of tickets released into the tier.
+     * @return this pool, for chaining.
+     * @throws IllegalArgumentException if a tier with the same name already exists or the capacity is invalid.
+     */
+    public synchronized TieredTicketPool addTier(String name, int maxCapacity, int totalTickets) {
+        if (tiers.containsKey(name)) {
+            throw new IllegalArgumentException("Tier already exists: " + name);
+        }
+        tiers.put(name, new TicketPool(maxCapacity, totalTickets));
+        List<String> names = new ArrayList<>(tierNames);
+        names.add(name);
+        tierNames = Collections.unmodifiableList(names);
+        logger.info("Tier {} added with capacity {} and {} tickets.", name, maxCapacity, totalTickets);
+        return this;
+    }
+
+    /**
+     * Gets the pool of a tier.
+     *
+     * @param name the tier name.
+     * @return the tier's ticket pool.
+     * @throws IllegalArgumentException if the tier does not exist.
+     */
+    public TicketPool getTier(String name) {
+        TicketPool tier = tiers.get(name);
+        if (tier == null) {
+            throw new IllegalArgumentException("Unknown tier: " + name);
+        }
+        return tier;
+    }
+
+    /**
+     * Gets the tier names in the order they were added.
+     *
+     * @return the tier names.
+     */
+    public List<String> getTierNames() {
+        return tierNames;
+    }
+
+    /**
+     * Removes a ticket from the first tier in the preference list that has one.
+     * If every preferred tier is empty, waits briefly on the first tier that is not sold out.
+     *
+     * @param preference the tiers the customer will accept, most preferred first.
+     * @return the removed ticket, or null if no preferred tier had a ticket in time.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public String removeTicket(List<String> preference) throws InterruptedException {
+        for (String name : preference) {
+            String ticket = getTier(name).tryRemoveTicket();
+            if (ticket != null) {
+                return ticket;
+            }
+        }
+        for (String name : preference) {
+            TicketPool tier = getTier(name);
+            if (!tier.isSimulationComplete()) {
+                return tier.pollTicket(PREFERRED_TIER_WAIT_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+        return null; // Every preferred tier is sold out.
+    }
+
+    /**
+     * Stops every tier.
+     */
+    public void stopSimulation() {
+        tiers.values().forEach(TicketPool::stopSimulation);
+    }
+
+    /**
+     * Gets the total number of tickets across all tiers.
+     *
+     * @return the total number of tickets.
+     */
+    public int getTotalTickets() {
+        return tiers.values().stream().mapToInt(TicketPool::getTotalTickets).sum();
+    }
+
+    /**
+     * Gets the number of tickets sold across all tiers.
+     *
+     * @return the number of tickets sold.
+     */
+    public int getTicketsSold() {
+        return tiers.values().stream().mapToInt(TicketPool::getTicketsSold).sum();
+    }
+
+    /**
+     * Gets the number of tickets still available across all tiers.
+     *
+     * @return the number of available tickets.
+     */
+    public int getAvailableTickets() {
+        return tiers.values().stream().mapToInt(TicketPool::getAvailableTickets).sum();
+    }
+
+    /**
+     * Checks whether every tier is sold out.
+     *
+     * @return true if all tickets in all tiers have been added and sold.
+     */
+    public boolean isSimulationComplete() {
+        return tiers.values().stream().allMatch(TicketPool::isSimulationComplete);
+    }
+
+    /**
+     * Reports the counters of each tier.
+     *
+     * @return for each tier, in order: total tickets, tickets sold, tickets available and tickets in the pool.
+     */
+    public Map<String, Map<String, Integer>> getStatus() {
+        Map<String, Map<String, Integer>> status = new LinkedHashMap<>();
+        for (String name : tierNames) {
+            TicketPool tier = tiers.get(name);
+            Map<String, Integer> tierStatus = new LinkedHashMap<>();
+            tierStatus.put("totalTickets", tier.getTotalTickets());
+            tierStatus.put("ticketsSold", tier.getTicketsSold());
+            tierStatus.put("ticketsAvailable", tier.getAvailableTickets());
+            tierStatus.put("currentSize", tier.getCurrentSize());
+            status.put(name, tierStatus);
+        }
+        return status;
+    }
+}
@@ -2,6 +2,7 @@ package org.thamindu.realtimeticketing.model;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.thamindu.realtimeticketing.util.TicketingEvents;
 
 /**
  * Represents a Vendor in the ticketing system.
@@ -30,6 +31,10 @@ public class Vendor implements Runnable{
      * The ticket pool to which the vendor releases tickets.
      */
     private final TicketPool ticketPool;
+    /**
+     * The prefix of the IDs of tickets released by this vendor.
+     */
+    private final String ticketBase;
     /**
      * A volatile flag to safely manage the running state of the Vendor thread.
      * Volatile ensures visibility of changes across threads.
@@ -54,10 +59,34 @@ public class Vendor implements Runnable{
         this.vendorId = vendorId;
         this.ticketsReleaseRate = ticketsReleaseRate;
         this.ticketPool = ticketPool;
+        this.ticketBase = "Vendor-" + vendorId + "-Ticket";
 
         logger.info("Vendor {} initialised with release rate: {}", vendorId,ticketsReleaseRate);
     }
 
+    /**
+     * Constructs a Vendor that releases tickets into one price tier of a tiered pool.
+     *
+     * @param vendorId the unique identifier for the vendor
+     * @param ticketsReleaseRate the rate at which the vendor releases tickets
+     * @param tieredTicketPool the tiered pool holding the event's inventory
+     * @param tier the name of the tier the vendor releases tickets into
+     * @throws IllegalArgumentException if the ticket release rate is not positive or the tier does not exist
+     */
+    public Vendor(String vendorId, int ticketsReleaseRate, TieredTicketPool tieredTicketPool, String tier) {
+        if (ticketsReleaseRate <= 0){
+            logger.error("Invalid ticketReleaseRate for Vendor: {}", ticketsReleaseRate);
+            throw new IllegalArgumentException("Ticket release rate must be positive.");
+        }
+
+        this.vendorId = vendorId;
+        this.ticketsReleaseRate = ticketsReleaseRate;
+        this.ticketPool = tieredTicketPool.getTier(tier);
+        this.ticketBase = "Vendor-" + vendorId + "-" + tier + "-Ticket";
+
+        logger.info("Vendor {} initialised with release rate {} for tier {}", vendorId, ticketsReleaseRate, tier);
+    }
+
     /**
      * Stops the vendor from releasing tickets by setting the running flag to false.
      * <p>
@@ -77,24 +106,34 @@ public class Vendor implements Runnable{
     @Override
     public void run(){
         logger.info("Vendor {} started.", vendorId);
-        while (isRunning){
-            try{
-                for (int i = 0; i < ticketsReleaseRate; i++) {
-                    String ticketBase = "Vendor-" + vendorId + "-Ticket";
-                    // Attempt to add a ticket to the pool; stop if the pool is full.
-                    if (!ticketPool.addTicket(ticketBase)){
-                        logger.info("Vendor {} has completed ticket addition.", vendorId);
+        TicketingEvents.Worker worker = new TicketingEvents.Worker();
+        worker.begin();
+        try {
+            while (isRunning){
+                try{
+                    for (int i = 0; i < ticketsReleaseRate; i++) {
+                        // Attempt to add a ticket to the pool; stop if the pool is full.
+                        if (!ticketPool.addTicket(ticketBase)){
+                            logger.info("Vendor {} has completed ticket addition.", vendorId);
+                            break;
+                        }
+                    }
+                    // Pause between ticket releases to simulate real-time operations; stop once the pool drains or stops.
+                    if (!ticketPool.pace(1000)){
                         break;
                     }
+                }catch (InterruptedException e){
+                    logger.error("Vendor {} interrupted.", vendorId);
+                    Thread.currentThread().interrupt();
+                    break;
                 }
-                // Pause between ticket releases to simulate real-time operations.
-                Thread.sleep(1000);
-            }catch (InterruptedException e){
-                logger.error("Vendor {} interrupted.", vendorId);
-                Thread.currentThread().interrupt();
-                break;
             }
+        } finally {
+            // Committed even if the loop throws, so the recording shows every worker's lifetime.
+            logger.info("Vendor {} stopped.", vendorId);
+            worker.workerId = vendorId;
+            worker.role = "vendor";
+            worker.commit();
         }
-        logger.info("Vendor {} stopped.", vendorId);
     }
 }
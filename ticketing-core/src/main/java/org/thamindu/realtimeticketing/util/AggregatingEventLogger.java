@@ -0,0 +1,189 @@
+package org.thamindu.realtimeticketing.util;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs frequent per-ticket events as periodic summaries, such as
+ * {@code "Customer Customer-3 retrieved 512 tickets in last 1.0s"}.
+ *
+ * <p>Each thread counts its events per key, such as a vendor or customer, in a buffer of its own.
+ * The daemon thread of the owning {@link EventLogAggregator} drains every buffer once per interval
+ * and logs one summary line per key that had events; a key with no events over a whole interval is
+ * dropped from its buffer, so buffers hold only the keys currently active. Per-ticket detail lines are logged at DEBUG when the logger has DEBUG enabled,
+ * and otherwise at INFO for a sample of tickets chosen by the same ID hash as
+ * {@link TicketTracer}, so every line of a sampled ticket is kept.</p>
+ *
+ * <p><strong>Rationale:</strong> Formatting and writing a line per ticket costs more than selling
+ * it at high throughput. Counting an event is a map lookup and an uncontended increment, and the
+ * number of lines written grows with time and the number of active vendors and customers rather
+ * than with the number of tickets sold.</p>
+ */
+public final class AggregatingEventLogger {
+
+    /**
+     * Default interval between summaries, in milliseconds.
+     */
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    /**
+     * Marks a count the flusher has dropped from its buffer; a recorder that finds it starts a new count.
+     */
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    /**
+     * The logger the summaries and detail lines are written to.
+     */
+    private final Logger logger;
+    /**
+     * Summary message, with parameters for the key, the count and the elapsed time.
+     */
+    private final String summaryMessage;
+    /**
+     * Detail message, with parameters for the key and the ticket ID.
+     */
+    private final String detailMessage;
+    /**
+     * Chooses the tickets whose detail lines are logged at INFO.
+     */
+    private final TicketTracer detailSampler;
+    /**
+     * Buffers of the threads that have recorded events.
+     */
+    private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+    /**
+     * The calling thread's buffer.
+     */
+    private final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(this::newBuffer);
+    /**
+     * Time of the last summary, from {@link System#nanoTime()}; used only by the flusher.
+     */
+    private long lastFlushNanos = System.nanoTime();
+
+    /**
+     * Creates an aggregating logger; use {@link EventLogAggregator#logger} so that it is flushed.
+     *
+     * @param logger         the logger the summaries and detail lines are written to.
+     * @param summaryMessage the summary message, with {@code {}} parameters for the key, the count and the elapsed time.
+     * @param detailMessage  the per-ticket message, with {@code {}} parameters for the key and the ticket ID.
+     * @param detailSampler  chooses the tickets whose detail lines are logged at INFO.
+     */
+    AggregatingEventLogger(Logger logger, String summaryMessage, String detailMessage, TicketTracer detailSampler) {
+        this.logger = logger;
+        this.summaryMessage = summaryMessage;
+        this.detailMessage = detailMessage;
+        this.detailSampler = detailSampler;
+    }
+
+    /**
+     * Records an event for a ticket, logging its detail line if DEBUG is enabled or the ticket is
+     * sampled.
+     *
+     * @param key      what the event is counted under, such as a vendor or customer ID.
+     * @param ticketId the ticket the event is about.
+     */
+    public void record(String key, String ticketId) {
+        Map<String, AtomicLong> counts = buffer.get().counts;
+        while (true) {
+            AtomicLong count = counts.computeIfAbsent(key, k -> new AtomicLong());
+            long current = count.get();
+            if (current == RETIRED) {
+                counts.remove(key, count); // Dropped by the flusher; start a new count.
+            } else if (count.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(detailMessage, key, ticketId);
+        } else if (detailSampler.isSampled(ticketId)) {
+            logger.info(detailMessage, key, ticketId);
+        }
+    }
+
+    /**
+     * Counts the keys held across all thread buffers, including those that have become idle since
+     * the last flush.
+     *
+     * @return the number of keys held.
+     */
+    public int getKeyCount() {
+        int keys = 0;
+        for (Buffer held : buffers) {
+            keys += held.counts.size();
+        }
+        return keys;
+    }
+
+    /**
+     * Creates and registers the calling thread's buffer.
+     *
+     * @return the buffer.
+     */
+    private Buffer newBuffer() {
+        Buffer created = new Buffer(Thread.currentThread());
+        buffers.add(created);
+        return created;
+    }
+
+    /**
+     * Drains every thread's counts and logs one summary line per key with events, dropping the
+     * keys that had none since the last flush and the buffers of threads that have ended.
+     */
+    void flush() {
+        long now = System.nanoTime();
+        Map<String, Long> totals = new TreeMap<>();
+        for (Iterator<Buffer> it = buffers.iterator(); it.hasNext(); ) {
+            Buffer drained = it.next();
+            boolean ended = !drained.owner.isAlive(); // Checked first, so no event follows the drain.
+            for (Map.Entry<String, AtomicLong> entry : drained.counts.entrySet()) {
+                AtomicLong count = entry.getValue();
+                long drainedCount = count.getAndSet(0);
+                if (drainedCount > 0) {
+                    totals.merge(entry.getKey(), drainedCount, Long::sum);
+                } else if (count.compareAndSet(0, RETIRED)) {
+                    drained.counts.remove(entry.getKey(), count); // Idle for a whole interval.
+                }
+            }
+            if (ended) {
+                it.remove();
+            }
+        }
+        if (!totals.isEmpty() && logger.isInfoEnabled()) {
+            String elapsed = String.format(Locale.ROOT, "%.1fs", (now - lastFlushNanos) / 1e9);
+            for (Map.Entry<String, Long> total : totals.entrySet()) {
+                logger.info(summaryMessage, total.getKey(), total.getValue(), elapsed);
+            }
+        }
+        lastFlushNanos = now;
+    }
+
+    /**
+     * One thread's event counts.
+     */
+    private static final class Buffer {
+        /**
+         * The thread that records into the buffer.
+         */
+        private final Thread owner;
+        /**
+         * Event counts by key, incremented by the owner and reset or retired by the flusher.
+         */
+        private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+        /**
+         * Constructs a buffer.
+         *
+         * @param owner the thread that records into the buffer.
+         */
+        Buffer(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log entries to a console stream and a log file from one background thread.
+ *
+ * <p>Callers record only the time, level and message of an entry and enqueue it on a
+ * {@link BoundedMpscQueue}; the writer thread formats the entries and writes them in batches, one
+ * console print and one file append per batch, keeping the file open. When the queue is full,
+ * callers wait or the entry is dropped, according to the {@link LoggerUtil.OverflowPolicy}, and
+ * the writer reports how many were dropped. {@link #shutdown(long)} writes the entries still
+ * queued and stops the writer.</p>
+ *
+ * <p><strong>Rationale:</strong> Formatting the timestamp and writing to the console and file are
+ * the costly parts of logging; doing them on the writer leaves callers a clock read and one
+ * lock-free enqueue. Entries are stamped to the second, so the writer formats each second once and
+ * reuses the text for every entry within it.</p>
+ */
+public final class AsyncLogWriter {
+
+    /**
+     * Formats entry timestamps as {@code yyyy-MM-dd HH:mm:ss} in the system time zone.
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * Largest number of entries written in one batch.
+     */
+    private static final int BATCH_SIZE = 512;
+
+    /**
+     * How long the idle writer sleeps before checking the queue again, should a wake-up be missed.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * An entry waiting to be formatted and written.
+     */
+    private static final class Entry {
+        private final long timeMillis;
+        private final String level;
+        private final String message;
+
+        private Entry(long timeMillis, String level, String message) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Entries waiting to be written.
+     */
+    private final BoundedMpscQueue<Entry> queue;
+    /**
+     * The stream every batch is printed to.
+     */
+    private final PrintStream console;
+    /**
+     * The file every batch is appended to.
+     */
+    private final String logFile;
+    /**
+     * Number of entries enqueued.
+     */
+    private final AtomicLong enqueued = new AtomicLong();
+    /**
+     * Number of entries dropped and not yet reported by the writer.
+     */
+    private final AtomicLong unreportedDrops = new AtomicLong();
+    /**
+     * Number of entries dropped since the writer was created.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+    /**
+     * The background thread that writes the entries.
+     */
+    private final Thread writer;
+    /**
+     * What callers do when the queue is full.
+     */
+    private volatile LoggerUtil.OverflowPolicy overflowPolicy;
+    /**
+     * Number of entries written; updated only by the writer.
+     */
+    private volatile long written;
+    /**
+     * True while the writer is idle and waiting to be woken.
+     */
+    private volatile boolean writerIdle;
+    /**
+     * True once shutdown has begun; the writer then empties the queue and exits.
+     */
+    private volatile boolean shuttingDown;
+    /**
+     * The second of the last timestamp formatted; used only by the writer.
+     */
+    private long formattedSecond = Long.MIN_VALUE;
+    /**
+     * The text of the last timestamp formatted; used only by the writer.
+     */
+    private String formattedTimestamp;
+
+    /**
+     * Creates a writer and starts its thread.
+     *
+     * @param capacity       the largest number of entries waiting to be written.
+     * @param overflowPolicy what callers do when the queue is full.
+     * @param console        the stream every entry is printed to.
+     * @param logFile        the file every entry is appended to.
+     */
+    public AsyncLogWriter(int capacity, LoggerUtil.OverflowPolicy overflowPolicy, PrintStream console, String logFile) {
+        this.queue = new BoundedMpscQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.console = console;
+        this.logFile = logFile;
+        this.writer = new Thread(this::writeEntries, "logger-util-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Sets what callers do when the queue is full.
+     *
+     * @param overflowPolicy the overflow policy.
+     */
+    public void setOverflowPolicy(LoggerUtil.OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Gets what callers do when the queue is full.
+     *
+     * @return the overflow policy.
+     */
+    public LoggerUtil.OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Queues an entry to be written. Once shutdown has begun, entries are dropped.
+     *
+     * @param level   the log level, e.g. INFO.
+     * @param message the message.
+     * @return true if the entry was queued, false if it was dropped.
+     */
+    public boolean log(String level, String message) {
+        Entry entry = new Entry(System.currentTimeMillis(), level, message);
+        if (shuttingDown) {
+            return drop();
+        }
+        if (!queue.offer(entry)) {
+            if (overflowPolicy == LoggerUtil.OverflowPolicy.DROP) {
+                return drop();
+            }
+            do {
+                if (shuttingDown || !writer.isAlive()) {
+                    return drop(); // Nothing will make room once the writer is stopping.
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            } while (!queue.offer(entry));
+        }
+        enqueued.incrementAndGet();
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every entry queued before the call has been written.
+     *
+     * @param timeoutMillis how long to wait, in milliseconds.
+     * @return true if the entries were written in time.
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (written < target) {
+            if (System.nanoTime() - deadline >= 0 || !writer.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting entries, writes those still queued and stops the writer.
+     *
+     * @param timeoutMillis how long to wait for the writer, in milliseconds.
+     * @return true if the writer finished in time.
+     */
+    public boolean shutdown(long timeoutMillis) {
+        shuttingDown = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !writer.isAlive();
+    }
+
+    /**
+     * Gets the number of entries dropped because the queue was full or the writer was shut down.
+     *
+     * @return the number of entries dropped.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Counts a dropped entry.
+     *
+     * @return false, for the caller to return.
+     */
+    private boolean drop() {
+        dropped.incrementAndGet();
+        unreportedDrops.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Formats an entry's timestamp, reusing the text of the last second formatted.
+     *
+     * @param timeMillis the entry time, in milliseconds since the epoch.
+     * @return the timestamp text.
+     */
+    private String timestamp(long timeMillis) {
+        long second = Math.floorDiv(timeMillis, 1000);
+        if (second != formattedSecond) {
+            formattedSecond = second;
+            formattedTimestamp = DATE_TIME_FORMATTER.format(Instant.ofEpochSecond(second));
+        }
+        return formattedTimestamp;
+    }
+
+    /**
+     * Body of the writer thread: drains the queue in batches, formatting each entry and writing
+     * each batch to the console in one call and to the log file, which stays open, until shutdown
+     * empties the queue.
+     */
+    private void writeEntries() {
+        Writer file = null;
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            batch.setLength(0);
+            int count = 0;
+            long drops = unreportedDrops.getAndSet(0);
+            if (drops > 0) {
+                batch.append('[').append(timestamp(System.currentTimeMillis())).append("] [WARN] ")
+                        .append(drops).append(" log entries dropped because the queue was full.").append(System.lineSeparator());
+            }
+            Entry entry;
+            while (count < BATCH_SIZE && (entry = queue.poll()) != null) {
+                batch.append('[').append(timestamp(entry.timeMillis)).append("] [").append(entry.level).append("] ")
+                        .append(entry.message).append(System.lineSeparator());
+                count++;
+            }
+            if (batch.length() > 0) {
+                //Logs to console
+                console.print(batch);
+                console.flush();
+                //Log to file
+                try {
+                    if (file == null) {
+                        file = new BufferedWriter(new FileWriter(logFile, true));
+                    }
+                    file.append(batch);
+                    file.flush();
+                } catch (IOException e) {
+                    System.err.println("Error writing to log file: " + e.getMessage());
+                    file = null; // Reopen on the next batch.
+                }
+                written += count;
+                continue;
+            }
+            if (shuttingDown && queue.isEmpty()) {
+                break;
+            }
+            writerIdle = true;
+            if (queue.isEmpty() && !shuttingDown) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            writerIdle = false;
+        }
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                System.err.println("Error closing log file: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent Bloom filter over 64-bit hashes.
+ * Adding sets bits with atomic OR operations and checking only reads, so neither ever blocks.
+ *
+ * <p><strong>Rationale:</strong> A "definitely not present" answer costs a few bit reads, which
+ * makes the filter a cheap first check in front of a larger index, for example to turn away
+ * forged ticket IDs before probing the check-in set.</p>
+ */
+public class BloomFilter {
+
+    /**
+     * The filter's bits.
+     */
+    private final AtomicLongArray bits;
+    /**
+     * Number of bits; always a power of two.
+     */
+    private final long bitCount;
+    /**
+     * Number of bits set per entry.
+     */
+    private final int hashCount;
+
+    /**
+     * Constructs a Bloom filter sized for the specified number of entries.
+     *
+     * @param expectedEntries the number of entries the filter must hold.
+     * @param bitsPerEntry    bits reserved per entry; 10 gives a false-positive rate of about 1%.
+     * @throws IllegalArgumentException if either argument is not positive.
+     */
+    public BloomFilter(int expectedEntries, int bitsPerEntry) {
+        if (expectedEntries <= 0 || bitsPerEntry <= 0) {
+            throw new IllegalArgumentException("Expected entries and bits per entry must be positive.");
+        }
+        long requested = Math.max(64, (long) expectedEntries * bitsPerEntry);
+        this.bitCount = Long.highestOneBit(requested - 1) << 1;
+        this.bits = new AtomicLongArray((int) (bitCount / Long.SIZE));
+        this.hashCount = Math.max(1, (int) Math.round(bitsPerEntry * Math.log(2)));
+    }
+
+    /**
+     * Constructs a Bloom filter from previously written bits.
+     *
+     * @param bits      the filter's bits.
+     * @param hashCount the number of bits set per entry.
+     */
+    private BloomFilter(AtomicLongArray bits, int hashCount) {
+        this.bits = bits;
+        this.bitCount = (long) bits.length() * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Reads a Bloom filter written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from.
+     * @return the filter.
+     * @throws IOException if the filter cannot be read or is malformed.
+     */
+    public static BloomFilter readFrom(DataInput in) throws IOException {
+        int hashCount = in.readInt();
+        int words = in.readInt();
+        if (hashCount <= 0 || words <= 0 || Integer.bitCount(words) != 1) {
+            throw new IOException("Malformed Bloom filter.");
+        }
+        AtomicLongArray bits = new AtomicLongArray(words);
+        for (int i = 0; i < words; i++) {
+            bits.set(i, in.readLong());
+        }
+        return new BloomFilter(bits, hashCount);
+    }
+
+    /**
+     * Writes the filter, so that it can be persisted beside the data it summarises.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the filter cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(hashCount);
+        out.writeInt(bits.length());
+        for (int i = 0; i < bits.length(); i++) {
+            out.writeLong(bits.get(i));
+        }
+    }
+
+    /**
+     * Adds an entry.
+     *
+     * @param hash the entry's 64-bit hash.
+     */
+    public void add(long hash) {
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (h1 + i * h2) & (bitCount - 1);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits.get(word) & mask) == 0) {
+                bits.accumulateAndGet(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+
+    /**
+     * Checks whether an entry may have been added.
+     *
+     * @param hash the entry's 64-bit hash.
+     * @return false if the entry was definitely never added; true if it probably was.
+     */
+    public boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (h1 + i * h2) & (bitCount - 1);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,203 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * A concurrent cache whose entries expire after a fixed time-to-live and whose size is bounded.
+ *
+ * <p>Entries are kept in a {@code ConcurrentHashMap} for O(1) lookups and in a lock-free FIFO in
+ * insertion order. Because every entry has the same time-to-live, insertion order is also
+ * expiry order, so eviction only ever inspects the head of the FIFO.</p>
+ *
+ * <p><strong>Rationale:</strong> A cache fed by millions of keys per hour must stay memory-bounded
+ * without a background sweeper or a global lock; evicting from the head on each insert keeps
+ * the cost of every operation amortized O(1).</p>
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of cached values.
+ */
+public class BoundedExpiringCache<K, V> {
+
+    /**
+     * A cached value with its key and expiry time.
+     *
+     * @param <K> the type of the key.
+     * @param <V> the type of the value.
+     */
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAtNanos;
+
+        private Entry(K key, V value, long expiresAtNanos) {
+            this.key = key;
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Index of live entries by key.
+     */
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    /**
+     * Entries in insertion (and therefore expiry) order.
+     */
+    private final ConcurrentLinkedQueue<Entry<K, V>> expiryQueue = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of entries in the expiry queue, which bounds the memory held by the cache.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+    /**
+     * Whether a thread is currently evicting from the head of the expiry queue.
+     */
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    /**
+     * The maximum number of entries held at once.
+     */
+    private final int maxEntries;
+    /**
+     * The time-to-live of each entry, in nanoseconds.
+     */
+    private final long ttlNanos;
+    /**
+     * The source of the current time, in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Constructs a cache using the system clock.
+     *
+     * @param maxEntries the maximum number of entries held at once.
+     * @param ttlMillis  the time-to-live of each entry, in milliseconds.
+     * @throws IllegalArgumentException if either argument is not positive.
+     */
+    public BoundedExpiringCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * Constructs a cache with the specified clock.
+     *
+     * @param maxEntries the maximum number of entries held at once.
+     * @param ttlMillis  the time-to-live of each entry, in milliseconds.
+     * @param clock      the source of the current time, in nanoseconds.
+     * @throws IllegalArgumentException if either size or time-to-live is not positive.
+     */
+    public BoundedExpiringCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Cache size and time-to-live must be positive.");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the live value for a key.
+     *
+     * @param key the key to look up.
+     * @return the cached value, or null if absent or expired.
+     */
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, clock.getAsLong())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Associates a value with a key unless a live value is already cached.
+     *
+     * @param key   the key.
+     * @param value the value to cache.
+     * @return the live value already cached for the key, or null if {@code value} was stored.
+     */
+    public V putIfAbsent(K key, V value) {
+        long now = clock.getAsLong();
+        Entry<K, V> entry = new Entry<>(key, value, now + ttlNanos);
+        while (true) {
+            Entry<K, V> existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                expiryQueue.offer(entry);
+                queued.incrementAndGet();
+                evict(now);
+                return null;
+            }
+            if (!isExpired(existing, now)) {
+                return existing.value;
+            }
+            entries.remove(key, existing); // Stale entry; retry the insert.
+        }
+    }
+
+    /**
+     * Removes a key only if it is currently mapped to the given value.
+     *
+     * @param key   the key.
+     * @param value the value expected to be cached.
+     * @return true if the entry was removed.
+     */
+    public boolean remove(K key, V value) {
+        Entry<K, V> entry = entries.get(key);
+        return entry != null && entry.value == value && entries.remove(key, entry);
+    }
+
+    /**
+     * Returns the number of entries currently indexed, including any that have expired
+     * but have not been evicted yet.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Evicts expired entries and, if the cache is over capacity, the oldest entries.
+     * Only one thread evicts at a time; others skip the pass rather than wait.
+     *
+     * @param now the current time, in nanoseconds.
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Entry<K, V> head;
+            while ((head = expiryQueue.peek()) != null) {
+                boolean stale = entries.get(head.key) != head; // Already replaced or removed.
+                if (!stale && !isExpired(head, now) && queued.get() <= maxEntries) {
+                    return;
+                }
+                expiryQueue.poll(); // Single consumer, so this is the entry just inspected.
+                queued.decrementAndGet();
+                if (!stale) {
+                    entries.remove(head.key, head);
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Checks whether an entry has expired.
+     *
+     * @param entry the entry.
+     * @param now   the current time, in nanoseconds.
+     * @return true if the entry's time-to-live has elapsed.
+     */
+    private boolean isExpired(Entry<K, V> entry, long now) {
+        return now - entry.expiresAtNanos >= 0;
+    }
+}
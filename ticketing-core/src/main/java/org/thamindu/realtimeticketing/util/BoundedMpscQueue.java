@@ -0,0 +1,140 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue for many producer threads and a single consumer thread.
+ *
+ * <p>Elements live in a ring of slots, each with a sequence number saying whose turn it is. A
+ * producer claims the next position with one compare-and-set on the tail, stores its element and
+ * then publishes it by advancing the slot's sequence; the consumer takes a slot only once its
+ * sequence shows it published, and hands it back to producers one lap ahead. A full queue is seen
+ * by a producer as a slot not yet handed back, and {@link #offer(Object)} returns false rather
+ * than waiting.</p>
+ *
+ * <p><strong>Rationale:</strong> Producers never block each other or the consumer: the only shared
+ * write is the tail, and a producer delayed between claiming and publishing holds up only the
+ * consumer, which resumes as soon as that one slot is published. The ring is allocated once, so
+ * enqueueing allocates nothing.</p>
+ *
+ * @param <E> the type of the elements.
+ */
+public class BoundedMpscQueue<E> {
+
+    /**
+     * The slots.
+     */
+    private final AtomicReferenceArray<E> elements;
+    /**
+     * Sequence number of each slot: equal to a position when the slot is free for the producer of
+     * that position, and one more when the element at that position is published.
+     */
+    private final AtomicLongArray sequences;
+    /**
+     * Mask that maps a position to its slot.
+     */
+    private final int mask;
+    /**
+     * The next position producers claim.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * The next position the consumer takes; written only by the consumer.
+     */
+    private volatile long head;
+
+    /**
+     * Constructs an empty queue.
+     *
+     * @param capacity the largest number of elements held; rounded up to a power of two of at least 2.
+     * @throws IllegalArgumentException if the capacity is not positive or exceeds 2<sup>30</sup>.
+     */
+    public BoundedMpscQueue(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+        }
+        // At least two slots, so a published slot is never mistaken for one free on the next lap.
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Gets the largest number of elements the queue holds.
+     *
+     * @return the capacity.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds an element if there is room. Safe to call from any thread.
+     *
+     * @param element the element; not null.
+     * @return true if the element was added; false if the queue is full.
+     * @throws NullPointerException if the element is null.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1); // Publishes the element.
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // The slot still holds the element from one lap behind.
+            }
+            // Another producer claimed the position first; try the next one.
+        }
+    }
+
+    /**
+     * Removes the oldest published element. Must be called only from the consumer thread.
+     *
+     * @return the element, or null if the queue is empty or the next element is not yet published.
+     */
+    public E poll() {
+        long position = head;
+        int slot = (int) position & mask;
+        if (sequences.get(slot) != position + 1) {
+            return null;
+        }
+        E element = elements.get(slot);
+        elements.lazySet(slot, null);
+        sequences.set(slot, position + mask + 1); // Hands the slot to the producer one lap ahead.
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Estimates the number of elements held, including any claimed but not yet published.
+     *
+     * @return the number of elements.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, capacity()));
+    }
+
+    /**
+     * Checks whether the queue holds no elements, including any claimed but not yet published.
+     *
+     * @return true if the queue is empty.
+     */
+    public boolean isEmpty() {
+        return tail.get() == head;
+    }
+}
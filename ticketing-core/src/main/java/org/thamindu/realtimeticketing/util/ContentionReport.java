@@ -0,0 +1,123 @@
+package org.thamindu.realtimeticketing.util;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarises a Java Flight Recorder recording into a contention report: where threads of the
+ * ticketing engine spent time waiting, grouped by cause and ranked by total time.
+ *
+ * <p>Causes are semaphore permit waits and pool monitor holds (from {@link TicketingEvents}),
+ * contended monitor entry, writes to log files, and GC pauses (from the JDK's own events). Only
+ * events whose duration is time spent waiting or holding a lock count; instant events such as
+ * tickets added or sold do not.
+ * Run it on a recording with {@code java -cp <core classes> org.thamindu.realtimeticketing.util.ContentionReport recording.jfr}.</p>
+ *
+ * <p><strong>Rationale:</strong> A latency spike has several candidate causes that each show up
+ * in a different JFR view. Putting their totals and tails side by side answers "which one" at a
+ * glance, without opening a recording in a GUI.</p>
+ */
+public class ContentionReport {
+
+    /**
+     * Name prefix of the ticketing engine's JFR events.
+     */
+    private static final String EVENT_PREFIX = "org.thamindu.realtimeticketing.";
+
+    /**
+     * Prevents instantiation; this class only provides static methods.
+     */
+    private ContentionReport() {
+    }
+
+    /**
+     * Reads a recording and summarises its waits by cause.
+     *
+     * @param recording the JFR recording file.
+     * @return per cause, the number of events and their total, mean, 99th-percentile and maximum
+     * durations in milliseconds, ordered by total duration, longest first.
+     * @throws IOException if the recording cannot be read.
+     */
+    public static Map<String, Map<String, Object>> summarize(Path recording) throws IOException {
+        Map<String, LatencyHistogram> causes = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            String cause = causeOf(event);
+            if (cause != null) {
+                Duration duration = event.getEventType().getName().equals("jdk.GarbageCollection")
+                        ? event.getDuration("sumOfPauses")
+                        : event.getDuration();
+                causes.computeIfAbsent(cause, key -> new LatencyHistogram()).record(duration.toNanos());
+            }
+        }
+
+        List<Map.Entry<String, LatencyHistogram>> ranked = new ArrayList<>(causes.entrySet());
+        ranked.sort((a, b) -> Long.compare(b.getValue().getTotalNanos(), a.getValue().getTotalNanos()));
+        Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : ranked) {
+            LatencyHistogram histogram = entry.getValue();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", histogram.getCount());
+            summary.put("totalMs", histogram.getTotalNanos() / 1e6);
+            summary.put("meanMs", histogram.getMeanNanos() / 1e6);
+            summary.put("p99Ms", histogram.getPercentileNanos(99) / 1e6);
+            summary.put("maxMs", histogram.getMaxNanos() / 1e6);
+            report.put(entry.getKey(), summary);
+        }
+        return report;
+    }
+
+    /**
+     * Prints the contention report of a recording.
+     *
+     * @param args the path of the JFR recording file.
+     * @throws IOException if the recording cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ContentionReport <recording.jfr>");
+            System.exit(2);
+        }
+        Map<String, Map<String, Object>> report = summarize(Path.of(args[0]));
+        System.out.printf("Contention report for %s%n", args[0]);
+        System.out.printf("%-64s %10s %12s %10s %10s %10s%n", "cause", "count", "total ms", "mean ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Map<String, Object>> entry : report.entrySet()) {
+            Map<String, Object> summary = entry.getValue();
+            System.out.printf("%-64s %10d %12.3f %10.3f %10.3f %10.3f%n", entry.getKey(), summary.get("count"),
+                    summary.get("totalMs"), summary.get("meanMs"), summary.get("p99Ms"), summary.get("maxMs"));
+        }
+    }
+
+    /**
+     * Classifies an event by the cause of waiting it represents.
+     *
+     * @param event a recorded event.
+     * @return the cause, or null if the event's duration is not time spent waiting or holding a lock.
+     */
+    private static String causeOf(RecordedEvent event) {
+        String name = event.getEventType().getName();
+        return switch (name) {
+            case EVENT_PREFIX + "PermitWait" -> "permit wait: " + event.getString("semaphore");
+            case EVENT_PREFIX + "MonitorHold" -> "monitor hold: " + event.getString("operation");
+            case "jdk.JavaMonitorEnter" -> {
+                RecordedClass monitorClass = event.getClass("monitorClass");
+                yield "monitor contention: " + (monitorClass == null ? "unknown" : monitorClass.getName());
+            }
+            case "jdk.FileWrite" -> {
+                String path = event.getString("path");
+                yield path != null && path.endsWith(".log") ? "logging: " + path : null;
+            }
+            case "jdk.GarbageCollection" -> "gc pause: " + event.getString("name");
+            default -> null;
+        };
+    }
+}
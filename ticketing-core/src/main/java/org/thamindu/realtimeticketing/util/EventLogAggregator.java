@@ -0,0 +1,103 @@
+package org.thamindu.realtimeticketing.util;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns a set of {@link AggregatingEventLogger}s and the daemon thread that logs their summaries
+ * once per interval, together with the sample of tickets whose detail lines are kept at INFO.
+ *
+ * <p>Code that is not given an aggregator uses {@link #getDefault()}, which summarises every
+ * {@value AggregatingEventLogger#DEFAULT_INTERVAL_MILLIS} ms and samples no detail lines; an
+ * application that wants other settings creates its own and hands it to the pools it builds.</p>
+ *
+ * <p><strong>Rationale:</strong> The interval and sample rate are fixed per instance rather than
+ * set on static fields, so two application contexts, or two tests, configuring their logging
+ * differently cannot change each other's.</p>
+ */
+public final class EventLogAggregator implements AutoCloseable {
+
+    /**
+     * The aggregator used by code that is not given one.
+     */
+    private static final EventLogAggregator DEFAULT = new EventLogAggregator(AggregatingEventLogger.DEFAULT_INTERVAL_MILLIS, 0);
+
+    /**
+     * Aggregating loggers by logger name and summary message, so pools sharing this aggregator
+     * share their loggers too.
+     */
+    private final Map<String, AggregatingEventLogger> loggers = new ConcurrentHashMap<>();
+    /**
+     * The daemon thread that logs the summaries.
+     */
+    private final ScheduledExecutorService flusher;
+    /**
+     * Chooses the tickets whose detail lines are logged at INFO.
+     */
+    private final TicketTracer detailSampler;
+
+    /**
+     * Creates an aggregator and starts its flusher.
+     *
+     * @param intervalMillis   how often summaries are logged, in milliseconds; positive.
+     * @param detailSampleRate the fraction of tickets whose detail lines are logged at INFO, from 0 to 1.
+     * @throws IllegalArgumentException if the interval is not positive or the rate is outside [0, 1].
+     */
+    public EventLogAggregator(long intervalMillis, double detailSampleRate) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("The summary interval must be positive.");
+        }
+        this.detailSampler = new TicketTracer(detailSampleRate);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-log-aggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the aggregator used by code that is not given one.
+     *
+     * @return the default aggregator.
+     */
+    public static EventLogAggregator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the aggregating logger for a logger and summary message, creating it on first use.
+     *
+     * @param logger         the logger the summaries and detail lines are written to.
+     * @param summaryMessage the summary message, with {@code {}} parameters for the key, the count
+     *                       and the elapsed time, such as {@code "Customer {} retrieved {} tickets in last {}"}.
+     * @param detailMessage  the per-ticket message, with {@code {}} parameters for the key and the
+     *                       ticket ID, such as {@code "Customer {} retrieved ticket: {}"}.
+     * @return the aggregating logger.
+     */
+    public AggregatingEventLogger logger(Logger logger, String summaryMessage, String detailMessage) {
+        return loggers.computeIfAbsent(logger.getName() + '\n' + summaryMessage,
+                key -> new AggregatingEventLogger(logger, summaryMessage, detailMessage, detailSampler));
+    }
+
+    /**
+     * Logs the summaries of every aggregating logger now, for example before shutting down.
+     */
+    public synchronized void flush() {
+        loggers.values().forEach(AggregatingEventLogger::flush);
+    }
+
+    /**
+     * Stops the flusher and logs the counts of the last, partial interval.
+     */
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flush();
+    }
+}
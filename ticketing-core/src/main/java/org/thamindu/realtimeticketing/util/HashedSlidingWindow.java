@@ -0,0 +1,252 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free sliding-window counter for an unbounded number of keys.
+ *
+ * <p>Keys are hashed into a small table of slots, as in a count-min sketch. Each slot holds one
+ * timestamp bucket per sub-interval of the window, and each bucket packs its interval number and
+ * its count into a single {@code long} that is updated with compare-and-set. Two independent hash
+ * rows, each indexed by a differently seeded MurmurHash3 of the key's UTF-8 bytes, are kept and the
+ * smaller estimate is used, so a key is only over-counted when it collides with busy keys in both
+ * rows.</p>
+ *
+ * <p><strong>Rationale:</strong> Memory is fixed by the table size rather than by the number of
+ * distinct keys, and every check touches a constant number of cells, so the counter stays O(1)
+ * per call and bounded in memory with millions of keys. Collisions can only make a limit stricter,
+ * never looser, so the sketch suits short windows such as rate limits, where few keys are active
+ * at once; exact long-window limits belong in a {@link SlidingWindowQuota}.</p>
+ */
+public class HashedSlidingWindow {
+
+    /**
+     * Number of independent hash rows.
+     */
+    private static final int ROWS = 2;
+    /**
+     * Number of low bits of a cell that hold the count; the remaining bits hold the interval number.
+     */
+    private static final int COUNT_BITS = 20;
+    /**
+     * Mask selecting the count from a cell.
+     */
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    /**
+     * Seeds that make the hash rows independent.
+     */
+    private static final int[] SEEDS = {0x9E3779B9, 0x7F4A7C15};
+
+    /**
+     * Packed (interval, count) cells, laid out as [row][slot][bucket].
+     */
+    private final AtomicLongArray cells;
+    /**
+     * Number of slots per row; always a power of two.
+     */
+    private final int slots;
+    /**
+     * Number of buckets the window is divided into.
+     */
+    private final int buckets;
+    /**
+     * Length of each bucket, in milliseconds.
+     */
+    private final long bucketMillis;
+
+    /**
+     * Constructs a sliding window counter.
+     *
+     * @param slots       the number of slots per hash row; rounded up to a power of two.
+     * @param windowMillis the length of the sliding window, in milliseconds.
+     * @param buckets     the number of buckets the window is divided into.
+     * @throws IllegalArgumentException if any argument is not positive.
+     */
+    public HashedSlidingWindow(int slots, long windowMillis, int buckets) {
+        if (slots <= 0 || windowMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("Slots, window and buckets must be positive.");
+        }
+        int size = 1;
+        while (size < slots) {
+            size <<= 1;
+        }
+        this.slots = size;
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.cells = new AtomicLongArray(ROWS * this.slots * buckets);
+    }
+
+    /**
+     * Records one event for a key if doing so keeps it within the limit.
+     *
+     * @param key       the key, e.g. a customer ID.
+     * @param limit     the maximum number of events allowed within the window.
+     * @param nowMillis the current time, in milliseconds.
+     * @return true if the event was recorded, false if the key is already at its limit.
+     */
+    public boolean tryAcquire(String key, int limit, long nowMillis) {
+        long interval = nowMillis / bucketMillis;
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int[] bases = new int[ROWS];
+        // Count in every row first and check afterwards, so concurrent callers cannot both slip
+        // under the limit: a row read before another caller has counted in it would be stale.
+        for (int row = 0; row < ROWS; row++) {
+            bases[row] = base(row, bytes);
+            add(bases[row] + (int) (interval % buckets), interval, 1);
+        }
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) {
+            estimate = Math.min(estimate, sum(bases[row], interval));
+        }
+        if (estimate <= limit) {
+            return true;
+        }
+        for (int row = 0; row < ROWS; row++) {
+            add(bases[row] + (int) (interval % buckets), interval, -1);
+        }
+        return false;
+    }
+
+    /**
+     * Records one event for a key if doing so keeps it within the limit, using the system clock.
+     *
+     * @param key   the key, e.g. a customer ID.
+     * @param limit the maximum number of events allowed within the window.
+     * @return true if the event was recorded, false if the key is already at its limit.
+     */
+    public boolean tryAcquire(String key, int limit) {
+        return tryAcquire(key, limit, System.currentTimeMillis());
+    }
+
+    /**
+     * Removes one previously recorded event for a key, e.g. when the action it counted did not happen.
+     *
+     * @param key       the key.
+     * @param nowMillis the current time, in milliseconds.
+     */
+    public void release(String key, long nowMillis) {
+        long interval = nowMillis / bucketMillis;
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        for (int row = 0; row < ROWS; row++) {
+            add(base(row, bytes) + (int) (interval % buckets), interval, -1);
+        }
+    }
+
+    /**
+     * Estimates the number of events recorded for a key within the window.
+     *
+     * @param key       the key.
+     * @param nowMillis the current time, in milliseconds.
+     * @return the estimated count, which may over-count but never under-counts.
+     */
+    public long estimate(String key, long nowMillis) {
+        long interval = nowMillis / bucketMillis;
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) {
+            estimate = Math.min(estimate, sum(base(row, bytes), interval));
+        }
+        return estimate;
+    }
+
+    /**
+     * Computes the index of a key's first bucket in a row.
+     *
+     * @param row   the hash row.
+     * @param bytes the key's UTF-8 bytes.
+     * @return the index of the first bucket of the key's slot.
+     */
+    private int base(int row, byte[] bytes) {
+        int slot = murmur3(bytes, SEEDS[row]) & (slots - 1);
+        return (row * slots + slot) * buckets;
+    }
+
+    /**
+     * Computes the 32-bit MurmurHash3 of a byte array.
+     *
+     * <p><strong>Rationale:</strong> Unlike {@link String#hashCode()}, whose collisions such as
+     * {@code "Aa"} and {@code "BB"} would be shared by every row derived from it, differently seeded
+     * hashes of the bytes collide independently.</p>
+     *
+     * @param data the bytes.
+     * @param seed the seed.
+     * @return the hash.
+     */
+    static int murmur3(byte[] data, int seed) {
+        int hash = seed;
+        int blocks = data.length / 4;
+        for (int i = 0; i < blocks; i++) {
+            int k = (data[4 * i] & 0xFF) | (data[4 * i + 1] & 0xFF) << 8
+                    | (data[4 * i + 2] & 0xFF) << 16 | (data[4 * i + 3] & 0xFF) << 24;
+            hash ^= mixKey(k);
+            hash = Integer.rotateLeft(hash, 13) * 5 + 0xE6546B64;
+        }
+        int tail = data.length & 3;
+        if (tail > 0) {
+            int k = 0;
+            for (int i = tail - 1; i >= 0; i--) {
+                k = k << 8 | (data[4 * blocks + i] & 0xFF); // The remaining bytes, little-endian.
+            }
+            hash ^= mixKey(k);
+        }
+        hash ^= data.length;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Scrambles one four-byte block for {@link #murmur3(byte[], int)}.
+     *
+     * @param k the block.
+     * @return the scrambled block.
+     */
+    private static int mixKey(int k) {
+        k *= 0xCC9E2D51;
+        k = Integer.rotateLeft(k, 15);
+        return k * 0x1B873593;
+    }
+
+    /**
+     * Sums the buckets of a slot that fall within the window ending at the given interval.
+     *
+     * @param base     the index of the slot's first bucket.
+     * @param interval the current interval number.
+     * @return the number of events in the window.
+     */
+    private long sum(int base, long interval) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long cell = cells.get(base + i);
+            if (interval - (cell >>> COUNT_BITS) < buckets) {
+                total += cell & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Adds to the count of a bucket, resetting it first if it still holds an older interval.
+     *
+     * @param index    the index of the bucket.
+     * @param interval the current interval number.
+     * @param delta    the amount to add; the count never drops below zero.
+     */
+    private void add(int index, long interval, int delta) {
+        while (true) {
+            long cell = cells.get(index);
+            long cellInterval = cell >>> COUNT_BITS;
+            if (cellInterval > interval) {
+                return; // The bucket has already moved on to a newer interval.
+            }
+            long count = cellInterval == interval ? cell & COUNT_MASK : 0;
+            long updated = (interval << COUNT_BITS) | Math.min(COUNT_MASK, Math.max(0, count + delta));
+            if (cell == updated || cells.compareAndSet(index, cell, updated)) {
+                return;
+            }
+        }
+    }
+}
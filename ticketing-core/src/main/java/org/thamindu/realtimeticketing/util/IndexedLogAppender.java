@@ -0,0 +1,110 @@
+package org.thamindu.realtimeticketing.util;
+
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.appender.rolling.FileSize;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log4j2 appender that writes each event to an {@link IndexedLogStore}, filed under the category
+ * of its logger and its level. Configured in {@code log4j2.xml} as
+ * {@code <IndexedLog name="..." directory="logs/index" maxSegmentSize="16 MB" rollIntervalMinutes="60"
+ * maxSegments="100">} with an optional layout; readers look the appender up by name and query
+ * {@link #getStore()}.
+ *
+ * <p><strong>Rationale:</strong> Indexing as events are written keeps the cost of reading the log
+ * independent of its size, and an appender sees every event's logger, level and time without
+ * parsing them back out of formatted text.</p>
+ */
+@Plugin(name = "IndexedLog", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE, printObject = true)
+public final class IndexedLogAppender extends AbstractAppender {
+
+    /**
+     * The store the events are written to.
+     */
+    private final IndexedLogStore store;
+
+    /**
+     * Constructs the appender.
+     *
+     * @param name   the appender name.
+     * @param filter the filter, or null.
+     * @param layout the layout that formats each line.
+     * @param store  the store the events are written to.
+     */
+    private IndexedLogAppender(String name, Filter filter, Layout<? extends Serializable> layout, IndexedLogStore store) {
+        super(name, filter, layout, true, Property.EMPTY_ARRAY);
+        this.store = store;
+    }
+
+    /**
+     * Creates the appender from its configuration.
+     *
+     * @param name                the appender name.
+     * @param directory           the directory of the store.
+     * @param maxSegmentSize      the size at which a segment is sealed, such as {@code 16 MB}.
+     * @param rollIntervalMinutes the age in minutes at which a segment is sealed.
+     * @param maxSegments         the number of sealed segments retained per category and level.
+     * @param layout              the layout that formats each line; the default pattern layout if omitted.
+     * @param filter              the filter, or null.
+     * @return the appender, or null if the store cannot be opened.
+     */
+    @PluginFactory
+    public static IndexedLogAppender createAppender(@PluginAttribute("name") String name,
+                                                    @PluginAttribute(value = "directory", defaultString = "logs/index") String directory,
+                                                    @PluginAttribute(value = "maxSegmentSize", defaultString = "16 MB") String maxSegmentSize,
+                                                    @PluginAttribute(value = "rollIntervalMinutes", defaultLong = 60) long rollIntervalMinutes,
+                                                    @PluginAttribute(value = "maxSegments", defaultInt = IndexedLogStore.DEFAULT_MAX_SEGMENTS) int maxSegments,
+                                                    @PluginElement("Layout") Layout<? extends Serializable> layout,
+                                                    @PluginElement("Filter") Filter filter) {
+        try {
+            return new IndexedLogAppender(name, filter, layout != null ? layout : PatternLayout.createDefaultLayout(),
+                    IndexedLogStore.open(Path.of(directory),
+                            FileSize.parse(maxSegmentSize, IndexedLogStore.DEFAULT_MAX_SEGMENT_BYTES),
+                            TimeUnit.MINUTES.toMillis(rollIntervalMinutes), maxSegments));
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.error("Cannot open indexed log store in {}", directory, e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the store the events are written to, for reading the log back.
+     *
+     * @return the store.
+     */
+    public IndexedLogStore getStore() {
+        return store;
+    }
+
+    /**
+     * Writes an event to the store.
+     *
+     * @param event the event.
+     */
+    @Override
+    public void append(LogEvent event) {
+        String line = new String(getLayout().toByteArray(event), StandardCharsets.UTF_8).stripTrailing();
+        try {
+            store.append(IndexedLogStore.categoryOf(event.getLoggerName()), event.getLevel().name(),
+                    event.getTimeMillis(), line);
+        } catch (IOException e) {
+            error("Cannot write to indexed log store", event, e);
+        }
+    }
+}
@@ -0,0 +1,1416 @@
+package org.thamindu.realtimeticketing.util;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.status.StatusLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * An on-disk log store that files each log line by category and level as it is written, rolls
+ * the files into compressed segments and keeps a bounded history of them.
+ *
+ * <p>Each category and level pair has its own series of append-only segment files of records,
+ * each holding the event time, the length and the formatted line. Every {@value #INDEX_INTERVAL}th
+ * record's time and offset is also written to a sparse index file beside the segment and kept in
+ * memory. A query opens only the segments of the requested categories and levels whose time range
+ * overlaps the requested one and, from the index, reads only the blocks of records that overlap
+ * it, newest first, until it has enough lines.</p>
+ *
+ * <p>Each segment also keeps an {@link InvertedIndex} from the identifiers in its lines, such as
+ * ticket, customer, vendor and thread IDs, to the offsets of the records that mention them,
+ * updated as records are appended and written by a background thread in runs of
+ * {@value #TOKEN_RUN_SIZE} records beside the segment. Each run has a Bloom filter of its identifiers, so a search skips the runs, and so
+ * the segments, that cannot hold them. Levels and categories need no tokens of their own: the
+ * segments already partition the lines by them.</p>
+ *
+ * <p>A segment is sealed once it reaches its size limit or its first record its age limit, and a
+ * new one is started. A background thread then compresses the sealed segment block by block, one
+ * block per sparse index entry, so a read still inflates only the blocks it needs. Beyond a
+ * retention count per category and level, the oldest sealed segments are deleted.</p>
+ *
+ * <p><strong>Rationale:</strong> Scanning a whole log file for every request grows with the log.
+ * Here the work of a query depends on the number of matching segments and the number of lines
+ * asked for, and the index costs 16 bytes per {@value #INDEX_INTERVAL} lines, so a log of
+ * gigabytes is served as quickly as a small one. Rolling bounds each file, and compression keeps
+ * a long history cheap to retain without giving up the index.</p>
+ */
+public class IndexedLogStore implements Closeable {
+
+    /**
+     * Default size at which a segment is sealed: 16 MB.
+     */
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 16L * 1024 * 1024;
+    /**
+     * Default age at which a segment is sealed: one hour.
+     */
+    public static final long DEFAULT_ROLL_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    /**
+     * Default number of sealed segments retained per category and level.
+     */
+    public static final int DEFAULT_MAX_SEGMENTS = 100;
+    /**
+     * File name suffix of uncompressed segment files.
+     */
+    private static final String SEGMENT_SUFFIX = ".seg";
+    /**
+     * File name suffix of compressed segment files.
+     */
+    private static final String COMPRESSED_SUFFIX = ".segz";
+    /**
+     * File name suffix of the block tables of compressed segments.
+     */
+    private static final String BLOCKS_SUFFIX = ".blk";
+    /**
+     * File name suffix of sparse index files.
+     */
+    private static final String INDEX_SUFFIX = ".idx";
+    /**
+     * File name suffix of files being written, deleted on opening.
+     */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    /**
+     * Number of records between sparse index entries.
+     */
+    private static final int INDEX_INTERVAL = 256;
+    /**
+     * Number of records per run of a segment's token index.
+     */
+    private static final int TOKEN_RUN_SIZE = 65536;
+    /**
+     * Size of a record header: the event time and the length of the line.
+     */
+    private static final int RECORD_HEADER_BYTES = Long.BYTES + Integer.BYTES;
+    /**
+     * Size of a sparse index entry: the time and offset of a record.
+     */
+    private static final int INDEX_ENTRY_BYTES = 2 * Long.BYTES;
+    /**
+     * Package prefix of the application's own loggers.
+     */
+    private static final String APPLICATION_PACKAGE = "org.thamindu.realtimeticketing.";
+    /**
+     * Reports the store's own I/O failures through log4j's status logger, as it runs inside an appender.
+     */
+    private static final Logger STATUS_LOGGER = StatusLogger.getLogger();
+    /**
+     * Stores opened through {@link #open}, by absolute directory.
+     */
+    private static final Map<Path, IndexedLogStore> OPEN_STORES = new ConcurrentHashMap<>();
+
+    /**
+     * The directory holding the segment and index files.
+     */
+    private final Path directory;
+    /**
+     * Size in bytes at which a segment is sealed.
+     */
+    private final long maxSegmentBytes;
+    /**
+     * Age in milliseconds of its first record at which a segment is sealed.
+     */
+    private final long rollIntervalMillis;
+    /**
+     * Number of sealed segments retained per category and level.
+     */
+    private final int maxSegments;
+    /**
+     * Segment series by {@code <category>-<LEVEL>}.
+     */
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    /**
+     * Compresses sealed segments and writes full token index runs in the background.
+     */
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-segment-compressor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Opens the store in a directory with the default limits.
+     *
+     * @param directory the directory holding the store; created if missing.
+     * @throws IOException if the directory or its files cannot be read.
+     * @see #IndexedLogStore(Path, long, long, int)
+     */
+    public IndexedLogStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_ROLL_INTERVAL_MILLIS, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * Opens the store in a directory, loading the segments and indexes already there. Segments
+     * cut short by a crash are truncated to their last complete record, and segments left
+     * uncompressed by an earlier run, other than the newest of each series, are compressed again.
+     *
+     * @param directory          the directory holding the store; created if missing.
+     * @param maxSegmentBytes    the size in bytes at which a segment is sealed.
+     * @param rollIntervalMillis the age in milliseconds of its first record at which a segment is sealed.
+     * @param maxSegments        the number of sealed segments retained per category and level.
+     * @throws IllegalArgumentException if a limit is not positive.
+     * @throws IOException if the directory or its files cannot be read.
+     */
+    public IndexedLogStore(Path directory, long maxSegmentBytes, long rollIntervalMillis, int maxSegments)
+            throws IOException {
+        if (maxSegmentBytes <= 0 || rollIntervalMillis <= 0 || maxSegments <= 0) {
+            throw new IllegalArgumentException("Segment size, roll interval and retention must be positive.");
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.rollIntervalMillis = rollIntervalMillis;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+
+        // Sequence numbers of each series' segments, and whether each one is compressed.
+        Map<String, TreeMap<Long, Boolean>> found = new TreeMap<>();
+        // Series keys of segments written before segments were numbered, named <category>-<LEVEL>.seg.
+        Set<String> unnumbered = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    Files.deleteIfExists(file); // Left by a compression cut short.
+                    continue;
+                }
+                boolean compressed = name.endsWith(COMPRESSED_SUFFIX);
+                if (!compressed && !name.endsWith(SEGMENT_SUFFIX)) {
+                    continue;
+                }
+                String base = name.substring(0, name.length() - (compressed ? COMPRESSED_SUFFIX : SEGMENT_SUFFIX).length());
+                int dot = base.lastIndexOf('.');
+                if (!compressed && dot < 0 && base.lastIndexOf('-') > 0) {
+                    unnumbered.add(base);
+                    continue;
+                }
+                if (dot <= 0 || base.lastIndexOf('-', dot) <= 0 || !isSequence(base, dot + 1)) {
+                    continue;
+                }
+                found.computeIfAbsent(base.substring(0, dot), key -> new TreeMap<>())
+                        .merge(Long.parseLong(base.substring(dot + 1)), compressed, Boolean::logicalOr);
+            }
+        }
+        for (String key : unnumbered) {
+            migrateUnnumbered(key, found);
+        }
+        for (Map.Entry<String, TreeMap<Long, Boolean>> series : found.entrySet()) {
+            String key = series.getKey();
+            int separator = key.lastIndexOf('-');
+            Partition partition = new Partition(key.substring(0, separator), key.substring(separator + 1));
+            for (Map.Entry<Long, Boolean> entry : series.getValue().entrySet()) {
+                boolean newest = entry.getKey().equals(series.getValue().lastKey());
+                partition.load(entry.getKey(), entry.getValue(), newest);
+            }
+            partitions.put(key, partition);
+        }
+    }
+
+    /**
+     * Gets the store for a directory with the default limits, opening it on first use.
+     *
+     * @param directory the directory holding the store.
+     * @return the store.
+     * @throws IOException if the store cannot be opened.
+     */
+    public static IndexedLogStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_ROLL_INTERVAL_MILLIS, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * Gets the store for a directory, opening it on first use. Every log appender writing to the
+     * directory shares the instance, and the limits of whichever opens it first apply.
+     *
+     * @param directory          the directory holding the store.
+     * @param maxSegmentBytes    the size in bytes at which a segment is sealed.
+     * @param rollIntervalMillis the age in milliseconds of its first record at which a segment is sealed.
+     * @param maxSegments        the number of sealed segments retained per category and level.
+     * @return the store.
+     * @throws IOException if the store cannot be opened.
+     */
+    public static IndexedLogStore open(Path directory, long maxSegmentBytes, long rollIntervalMillis,
+                                       int maxSegments) throws IOException {
+        try {
+            return OPEN_STORES.computeIfAbsent(directory.toAbsolutePath().normalize(), path -> {
+                try {
+                    return new IndexedLogStore(path, maxSegmentBytes, rollIntervalMillis, maxSegments);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Derives the category of a logger: the package of the application it belongs to, such as
+     * {@code model}, {@code service} or {@code controller}; {@code application} for classes at the
+     * top of the application; or {@code external} for libraries.
+     *
+     * @param loggerName the logger name, usually a class name.
+     * @return the category.
+     */
+    public static String categoryOf(String loggerName) {
+        if (loggerName == null || !loggerName.startsWith(APPLICATION_PACKAGE)) {
+            return "external";
+        }
+        int end = loggerName.indexOf('.', APPLICATION_PACKAGE.length());
+        return end < 0 ? "application" : loggerName.substring(APPLICATION_PACKAGE.length(), end);
+    }
+
+    /**
+     * Appends a log line, first sealing the category and level's segment if the line would take it
+     * past its size limit or the segment has reached its age limit.
+     *
+     * @param category   the category, as returned by {@link #categoryOf(String)}.
+     * @param level      the level name.
+     * @param timeMillis the event time, in milliseconds since the epoch.
+     * @param line       the formatted line.
+     * @throws IOException if the line cannot be written.
+     */
+    public void append(String category, String level, long timeMillis, String line) throws IOException {
+        String normalizedLevel = level.toUpperCase(Locale.ROOT);
+        String key = category + "-" + normalizedLevel;
+        Partition partition = partitions.get(key);
+        if (partition == null) {
+            partition = partitions.computeIfAbsent(key, k -> new Partition(category, normalizedLevel));
+        }
+        partition.append(timeMillis, line);
+    }
+
+    /**
+     * Finds the most recent log lines of the given categories and levels within a time range.
+     *
+     * @param categories the categories to include; null or empty for all.
+     * @param levels     the level names to include; null or empty for all.
+     * @param fromMillis the earliest event time to include, in milliseconds since the epoch.
+     * @param toMillis   the latest event time to include, in milliseconds since the epoch.
+     * @param limit      the largest number of lines to return.
+     * @return up to {@code limit} of the latest matching lines, oldest first.
+     * @throws IOException if a segment cannot be read.
+     */
+    public List<String> query(Set<String> categories, Set<String> levels, long fromMillis, long toMillis,
+                              int limit) throws IOException {
+        List<Record> matches = new ArrayList<>();
+        for (Partition partition : partitions.values()) {
+            if (partition.matches(categories, levels)) {
+                matches.addAll(partition.latest(fromMillis, toMillis, limit));
+            }
+        }
+        return latestLines(matches, limit);
+    }
+
+    /**
+     * Finds the most recent log lines of the given categories and levels that mention every given
+     * token, from the segments' token indexes.
+     *
+     * @param tokens     the tokens, as returned by {@link #tokensOf(String)}, such as a ticket ID
+     *                   and a customer ID.
+     * @param categories the categories to include; null or empty for all.
+     * @param levels     the level names to include; null or empty for all.
+     * @param limit      the largest number of lines to return.
+     * @return up to {@code limit} of the latest matching lines, oldest first; none if no tokens are given.
+     * @throws IOException if a segment or its token index cannot be read.
+     */
+    public List<String> find(Collection<String> tokens, Set<String> categories, Set<String> levels,
+                             int limit) throws IOException {
+        return find(tokens, categories, levels, Long.MIN_VALUE, Long.MAX_VALUE, limit);
+    }
+
+    /**
+     * Finds the most recent log lines of the given categories and levels within a time range that
+     * mention every given token. Segments outside the time range, and those whose token index
+     * rules a token out, are not read.
+     *
+     * @param tokens     the tokens, as returned by {@link #tokensOf(String)}.
+     * @param categories the categories to include; null or empty for all.
+     * @param levels     the level names to include; null or empty for all.
+     * @param fromMillis the earliest event time to include, in milliseconds since the epoch.
+     * @param toMillis   the latest event time to include, in milliseconds since the epoch.
+     * @param limit      the largest number of lines to return.
+     * @return up to {@code limit} of the latest matching lines, oldest first; none if no tokens are given.
+     * @throws IOException if a segment or its token index cannot be read.
+     */
+    public List<String> find(Collection<String> tokens, Set<String> categories, Set<String> levels,
+                             long fromMillis, long toMillis, int limit) throws IOException {
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        Set<String> distinct = new LinkedHashSet<>(tokens);
+        List<Record> matches = new ArrayList<>();
+        for (Partition partition : partitions.values()) {
+            if (partition.matches(categories, levels)) {
+                matches.addAll(partition.find(distinct, fromMillis, toMillis, limit));
+            }
+        }
+        return latestLines(matches, limit);
+    }
+
+    /**
+     * Extracts the identifiers from a log line: each word of letters, digits, hyphens and
+     * underscores that holds a letter, a digit and a hyphen, such as {@code Customer-12} or
+     * {@code Vendor-Vendor-3-Ticket-417}. Dates, times, levels and prose are left out.
+     *
+     * @param line the log line.
+     * @return the distinct identifiers, in order of first appearance.
+     */
+    public static Set<String> tokensOf(String line) {
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        boolean letter = false;
+        boolean digit = false;
+        boolean hyphen = false;
+        for (int i = 0; i <= line.length(); i++) {
+            char c = i < line.length() ? line.charAt(i) : ' ';
+            boolean wordChar = Character.isLetterOrDigit(c) || c == '-' || c == '_';
+            if (wordChar) {
+                if (start < 0) {
+                    start = i;
+                    letter = digit = hyphen = false;
+                }
+                letter |= Character.isLetter(c);
+                digit |= Character.isDigit(c);
+                hyphen |= c == '-';
+            } else if (start >= 0) {
+                if (letter && digit && hyphen) {
+                    int end = i;
+                    while (line.charAt(end - 1) == '-') {
+                        end--;
+                    }
+                    tokens.add(line.substring(start, end));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Lists the categories that have at least one line.
+     *
+     * @return the categories, sorted.
+     */
+    public Set<String> getCategories() {
+        Set<String> categories = new TreeSet<>();
+        for (Partition partition : partitions.values()) {
+            categories.add(partition.category);
+        }
+        return categories;
+    }
+
+    /**
+     * Counts the segments held, sealed or not, across every category and level.
+     *
+     * @return the number of segments.
+     */
+    public int getSegmentCount() {
+        int count = 0;
+        for (Partition partition : partitions.values()) {
+            count += partition.segments().size();
+        }
+        return count;
+    }
+
+    /**
+     * Waits for the segments sealed so far to be compressed.
+     *
+     * @param timeoutMillis how long to wait, in milliseconds.
+     * @return true if they were compressed in time.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean awaitCompression(long timeoutMillis) throws InterruptedException {
+        try {
+            compressor.submit(() -> { }).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes every segment, letting a compression in progress finish first. The store can no
+     * longer be written or queried; segments left uncompressed are compressed when it is next opened.
+     *
+     * @throws IOException if a file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        OPEN_STORES.remove(directory.toAbsolutePath().normalize(), this);
+        // Not shutdownNow: interrupting the compressor mid-read would close the segment's channel.
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Partition partition : partitions.values()) {
+            for (Segment segment : partition.segments()) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Keeps the latest records and returns their lines in time order.
+     *
+     * @param records the records.
+     * @param limit   the largest number of lines to return.
+     * @return up to {@code limit} of the latest lines, oldest first.
+     */
+    private static List<String> latestLines(List<Record> records, int limit) {
+        records.sort(Comparator.comparingLong(record -> record.timeMillis));
+        List<String> lines = new ArrayList<>(Math.min(limit, records.size()));
+        for (Record record : records.subList(Math.max(0, records.size() - limit), records.size())) {
+            lines.add(record.line);
+        }
+        return lines;
+    }
+
+    /**
+     * Checks whether a set of level names contains a level, ignoring case.
+     *
+     * @param levels the level names.
+     * @param level  the level to look for, in upper case.
+     * @return true if the level is in the set.
+     */
+    private static boolean containsIgnoreCase(Set<String> levels, String level) {
+        for (String candidate : levels) {
+            if (candidate.equalsIgnoreCase(level)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes over a segment written before segments were numbered. Its records and sparse index have
+     * the layout of a numbered segment, so if its series has no numbered segments it is renamed to
+     * the first one and its token index is rebuilt on loading. Otherwise it is older than segment 0
+     * and cannot be placed in the series, and is deleted.
+     *
+     * @param key   the series key, {@code <category>-<LEVEL>}.
+     * @param found the numbered segments found so far, by series; updated with the migrated one.
+     * @throws IOException if the files cannot be renamed or deleted.
+     */
+    private void migrateUnnumbered(String key, Map<String, TreeMap<Long, Boolean>> found) throws IOException {
+        Path segment = directory.resolve(key + SEGMENT_SUFFIX);
+        Path index = directory.resolve(key + INDEX_SUFFIX);
+        if (found.containsKey(key)) {
+            Files.deleteIfExists(segment);
+            Files.deleteIfExists(index);
+            STATUS_LOGGER.warn("Deleted log segment {} written before segments were numbered.", segment);
+            return;
+        }
+        if (Files.exists(index)) {
+            Files.move(index, directory.resolve(key + ".0" + INDEX_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(segment, directory.resolve(key + ".0" + SEGMENT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        found.computeIfAbsent(key, series -> new TreeMap<>()).put(0L, false);
+    }
+
+    /**
+     * Checks whether the end of a file name is a segment sequence number.
+     *
+     * @param name  the file name without its suffix.
+     * @param start where the candidate sequence number starts.
+     * @return true if the rest of the name is one to eighteen digits.
+     */
+    private static boolean isSequence(String name, int start) {
+        int length = name.length() - start;
+        if (length == 0 || length > 18) {
+            return false;
+        }
+        for (int i = start; i < name.length(); i++) {
+            if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A log line read back from a segment.
+     */
+    private static final class Record {
+        /**
+         * The event time.
+         */
+        private final long timeMillis;
+        /**
+         * The formatted line.
+         */
+        private final String line;
+
+        /**
+         * Constructs a record.
+         *
+         * @param timeMillis the event time.
+         * @param line       the formatted line.
+         */
+        Record(long timeMillis, String line) {
+            this.timeMillis = timeMillis;
+            this.line = line;
+        }
+    }
+
+    /**
+     * The series of segments of one category and level: sealed segments, oldest first, and the
+     * segment being written.
+     */
+    private final class Partition {
+
+        /**
+         * The category of the series' lines.
+         */
+        private final String category;
+        /**
+         * The level of the series' lines.
+         */
+        private final String level;
+        /**
+         * Sealed segments, oldest first.
+         */
+        private final List<Segment> sealed = new CopyOnWriteArrayList<>();
+        /**
+         * The segment being written, or null until the next line arrives.
+         */
+        private Segment active;
+        /**
+         * Sequence number of the next segment.
+         */
+        private long nextSequence;
+
+        /**
+         * Constructs an empty series.
+         *
+         * @param category the category of the series' lines.
+         * @param level    the level of the series' lines.
+         */
+        Partition(String category, String level) {
+            this.category = category;
+            this.level = level;
+        }
+
+        /**
+         * Loads a segment found on disk. The newest uncompressed segment is written to again; any
+         * other is sealed and compressed.
+         *
+         * @param sequence   the segment's sequence number.
+         * @param compressed whether the segment is compressed.
+         * @param newest     whether it is the newest segment of the series.
+         * @throws IOException if the segment cannot be read.
+         */
+        void load(long sequence, boolean compressed, boolean newest) throws IOException {
+            Segment segment = new Segment(directory, category + "-" + level + "." + sequence, compressed, compressor);
+            nextSequence = sequence + 1;
+            if (!compressed && newest) {
+                active = segment;
+                return;
+            }
+            sealed.add(segment);
+            if (!compressed) {
+                segment.seal();
+                compressor.execute(() -> compress(segment));
+            }
+            retain();
+        }
+
+        /**
+         * Checks whether the series is selected by a query.
+         *
+         * @param categories the categories to include; null or empty for all.
+         * @param levels     the level names to include; null or empty for all.
+         * @return true if the series' category and level are both included.
+         */
+        boolean matches(Set<String> categories, Set<String> levels) {
+            return (categories == null || categories.isEmpty() || categories.contains(category))
+                    && (levels == null || levels.isEmpty() || containsIgnoreCase(levels, level));
+        }
+
+        /**
+         * Appends a record, first rolling to a new segment if the active one is full or old.
+         *
+         * @param timeMillis the event time.
+         * @param line       the formatted line.
+         * @throws IOException if the record cannot be written or the segment cannot be sealed.
+         */
+        synchronized void append(long timeMillis, String line) throws IOException {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if (active != null && active.size > 0
+                    && (active.size + RECORD_HEADER_BYTES + bytes.length > maxSegmentBytes
+                    || timeMillis - active.firstTimeMillis >= rollIntervalMillis)) {
+                Segment full = active;
+                full.seal();
+                sealed.add(full);
+                active = null;
+                compressor.execute(() -> compress(full));
+                retain();
+            }
+            if (active == null) {
+                active = new Segment(directory, category + "-" + level + "." + nextSequence++, false, compressor);
+            }
+            active.append(timeMillis, line, bytes);
+        }
+
+        /**
+         * Takes a consistent snapshot of the series' segments.
+         *
+         * @return the segments, newest first.
+         */
+        synchronized List<Segment> segments() {
+            List<Segment> segments = new ArrayList<>(sealed.size() + 1);
+            if (active != null) {
+                segments.add(active);
+            }
+            for (int i = sealed.size() - 1; i >= 0; i--) {
+                segments.add(sealed.get(i));
+            }
+            return segments;
+        }
+
+        /**
+         * Reads the latest records within a time range, segment by segment from the newest.
+         *
+         * @param fromMillis the earliest event time to include.
+         * @param toMillis   the latest event time to include.
+         * @param limit      the number of records wanted.
+         * @return up to {@code limit} of the latest matching records.
+         * @throws IOException if a segment cannot be read.
+         */
+        List<Record> latest(long fromMillis, long toMillis, int limit) throws IOException {
+            List<Record> records = new ArrayList<>();
+            for (Segment segment : segments()) {
+                if (records.size() >= limit) {
+                    break;
+                }
+                if (segment.overlaps(fromMillis, toMillis)) {
+                    records.addAll(segment.latest(fromMillis, toMillis, limit - records.size()));
+                }
+            }
+            return records;
+        }
+
+        /**
+         * Reads the latest records within a time range that mention every given token, segment by
+         * segment from the newest.
+         *
+         * @param tokens     the tokens.
+         * @param fromMillis the earliest event time to include.
+         * @param toMillis   the latest event time to include.
+         * @param limit      the number of records wanted.
+         * @return up to {@code limit} of the latest matching records.
+         * @throws IOException if a segment or its token index cannot be read.
+         */
+        List<Record> find(Collection<String> tokens, long fromMillis, long toMillis, int limit) throws IOException {
+            List<Record> records = new ArrayList<>();
+            for (Segment segment : segments()) {
+                if (records.size() >= limit) {
+                    break;
+                }
+                if (segment.overlaps(fromMillis, toMillis)) {
+                    records.addAll(segment.find(tokens, fromMillis, toMillis, limit - records.size()));
+                }
+            }
+            return records;
+        }
+
+        /**
+         * Deletes the oldest sealed segments beyond the retention count.
+         */
+        private void retain() {
+            while (sealed.size() > maxSegments) {
+                Segment oldest = sealed.remove(0);
+                try {
+                    oldest.delete();
+                } catch (IOException e) {
+                    STATUS_LOGGER.error("Cannot delete log segment {}: {}", oldest.name, e.getMessage(), e);
+                }
+            }
+        }
+
+        /**
+         * Compresses a sealed segment; run on the compressor thread.
+         *
+         * @param segment the segment.
+         */
+        private void compress(Segment segment) {
+            try {
+                segment.compress();
+            } catch (IOException e) {
+                // The segment stays readable uncompressed and is compressed again on the next opening.
+                STATUS_LOGGER.error("Cannot compress log segment {}: {}", segment.name, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * The records of one category and level over one stretch of time, with their sparse index and
+     * token index. Written while active; read from its uncompressed file until compressed, then
+     * from its compressed blocks.
+     */
+    private static final class Segment implements Closeable {
+
+        /**
+         * The directory holding the segment's files.
+         */
+        private final Path directory;
+        /**
+         * The file name of the segment without its suffix: {@code <category>-<LEVEL>.<sequence>}.
+         */
+        private final String name;
+        /**
+         * The token index, from identifiers to the offsets of the records that mention them.
+         */
+        private final InvertedIndex tokens;
+        /**
+         * Guards the switch from the uncompressed file to the compressed one, and deletion,
+         * against reads in progress.
+         */
+        private final ReadWriteLock files = new ReentrantReadWriteLock();
+        /**
+         * The uncompressed segment file, written through while active; null once compressed.
+         *
+         * <p><strong>Rationale:</strong> Records are written with {@code RandomAccessFile} rather
+         * than a {@code FileChannel}: a channel is closed for good when a thread is interrupted
+         * during a write, and the logging thread may be one being shut down.</p>
+         */
+        private RandomAccessFile dataFile;
+        /**
+         * Channel of the uncompressed file, for reads; null once compressed.
+         */
+        private FileChannel data;
+        /**
+         * The sparse index file, written while active; null once sealed.
+         */
+        private RandomAccessFile indexFile;
+        /**
+         * The compressed segment file; null until compressed.
+         */
+        private FileChannel compressed;
+        /**
+         * Offsets in the compressed file of each block's start, and of its end after the last block.
+         */
+        private long[] blockStarts;
+        /**
+         * Times of the indexed records. Entries below {@link #indexCount} never change, and the
+         * array is replaced rather than resized, so readers may use a snapshot without locking.
+         */
+        private long[] indexTimes = new long[16];
+        /**
+         * Offsets of the indexed records.
+         */
+        private long[] indexOffsets = new long[16];
+        /**
+         * Number of sparse index entries.
+         */
+        private int indexCount;
+        /**
+         * Number of records written since the last indexed one.
+         */
+        private int sinceIndex = INDEX_INTERVAL;
+        /**
+         * Length of the segment's complete records, in bytes, uncompressed.
+         */
+        private volatile long size;
+        /**
+         * Time of the first record.
+         */
+        private long firstTimeMillis = Long.MAX_VALUE;
+        /**
+         * Latest event time of any record.
+         */
+        private volatile long lastTimeMillis = Long.MIN_VALUE;
+        /**
+         * Whether the segment has been deleted by retention.
+         */
+        private boolean deleted;
+
+        /**
+         * Opens or creates a segment and recovers its index.
+         *
+         * @param directory    the store's directory.
+         * @param name         the file name of the segment without its suffix.
+         * @param isCompressed whether the segment is compressed.
+         * @param flusher      writes the token index's full runs, off the logging threads.
+         * @throws IOException if the files cannot be opened or read.
+         */
+        Segment(Path directory, String name, boolean isCompressed, Executor flusher) throws IOException {
+            this.directory = directory;
+            this.name = name;
+            this.tokens = new InvertedIndex(directory, name, TOKEN_RUN_SIZE, flusher);
+            if (isCompressed) {
+                Files.deleteIfExists(file(SEGMENT_SUFFIX)); // Compressed before a crash, but not yet deleted.
+                loadCompressed();
+                return;
+            }
+            this.dataFile = new RandomAccessFile(file(SEGMENT_SUFFIX).toFile(), "rw");
+            this.data = dataFile.getChannel();
+            this.indexFile = new RandomAccessFile(file(INDEX_SUFFIX).toFile(), "rw");
+            Files.deleteIfExists(file(BLOCKS_SUFFIX));
+            recover();
+            recoverTokens();
+        }
+
+        /**
+         * Resolves one of the segment's files.
+         *
+         * @param suffix the file's suffix.
+         * @return the path.
+         */
+        private Path file(String suffix) {
+            return directory.resolve(name + suffix);
+        }
+
+        /**
+         * Loads the sparse index and the block table of a compressed segment.
+         *
+         * @throws IOException if the files cannot be read.
+         */
+        private void loadCompressed() throws IOException {
+            ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(file(INDEX_SUFFIX)));
+            while (entries.remaining() >= INDEX_ENTRY_BYTES) {
+                addIndexEntry(entries.getLong(), entries.getLong(), false);
+            }
+            ByteBuffer table = ByteBuffer.wrap(Files.readAllBytes(file(BLOCKS_SUFFIX)));
+            size = table.getLong();
+            lastTimeMillis = table.getLong();
+            blockStarts = new long[table.getInt()];
+            for (int i = 0; i < blockStarts.length; i++) {
+                blockStarts[i] = table.getLong();
+            }
+            if (blockStarts.length != indexCount + 1) {
+                throw new IOException("Block table of log segment " + name + " does not match its index.");
+            }
+            firstTimeMillis = indexCount == 0 ? Long.MAX_VALUE : indexTimes[0];
+            compressed = FileChannel.open(file(COMPRESSED_SUFFIX), StandardOpenOption.READ);
+        }
+
+        /**
+         * Loads the index entries that point into the segment, then scans the records after the
+         * last of them, indexing them again and dropping an incomplete record at the end.
+         *
+         * @throws IOException if the files cannot be read or truncated.
+         */
+        private void recover() throws IOException {
+            long dataSize = data.size();
+            ByteBuffer entries = ByteBuffer.allocate((int) (indexFile.length() / INDEX_ENTRY_BYTES * INDEX_ENTRY_BYTES));
+            readFully(indexFile.getChannel(), entries, 0);
+            entries.flip();
+            long previousOffset = -1;
+            while (entries.remaining() >= INDEX_ENTRY_BYTES) {
+                long time = entries.getLong();
+                long offset = entries.getLong();
+                if (offset <= previousOffset || offset >= dataSize) {
+                    break;
+                }
+                addIndexEntry(time, offset, false);
+                previousOffset = offset;
+            }
+            indexFile.setLength((long) indexCount * INDEX_ENTRY_BYTES);
+
+            long position = indexCount == 0 ? 0 : indexOffsets[indexCount - 1];
+            sinceIndex = indexCount == 0 ? INDEX_INTERVAL : 0;
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            while (position + RECORD_HEADER_BYTES <= dataSize) {
+                header.clear();
+                readFully(data, header, position);
+                long time = header.getLong(0);
+                int length = header.getInt(Long.BYTES);
+                if (length < 0 || position + RECORD_HEADER_BYTES + length > dataSize) {
+                    break;
+                }
+                if (sinceIndex >= INDEX_INTERVAL) {
+                    addIndexEntry(time, position, true);
+                    sinceIndex = 0;
+                }
+                sinceIndex++;
+                lastTimeMillis = Math.max(lastTimeMillis, time);
+                position += RECORD_HEADER_BYTES + length;
+            }
+            size = position;
+            dataFile.setLength(size);
+            for (int i = 0; i < indexCount; i++) {
+                lastTimeMillis = Math.max(lastTimeMillis, indexTimes[i]);
+            }
+            firstTimeMillis = indexCount == 0 ? Long.MAX_VALUE : indexTimes[0];
+        }
+
+        /**
+         * Adds the records after the last one in the token index's runs to its postings again,
+         * starting from the sparse index block that holds that record. Runs pointing past the end
+         * of the segment, whose records are gone, are discarded first.
+         *
+         * @throws IOException if the files cannot be read or the runs deleted.
+         */
+        private void recoverTokens() throws IOException {
+            long persisted = tokens.getPersistedUpTo();
+            if (persisted >= size) {
+                tokens.clear();
+                persisted = -1;
+            }
+            int block = lastAtOrBefore(indexOffsets, indexCount, persisted);
+            long position = block < 0 ? 0 : indexOffsets[block];
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            while (position < size) {
+                header.clear();
+                readFully(data, header, position);
+                int length = header.getInt(Long.BYTES);
+                if (position > persisted) {
+                    ByteBuffer line = ByteBuffer.allocate(length);
+                    readFully(data, line, position + RECORD_HEADER_BYTES);
+                    tokens.add(position, tokensOf(new String(line.array(), StandardCharsets.UTF_8)));
+                }
+                position += RECORD_HEADER_BYTES + length;
+            }
+        }
+
+        /**
+         * Appends a record.
+         *
+         * @param timeMillis the event time.
+         * @param line       the formatted line.
+         * @param bytes      the line in UTF-8.
+         * @throws IOException if the record cannot be written.
+         */
+        synchronized void append(long timeMillis, String line, byte[] bytes) throws IOException {
+            byte[] record = ByteBuffer.allocate(RECORD_HEADER_BYTES + bytes.length)
+                    .putLong(timeMillis).putInt(bytes.length).put(bytes).array();
+            if (sinceIndex >= INDEX_INTERVAL) {
+                // The index entry is written first; one pointing past the end is dropped on recovery.
+                addIndexEntry(timeMillis, size, true);
+                sinceIndex = 0;
+            }
+            dataFile.seek(size);
+            dataFile.write(record);
+            tokens.add(size, tokensOf(line));
+            if (size == 0) {
+                firstTimeMillis = timeMillis;
+            }
+            lastTimeMillis = Math.max(lastTimeMillis, timeMillis);
+            size += record.length;
+            sinceIndex++;
+        }
+
+        /**
+         * Stops writing to the segment. The token postings still in memory are written to a run
+         * when the segment is compressed.
+         *
+         * @throws IOException if the index file cannot be closed.
+         */
+        synchronized void seal() throws IOException {
+            if (indexFile != null) {
+                indexFile.close();
+                indexFile = null;
+            }
+        }
+
+        /**
+         * Checks whether any record of the segment may fall within a time range.
+         *
+         * @param fromMillis the earliest event time.
+         * @param toMillis   the latest event time.
+         * @return false if every record is known to be outside the range.
+         */
+        boolean overlaps(long fromMillis, long toMillis) {
+            return size > 0 && lastTimeMillis >= fromMillis && firstTimeMillis <= toMillis;
+        }
+
+        /**
+         * Writes the token postings still in memory to a run, then compresses a sealed segment
+         * block by block into a new file, switches reads to it and deletes the uncompressed file.
+         * The new files are complete before the switch, so a crash at any point leaves one whole copy.
+         *
+         * @throws IOException if the run cannot be written, the segment read or the compressed copy written.
+         */
+        void compress() throws IOException {
+            tokens.flush();
+            long[] offsets;
+            int count;
+            long end;
+            synchronized (this) {
+                offsets = indexOffsets;
+                count = indexCount;
+                end = size;
+            }
+            Path compressedTemporary = file(COMPRESSED_SUFFIX + TEMPORARY_SUFFIX);
+            Path blocksTemporary = file(BLOCKS_SUFFIX + TEMPORARY_SUFFIX);
+            long[] starts = new long[count + 1];
+            files.readLock().lock();
+            try {
+                if (deleted) {
+                    return;
+                }
+                writeBlocks(compressedTemporary, offsets, count, end, starts);
+            } finally {
+                files.readLock().unlock();
+            }
+            ByteBuffer table = ByteBuffer.allocate(2 * Long.BYTES + Integer.BYTES + starts.length * Long.BYTES);
+            table.putLong(end).putLong(lastTimeMillis).putInt(starts.length);
+            for (long start : starts) {
+                table.putLong(start);
+            }
+            Files.write(blocksTemporary, table.array());
+            Files.move(blocksTemporary, file(BLOCKS_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            // The compressed file appearing is the commit point; from here on it is the segment.
+            Files.move(compressedTemporary, file(COMPRESSED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+
+            files.writeLock().lock();
+            try {
+                if (deleted) {
+                    // Retention removed the segment while it was being compressed.
+                    Files.deleteIfExists(file(COMPRESSED_SUFFIX));
+                    Files.deleteIfExists(file(BLOCKS_SUFFIX));
+                    return;
+                }
+                compressed = FileChannel.open(file(COMPRESSED_SUFFIX), StandardOpenOption.READ);
+                blockStarts = starts;
+                dataFile.close();
+                dataFile = null;
+                data = null;
+                Files.deleteIfExists(file(SEGMENT_SUFFIX));
+            } finally {
+                files.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Writes the segment's records to a file one deflated block per sparse index entry.
+         * Callers hold the read lock.
+         *
+         * @param target  the file to write.
+         * @param offsets the offsets of the indexed records.
+         * @param count   the number of index entries.
+         * @param end     the offset just past the segment's last record.
+         * @param starts  receives the offset in the file of each block's start, and of its end after the last block.
+         * @throws IOException if the segment cannot be read or the file written.
+         */
+        private void writeBlocks(Path target, long[] offsets, int count, long end, long[] starts) throws IOException {
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                for (int block = 0; block < count; block++) {
+                    long blockEnd = block + 1 < count ? offsets[block + 1] : end;
+                    ByteBuffer raw = ByteBuffer.allocate((int) (blockEnd - offsets[block]));
+                    readFully(data, raw, offsets[block]);
+                    ByteArrayOutputStream deflated = new ByteArrayOutputStream(raw.capacity() / 4);
+                    try (DeflaterOutputStream deflater = new DeflaterOutputStream(deflated)) {
+                        deflater.write(raw.array());
+                    }
+                    starts[block] = position;
+                    ByteBuffer bytes = ByteBuffer.wrap(deflated.toByteArray());
+                    while (bytes.hasRemaining()) {
+                        position += out.write(bytes, position);
+                    }
+                }
+                starts[count] = position;
+                out.force(true);
+            }
+        }
+
+        /**
+         * Reads the latest records within a time range that mention every given token, newest
+         * first, stopping once past the start of the range.
+         *
+         * @param tokenSet   the tokens.
+         * @param fromMillis the earliest event time to include.
+         * @param toMillis   the latest event time to include.
+         * @param limit      the number of records wanted.
+         * @return up to {@code limit} of the latest matching records.
+         * @throws IOException if the segment or its token index cannot be read.
+         */
+        List<Record> find(Collection<String> tokenSet, long fromMillis, long toMillis, int limit) throws IOException {
+            long[] offsets;
+            int count;
+            long maxOffset;
+            synchronized (this) {
+                offsets = indexOffsets;
+                count = indexCount;
+                maxOffset = size - 1;
+            }
+            List<Record> records = new ArrayList<>();
+            int cachedBlock = -1;
+            ByteBuffer block = null;
+            files.readLock().lock();
+            try {
+                if (deleted) {
+                    return records;
+                }
+                while (records.size() < limit && maxOffset >= 0) {
+                    long[] matches = tokens.latest(tokenSet, maxOffset, limit - records.size());
+                    if (matches.length == 0) {
+                        break;
+                    }
+                    for (long offset : matches) {
+                        int index = lastAtOrBefore(offsets, count, offset);
+                        if (index != cachedBlock) {
+                            block = readBlock(offsets, count, index, maxOffset + 1);
+                            cachedBlock = index;
+                        }
+                        int position = (int) (offset - offsets[index]);
+                        long time = block.getLong(position);
+                        int length = block.getInt(position + Long.BYTES);
+                        if (time < fromMillis) {
+                            return records; // Older records are out of range too.
+                        }
+                        if (time <= toMillis) {
+                            records.add(new Record(time, new String(block.array(),
+                                    position + RECORD_HEADER_BYTES, length, StandardCharsets.UTF_8)));
+                        }
+                    }
+                    maxOffset = matches[matches.length - 1] - 1;
+                }
+                return records;
+            } finally {
+                files.readLock().unlock();
+            }
+        }
+
+        /**
+         * Reads the latest records within a time range, block by block from the newest.
+         *
+         * <p><strong>Rationale:</strong> Threads may write records slightly out of time order, so
+         * one block past each end of the range is read as well.</p>
+         *
+         * @param fromMillis the earliest event time to include.
+         * @param toMillis   the latest event time to include.
+         * @param limit      the number of records wanted.
+         * @return up to {@code limit} of the latest matching records, oldest first.
+         * @throws IOException if the segment cannot be read.
+         */
+        List<Record> latest(long fromMillis, long toMillis, int limit) throws IOException {
+            long[] times;
+            long[] offsets;
+            int count;
+            long end;
+            synchronized (this) {
+                times = indexTimes;
+                offsets = indexOffsets;
+                count = indexCount;
+                end = size;
+            }
+            if (count == 0 || limit <= 0) {
+                return List.of();
+            }
+            int last = Math.min(count - 1, lastAtOrBefore(times, count, toMillis) + 1);
+            List<List<Record>> blocks = new ArrayList<>();
+            int found = 0;
+            boolean pastRange = false;
+            files.readLock().lock();
+            try {
+                if (deleted) {
+                    return List.of();
+                }
+                for (int block = last; block >= 0 && found < limit; block--) {
+                    List<Record> matching = parseBlock(readBlock(offsets, count, block, end), fromMillis, toMillis);
+                    blocks.add(matching);
+                    found += matching.size();
+                    if (pastRange) {
+                        break;
+                    }
+                    pastRange = times[block] < fromMillis;
+                }
+            } finally {
+                files.readLock().unlock();
+            }
+            List<Record> records = new ArrayList<>(found);
+            for (int i = blocks.size() - 1; i >= 0; i--) {
+                records.addAll(blocks.get(i));
+            }
+            return records.subList(Math.max(0, records.size() - limit), records.size());
+        }
+
+        /**
+         * Reads one block of records, inflating it if the segment is compressed. Callers hold the
+         * read lock.
+         *
+         * @param offsets the offsets of the indexed records.
+         * @param count   the number of index entries.
+         * @param block   the block, by index entry.
+         * @param end     the offset just past the segment's last record.
+         * @return the block's records, uncompressed, in a buffer backed by an array.
+         * @throws IOException if the segment cannot be read.
+         */
+        private ByteBuffer readBlock(long[] offsets, int count, int block, long end) throws IOException {
+            long blockEnd = block + 1 < count ? offsets[block + 1] : end;
+            ByteBuffer bytes = ByteBuffer.allocate((int) (blockEnd - offsets[block]));
+            if (compressed == null) {
+                readFully(data, bytes, offsets[block]);
+                return bytes;
+            }
+            ByteBuffer input = ByteBuffer.allocate((int) (blockStarts[block + 1] - blockStarts[block]));
+            readFully(compressed, input, blockStarts[block]);
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(input.array());
+                int inflated = 0;
+                while (inflated < bytes.capacity() && !inflater.finished()) {
+                    int read = inflater.inflate(bytes.array(), inflated, bytes.capacity() - inflated);
+                    if (read == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    inflated += read;
+                }
+                if (inflated != bytes.capacity()) {
+                    throw new IOException("Truncated block in log segment " + name + ".");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt block in log segment " + name + ".", e);
+            } finally {
+                inflater.end();
+            }
+            return bytes;
+        }
+
+        /**
+         * Parses the records of a block that fall within a time range.
+         *
+         * @param block      the block's records.
+         * @param fromMillis the earliest event time to include.
+         * @param toMillis   the latest event time to include.
+         * @return the matching records, in file order.
+         */
+        private static List<Record> parseBlock(ByteBuffer block, long fromMillis, long toMillis) {
+            block.position(0).limit(block.capacity());
+            List<Record> records = new ArrayList<>();
+            while (block.remaining() >= RECORD_HEADER_BYTES) {
+                long time = block.getLong();
+                int length = block.getInt();
+                if (time >= fromMillis && time <= toMillis) {
+                    records.add(new Record(time, new String(block.array(), block.position(), length, StandardCharsets.UTF_8)));
+                }
+                block.position(block.position() + length);
+            }
+            return records;
+        }
+
+        /**
+         * Records a sparse index entry in memory and, optionally, in the index file.
+         *
+         * @param timeMillis the time of the indexed record.
+         * @param offset     the offset of the indexed record.
+         * @param persist    true to write the entry to the index file.
+         * @throws IOException if the entry cannot be written.
+         */
+        private void addIndexEntry(long timeMillis, long offset, boolean persist) throws IOException {
+            if (persist) {
+                indexFile.seek((long) indexCount * INDEX_ENTRY_BYTES);
+                indexFile.writeLong(timeMillis);
+                indexFile.writeLong(offset);
+            }
+            if (indexCount == indexTimes.length) {
+                indexTimes = Arrays.copyOf(indexTimes, indexCount * 2);
+                indexOffsets = Arrays.copyOf(indexOffsets, indexCount * 2);
+            }
+            indexTimes[indexCount] = timeMillis;
+            indexOffsets[indexCount] = offset;
+            indexCount++;
+        }
+
+        /**
+         * Finds the last entry at or before a value.
+         *
+         * @param values the entry values, in nondecreasing order.
+         * @param count  the number of entries.
+         * @param value  the value.
+         * @return the entry's position, or -1 if every entry is later.
+         */
+        private static int lastAtOrBefore(long[] values, int count, long value) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        /**
+         * Fills a buffer from a file.
+         *
+         * @param channel  the file.
+         * @param buffer   the buffer to fill.
+         * @param position the file offset to read from.
+         * @throws IOException if the file ends before the buffer is full or cannot be read.
+         */
+        private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of log segment.");
+                }
+                position += read;
+            }
+        }
+
+        /**
+         * Closes and deletes the segment's files and token runs; reads in progress finish first.
+         *
+         * @throws IOException if a file cannot be deleted.
+         */
+        void delete() throws IOException {
+            files.writeLock().lock();
+            try {
+                deleted = true;
+                close();
+                tokens.clear();
+                for (String suffix : List.of(SEGMENT_SUFFIX, COMPRESSED_SUFFIX, BLOCKS_SUFFIX, INDEX_SUFFIX)) {
+                    Files.deleteIfExists(file(suffix));
+                }
+            } finally {
+                files.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (dataFile != null) {
+                dataFile.close();
+            }
+            if (indexFile != null) {
+                indexFile.close();
+            }
+            if (compressed != null) {
+                compressed.close();
+            }
+            tokens.close();
+        }
+    }
+}
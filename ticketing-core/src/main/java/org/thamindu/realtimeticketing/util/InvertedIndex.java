@@ -0,0 +1,815 @@
+package org.thamindu.realtimeticketing.util;
+
+import org.apache.logging.log4j.status.StatusLogger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * An incremental inverted index from tokens to the IDs of the documents that contain them.
+ *
+ * <p>Document IDs must be added in increasing order. Recent postings are kept in memory and,
+ * every {@code runSize} documents, frozen and handed to a flusher that writes them to an immutable
+ * run file: a sorted dictionary of the run's tokens, their posting lists as delta-encoded
+ * variable-length integers, a Bloom filter of the tokens, and every {@value #SPARSE_INTERVAL}th
+ * dictionary entry. Only the Bloom filter and the sparse dictionary are loaded into memory. A
+ * lookup skips every run whose Bloom filter rules a token out and reads one dictionary block and
+ * one posting list from each of the rest; frozen postings not yet written are searched in memory.</p>
+ *
+ * <p><strong>Rationale:</strong> Each run covers its own range of document IDs, so the runs never
+ * need merging: newest-first results come from walking the runs backwards, intersecting the
+ * posting lists of each, and stopping once enough documents are found. A run's memory grows with
+ * its distinct tokens: about 10 to 20 bits of Bloom filter per token, as the filter is rounded up
+ * to a power of two, plus one sparse dictionary entry per {@value #SPARSE_INTERVAL} tokens. A run of
+ * 65,536 log lines that each name a new ticket holds 128 KB of filter. Writing runs on the flusher
+ * keeps the sorting and file I/O off the thread that adds documents.</p>
+ */
+public class InvertedIndex implements Closeable {
+
+    /**
+     * Format version of run files.
+     */
+    private static final int RUN_VERSION = 2;
+    /**
+     * Number of dictionary entries between entries of the in-memory sparse dictionary.
+     */
+    private static final int SPARSE_INTERVAL = 64;
+    /**
+     * Bits of Bloom filter per token in a run; about a 1% false-positive rate.
+     */
+    private static final int BLOOM_BITS_PER_TOKEN = 10;
+
+    /**
+     * The directory holding the run files.
+     */
+    private final Path directory;
+    /**
+     * File name prefix of this index's run files.
+     */
+    private final String runPrefix;
+    /**
+     * Number of documents per run.
+     */
+    private final int runSize;
+    /**
+     * Runs the writing of frozen postings to run files.
+     */
+    private final Executor flusher;
+    /**
+     * Held while frozen postings are written, so runs are written one at a time and in order.
+     */
+    private final Object writeLock = new Object();
+    /**
+     * Runs on disk, oldest first.
+     */
+    private final List<Run> runs = new CopyOnWriteArrayList<>();
+    /**
+     * Frozen postings waiting to be written to runs, oldest first.
+     */
+    private final List<Frozen> frozen = new CopyOnWriteArrayList<>();
+    /**
+     * Sequence number of the next run.
+     */
+    private long nextRunNumber;
+    /**
+     * Postings of the documents not yet written to a run.
+     */
+    private Map<String, Postings> recent = new HashMap<>();
+    /**
+     * Number of documents not yet written to a run.
+     */
+    private int recentDocuments;
+    /**
+     * ID of the first document not yet written to a run.
+     */
+    private long recentFirst = -1;
+    /**
+     * ID of the last document added.
+     */
+    private long lastDocument = -1;
+
+    /**
+     * Opens an index that writes its runs on the thread that fills them.
+     *
+     * @param directory the directory holding the run files; created if missing.
+     * @param name      the name of the index, used as the prefix of its run files.
+     * @param runSize   the number of documents per run.
+     * @throws IOException if the runs cannot be read.
+     * @see #InvertedIndex(Path, String, int, Executor)
+     */
+    public InvertedIndex(Path directory, String name, int runSize) throws IOException {
+        this(directory, name, runSize, Runnable::run);
+    }
+
+    /**
+     * Opens an index, loading its runs.
+     *
+     * @param directory the directory holding the run files; created if missing.
+     * @param name      the name of the index, used as the prefix of its run files.
+     * @param runSize   the number of documents per run.
+     * @param flusher   runs the writing of full runs, such as a background thread; tasks must run in
+     *                  submission order or they wait for each other.
+     * @throws IOException if the runs cannot be read.
+     */
+    public InvertedIndex(Path directory, String name, int runSize, Executor flusher) throws IOException {
+        this.directory = directory;
+        this.runPrefix = name + ".run-";
+        this.runSize = runSize;
+        this.flusher = flusher;
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, runPrefix + "*")) {
+            for (Path file : stream) {
+                if (!file.toString().endsWith(".tmp")) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null); // Run numbers are zero-padded, so names sort in order.
+        for (Path file : files) {
+            Run run = Run.open(file);
+            runs.add(run);
+            lastDocument = run.lastDocument;
+            nextRunNumber = run.number + 1;
+        }
+    }
+
+    /**
+     * Gets the ID of the last document written to a run, so that a caller recovering from a
+     * restart can add the documents after it again.
+     *
+     * @return the document ID, or -1 if there are no runs.
+     */
+    public long getPersistedUpTo() {
+        return runs.isEmpty() ? -1 : runs.get(runs.size() - 1).lastDocument;
+    }
+
+    /**
+     * Adds a document. Once {@code runSize} documents are held in memory, their postings are frozen
+     * and handed to the flusher to be written to a new run.
+     *
+     * @param documentId the document ID; greater than every ID added before.
+     * @param tokens     the document's distinct tokens.
+     * @throws IllegalArgumentException if the document ID is not greater than the last one added.
+     */
+    public void add(long documentId, Collection<String> tokens) {
+        synchronized (this) {
+            if (documentId <= lastDocument) {
+                throw new IllegalArgumentException("Document IDs must increase.");
+            }
+            lastDocument = documentId;
+            if (recentFirst < 0) {
+                recentFirst = documentId;
+            }
+            for (String token : tokens) {
+                recent.computeIfAbsent(token, key -> new Postings()).add(documentId);
+            }
+            if (++recentDocuments < runSize) {
+                return;
+            }
+            freeze();
+        }
+        flusher.execute(this::writeFrozenQuietly);
+    }
+
+    /**
+     * Writes the postings held in memory, and any frozen ones not yet written, to new runs on the
+     * calling thread.
+     *
+     * @throws IOException if a run cannot be written.
+     */
+    public void flush() throws IOException {
+        synchronized (this) {
+            freeze();
+        }
+        writeFrozen();
+    }
+
+    /**
+     * Deletes every run and forgets the postings held in memory, for when the documents they point
+     * to are gone. Waits for a run being written, then deletes it with the others.
+     *
+     * @throws IOException if a run file cannot be deleted.
+     */
+    public void clear() throws IOException {
+        synchronized (writeLock) {
+            synchronized (this) {
+                for (Run run : runs) {
+                    run.channel.close();
+                    Files.deleteIfExists(run.file);
+                }
+                runs.clear();
+                frozen.clear();
+                recent = new HashMap<>();
+                recentDocuments = 0;
+                recentFirst = -1;
+                lastDocument = -1;
+            }
+        }
+    }
+
+    /**
+     * Finds the latest documents that contain every given token.
+     *
+     * @param tokens        the tokens; at least one.
+     * @param maxDocumentId the largest document ID to return, so callers see a consistent snapshot.
+     * @param limit         the largest number of documents to return.
+     * @return the IDs of up to {@code limit} matching documents, latest first.
+     * @throws IOException if a run cannot be read.
+     */
+    public long[] latest(Collection<String> tokens, long maxDocumentId, int limit) throws IOException {
+        long[] found = new long[Math.max(0, limit)];
+        int count = 0;
+        List<Run> snapshot;
+        List<Frozen> frozenSnapshot;
+        List<long[]> lists = new ArrayList<>(tokens.size());
+        synchronized (this) {
+            snapshot = new ArrayList<>(runs);
+            frozenSnapshot = new ArrayList<>(frozen);
+            for (String token : tokens) {
+                Postings postings = recent.get(token);
+                lists.add(postings == null ? new long[0] : Arrays.copyOf(postings.documents, postings.size));
+            }
+        }
+        count = collect(intersect(lists), maxDocumentId, found, count);
+        for (int i = frozenSnapshot.size() - 1; i >= 0 && count < found.length; i--) {
+            Frozen run = frozenSnapshot.get(i);
+            if (run.firstDocument > maxDocumentId) {
+                continue;
+            }
+            lists.clear();
+            for (String token : tokens) {
+                Postings postings = run.postings.get(token);
+                if (postings == null) {
+                    break;
+                }
+                lists.add(Arrays.copyOf(postings.documents, postings.size)); // Frozen, so never appended to.
+            }
+            if (lists.size() == tokens.size()) {
+                count = collect(intersect(lists), maxDocumentId, found, count);
+            }
+        }
+        for (int i = snapshot.size() - 1; i >= 0 && count < found.length; i--) {
+            Run run = snapshot.get(i);
+            if (run.firstDocument > maxDocumentId) {
+                continue;
+            }
+            lists.clear();
+            for (String token : tokens) {
+                long[] postings = run.postings(token);
+                if (postings.length == 0) {
+                    break;
+                }
+                lists.add(postings);
+            }
+            if (lists.size() == tokens.size()) {
+                count = collect(intersect(lists), maxDocumentId, found, count);
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Closes the run files. Postings still in memory, frozen or not, are not written.
+     *
+     * @throws IOException if a file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Run run : runs) {
+            run.channel.close();
+        }
+    }
+
+    /**
+     * Freezes the postings held in memory, if any, queueing them to be written to a run. Callers
+     * hold the index's monitor.
+     */
+    private void freeze() {
+        if (recentDocuments == 0) {
+            return;
+        }
+        frozen.add(new Frozen(nextRunNumber++, recentFirst, lastDocument, recent));
+        recent = new HashMap<>();
+        recentDocuments = 0;
+        recentFirst = -1;
+    }
+
+    /**
+     * Writes the frozen postings to runs, oldest first, replacing each in lookups once its run is open.
+     *
+     * @throws IOException if a run cannot be written; it stays frozen, to be written by the next attempt.
+     */
+    private void writeFrozen() throws IOException {
+        synchronized (writeLock) {
+            while (!frozen.isEmpty()) {
+                Frozen next = frozen.get(0);
+                Path file = directory.resolve(String.format("%s%08d", runPrefix, next.number));
+                Run.write(file, next.number, next.firstDocument, next.lastDocument, new TreeMap<>(next.postings));
+                Run run = Run.open(file);
+                synchronized (this) {
+                    runs.add(run);
+                    frozen.remove(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the frozen postings to runs on the flusher, reporting a failure rather than throwing.
+     */
+    private void writeFrozenQuietly() {
+        try {
+            writeFrozen();
+        } catch (IOException e) {
+            StatusLogger.getLogger().error("Cannot write index run {}: {}", runPrefix, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hashes a token for the runs' Bloom filters.
+     *
+     * <p><strong>Rationale:</strong> The hash is part of the run file format, so the index keeps
+     * its own rather than borrowing one tuned for another structure, which could change under runs
+     * already on disk.</p>
+     *
+     * @param token the token.
+     * @return a well-mixed 64-bit hash.
+     */
+    static long hash(String token) {
+        long hash = 0x9E3779B97F4A7C15L ^ token.length();
+        for (int i = 0; i < token.length(); i++) {
+            hash = Long.rotateLeft((hash ^ token.charAt(i)) * 0xBF58476D1CE4E5B9L, 27);
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+    /**
+     * Copies matching document IDs, latest first, into the result.
+     *
+     * @param documents     matching document IDs, in increasing order.
+     * @param maxDocumentId the largest document ID to copy.
+     * @param found         the result.
+     * @param count         the number of IDs already in the result.
+     * @return the new number of IDs in the result.
+     */
+    private static int collect(long[] documents, long maxDocumentId, long[] found, int count) {
+        for (int i = documents.length - 1; i >= 0 && count < found.length; i--) {
+            if (documents[i] <= maxDocumentId) {
+                found[count++] = documents[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Intersects sorted posting lists, starting from the shortest.
+     *
+     * @param lists the posting lists, each in increasing order.
+     * @return the document IDs in every list, in increasing order.
+     */
+    static long[] intersect(List<long[]> lists) {
+        if (lists.isEmpty()) {
+            return new long[0];
+        }
+        List<long[]> ordered = new ArrayList<>(lists);
+        ordered.sort((a, b) -> Integer.compare(a.length, b.length));
+        long[] result = ordered.get(0);
+        for (int l = 1; l < ordered.size() && result.length > 0; l++) {
+            long[] other = ordered.get(l);
+            long[] next = new long[result.length];
+            int size = 0;
+            int position = 0;
+            for (long document : result) {
+                position = gallop(other, position, document);
+                if (position < other.length && other[position] == document) {
+                    next[size++] = document;
+                }
+            }
+            result = Arrays.copyOf(next, size);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first position at or after {@code from} whose value is at least {@code target},
+     * probing at doubling distances before a binary search, so that intersecting a short list
+     * with a long one costs close to the length of the short one.
+     *
+     * @param values the sorted values.
+     * @param from   the position to start from.
+     * @param target the value to find.
+     * @return the position, or {@code values.length} if every value is smaller.
+     */
+    private static int gallop(long[] values, int from, long target) {
+        int step = 1;
+        int high = from;
+        while (high < values.length && values[high] < target) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int low = from;
+        high = Math.min(high, values.length - 1);
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A growable list of document IDs.
+     */
+    private static final class Postings {
+        /**
+         * The document IDs, in increasing order.
+         */
+        private long[] documents = new long[4];
+        /**
+         * Number of document IDs.
+         */
+        private int size;
+
+        /**
+         * Appends a document ID.
+         *
+         * @param documentId the document ID.
+         */
+        void add(long documentId) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = documentId;
+        }
+    }
+
+    /**
+     * Postings frozen in memory, waiting to be written to a run.
+     */
+    private static final class Frozen {
+        /**
+         * The run's sequence number.
+         */
+        private final long number;
+        /**
+         * ID of the run's first document.
+         */
+        private final long firstDocument;
+        /**
+         * ID of the run's last document.
+         */
+        private final long lastDocument;
+        /**
+         * The postings by token; no longer modified.
+         */
+        private final Map<String, Postings> postings;
+
+        /**
+         * Constructs frozen postings.
+         *
+         * @param number        the run's sequence number.
+         * @param firstDocument ID of the run's first document.
+         * @param lastDocument  ID of the run's last document.
+         * @param postings      the postings by token.
+         */
+        Frozen(long number, long firstDocument, long lastDocument, Map<String, Postings> postings) {
+            this.number = number;
+            this.firstDocument = firstDocument;
+            this.lastDocument = lastDocument;
+            this.postings = postings;
+        }
+    }
+
+    /**
+     * An immutable run of postings on disk.
+     */
+    private static final class Run {
+        /**
+         * The run's sequence number.
+         */
+        private final long number;
+        /**
+         * The run file's path.
+         */
+        private final Path file;
+        /**
+         * The run file.
+         */
+        private final FileChannel channel;
+        /**
+         * ID of the run's first document.
+         */
+        private final long firstDocument;
+        /**
+         * ID of the run's last document.
+         */
+        private final long lastDocument;
+        /**
+         * Offset of the dictionary in the file.
+         */
+        private final long dictionaryEnd;
+        /**
+         * Bloom filter of the run's tokens.
+         */
+        private final BloomFilter tokens;
+        /**
+         * Every {@value #SPARSE_INTERVAL}th token of the dictionary, in order.
+         */
+        private final String[] sparseTokens;
+        /**
+         * File offsets of the dictionary entries of {@link #sparseTokens}.
+         */
+        private final long[] sparseOffsets;
+
+        /**
+         * Constructs a run.
+         *
+         * @param number        the run's sequence number.
+         * @param file          the run file's path.
+         * @param channel       the run file.
+         * @param firstDocument ID of the run's first document.
+         * @param lastDocument  ID of the run's last document.
+         * @param dictionaryEnd offset just past the dictionary.
+         * @param tokens        Bloom filter of the run's tokens.
+         * @param sparseTokens  every {@value #SPARSE_INTERVAL}th token of the dictionary.
+         * @param sparseOffsets file offsets of those tokens' dictionary entries.
+         */
+        private Run(long number, Path file, FileChannel channel, long firstDocument, long lastDocument, long dictionaryEnd,
+                    BloomFilter tokens, String[] sparseTokens, long[] sparseOffsets) {
+            this.number = number;
+            this.file = file;
+            this.channel = channel;
+            this.firstDocument = firstDocument;
+            this.lastDocument = lastDocument;
+            this.dictionaryEnd = dictionaryEnd;
+            this.tokens = tokens;
+            this.sparseTokens = sparseTokens;
+            this.sparseOffsets = sparseOffsets;
+        }
+
+        /**
+         * Writes a run file: postings, then the dictionary, then the Bloom filter and sparse
+         * dictionary, then the offset of that trailer. The file is written under a temporary name
+         * and moved into place, so a run file is always complete.
+         *
+         * @param file          the run file.
+         * @param number        the run's sequence number.
+         * @param firstDocument ID of the run's first document.
+         * @param lastDocument  ID of the run's last document.
+         * @param postings      the postings, by token in sorted order.
+         * @throws IOException if the file cannot be written.
+         */
+        static void write(Path file, long number, long firstDocument, long lastDocument,
+                          TreeMap<String, Postings> postings) throws IOException {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+                 DataOutputStream out = new DataOutputStream(counter)) {
+                out.writeInt(RUN_VERSION);
+                out.writeLong(number);
+                out.writeLong(firstDocument);
+                out.writeLong(lastDocument);
+
+                long[] postingOffsets = new long[postings.size()];
+                int[] postingLengths = new int[postings.size()];
+                int t = 0;
+                for (Postings list : postings.values()) {
+                    out.flush();
+                    postingOffsets[t] = counter.count;
+                    long previous = 0;
+                    for (int i = 0; i < list.size; i++) {
+                        writeVarLong(out, list.documents[i] - previous);
+                        previous = list.documents[i];
+                    }
+                    out.flush();
+                    postingLengths[t] = (int) (counter.count - postingOffsets[t]);
+                    t++;
+                }
+
+                BloomFilter bloom = new BloomFilter(Math.max(1, postings.size()), BLOOM_BITS_PER_TOKEN);
+                List<String> sparseTokens = new ArrayList<>();
+                List<Long> sparseOffsets = new ArrayList<>();
+                t = 0;
+                for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                    out.flush();
+                    if (t % SPARSE_INTERVAL == 0) {
+                        sparseTokens.add(entry.getKey());
+                        sparseOffsets.add(counter.count);
+                    }
+                    bloom.add(hash(entry.getKey()));
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(postingOffsets[t]);
+                    out.writeInt(entry.getValue().size);
+                    out.writeInt(postingLengths[t]);
+                    t++;
+                }
+                out.flush();
+                long trailer = counter.count;
+                bloom.writeTo(out);
+                out.writeInt(sparseTokens.size());
+                for (int i = 0; i < sparseTokens.size(); i++) {
+                    out.writeUTF(sparseTokens.get(i));
+                    out.writeLong(sparseOffsets.get(i));
+                }
+                out.writeLong(trailer);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Opens a run file, loading its header, Bloom filter and sparse dictionary.
+         *
+         * @param file the run file.
+         * @return the run.
+         * @throws IOException if the file cannot be read or is malformed.
+         */
+        static Run open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 3 * Long.BYTES);
+                readFully(channel, header, 0);
+                if (header.getInt(0) != RUN_VERSION) {
+                    throw new IOException("Unsupported run version in " + file);
+                }
+                ByteBuffer end = ByteBuffer.allocate(Long.BYTES);
+                readFully(channel, end, size - Long.BYTES);
+                long trailer = end.getLong(0);
+                ByteBuffer trailerBytes = ByteBuffer.allocate((int) (size - Long.BYTES - trailer));
+                readFully(channel, trailerBytes, trailer);
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(trailerBytes.array()));
+                BloomFilter tokens = BloomFilter.readFrom(in);
+                int sparseCount = in.readInt();
+                String[] sparseTokens = new String[sparseCount];
+                long[] sparseOffsets = new long[sparseCount];
+                for (int i = 0; i < sparseCount; i++) {
+                    sparseTokens[i] = in.readUTF();
+                    sparseOffsets[i] = in.readLong();
+                }
+                return new Run(header.getLong(Integer.BYTES), file, channel, header.getLong(Integer.BYTES + Long.BYTES),
+                        header.getLong(Integer.BYTES + 2 * Long.BYTES), trailer, tokens, sparseTokens, sparseOffsets);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Reads the posting list of a token.
+         *
+         * @param token the token.
+         * @return the IDs of the run's documents that contain the token, in increasing order.
+         * @throws IOException if the file cannot be read.
+         */
+        long[] postings(String token) throws IOException {
+            if (sparseTokens.length == 0 || !tokens.mightContain(hash(token))) {
+                return new long[0];
+            }
+            int block = Arrays.binarySearch(sparseTokens, token);
+            if (block < 0) {
+                block = -block - 2; // The block whose first token precedes the token.
+                if (block < 0) {
+                    return new long[0];
+                }
+            }
+            long start = sparseOffsets[block];
+            long end = block + 1 < sparseOffsets.length ? sparseOffsets[block + 1] : dictionaryEnd;
+            ByteBuffer entries = ByteBuffer.allocate((int) (end - start));
+            readFully(channel, entries, start);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(entries.array()));
+            while (in.available() > 0) {
+                String candidate = in.readUTF();
+                long offset = in.readLong();
+                int count = in.readInt();
+                int length = in.readInt();
+                if (candidate.equals(token)) {
+                    return decode(offset, count, length);
+                }
+            }
+            return new long[0];
+        }
+
+        /**
+         * Reads and decodes a posting list.
+         *
+         * @param offset the file offset of the list.
+         * @param count  the number of document IDs.
+         * @param length the length of the encoded list, in bytes.
+         * @return the document IDs, in increasing order.
+         * @throws IOException if the file cannot be read.
+         */
+        private long[] decode(long offset, int count, int length) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(length);
+            readFully(channel, bytes, offset);
+            bytes.flip();
+            long[] documents = new long[count];
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                long delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes.get();
+                    delta |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                previous += delta;
+                documents[i] = previous;
+            }
+            return documents;
+        }
+
+        /**
+         * Writes a non-negative number as a variable-length integer, seven bits per byte.
+         *
+         * @param out   the output.
+         * @param value the number.
+         * @throws IOException if the number cannot be written.
+         */
+        private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        /**
+         * Fills a buffer from a file.
+         *
+         * @param channel  the file.
+         * @param buffer   the buffer to fill.
+         * @param position the file offset to read from.
+         * @throws IOException if the file ends before the buffer is full or cannot be read.
+         */
+        private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of index run.");
+                }
+                position += read;
+            }
+        }
+    }
+
+    /**
+     * An output stream that counts the bytes written through it.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        /**
+         * Number of bytes written.
+         */
+        private long count;
+
+        /**
+         * Constructs the stream.
+         *
+         * @param out the stream to write to.
+         */
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with power-of-two buckets.
+ *
+ * <p>Each recorded duration increments the bucket of its highest set bit, so recording is a
+ * single atomic increment and percentiles are accurate to within a factor of two.</p>
+ *
+ * <p><strong>Rationale:</strong> Latency is recorded on hot paths by many threads at once; a fixed
+ * array of counters costs no allocation or locking and is precise enough to compare classes of
+ * requests or spot tail latency.</p>
+ */
+public class LatencyHistogram {
+
+    /**
+     * Counts per bucket; bucket {@code i} holds durations in {@code [2^(i-1), 2^i)} nanoseconds.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    /**
+     * Number of recorded durations.
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * Sum of recorded durations, in nanoseconds.
+     */
+    private final LongAdder totalNanos = new LongAdder();
+    /**
+     * Longest recorded duration, in nanoseconds.
+     */
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration, in nanoseconds; negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean recorded duration.
+     *
+     * @return the mean, in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    /**
+     * Gets the sum of the recorded durations.
+     *
+     * @return the total, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Gets the longest recorded duration.
+     *
+     * @return the maximum, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the upper bound of the bucket holding the percentile, in nanoseconds, capped at the
+     * maximum recorded duration; or 0 if nothing was recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[buckets.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                long upperBound = i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upperBound, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+}
@@ -0,0 +1,151 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.util.Locale;
+
+/**
+ * The {@code LoggerUtil} class provides the logging functionality for the system.
+ *
+ * <p>This utility supports logging messages to the console as well as to a log file.
+ * It is designed to record activities like ticket additions, removals and system errors in a structured format.
+ *
+ * <p>Key features:
+ * <ul>
+ *     <li>Thread-safe logging for concurrent operations.</li>
+ *     <li>Logs include timestamps for better traceability.</li>
+ *     <li>Callers only enqueue their entry; a single background {@link AsyncLogWriter} formats the
+ *     entries and writes them to the console and the log file in batches.</li>
+ *     <li>The queue is bounded; when it is full, callers wait or the entry is dropped, according to
+ *     the {@link OverflowPolicy}, set with the {@value #OVERFLOW_POLICY_PROPERTY} system property.</li>
+ *     <li>Entries still queued when the JVM shuts down are written before it exits.</li>
+ * </ul>
+ *
+ * <p><strong>Rationale:</strong> Writing each entry inline serialised every caller on one monitor
+ * and on console and file I/O, and reopened the log file for every entry. A lock-free queue lets
+ * callers proceed independently, and one writer that keeps the file open and writes many entries
+ * per call turns the I/O cost per entry into a small share of a batch.</p>
+ */
+public class LoggerUtil {
+
+    /**
+     * What a caller does when the queue of entries is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait until the writer makes room, so no entry is lost.
+         */
+        BLOCK,
+        /**
+         * Drop the entry and count it; the writer reports the number dropped.
+         */
+        DROP
+    }
+
+    /**
+     * The system property that sets the {@link OverflowPolicy}, {@code BLOCK} or {@code DROP}.
+     */
+    public static final String OVERFLOW_POLICY_PROPERTY = "logger.overflowPolicy";
+
+    /**
+     * The path to the log file where log entries will be written.
+     * Default value is {@code system.log}.
+     */
+    private static final String LOG_FILE = "system.log";
+
+    /**
+     * Largest number of entries waiting to be written.
+     */
+    private static final int QUEUE_CAPACITY = 8192;
+
+    /**
+     * How long shutdown waits for the writer to empty the queue.
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * The writer of every entry logged through this class.
+     */
+    private static final AsyncLogWriter WRITER = new AsyncLogWriter(QUEUE_CAPACITY,
+            overflowPolicy(System.getProperty(OVERFLOW_POLICY_PROPERTY)), System.out, LOG_FILE);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> WRITER.shutdown(SHUTDOWN_TIMEOUT_MILLIS),
+                "logger-util-shutdown"));
+    }
+
+    /**
+     * Sets what callers do when the queue of entries is full, overriding the system property.
+     *
+     * @param policy the overflow policy; {@link OverflowPolicy#BLOCK} by default.
+     */
+    public static void setOverflowPolicy(OverflowPolicy policy) {
+        WRITER.setOverflowPolicy(policy);
+    }
+
+    /**
+     * Logs a message to both the console and a log file.
+     *
+     * <p>The entry's time, level and message are queued; the background writer formats it and
+     * outputs it to the console and appends it to the log file.
+     *
+     * @param level the log level (e.g., INFO, WARN, ERROR)
+     * @param message the message to be logged
+     */
+    public static void log(String level, String message){
+        WRITER.log(level, message);
+    }
+
+    /**
+     * Waits until every entry logged before the call has been written.
+     *
+     * @param timeoutMillis how long to wait, in milliseconds.
+     * @return true if the entries were written in time.
+     */
+    public static boolean flush(long timeoutMillis) {
+        return WRITER.flush(timeoutMillis);
+    }
+
+    /**
+     * Logs a normal informative message.
+     *
+     * @param message the message to be logged.
+     */
+    public static void info(String message) {
+        log("INFO", message);
+    }
+
+    /**
+     * Logs a warning message.
+     *
+     * @param message the message to be logged.
+     */
+    public static void warn(String message){
+        log("WARN", message);
+    }
+
+    /**
+     * Logs an error message.
+     *
+     * @param message the message to be logged.
+     */
+    public static void error(String message){
+        log("ERROR", message);
+    }
+
+    /**
+     * Parses the overflow policy property.
+     *
+     * @param value the property value, or null.
+     * @return the named policy, or {@link OverflowPolicy#BLOCK} if the value is missing or unknown.
+     */
+    private static OverflowPolicy overflowPolicy(String value) {
+        if (value == null || value.isBlank()) {
+            return OverflowPolicy.BLOCK;
+        }
+        try {
+            return OverflowPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown " + OVERFLOW_POLICY_PROPERTY + " '" + value + "'; using BLOCK.");
+            return OverflowPolicy.BLOCK;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed-capacity, lock-free hash set of ticket fingerprints kept outside the Java heap,
+ * with a per-entry state that can be advanced atomically (for example from valid to used).
+ *
+ * <p>Each slot is one {@code long} in a direct {@code ByteBuffer}: the top two bits hold the
+ * entry's state and the remaining 62 bits hold a fingerprint of the ticket ID. Collisions are
+ * resolved by linear probing, and every update is a single compare-and-set through a
+ * {@code VarHandle}, so readers never block and never see a torn entry.</p>
+ *
+ * <p><strong>Rationale:</strong> Millions of sold ticket IDs cost eight bytes each off-heap and
+ * add nothing to garbage collection work, and a lookup is a hash plus, usually, one cache line.
+ * With 62-bit fingerprints, a false match between two different IDs is negligible even at
+ * tens of millions of entries.</p>
+ */
+public class OffHeapTicketSet {
+
+    /**
+     * The state of an entry in the set.
+     */
+    public enum State {
+        /** The ticket is not in the set. */
+        ABSENT,
+        /** The ticket is valid and has not been used. */
+        VALID,
+        /** The ticket has been used. */
+        USED,
+        /** The ticket was revoked, e.g. refunded. */
+        REVOKED
+    }
+
+    /**
+     * View of the slot buffer as an array of {@code long}s, supporting atomic access.
+     */
+    private static final VarHandle SLOTS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    /**
+     * Number of low bits holding the fingerprint.
+     */
+    private static final int STATE_SHIFT = 62;
+    /**
+     * Mask selecting the fingerprint from a slot.
+     */
+    private static final long FINGERPRINT_MASK = (1L << STATE_SHIFT) - 1;
+    /**
+     * Largest share of slots that may be occupied.
+     */
+    private static final double MAX_LOAD = 0.75;
+    /**
+     * Entry states by ordinal, cached to avoid copying {@code State.values()} on every lookup.
+     */
+    private static final State[] STATES = State.values();
+
+    /**
+     * The slots; zero means empty.
+     */
+    private final ByteBuffer slots;
+    /**
+     * Number of slots; always a power of two.
+     */
+    private final int capacity;
+    /**
+     * Number of occupied slots.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Constructs a set able to hold the specified number of tickets.
+     *
+     * @param expectedTickets the number of tickets the set must hold.
+     * @throws IllegalArgumentException if the number is not positive or too large for one buffer.
+     */
+    public OffHeapTicketSet(int expectedTickets) {
+        if (expectedTickets <= 0 || expectedTickets > (1 << 26)) {
+            throw new IllegalArgumentException("Expected tickets must be between 1 and " + (1 << 26) + ".");
+        }
+        int slotCount = Integer.highestOneBit((int) Math.ceil(expectedTickets / MAX_LOAD) - 1) << 1;
+        this.capacity = Math.max(2, slotCount);
+        // Over-allocate slightly so that the slots can be aligned for atomic 8-byte access.
+        this.slots = ByteBuffer.allocateDirect(capacity * Long.BYTES + Long.BYTES).alignedSlice(Long.BYTES);
+    }
+
+    /**
+     * Computes the 64-bit hash of a ticket ID used by this set and by companion filters.
+     *
+     * @param ticketId the ticket ID.
+     * @return a well-mixed 64-bit hash.
+     */
+    public static long hash(String ticketId) {
+        long hash = 0xCBF29CE484222325L; // FNV-1a, then a final avalanche.
+        for (int i = 0; i < ticketId.length(); i++) {
+            hash = (hash ^ ticketId.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Adds a ticket as valid, or makes a revoked ticket valid again. A ticket already used stays
+     * used, so selling it again can never let it through the gate a second time.
+     *
+     * @param hash the ticket's hash, from {@link #hash(String)}.
+     * @return the ticket's state before the call: {@code ABSENT} or {@code REVOKED} if it is now
+     * valid, {@code VALID} if it already was, or {@code USED} if it was left used.
+     * @throws IllegalStateException if the set is full.
+     */
+    public State add(long hash) {
+        long fingerprint = fingerprint(hash);
+        long valid = pack(State.VALID, fingerprint);
+        int index = (int) hash & (capacity - 1);
+        for (int probes = 0; probes < capacity; probes++, index = (index + 1) & (capacity - 1)) {
+            while (true) {
+                long slot = (long) SLOTS.getVolatile(slots, index * Long.BYTES);
+                if (slot == 0) {
+                    if (size.get() >= capacity * MAX_LOAD) {
+                        throw new IllegalStateException("Ticket set is full.");
+                    }
+                    if (SLOTS.compareAndSet(slots, index * Long.BYTES, 0L, valid)) {
+                        size.incrementAndGet();
+                        return State.ABSENT;
+                    }
+                    continue; // Another thread claimed the slot; look at it again.
+                }
+                if ((slot & FINGERPRINT_MASK) != fingerprint) {
+                    break; // Occupied by another ticket; probe the next slot.
+                }
+                State current = stateOf(slot);
+                if (current != State.REVOKED) {
+                    return current; // Valid already, or used and never to be made valid again.
+                }
+                if (SLOTS.compareAndSet(slots, index * Long.BYTES, slot, valid)) {
+                    return State.REVOKED;
+                }
+            }
+        }
+        throw new IllegalStateException("Ticket set is full.");
+    }
+
+    /**
+     * Looks up the state of a ticket.
+     *
+     * @param hash the ticket's hash, from {@link #hash(String)}.
+     * @return the ticket's state, or {@code ABSENT} if it is not in the set.
+     */
+    public State get(long hash) {
+        int index = find(hash);
+        return index < 0 ? State.ABSENT : stateOf((long) SLOTS.getVolatile(slots, index * Long.BYTES));
+    }
+
+    /**
+     * Atomically moves a ticket from one state to another.
+     *
+     * @param hash the ticket's hash, from {@link #hash(String)}.
+     * @param from the state the ticket must be in.
+     * @param to   the state to move it to.
+     * @return the state the ticket was in: {@code from} if the transition happened, otherwise the
+     * state that prevented it, or {@code ABSENT} if the ticket is not in the set.
+     */
+    public State transition(long hash, State from, State to) {
+        int index = find(hash);
+        if (index < 0) {
+            return State.ABSENT;
+        }
+        long fingerprint = fingerprint(hash);
+        while (true) {
+            long slot = (long) SLOTS.getVolatile(slots, index * Long.BYTES);
+            State current = stateOf(slot);
+            if (current != from) {
+                return current;
+            }
+            if (SLOTS.compareAndSet(slots, index * Long.BYTES, slot, pack(to, fingerprint))) {
+                return from;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of tickets in the set.
+     *
+     * @return the number of tickets.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Gets the number of off-heap bytes used by the set.
+     *
+     * @return the size of the slot buffer in bytes.
+     */
+    public long getOffHeapBytes() {
+        return (long) capacity * Long.BYTES;
+    }
+
+    /**
+     * Finds the slot holding a ticket.
+     *
+     * @param hash the ticket's hash.
+     * @return the slot index, or -1 if the ticket is not in the set.
+     */
+    private int find(long hash) {
+        long fingerprint = fingerprint(hash);
+        int index = (int) hash & (capacity - 1);
+        for (int probes = 0; probes < capacity; probes++, index = (index + 1) & (capacity - 1)) {
+            long slot = (long) SLOTS.getVolatile(slots, index * Long.BYTES);
+            if (slot == 0) {
+                return -1; // Entries are never removed, so an empty slot ends the probe sequence.
+            }
+            if ((slot & FINGERPRINT_MASK) == fingerprint) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Derives the non-zero fingerprint stored for a hash.
+     *
+     * @param hash the ticket's hash.
+     * @return the 62-bit fingerprint.
+     */
+    private static long fingerprint(long hash) {
+        long fingerprint = (hash >>> 2) & FINGERPRINT_MASK;
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /**
+     * Packs a state and fingerprint into a slot value.
+     *
+     * @param state       the state; never {@code ABSENT}.
+     * @param fingerprint the fingerprint.
+     * @return the slot value.
+     */
+    private static long pack(State state, long fingerprint) {
+        return ((long) state.ordinal() << STATE_SHIFT) | fingerprint;
+    }
+
+    /**
+     * Extracts the state from a slot value.
+     *
+     * @param slot the slot value.
+     * @return the state.
+     */
+    private static State stateOf(long slot) {
+        return STATES[(int) (slot >>> STATE_SHIFT)];
+    }
+}
@@ -0,0 +1,236 @@
+package org.thamindu.realtimeticketing.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * One stage of a staged event-driven (SEDA) pipeline: a bounded queue drained by a dedicated
+ * pool of worker threads, each of which processes items in micro-batches.
+ *
+ * <p>A worker blocks for the first item, then drains whatever else is already queued, up to the
+ * batch size, and hands the whole batch to the stage's handler. If the handler throws, the worker
+ * logs the exception, passes the batch to the stage's failure handler and carries on with the
+ * next batch.</p>
+ *
+ * <p><strong>Rationale:</strong> Giving each stage its own bounded queue and threads isolates the
+ * stages from each other: a slow stage builds up its own queue, and once that queue is full the
+ * stage before it blocks on {@code put}, so back-pressure travels upstream instead of work piling
+ * up without bound. Batching amortizes per-call costs, such as a lock or a remote call, when the
+ * stage falls behind, while adding no delay when it keeps up.</p>
+ *
+ * @param <T> the type of items processed by the stage.
+ */
+public class PipelineStage<T> {
+
+    /**
+     * Logger instance for logging pipeline stage events.
+     */
+    private static final Logger logger = LogManager.getLogger(PipelineStage.class);
+
+    /**
+     * The name of the stage, used for thread names and statistics.
+     */
+    private final String name;
+    /**
+     * Items waiting to be processed.
+     */
+    private final BlockingQueue<T> queue;
+    /**
+     * The largest number of items handed to the handler at once.
+     */
+    private final int batchSize;
+    /**
+     * Processes a batch of items.
+     */
+    private final Consumer<List<T>> handler;
+    /**
+     * Cleans up after a batch whose handler threw.
+     */
+    private final BiConsumer<List<T>, RuntimeException> failureHandler;
+    /**
+     * The stage's worker threads.
+     */
+    private final List<Thread> workers = new ArrayList<>();
+    /**
+     * Number of items processed.
+     */
+    private final LongAdder processed = new LongAdder();
+    /**
+     * Number of batches processed.
+     */
+    private final LongAdder batches = new LongAdder();
+    /**
+     * Number of items turned away because the queue was full.
+     */
+    private final LongAdder rejected = new LongAdder();
+    /**
+     * Total time spent in the handler, in nanoseconds.
+     */
+    private final LongAdder busyNanos = new LongAdder();
+    /**
+     * When the stage was started, in nanoseconds.
+     */
+    private final long startedNanos = System.nanoTime();
+
+    /**
+     * Constructs a stage whose failed batches are only logged, and starts its workers.
+     *
+     * @param name          the name of the stage.
+     * @param queueCapacity the maximum number of items waiting in the stage.
+     * @param workerCount   the number of worker threads.
+     * @param batchSize     the largest number of items handed to the handler at once.
+     * @param handler       processes a batch of items.
+     * @throws IllegalArgumentException if any size is not positive.
+     */
+    public PipelineStage(String name, int queueCapacity, int workerCount, int batchSize, Consumer<List<T>> handler) {
+        this(name, queueCapacity, workerCount, batchSize, handler, (batch, e) -> { });
+    }
+
+    /**
+     * Constructs a stage and starts its workers.
+     *
+     * @param name           the name of the stage.
+     * @param queueCapacity  the maximum number of items waiting in the stage.
+     * @param workerCount    the number of worker threads.
+     * @param batchSize      the largest number of items handed to the handler at once.
+     * @param handler        processes a batch of items.
+     * @param failureHandler receives a batch whose handler threw, with the exception, for example to
+     *                       fail the items the handler had not yet passed on.
+     * @throws IllegalArgumentException if any size is not positive.
+     */
+    public PipelineStage(String name, int queueCapacity, int workerCount, int batchSize, Consumer<List<T>> handler,
+                         BiConsumer<List<T>, RuntimeException> failureHandler) {
+        if (queueCapacity <= 0 || workerCount <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Queue capacity, worker count and batch size must be positive.");
+        }
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.handler = handler;
+        this.failureHandler = failureHandler;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "pipeline-" + name + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Adds an item to the stage without waiting.
+     *
+     * @param item the item to process.
+     * @return true if the item was queued, false if the stage is full.
+     */
+    public boolean offer(T item) {
+        if (queue.offer(item)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Adds an item to the stage, waiting for room if it is full.
+     * Used between stages so that a full stage slows down the stage feeding it.
+     *
+     * @param item the item to process.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void put(T item) throws InterruptedException {
+        queue.put(item);
+    }
+
+    /**
+     * Stops the stage's workers and returns the items that were still queued.
+     *
+     * @return the unprocessed items.
+     */
+    public List<T> shutdown() {
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<T> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        return remaining;
+    }
+
+    /**
+     * Reports the stage's queue depth and throughput.
+     *
+     * @return the queue depth and capacity, worker count, items processed and rejected, mean batch
+     * size, mean handler time per batch in milliseconds, and items processed per second since start.
+     */
+    public Map<String, Object> getStatistics() {
+        long items = processed.sum();
+        long batchCount = batches.sum();
+        double elapsedSeconds = Math.max(1e-3, (System.nanoTime() - startedNanos) / 1e9);
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("queueDepth", queue.size());
+        statistics.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        statistics.put("workers", workers.size());
+        statistics.put("processed", items);
+        statistics.put("rejected", rejected.sum());
+        statistics.put("meanBatchSize", batchCount == 0 ? 0.0 : (double) items / batchCount);
+        statistics.put("meanBatchMs", batchCount == 0 ? 0.0 : busyNanos.sum() / 1e6 / batchCount);
+        statistics.put("throughputPerSecond", items / elapsedSeconds);
+        return statistics;
+    }
+
+    /**
+     * Gets the name of the stage.
+     *
+     * @return the stage name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Runs a worker: waits for an item, drains a batch and hands it to the handler, until interrupted.
+     */
+    private void work() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            long started = System.nanoTime();
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                logger.error("Pipeline stage {} failed to process a batch of {}.", name, batch.size(), e);
+                try {
+                    failureHandler.accept(batch, e);
+                } catch (RuntimeException cleanupFailure) {
+                    logger.error("Pipeline stage {} failed to clean up a failed batch.", name, cleanupFailure);
+                }
+            }
+            busyNanos.add(System.nanoTime() - started);
+            processed.add(batch.size());
+            batches.increment();
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An exact per-key count of events within a sliding window, such as tickets bought per customer
+ * per day.
+ *
+ * <p>Each key with events in the window maps to the times of those events, at most {@code limit}
+ * of them. The times are replaced rather than modified, so every update is a single atomic
+ * {@code compute} on the key and a sweep can drop a key whose events have all expired with a
+ * conditional remove. Sweeps run on a daemon thread every sweep interval, never on a caller's
+ * thread, so each check costs one {@code compute} however many keys are held.</p>
+ *
+ * <p>Memory is bounded by the keys with an event in the last window plus one sweep interval: each
+ * holds one entry of at most {@code limit} times, and a key is dropped by the first sweep after its
+ * last event leaves the window. For a daily quota this is one entry per customer who bought in the
+ * last day and minute, whatever the total number of customers.</p>
+ *
+ * <p><strong>Rationale:</strong> A hashed sketch shares counters between keys, which for a limit of
+ * a few tickets per day over millions of customers refuses honest customers who happen to share a
+ * slot with busy ones. Exact counts cost one small entry per customer active in the window and
+ * never refuse anyone wrongly.</p>
+ */
+public class SlidingWindowQuota implements AutoCloseable {
+
+    /**
+     * Longest time between sweeps, in milliseconds, used unless another interval is given.
+     */
+    public static final long DEFAULT_SWEEP_INTERVAL_MILLIS = 60_000;
+
+    /**
+     * Times of each key's events within the window, oldest first.
+     */
+    private final ConcurrentHashMap<String, long[]> events = new ConcurrentHashMap<>();
+    /**
+     * Length of the window, in milliseconds.
+     */
+    private final long windowMillis;
+    /**
+     * The daemon thread that sweeps expired keys, or null if the owner sweeps.
+     */
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Constructs a quota swept every window or {@value #DEFAULT_SWEEP_INTERVAL_MILLIS} ms,
+     * whichever is shorter.
+     *
+     * @param windowMillis the length of the sliding window, in milliseconds.
+     * @throws IllegalArgumentException if the window is not positive.
+     */
+    public SlidingWindowQuota(long windowMillis) {
+        this(windowMillis, Math.min(windowMillis, DEFAULT_SWEEP_INTERVAL_MILLIS));
+    }
+
+    /**
+     * Constructs a quota and starts its sweeper.
+     *
+     * @param windowMillis        the length of the sliding window, in milliseconds.
+     * @param sweepIntervalMillis how often expired keys are swept, in milliseconds; 0 to start no
+     *                            sweeper and leave sweeping to the owner through {@link #sweep(long)}.
+     * @throws IllegalArgumentException if the window is not positive or the interval is negative.
+     */
+    public SlidingWindowQuota(long windowMillis, long sweepIntervalMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("The window must be positive.");
+        }
+        if (sweepIntervalMillis < 0) {
+            throw new IllegalArgumentException("The sweep interval must not be negative.");
+        }
+        this.windowMillis = windowMillis;
+        if (sweepIntervalMillis == 0) {
+            this.sweeper = null;
+        } else {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sliding-window-quota-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(() -> sweep(System.currentTimeMillis()),
+                    sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Records one event for a key if doing so keeps it within the limit.
+     *
+     * @param key       the key, e.g. a customer ID.
+     * @param limit     the maximum number of events allowed within the window.
+     * @param nowMillis the current time, in milliseconds.
+     * @return true if the event was recorded, false if the key is already at its limit.
+     */
+    public boolean tryAcquire(String key, int limit, long nowMillis) {
+        boolean[] acquired = new boolean[1];
+        events.compute(key, (k, times) -> {
+            long[] live = live(times, nowMillis);
+            if (live.length >= limit) {
+                return live.length == 0 ? null : live;
+            }
+            acquired[0] = true;
+            long[] updated = Arrays.copyOf(live, live.length + 1);
+            updated[live.length] = nowMillis;
+            return updated;
+        });
+        return acquired[0];
+    }
+
+    /**
+     * Removes the latest recorded event for a key, e.g. when the action it counted did not happen.
+     *
+     * @param key       the key.
+     * @param nowMillis the current time, in milliseconds.
+     */
+    public void release(String key, long nowMillis) {
+        events.computeIfPresent(key, (k, times) -> {
+            long[] live = live(times, nowMillis);
+            return live.length <= 1 ? null : Arrays.copyOf(live, live.length - 1);
+        });
+    }
+
+    /**
+     * Counts the events recorded for a key within the window.
+     *
+     * @param key       the key.
+     * @param nowMillis the current time, in milliseconds.
+     * @return the number of events.
+     */
+    public int count(String key, long nowMillis) {
+        return live(events.get(key), nowMillis).length;
+    }
+
+    /**
+     * Gets the number of keys held, including any whose events have expired but not yet been swept.
+     *
+     * @return the number of keys.
+     */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * Drops every key whose events have all left the window. The sweeper calls this on its own
+     * thread; an owner that started none calls it on a schedule of its own.
+     *
+     * @param nowMillis the current time, in milliseconds.
+     */
+    public void sweep(long nowMillis) {
+        events.forEach((key, times) -> {
+            if (live(times, nowMillis).length == 0) {
+                events.remove(key, times); // Only if no event was recorded since.
+            }
+        });
+    }
+
+    /**
+     * Stops the sweeper, if one was started.
+     */
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Selects the event times still within the window.
+     *
+     * @param times     the event times, oldest first, or null.
+     * @param nowMillis the current time, in milliseconds.
+     * @return the times within the window; the same array if none have expired.
+     */
+    private long[] live(long[] times, long nowMillis) {
+        if (times == null) {
+            return new long[0];
+        }
+        int expired = 0;
+        while (expired < times.length && nowMillis - times[expired] >= windowMillis) {
+            expired++;
+        }
+        return expired == 0 ? times : Arrays.copyOfRange(times, expired, times.length);
+    }
+}
@@ -0,0 +1,207 @@
+package org.thamindu.realtimeticketing.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples the lifecycle of tickets and purchases and aggregates their latencies.
+ *
+ * <p>Tickets are sampled by a hash of their ID, so the decision made when a ticket is released is
+ * repeated when it is sold without storing anything for unsampled tickets. Only a sampled ticket's
+ * release time is kept, and its time in the pool is recorded per vendor and per sale path when it
+ * is sold. Operations such as permit waits and purchases are sampled at random with a timer.</p>
+ *
+ * <p><strong>Rationale:</strong> Timing every ticket would add a clock read and a map update to
+ * each sale. With sampling, the unsampled path is a hash and a comparison, and a sample rate of
+ * zero turns tracing off entirely, while the distributions of a few percent of tickets are
+ * enough to see where time goes.</p>
+ */
+public class TicketTracer {
+
+    /**
+     * Value returned by {@link #startTimer()} when the operation is not sampled.
+     */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+    /**
+     * Number of distinct sampling buckets; the sample rate is resolved to one in this many.
+     */
+    private static final int SAMPLE_RESOLUTION = 1 << 24;
+
+    /**
+     * The fraction of tickets and operations traced.
+     */
+    private final double sampleRate;
+    /**
+     * Number of sampling buckets, out of {@link #SAMPLE_RESOLUTION}, that are traced.
+     */
+    private final int threshold;
+    /**
+     * Release time, from {@link System#nanoTime()}, of each sampled ticket not yet sold.
+     */
+    private final Map<String, Long> releasedAt = new ConcurrentHashMap<>();
+    /**
+     * Time in the pool of sampled tickets, per vendor.
+     */
+    private final Map<String, LatencyHistogram> timeInPoolByVendor = new ConcurrentHashMap<>();
+    /**
+     * Time in the pool of sampled tickets, per sale path.
+     */
+    private final Map<String, LatencyHistogram> timeInPoolByPath = new ConcurrentHashMap<>();
+    /**
+     * Durations of sampled operations, per stage.
+     */
+    private final Map<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a tracer.
+     *
+     * @param sampleRate the fraction of tickets and operations to trace, from 0 (off) to 1 (all).
+     * @throws IllegalArgumentException if the sample rate is outside [0, 1].
+     */
+    public TicketTracer(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1.");
+        }
+        this.sampleRate = sampleRate;
+        this.threshold = (int) Math.round(sampleRate * SAMPLE_RESOLUTION);
+    }
+
+    /**
+     * Gets the fraction of tickets and operations traced.
+     *
+     * @return the sample rate.
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Checks whether a ticket is traced. The answer depends only on the ticket ID.
+     *
+     * @param ticketId the ticket ID.
+     * @return true if the ticket is sampled.
+     */
+    public boolean isSampled(String ticketId) {
+        if (threshold == 0) {
+            return false;
+        }
+        int hash = ticketId.hashCode() * 0x9E3779B9; // Spread sequential IDs across the buckets.
+        return ((hash ^ (hash >>> 16)) & (SAMPLE_RESOLUTION - 1)) < threshold;
+    }
+
+    /**
+     * Records that a ticket entered the pool, starting its time in the pool if it is sampled.
+     * A refunded ticket that returns to the pool starts again.
+     *
+     * @param ticketId the ticket ID.
+     */
+    public void ticketAdded(String ticketId) {
+        if (isSampled(ticketId)) {
+            releasedAt.put(ticketId, System.nanoTime());
+        }
+    }
+
+    /**
+     * Records that a ticket was sold, ending its time in the pool if it is sampled.
+     *
+     * @param ticketId the ticket ID.
+     * @param path     how the ticket was bought.
+     */
+    public void ticketSold(String ticketId, String path) {
+        if (!isSampled(ticketId)) {
+            return;
+        }
+        Long start = releasedAt.remove(ticketId);
+        if (start == null) {
+            return; // Released before tracing started or before the pool was reinitialized.
+        }
+        long nanos = System.nanoTime() - start;
+        timeInPoolByVendor.computeIfAbsent(vendorOf(ticketId), key -> new LatencyHistogram()).record(nanos);
+        timeInPoolByPath.computeIfAbsent(path, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Starts timing an operation if it is sampled.
+     *
+     * @return the start time to pass to {@link #stopTimer(String, long)}, or {@link #NOT_SAMPLED}.
+     */
+    public long startTimer() {
+        if (threshold == 0 || (threshold < SAMPLE_RESOLUTION
+                && ThreadLocalRandom.current().nextInt(SAMPLE_RESOLUTION) >= threshold)) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the duration of a timed operation.
+     *
+     * @param stage       the name of the operation.
+     * @param startNanos  the value returned by {@link #startTimer()}; nothing is recorded for {@link #NOT_SAMPLED}.
+     */
+    public void stopTimer(String stage, long startNanos) {
+        if (startNanos != NOT_SAMPLED) {
+            stages.computeIfAbsent(stage, key -> new LatencyHistogram()).record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Discards the release times of tickets still in the pool, for example when the pool is
+     * reinitialized. Recorded distributions are kept.
+     */
+    public void clear() {
+        releasedAt.clear();
+    }
+
+    /**
+     * Reports the recorded distributions.
+     *
+     * @return the sample rate, the number of sampled tickets still in the pool, and the count,
+     * mean, median, 99th percentile and maximum in milliseconds of time in the pool per vendor
+     * ({@code timeInPool}) and per sale path ({@code timeInPoolByPath}), and of each timed
+     * operation ({@code stages}).
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new TreeMap<>();
+        statistics.put("sampleRate", sampleRate);
+        statistics.put("pendingTickets", releasedAt.size());
+        statistics.put("timeInPool", summarize(timeInPoolByVendor));
+        statistics.put("timeInPoolByPath", summarize(timeInPoolByPath));
+        statistics.put("stages", summarize(stages));
+        return statistics;
+    }
+
+    /**
+     * Summarises a set of histograms.
+     *
+     * @param histograms the histograms, by name.
+     * @return per name, the count and the mean, median, 99th-percentile and maximum in milliseconds.
+     */
+    private static Map<String, Map<String, Object>> summarize(Map<String, LatencyHistogram> histograms) {
+        Map<String, Map<String, Object>> summaries = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            Map<String, Object> summary = new TreeMap<>();
+            summary.put("count", histogram.getCount());
+            summary.put("meanMs", histogram.getMeanNanos() / 1e6);
+            summary.put("p50Ms", histogram.getPercentileNanos(50) / 1e6);
+            summary.put("p99Ms", histogram.getPercentileNanos(99) / 1e6);
+            summary.put("maxMs", histogram.getMaxNanos() / 1e6);
+            summaries.put(entry.getKey(), summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * Derives the vendor from a ticket ID of the form {@code <ticket base>-<sequence number>}.
+     *
+     * @param ticketId the ticket ID.
+     * @return the ticket base, which names the vendor that released the ticket.
+     */
+    private static String vendorOf(String ticketId) {
+        int separator = ticketId.lastIndexOf('-');
+        return separator > 0 ? ticketId.substring(0, separator) : ticketId;
+    }
+}
@@ -0,0 +1,157 @@
+package org.thamindu.realtimeticketing.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events emitted by the ticketing engine.
+ *
+ * <p>Duration events carry thresholds, so only slow permit waits and long monitor holds are
+ * written during continuous recording; per-ticket events are disabled unless a recording turns
+ * them on, for example with {@code -XX:StartFlightRecording:+org.thamindu.realtimeticketing.TicketSold#enabled=true}.
+ * {@link ContentionReport} summarises a recording.</p>
+ *
+ * <p><strong>Rationale:</strong> When on-sale latency spikes, the question is which of semaphore
+ * waits, the pool monitor, logging or GC is responsible. JFR records all four on one timeline,
+ * and an event that is disabled or below its threshold costs a single branch, so the
+ * instrumentation can stay in production code.</p>
+ */
+public final class TicketingEvents {
+
+    /**
+     * Prevents instantiation; this class only groups the event types.
+     */
+    private TicketingEvents() {
+    }
+
+    /**
+     * A vendor released a ticket into the pool.
+     */
+    @Name("org.thamindu.realtimeticketing.TicketAdded")
+    @Label("Ticket Added")
+    @Category({"Ticketing", "Pool"})
+    @Description("A ticket was released into the pool, either queued or handed to a waiting buyer.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class TicketAdded extends Event {
+        /**
+         * The ticket ID.
+         */
+        @Label("Ticket")
+        public String ticketId;
+        /**
+         * True if the ticket went straight to a waiting buyer instead of the queue.
+         */
+        @Label("Handed Off")
+        public boolean handedOff;
+    }
+
+    /**
+     * A ticket was sold.
+     */
+    @Name("org.thamindu.realtimeticketing.TicketSold")
+    @Label("Ticket Sold")
+    @Category({"Ticketing", "Pool"})
+    @Description("A ticket left the pool for a buyer.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class TicketSold extends Event {
+        /**
+         * The ticket ID.
+         */
+        @Label("Ticket")
+        public String ticketId;
+        /**
+         * How the ticket was bought: {@code blocking}, {@code nonBlocking} or {@code claim}.
+         */
+        @Label("Path")
+        public String path;
+    }
+
+    /**
+     * A thread waited for a pool semaphore permit.
+     */
+    @Name("org.thamindu.realtimeticketing.PermitWait")
+    @Label("Permit Wait")
+    @Category({"Ticketing", "Contention"})
+    @Description("Time spent waiting for space in the pool or for a ticket to buy.")
+    @Threshold("10 ms")
+    @StackTrace(false)
+    public static final class PermitWait extends Event {
+        /**
+         * The semaphore waited on: {@code space} or {@code tickets}.
+         */
+        @Label("Semaphore")
+        public String semaphore;
+    }
+
+    /**
+     * A thread held the pool's monitor.
+     */
+    @Name("org.thamindu.realtimeticketing.MonitorHold")
+    @Label("Monitor Hold")
+    @Category({"Ticketing", "Contention"})
+    @Description("Time spent inside a synchronized block of the ticket pool.")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static final class MonitorHold extends Event {
+        /**
+         * The pool operation holding the monitor.
+         */
+        @Label("Operation")
+        public String operation;
+    }
+
+    /**
+     * A vendor or customer thread ran; the event spans the worker's lifetime.
+     */
+    @Name("org.thamindu.realtimeticketing.Worker")
+    @Label("Worker")
+    @Category({"Ticketing", "Simulation"})
+    @Description("A vendor or customer worker ran from start to stop.")
+    @StackTrace(false)
+    public static final class Worker extends Event {
+        /**
+         * The vendor or customer ID.
+         */
+        @Label("Worker")
+        public String workerId;
+        /**
+         * {@code vendor} or {@code customer}.
+         */
+        @Label("Role")
+        public String role;
+    }
+
+    /**
+     * A simulation session ran; the event spans the session from start to stop.
+     */
+    @Name("org.thamindu.realtimeticketing.Simulation")
+    @Label("Simulation")
+    @Category({"Ticketing", "Simulation"})
+    @Description("A simulation session ran from start to stop.")
+    @StackTrace(false)
+    public static final class Simulation extends Event {
+        /**
+         * The session ID.
+         */
+        @Label("Session")
+        public String sessionId;
+        /**
+         * The number of worker threads the session ran.
+         */
+        @Label("Workers")
+        public int workers;
+        /**
+         * The number of tickets sold by the time the session stopped.
+         */
+        @Label("Tickets Sold")
+        public int ticketsSold;
+    }
+}
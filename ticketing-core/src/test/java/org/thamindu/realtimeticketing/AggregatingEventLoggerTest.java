@@ -0,0 +1,114 @@
+package org.thamindu.realtimeticketing;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.util.AggregatingEventLogger;
+import org.thamindu.realtimeticketing.util.EventLogAggregator;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class AggregatingEventLoggerTest {
+
+    private static List<String> capture(Logger logger) {
+        List<String> messages = new CopyOnWriteArrayList<>();
+        AbstractAppender appender = new AbstractAppender("capture", null, null, true, Property.EMPTY_ARRAY) {
+            @Override
+            public void append(LogEvent event) {
+                messages.add(event.getLevel() + " " + event.getMessage().getFormattedMessage());
+            }
+        };
+        appender.start();
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return messages;
+    }
+
+    @Test
+    void eventsFromManyThreadsAreSummarisedPerKey() throws Exception {
+        Logger logger = (Logger) LogManager.getLogger("aggregating-event-logger-test.summary");
+        List<String> messages = capture(logger);
+        logger.setLevel(Level.INFO);
+        EventLogAggregator aggregator = new EventLogAggregator(60_000, 0);
+        AggregatingEventLogger events = aggregator.logger(logger,
+                "Customer {} retrieved {} tickets in last {}", "Customer {} retrieved ticket: {}");
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    events.record("Customer-" + (thread % 2), "Vendor-1-Ticket-" + thread + "-" + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        aggregator.flush();
+
+        assert messages.size() == 2 : messages;
+        assert messages.get(0).matches("INFO Customer Customer-0 retrieved 1000 tickets in last \\d+\\.\\ds") : messages;
+        assert messages.get(1).startsWith("INFO Customer Customer-1 retrieved 1000 tickets") : messages;
+
+        aggregator.close();
+        assert messages.size() == 2 : messages; // Nothing happened since, so nothing is logged.
+    }
+
+    @Test
+    void detailLinesFollowTheDebugSwitchOrTheSample() {
+        Logger logger = (Logger) LogManager.getLogger("aggregating-event-logger-test.detail");
+        List<String> messages = capture(logger);
+        logger.setLevel(Level.DEBUG);
+        EventLogAggregator unsampled = new EventLogAggregator(60_000, 0);
+        EventLogAggregator sampled = new EventLogAggregator(60_000, 1);
+        AggregatingEventLogger events = unsampled.logger(logger,
+                "Tickets added for {}: {} in last {}", "Ticket added for {}: {}");
+
+        events.record("Vendor-1-Ticket", "Vendor-1-Ticket-0");
+        assert messages.equals(List.of("DEBUG Ticket added for Vendor-1-Ticket: Vendor-1-Ticket-0")) : messages;
+
+        logger.setLevel(Level.INFO);
+        events.record("Vendor-1-Ticket", "Vendor-1-Ticket-1");
+        assert messages.size() == 1 : messages;
+        sampled.logger(logger, "Tickets added for {}: {} in last {}", "Ticket added for {}: {}")
+                .record("Vendor-1-Ticket", "Vendor-1-Ticket-2");
+        assert messages.get(1).equals("INFO Ticket added for Vendor-1-Ticket: Vendor-1-Ticket-2") : messages;
+        sampled.close();
+        unsampled.close();
+        assert messages.get(2).startsWith("INFO Tickets added for Vendor-1-Ticket: 1 in last ") : messages;
+        assert messages.get(3).startsWith("INFO Tickets added for Vendor-1-Ticket: 2 in last ") : messages;
+    }
+
+    @Test
+    void keysIdleForAWholeIntervalAreDropped() {
+        Logger logger = (Logger) LogManager.getLogger("aggregating-event-logger-test.idle");
+        List<String> messages = capture(logger);
+        logger.setLevel(Level.INFO);
+        EventLogAggregator aggregator = new EventLogAggregator(60_000, 0);
+        AggregatingEventLogger events = aggregator.logger(logger,
+                "Tickets sold for {}: {} in last {}", "Ticket sold for {}: {}");
+
+        for (int i = 0; i < 1000; i++) {
+            events.record("Vendor-" + i, "Vendor-" + i + "-Ticket-0");
+        }
+        events.record("Vendor-0", "Vendor-0-Ticket-1");
+        assert events.getKeyCount() == 1000;
+        aggregator.flush();
+        assert events.getKeyCount() == 1000; // Every key had events in this interval.
+        aggregator.flush();
+        assert events.getKeyCount() == 0;
+
+        events.record("Vendor-0", "Vendor-0-Ticket-2"); // A dropped key starts a new count.
+        aggregator.close();
+        assert messages.size() == 1001 : messages.size();
+        assert messages.get(0).startsWith("INFO Tickets sold for Vendor-0: 2 in last ") : messages.get(0);
+        assert messages.get(1000).startsWith("INFO Tickets sold for Vendor-0: 1 in last ") : messages.get(1000);
+    }
+}
@@ -0,0 +1,145 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.thamindu.realtimeticketing.util.AsyncLogWriter;
+import org.thamindu.realtimeticketing.util.LoggerUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class AsyncLogWriterTest {
+
+    /**
+     * A console whose first write blocks until released, holding the writer mid-batch.
+     */
+    private static final class StalledConsole extends OutputStream {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            entered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            synchronized (this) {
+                written.write(b, off, len);
+            }
+        }
+    }
+
+    private static List<String> lines(Path file) throws IOException {
+        return Files.readAllLines(file);
+    }
+
+    @Test
+    void entriesAreFormattedAndWrittenToConsoleAndFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("system.log");
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        AsyncLogWriter writer = new AsyncLogWriter(16, LoggerUtil.OverflowPolicy.BLOCK, new PrintStream(console, true), file.toString());
+
+        for (int i = 0; i < 100; i++) {
+            assert writer.log("INFO", "Entry " + i);
+        }
+        assert writer.flush(5000);
+
+        List<String> lines = lines(file);
+        assert lines.size() == 100 : lines.size();
+        assert lines.get(0).matches("\\[\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}] \\[INFO] Entry 0") : lines.get(0);
+        assert lines.get(99).endsWith("[INFO] Entry 99");
+        assert console.toString().lines().count() == 100;
+        assert writer.shutdown(5000);
+    }
+
+    @Test
+    void blockPolicyWaitsForRoomAndLosesNothing(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("system.log");
+        StalledConsole console = new StalledConsole();
+        AsyncLogWriter writer = new AsyncLogWriter(4, LoggerUtil.OverflowPolicy.BLOCK, new PrintStream(console), file.toString());
+
+        writer.log("INFO", "Entry 0");
+        assert console.entered.await(5, TimeUnit.SECONDS); // The writer holds entry 0 and is stalled.
+        for (int i = 1; i <= 4; i++) {
+            assert writer.log("INFO", "Entry " + i); // Fills the queue.
+        }
+        Thread producer = new Thread(() -> writer.log("INFO", "Entry 5"));
+        producer.start();
+        producer.join(200);
+        assert producer.isAlive() : "The producer should wait for room";
+
+        console.released.countDown();
+        producer.join(5000);
+        assert !producer.isAlive();
+        assert writer.flush(5000);
+        assert writer.getDroppedCount() == 0;
+        List<String> lines = lines(file);
+        assert lines.size() == 6 : lines;
+        assert lines.get(5).endsWith("[INFO] Entry 5") : lines;
+        assert writer.shutdown(5000);
+    }
+
+    @Test
+    void dropPolicyDropsWhenFullAndReportsTheCount(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("system.log");
+        StalledConsole console = new StalledConsole();
+        AsyncLogWriter writer = new AsyncLogWriter(4, LoggerUtil.OverflowPolicy.DROP, new PrintStream(console), file.toString());
+
+        writer.log("INFO", "Entry 0");
+        assert console.entered.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i <= 4; i++) {
+            assert writer.log("INFO", "Entry " + i);
+        }
+        for (int i = 5; i < 8; i++) {
+            assert !writer.log("INFO", "Entry " + i); // Returns at once instead of waiting.
+        }
+        assert writer.getDroppedCount() == 3;
+
+        console.released.countDown();
+        assert writer.flush(5000);
+        assert writer.shutdown(5000);
+        List<String> lines = lines(file);
+        assert lines.size() == 6 : lines;
+        assert lines.stream().anyMatch(line -> line.endsWith("[WARN] 3 log entries dropped because the queue was full.")) : lines;
+        assert lines.stream().noneMatch(line -> line.endsWith("Entry 5")) : lines;
+    }
+
+    @Test
+    void shutdownWritesQueuedEntriesAndRefusesLaterOnes(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("system.log");
+        StalledConsole console = new StalledConsole();
+        AsyncLogWriter writer = new AsyncLogWriter(64, LoggerUtil.OverflowPolicy.BLOCK, new PrintStream(console), file.toString());
+
+        writer.log("INFO", "Entry 0");
+        assert console.entered.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i < 50; i++) {
+            writer.log("INFO", "Entry " + i);
+        }
+        Thread shutdown = new Thread(() -> writer.shutdown(5000));
+        shutdown.start();
+        console.released.countDown();
+        shutdown.join(5000);
+        assert !shutdown.isAlive();
+
+        assert !writer.log("INFO", "After shutdown");
+        assert writer.getDroppedCount() == 1;
+        List<String> lines = lines(file);
+        assert lines.size() == 50 : lines.size(); // Every queued entry, and nothing logged after.
+        assert lines.get(49).endsWith("[INFO] Entry 49");
+    }
+}
@@ -0,0 +1,55 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.util.BoundedExpiringCache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class BoundedExpiringCacheTest {
+
+    @Test
+    void duplicateKeyReturnsOriginalValue() {
+        BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10, 1000);
+
+        assert cache.putIfAbsent("key", "first") == null;
+        assert "first".equals(cache.putIfAbsent("key", "second"));
+        assert "first".equals(cache.get("key"));
+    }
+
+    @Test
+    void entriesExpireAfterTimeToLive() {
+        AtomicLong clock = new AtomicLong();
+        BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10, 1000, clock::get);
+        cache.putIfAbsent("key", "first");
+
+        clock.addAndGet(999_000_000L);
+        assert "first".equals(cache.get("key"));
+
+        clock.addAndGet(1_000_000L);
+        assert cache.get("key") == null;
+        assert cache.putIfAbsent("key", "second") == null;
+    }
+
+    @Test
+    void sizeStaysBoundedUnderManyKeys() {
+        BoundedExpiringCache<Integer, Integer> cache = new BoundedExpiringCache<>(1000, 60_000);
+        for (int i = 0; i < 100_000; i++) {
+            cache.putIfAbsent(i, i);
+        }
+
+        assert cache.size() <= 1000;
+        assert cache.get(99_999) == 99_999; // The newest keys survive eviction.
+        assert cache.get(0) == null;
+    }
+
+    @Test
+    void removeOnlyRemovesMatchingValue() {
+        BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10, 1000);
+        String value = "first";
+        cache.putIfAbsent("key", value);
+
+        assert !cache.remove("key", new String("first"));
+        assert cache.remove("key", value);
+        assert cache.get("key") == null;
+    }
+}
@@ -0,0 +1,58 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.util.BoundedMpscQueue;
+
+class BoundedMpscQueueTest {
+
+    @Test
+    void fullQueueRejectsUntilTheConsumerMakesRoom() {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(3);
+        assert queue.capacity() == 4;
+        for (int i = 0; i < 4; i++) {
+            assert queue.offer(i);
+        }
+        assert !queue.offer(4);
+        assert queue.size() == 4;
+        assert queue.poll() == 0;
+        assert queue.offer(4);
+        for (int i = 1; i <= 4; i++) {
+            assert queue.poll() == i;
+        }
+        assert queue.poll() == null && queue.isEmpty();
+    }
+
+    @Test
+    void elementsFromManyProducersArriveOnceAndInEachProducersOrder() throws Exception {
+        BoundedMpscQueue<long[]> queue = new BoundedMpscQueue<>(64);
+        int producers = 4;
+        int perProducer = 100_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(new long[]{producer, i})) {
+                        Thread.yield(); // Let the other side run on a single CPU.
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        long[] next = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = queue.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            assert element[1] == next[(int) element[0]]++ : "Out of order from producer " + element[0];
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert queue.poll() == null;
+    }
+}
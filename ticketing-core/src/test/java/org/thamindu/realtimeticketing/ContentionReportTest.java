@@ -0,0 +1,45 @@
+package org.thamindu.realtimeticketing;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.util.ContentionReport;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class ContentionReportTest {
+
+    @Test
+    void recordingIsSummarisedByCause() throws Exception {
+        Path file = Files.createTempFile("contention", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.thamindu.realtimeticketing.PermitWait").withThreshold(Duration.ZERO);
+            recording.enable("org.thamindu.realtimeticketing.MonitorHold").withThreshold(Duration.ZERO);
+            recording.enable("org.thamindu.realtimeticketing.TicketSold");
+            recording.start();
+
+            TicketPool ticketPool = new TicketPool(10, 10);
+            for (int i = 0; i < 4; i++) {
+                ticketPool.offerTicket("Vendor-1-Ticket");
+            }
+            for (int i = 0; i < 3; i++) {
+                assert ticketPool.tryRemoveTicket() != null;
+            }
+            assert ticketPool.claimTickets(1, 0, TimeUnit.MILLISECONDS).size() == 1;
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Map<String, Object>> report = ContentionReport.summarize(file);
+        Files.delete(file);
+
+        assert (long) report.get("monitor hold: claimTickets").get("count") == 1 : report;
+        // Sales are instant events, recorded here but not a cause of waiting.
+        assert report.keySet().stream().noneMatch(cause -> cause.startsWith("tickets")) : report;
+    }
+}
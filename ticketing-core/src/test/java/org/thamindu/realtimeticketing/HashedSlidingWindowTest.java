@@ -0,0 +1,79 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.util.HashedSlidingWindow;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class HashedSlidingWindowTest {
+
+    @Test
+    void limitIsEnforcedWithinTheWindow() {
+        HashedSlidingWindow window = new HashedSlidingWindow(1024, 10_000, 5);
+        long now = 1_000_000;
+
+        for (int i = 0; i < 3; i++) {
+            assert window.tryAcquire("Customer-1", 3, now);
+        }
+        assert !window.tryAcquire("Customer-1", 3, now);
+        assert window.tryAcquire("Customer-2", 3, now); // Other customers are unaffected.
+        assert window.estimate("Customer-1", now) == 3; // Rejections are not counted.
+    }
+
+    @Test
+    void oldBucketsSlideOutOfTheWindow() {
+        HashedSlidingWindow window = new HashedSlidingWindow(1024, 10_000, 5);
+        long now = 1_000_000;
+        window.tryAcquire("Customer-1", 2, now);
+        window.tryAcquire("Customer-1", 2, now + 4_000);
+
+        assert !window.tryAcquire("Customer-1", 2, now + 9_999);
+        assert window.tryAcquire("Customer-1", 2, now + 10_000); // The first event has expired.
+    }
+
+    @Test
+    void releaseReturnsAReservation() {
+        HashedSlidingWindow window = new HashedSlidingWindow(1024, 10_000, 1);
+        long now = 1_000_000;
+        window.tryAcquire("Customer-1", 1, now);
+        assert !window.tryAcquire("Customer-1", 1, now);
+
+        window.release("Customer-1", now);
+        assert window.tryAcquire("Customer-1", 1, now);
+    }
+
+    @Test
+    void keysWithEqualStringHashCodesAreCountedApart() {
+        assert "Aa".hashCode() == "BB".hashCode();
+        HashedSlidingWindow window = new HashedSlidingWindow(1024, 10_000, 1);
+        long now = 1_000_000;
+        for (int i = 0; i < 3; i++) {
+            assert window.tryAcquire("BB", 3, now);
+        }
+        assert window.estimate("Aa", now) == 0;
+        assert window.tryAcquire("Aa", 3, now);
+    }
+
+    @Test
+    void concurrentCallersCannotExceedTheLimit() throws InterruptedException {
+        HashedSlidingWindow window = new HashedSlidingWindow(1024, 60_000, 1);
+        long now = 1_000_000;
+        AtomicInteger allowed = new AtomicInteger();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 10_000; i++) {
+            executorService.submit(() -> {
+                if (window.tryAcquire("Customer-1", 100, now)) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executorService.shutdown();
+        executorService.awaitTermination(30, TimeUnit.SECONDS);
+
+        assert allowed.get() <= 100;
+    }
+}
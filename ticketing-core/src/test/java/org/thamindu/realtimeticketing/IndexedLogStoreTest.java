@@ -0,0 +1,183 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.util.IndexedLogStore;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+class IndexedLogStoreTest {
+
+    @Test
+    void queriesReturnTheLatestMatchingLinesInTimeOrder() throws Exception {
+        Path directory = Files.createTempDirectory("indexed-log");
+        try (IndexedLogStore store = new IndexedLogStore(directory)) {
+            for (int i = 0; i < 2000; i++) {
+                store.append("model", "INFO", 1000 + i, "model info " + i);
+                if (i % 10 == 0) {
+                    store.append("service", "WARN", 1000 + i, "service warn " + i);
+                }
+            }
+
+            assert store.query(Set.of("model"), null, Long.MIN_VALUE, Long.MAX_VALUE, 3)
+                    .equals(List.of("model info 1997", "model info 1998", "model info 1999"));
+            assert store.query(null, Set.of("warn"), Long.MIN_VALUE, Long.MAX_VALUE, 2)
+                    .equals(List.of("service warn 1980", "service warn 1990"));
+
+            List<String> range = store.query(Set.of("model", "service"), null, 1500, 1510, 100);
+            assert range.size() == 13 : range;
+            assert range.get(0).equals("model info 500") || range.get(0).equals("service warn 500") : range;
+            assert range.get(range.size() - 1).equals("service warn 510") || range.get(range.size() - 1).equals("model info 510") : range;
+
+            assert store.query(Set.of("controller"), null, Long.MIN_VALUE, Long.MAX_VALUE, 10).isEmpty();
+            assert store.getCategories().equals(Set.of("model", "service"));
+        }
+    }
+
+    @Test
+    void reopenedStoreRecoversItsIndexAndDropsATornRecord() throws Exception {
+        Path directory = Files.createTempDirectory("indexed-log");
+        try (IndexedLogStore store = new IndexedLogStore(directory)) {
+            for (int i = 0; i < 600; i++) {
+                store.append("model", "INFO", i, "line " + i);
+            }
+        }
+        try (RandomAccessFile segment = new RandomAccessFile(directory.resolve("model-INFO.0.seg").toFile(), "rw")) {
+            segment.seek(segment.length());
+            segment.write(new byte[]{0, 0, 0}); // A record cut short by a crash.
+        }
+
+        try (IndexedLogStore store = new IndexedLogStore(directory)) {
+            store.append("model", "INFO", 600, "line 600");
+            assert store.query(null, null, Long.MIN_VALUE, Long.MAX_VALUE, 2).equals(List.of("line 599", "line 600"));
+            assert store.query(null, null, 300, 301, 10).equals(List.of("line 300", "line 301"));
+        }
+    }
+
+    @Test
+    void segmentsFromBeforeNumberingAreMigratedOrDeleted() throws Exception {
+        Path directory = Files.createTempDirectory("indexed-log");
+        try (IndexedLogStore store = new IndexedLogStore(directory)) {
+            for (int i = 0; i < 600; i++) {
+                store.append("model", "INFO", i, "Customer Customer-" + i % 10 + " retrieved ticket " + i);
+            }
+            store.append("service", "WARN", 0, "service warn 0");
+        }
+        // Lay the model segment out as the store did before segments were numbered, without token runs.
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("model-INFO.0.") && !name.endsWith(".seg") && !name.endsWith(".idx")) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.move(directory.resolve("model-INFO.0.seg"), directory.resolve("model-INFO.seg"));
+        Files.move(directory.resolve("model-INFO.0.idx"), directory.resolve("model-INFO.idx"));
+        // An unnumbered segment of a series that already has numbered ones is older than all of them.
+        Files.write(directory.resolve("service-WARN.seg"), new byte[]{1, 2, 3});
+
+        try (IndexedLogStore store = new IndexedLogStore(directory)) {
+            assert store.query(Set.of("model"), null, 300, 301, 10).equals(List.of(
+                    "Customer Customer-0 retrieved ticket 300", "Customer Customer-1 retrieved ticket 301"));
+            assert store.find(List.of("Customer-7"), null, null, 1000).size() == 60;
+            assert store.query(Set.of("service"), null, Long.MIN_VALUE, Long.MAX_VALUE, 10).equals(List.of("service warn 0"));
+        }
+        assert Files.exists(directory.resolve("model-INFO.0.seg"));
+        assert !Files.exists(directory.resolve("model-INFO.seg"));
+        assert !Files.exists(directory.resolve("model-INFO.idx"));
+        assert !Files.exists(directory.resolve("service-WARN.seg"));
+    }
+
+    @Test
+    void findIntersectsIdentifiersAcrossSegmentsAndRestarts() throws Exception {
+        Path directory = Files.createTempDirectory("indexed-log");
+        try (IndexedLogStore store = new IndexedLogStore(directory)) {
+            for (int i = 0; i < 1000; i++) {
+                store.append("model", "INFO", i, "Customer Customer-" + i % 10 + " retrieved ticket: Vendor-Vendor-3-Ticket-" + i);
+            }
+            store.append("model", "WARN", 1000, "Ticket Vendor-Vendor-3-Ticket-417 refunded to the pool.");
+        }
+        try (IndexedLogStore store = new IndexedLogStore(directory)) {
+            assert store.find(List.of("Vendor-Vendor-3-Ticket-417"), null, null, 10).equals(List.of(
+                    "Customer Customer-7 retrieved ticket: Vendor-Vendor-3-Ticket-417",
+                    "Ticket Vendor-Vendor-3-Ticket-417 refunded to the pool."));
+            assert store.find(List.of("Vendor-Vendor-3-Ticket-417"), null, Set.of("warn"), 10).size() == 1;
+            assert store.find(List.of("Customer-7"), null, null, 1000).size() == 100;
+            assert store.find(List.of("Customer-7", "Vendor-Vendor-3-Ticket-997"), null, null, 10).size() == 1;
+            assert store.find(List.of("Customer-7", "Vendor-Vendor-3-Ticket-998"), null, null, 10).isEmpty();
+            assert store.find(List.of(), null, null, 10).isEmpty();
+        }
+    }
+
+    @Test
+    void segmentsRollBySizeAndAgeAndStaySearchableOnceCompressed() throws Exception {
+        Path directory = Files.createTempDirectory("indexed-log");
+        try (IndexedLogStore store = new IndexedLogStore(directory, 16 * 1024, 1_000_000, 100)) {
+            for (int i = 0; i < 2000; i++) {
+                store.append("model", "INFO", i, "Customer Customer-" + i % 10 + " retrieved ticket: Vendor-Vendor-3-Ticket-" + i);
+            }
+            store.append("model", "INFO", 2_000_000, "Customer Customer-7 retrieved ticket: Vendor-Vendor-3-Ticket-late");
+            assert store.awaitCompression(10_000);
+
+            assert store.getSegmentCount() > 3 : store.getSegmentCount();
+            try (Stream<Path> files = Files.list(directory)) {
+                List<String> names = files.map(file -> file.getFileName().toString()).toList();
+                assert names.stream().filter(name -> name.endsWith(".segz")).count() == store.getSegmentCount() - 1 : names;
+                assert names.stream().filter(name -> name.endsWith(".seg")).count() == 1 : names;
+            }
+            assert store.query(null, null, 500, 502, 10).equals(List.of(
+                    "Customer Customer-0 retrieved ticket: Vendor-Vendor-3-Ticket-500",
+                    "Customer Customer-1 retrieved ticket: Vendor-Vendor-3-Ticket-501",
+                    "Customer Customer-2 retrieved ticket: Vendor-Vendor-3-Ticket-502"));
+            assert store.find(List.of("Vendor-Vendor-3-Ticket-417"), null, null, 10)
+                    .equals(List.of("Customer Customer-7 retrieved ticket: Vendor-Vendor-3-Ticket-417"));
+            assert store.find(List.of("Customer-7"), null, null, 1000).size() == 201;
+            assert store.find(List.of("Customer-7"), null, null, 100, 999, 1000).size() == 90;
+        }
+
+        try (IndexedLogStore store = new IndexedLogStore(directory, 16 * 1024, 1_000_000, 100)) {
+            assert store.find(List.of("Customer-7"), null, null, 1000).size() == 201;
+            store.append("model", "INFO", 2_000_001, "Customer Customer-7 retrieved ticket: Vendor-Vendor-3-Ticket-later");
+            assert store.query(null, null, Long.MIN_VALUE, Long.MAX_VALUE, 2).equals(List.of(
+                    "Customer Customer-7 retrieved ticket: Vendor-Vendor-3-Ticket-late",
+                    "Customer Customer-7 retrieved ticket: Vendor-Vendor-3-Ticket-later"));
+        }
+    }
+
+    @Test
+    void theOldestSealedSegmentsAreDeletedBeyondTheRetentionCount() throws Exception {
+        Path directory = Files.createTempDirectory("indexed-log");
+        try (IndexedLogStore store = new IndexedLogStore(directory, 1_000_000, 100, 2)) {
+            for (int i = 0; i < 10; i++) {
+                store.append("model", "INFO", i * 100L, "line " + i);
+            }
+            assert store.awaitCompression(10_000);
+
+            assert store.getSegmentCount() == 3;
+            assert store.query(null, null, Long.MIN_VALUE, Long.MAX_VALUE, 100)
+                    .equals(List.of("line 7", "line 8", "line 9"));
+            try (Stream<Path> files = Files.list(directory)) {
+                assert files.noneMatch(file -> file.getFileName().toString().startsWith("model-INFO.0.")) : "segment 0 kept";
+            }
+        }
+    }
+
+    @Test
+    void identifiersAreTheTokensOfALine() {
+        assert IndexedLogStore.tokensOf("2026-10-19 02:37:37 [pool-5-thread-194] INFO  org.thamindu.realtimeticketing.model.Customer"
+                        + " - Customer Customer-93 retrieved ticket: Vendor-Vendor-96-Ticket-4996.")
+                .equals(Set.of("pool-5-thread-194", "Customer-93", "Vendor-Vendor-96-Ticket-4996"));
+    }
+
+    @Test
+    void loggersAreCategorisedByApplicationPackage() {
+        assert IndexedLogStore.categoryOf("org.thamindu.realtimeticketing.model.TicketPool").equals("model");
+        assert IndexedLogStore.categoryOf("org.thamindu.realtimeticketing.TicketingSystemCLI").equals("application");
+        assert IndexedLogStore.categoryOf("org.springframework.web.servlet.DispatcherServlet").equals("external");
+    }
+}
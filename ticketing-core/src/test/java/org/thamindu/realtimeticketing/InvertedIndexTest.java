@@ -0,0 +1,85 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.util.InvertedIndex;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class InvertedIndexTest {
+
+    private static List<String> tokensOf(int document) {
+        return List.of("Customer-" + document % 7, "Vendor-" + document % 3, "Ticket-" + document);
+    }
+
+    @Test
+    void intersectionsSpanRunsAndMemoryLatestFirst() throws Exception {
+        Path directory = Files.createTempDirectory("inverted-index");
+        try (InvertedIndex index = new InvertedIndex(directory, "test", 100)) {
+            for (int document = 0; document < 1050; document++) {
+                index.add(document * 10L, tokensOf(document));
+            }
+            assert index.getPersistedUpTo() == 9_990;
+
+            long[] found = index.latest(List.of("Customer-2", "Vendor-1"), Long.MAX_VALUE, 4);
+            assert Arrays.equals(found, new long[]{10_450, 10_240, 10_030, 9_820}) : Arrays.toString(found);
+
+            found = index.latest(List.of("Ticket-17"), Long.MAX_VALUE, 10);
+            assert Arrays.equals(found, new long[]{170}) : Arrays.toString(found);
+
+            assert index.latest(List.of("Customer-2", "Vendor-1"), Long.MAX_VALUE, 1000).length == 50;
+            assert index.latest(List.of("Ticket-17", "Customer-0"), Long.MAX_VALUE, 10).length == 0;
+            assert index.latest(List.of("Customer-99"), Long.MAX_VALUE, 10).length == 0;
+            assert Arrays.equals(index.latest(List.of("Customer-2", "Vendor-1"), 10_000, 1), new long[]{9_820});
+        }
+    }
+
+    @Test
+    void fullRunsAreWrittenByTheFlusherAndSearchableUntilThen() throws Exception {
+        Path directory = Files.createTempDirectory("inverted-index");
+        List<Runnable> flushes = new ArrayList<>();
+        try (InvertedIndex index = new InvertedIndex(directory, "test", 100, flushes::add)) {
+            for (int document = 0; document < 250; document++) {
+                index.add(document, tokensOf(document));
+            }
+            assert flushes.size() == 2;
+            assert index.getPersistedUpTo() == -1; // Nothing written on the adding thread.
+            assert Arrays.equals(index.latest(List.of("Ticket-17"), Long.MAX_VALUE, 10), new long[]{17});
+            assert index.latest(List.of("Customer-2", "Vendor-1"), Long.MAX_VALUE, 1000).length == 12;
+
+            flushes.forEach(Runnable::run);
+            assert index.getPersistedUpTo() == 199;
+            assert Arrays.equals(index.latest(List.of("Ticket-17"), Long.MAX_VALUE, 10), new long[]{17});
+            assert index.latest(List.of("Customer-2", "Vendor-1"), Long.MAX_VALUE, 1000).length == 12;
+        }
+    }
+
+    @Test
+    void reopenedIndexKeepsItsRunsAndRejectsOlderDocuments() throws Exception {
+        Path directory = Files.createTempDirectory("inverted-index");
+        try (InvertedIndex index = new InvertedIndex(directory, "test", 100)) {
+            for (int document = 0; document < 250; document++) {
+                index.add(document, tokensOf(document));
+            }
+        }
+        try (InvertedIndex index = new InvertedIndex(directory, "test", 100)) {
+            assert index.getPersistedUpTo() == 199; // The last 50 were only in memory.
+            assert Arrays.equals(index.latest(List.of("Ticket-150"), Long.MAX_VALUE, 10), new long[]{150});
+            try {
+                index.add(150, tokensOf(150));
+                assert false : "Expected an IllegalArgumentException.";
+            } catch (IllegalArgumentException expected) {
+                // Document IDs must increase.
+            }
+            index.add(200, tokensOf(200));
+            assert Arrays.equals(index.latest(List.of("Ticket-200"), Long.MAX_VALUE, 10), new long[]{200});
+
+            index.clear();
+            assert index.getPersistedUpTo() == -1;
+            assert index.latest(List.of("Ticket-150"), Long.MAX_VALUE, 10).length == 0;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.OffHeapTicketStateIndex;
+import org.thamindu.realtimeticketing.model.OffHeapTicketStore;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketState;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+class OffHeapTicketStoreTest {
+
+    @Test
+    void ticketsComeBackInOrderWithTheirExactIds() {
+        OffHeapTicketStore store = new OffHeapTicketStore();
+        store.add("Vendor-1-Ticket-0");
+        store.add("Vendor-2-PREMIUM-Ticket-17");
+        store.add("Vendor-1-Ticket-007"); // Leading zeros are kept verbatim.
+        store.add("walk-in");
+        store.addFirst("Vendor-1-Ticket-5");
+
+        assert store.size() == 5;
+        assert "Vendor-1-Ticket-5".equals(store.removeFirst());
+        assert "Vendor-1-Ticket-0".equals(store.removeFirst());
+        assert "Vendor-2-PREMIUM-Ticket-17".equals(store.removeFirst());
+        assert "Vendor-1-Ticket-007".equals(store.removeFirst());
+        assert "walk-in".equals(store.removeFirst());
+        assert store.isEmpty();
+        try {
+            store.removeFirst();
+            assert false : "Expected an empty store to throw";
+        } catch (NoSuchElementException expected) {
+            // An empty store behaves like an empty LinkedList.
+        }
+    }
+
+    @Test
+    void freedSlotsAreReusedInsteadOfGrowingTheStore() {
+        OffHeapTicketStore store = new OffHeapTicketStore();
+        for (int i = 0; i < 100_000; i++) {
+            store.add("Vendor-1-Ticket-" + i);
+        }
+        long allocated = store.getOffHeapBytes();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100_000; i++) {
+                store.add("Vendor-2-Ticket-" + store.removeFirst().length());
+            }
+        }
+        assert store.size() == 100_000;
+        assert store.getOffHeapBytes() == allocated;
+    }
+
+    @Test
+    void ticketPoolWorksUnchangedOnTheOffHeapStore() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10, new OffHeapTicketStore());
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-1-Ticket");
+
+        assert ticketPool.getCurrentSize() == 2;
+        assert "Vendor-1-Ticket-0".equals(ticketPool.tryRemoveTicket());
+        assert ticketPool.claimTickets(1, 10, TimeUnit.MILLISECONDS).get(0).equals("Vendor-1-Ticket-1");
+        assert ticketPool.getCurrentSize() == 0;
+    }
+
+    @Test
+    void stateIndexKeepsEveryTicketApartIncludingIdsItCannotSlot() {
+        OffHeapTicketStateIndex index = new OffHeapTicketStateIndex();
+        index.put("Vendor-1-Ticket-0", TicketState.AVAILABLE);
+        index.put("Vendor-2-Ticket-70000", TicketState.AVAILABLE);
+        index.put("Vendor-2-Ticket-0", TicketState.SOLD); // Same sequence as another base's ticket.
+        index.put("walk-in", TicketState.SOLD);
+
+        assert index.get("Vendor-1-Ticket-0") == TicketState.AVAILABLE;
+        assert index.get("Vendor-2-Ticket-0") == TicketState.SOLD;
+        assert index.get("Vendor-1-Ticket-1") == null;
+        assert index.get("Vendor-3-Ticket-0") == null;
+        assert index.get("Vendor-1-Ticket-00") == null;
+
+        assert index.replace("Vendor-2-Ticket-70000", TicketState.AVAILABLE, TicketState.SOLD);
+        assert !index.replace("Vendor-2-Ticket-70000", TicketState.AVAILABLE, TicketState.SOLD);
+        assert index.replace("walk-in", TicketState.SOLD, TicketState.AVAILABLE);
+        assert !index.replace("Vendor-1-Ticket-1", TicketState.AVAILABLE, TicketState.SOLD);
+
+        List<String> available = index.find(TicketState.AVAILABLE, 10);
+        assert available.equals(List.of("Vendor-1-Ticket-0", "walk-in")) : available;
+        assert index.find(TicketState.SOLD, 1).size() == 1;
+        assert index.getOffHeapBytes() == 2L * 65536 * Integer.BYTES;
+
+        index.clear();
+        assert index.get("Vendor-1-Ticket-0") == null && index.getOffHeapBytes() == 0;
+    }
+
+    @Test
+    void refundsAndUnsoldListsUseTheOffHeapStates() {
+        TicketPool ticketPool = new TicketPool(10, 10, new OffHeapTicketStore());
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-2-Ticket");
+        String sold = ticketPool.tryRemoveTicket();
+
+        assert ticketPool.getTicketState(sold) == TicketState.SOLD;
+        assert ticketPool.getUnsoldTickets(10).equals(List.of("Vendor-2-Ticket-1"));
+        assert ticketPool.refundTicket(sold);
+        assert ticketPool.getTicketState(sold) == TicketState.AVAILABLE;
+        assert ticketPool.getUnsoldTickets(10).size() == 2;
+    }
+}
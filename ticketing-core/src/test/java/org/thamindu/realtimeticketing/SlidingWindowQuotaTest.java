@@ -0,0 +1,57 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.util.SlidingWindowQuota;
+
+class SlidingWindowQuotaTest {
+
+    private static final long DAY = 86_400_000;
+
+    @Test
+    void everyCustomerGetsTheirFullQuotaAmongMillions() {
+        SlidingWindowQuota quota = new SlidingWindowQuota(DAY, 0);
+        long now = 1_000_000;
+        for (int customer = 0; customer < 1_000_000; customer++) {
+            assert quota.tryAcquire("Customer-" + customer, 6, now);
+        }
+        for (int i = 1; i < 6; i++) {
+            assert quota.tryAcquire("Customer-42", 6, now);
+        }
+        assert !quota.tryAcquire("Customer-42", 6, now);
+        assert quota.count("Customer-42", now) == 6;
+        assert quota.count("Customer-43", now) == 1;
+    }
+
+    @Test
+    void releasedAndExpiredEventsFreeTheQuotaAndExpiredKeysAreSwept() {
+        SlidingWindowQuota quota = new SlidingWindowQuota(DAY, 0);
+        long now = 1_000_000;
+        assert quota.tryAcquire("Customer-1", 1, now);
+        assert !quota.tryAcquire("Customer-1", 1, now);
+        quota.release("Customer-1", now);
+        assert quota.tryAcquire("Customer-1", 1, now);
+        assert quota.tryAcquire("Customer-1", 1, now + DAY); // The first purchase has left the window.
+
+        for (int customer = 0; customer < 10_000; customer++) {
+            quota.tryAcquire("Customer-" + customer, 1, now);
+        }
+        quota.tryAcquire("Late", 1, now + 2 * DAY);
+        assert quota.size() == 10_001 : quota.size(); // Checks never sweep.
+        quota.sweep(now + 2 * DAY);
+        assert quota.size() == 1 : quota.size(); // Everyone else's purchases have expired.
+    }
+
+    @Test
+    void sweeperDropsExpiredKeysInTheBackground() throws Exception {
+        try (SlidingWindowQuota quota = new SlidingWindowQuota(50, 10)) {
+            for (int customer = 0; customer < 1000; customer++) {
+                assert quota.tryAcquire("Customer-" + customer, 1, System.currentTimeMillis());
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (quota.size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assert quota.size() == 0 : quota.size();
+        }
+    }
+}
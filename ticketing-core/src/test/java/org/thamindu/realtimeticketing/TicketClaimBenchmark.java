@@ -0,0 +1,119 @@
+package org.thamindu.realtimeticketing;
+
+import org.thamindu.realtimeticketing.model.TicketPool;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares buying tickets in all-or-nothing batches with {@link TicketPool#claimTickets} against
+ * buying the same batches one ticket at a time with {@link TicketPool#pollTicket}. Not part of the
+ * test suite; from the repository root, run it directly, for example:
+ *
+ * <pre>
+ * mvn -pl ticketing-core test-compile
+ * java -cp ticketing-core/target/classes:ticketing-core/target/test-classes:$HOME/.m2/repository/org/apache/logging/log4j/log4j-api/2.24.1/log4j-api-2.24.1.jar:$HOME/.m2/repository/org/apache/logging/log4j/log4j-core/2.24.1/log4j-core-2.24.1.jar \
+ *     org.thamindu.realtimeticketing.TicketClaimBenchmark 200000 8 6 100
+ * </pre>
+ *
+ * The arguments are the number of tickets, buyer threads, tickets per batch and the pool capacity.
+ * Four vendor threads release tickets as fast as the pool accepts them while the buyers sell it out,
+ * once per mode. For each mode it reports the time to sell out, the tickets sold per second, and the
+ * mean and 99th percentile time to complete a batch.
+ */
+public class TicketClaimBenchmark {
+
+    private static final int VENDORS = 4;
+
+    public static void main(String[] args) throws Exception {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int buyers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int batch = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int capacity = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        // The first pass of each mode warms up the JIT.
+        run("batch", true, tickets, buyers, batch, capacity);
+        run("single", false, tickets, buyers, batch, capacity);
+        run("batch", true, tickets, buyers, batch, capacity);
+        run("single", false, tickets, buyers, batch, capacity);
+    }
+
+    private static void run(String mode, boolean atomic, int tickets, int buyers, int batch, int capacity) throws Exception {
+        TicketPool pool = new TicketPool(capacity, tickets);
+        long[][] latencies = new long[buyers][];
+        int[] batchCounts = new int[buyers];
+        ExecutorService executor = Executors.newFixedThreadPool(VENDORS + buyers);
+
+        long started = System.nanoTime();
+        for (int v = 0; v < VENDORS; v++) {
+            String ticketBase = "Vendor-" + v + "-Ticket";
+            executor.submit(() -> {
+                while (pool.getTicketsAdded() < tickets) {
+                    if (!pool.offerTicket(ticketBase)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        for (int b = 0; b < buyers; b++) {
+            int buyer = b;
+            latencies[buyer] = new long[tickets / batch + 2];
+            executor.submit(() -> {
+                while (pool.getTicketsSold() < tickets) {
+                    long batchStarted = System.nanoTime();
+                    int bought = atomic ? claim(pool, tickets, batch) : pollEach(pool, tickets, batch);
+                    if (bought == 0) {
+                        continue;
+                    }
+                    long[] own = latencies[buyer];
+                    if (batchCounts[buyer] == own.length) {
+                        latencies[buyer] = own = Arrays.copyOf(own, own.length * 2);
+                    }
+                    own[batchCounts[buyer]++] = System.nanoTime() - batchStarted;
+                }
+                return null;
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+            throw new IllegalStateException(mode + " did not sell out");
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        long[] all = new long[Arrays.stream(batchCounts).sum()];
+        int offset = 0;
+        for (int b = 0; b < buyers; b++) {
+            System.arraycopy(latencies[b], 0, all, offset, batchCounts[b]);
+            offset += batchCounts[b];
+        }
+        Arrays.sort(all);
+        double mean = Arrays.stream(all).average().orElse(0);
+        long p99 = all.length == 0 ? 0 : all[(int) Math.min(all.length - 1, (long) Math.ceil(all.length * 0.99) - 1)];
+        System.out.printf("%-6s tickets=%d buyers=%d batch=%d: %d ms, %.0f tickets/s, batch mean %.1f us, p99 %.1f us, %d batches%n",
+                mode, pool.getTicketsSold(), buyers, batch, elapsedNanos / 1_000_000,
+                pool.getTicketsSold() * 1e9 / elapsedNanos, mean / 1000, p99 / 1000.0, all.length);
+    }
+
+    /**
+     * Claims a batch at once, reduced to the tickets still unsold as a customer does.
+     */
+    private static int claim(TicketPool pool, int tickets, int batch) throws InterruptedException {
+        int count = Math.min(batch, tickets - pool.getTicketsSold());
+        return count <= 0 ? 0 : pool.claimTickets(count, 10, TimeUnit.MILLISECONDS).size();
+    }
+
+    /**
+     * Buys a batch one ticket at a time, stopping early only once the pool has sold out.
+     */
+    private static int pollEach(TicketPool pool, int tickets, int batch) throws InterruptedException {
+        int bought = 0;
+        while (bought < batch && pool.getTicketsSold() < tickets) {
+            if (pool.pollTicket(10, TimeUnit.MILLISECONDS) != null) {
+                bought++;
+            }
+        }
+        return bought;
+    }
+}
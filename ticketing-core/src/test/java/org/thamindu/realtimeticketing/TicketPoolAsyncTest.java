@@ -0,0 +1,142 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.CustomerPriority;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.util.TicketTracer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class TicketPoolAsyncTest {
+
+    @Test
+    void waiterIsServedByDirectHandOff() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+
+        CompletableFuture<String> waiter = ticketPool.requestTicket();
+        assert !waiter.isDone();
+
+        assert ticketPool.offerTicket("Vendor-1-Ticket");
+        assert "Vendor-1-Ticket-0".equals(waiter.get(1, TimeUnit.SECONDS));
+        assert ticketPool.getCurrentSize() == 0; // Handed off without entering the queue.
+        assert ticketPool.getTicketsSold() == 1;
+    }
+
+    @Test
+    void queuedTicketIsServedImmediatelyInFifoOrder() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-1-Ticket");
+
+        assert "Vendor-1-Ticket-0".equals(ticketPool.requestTicket().getNow(null));
+        assert "Vendor-1-Ticket-1".equals(ticketPool.requestTicket().getNow(null));
+        assert ticketPool.getTicketsSold() == 2;
+    }
+
+    @Test
+    void cancelledAndTimedOutWaitersAreSkipped() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+
+        CompletableFuture<String> cancelled = ticketPool.requestTicket();
+        CompletableFuture<String> timedOut = ticketPool.requestTicket(50, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> live = ticketPool.requestTicket();
+        cancelled.cancel(false);
+        try {
+            timedOut.get(1, TimeUnit.SECONDS);
+            assert false : "Expected the waiter to time out";
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof TimeoutException;
+        }
+
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        assert "Vendor-1-Ticket-0".equals(live.get(1, TimeUnit.SECONDS));
+        assert ticketPool.getTicketsSold() == 1;
+    }
+
+    @Test
+    void priorityClassesShareTicketsByWeight() throws Exception {
+        TicketPool ticketPool = new TicketPool(100, 100);
+        List<CompletableFuture<String>> vip = new ArrayList<>();
+        List<CompletableFuture<String>> presale = new ArrayList<>();
+        List<CompletableFuture<String>> general = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            general.add(ticketPool.requestTicket(CustomerPriority.GENERAL));
+            presale.add(ticketPool.requestTicket(CustomerPriority.PRESALE));
+            vip.add(ticketPool.requestTicket(CustomerPriority.VIP));
+        }
+
+        for (int i = 0; i < 14; i++) { // Two full rounds of the 4:2:1 schedule.
+            ticketPool.offerTicket("Vendor-1-Ticket");
+        }
+
+        assert vip.stream().filter(CompletableFuture::isDone).count() == 8;
+        assert presale.stream().filter(CompletableFuture::isDone).count() == 4;
+        assert general.stream().filter(CompletableFuture::isDone).count() == 2;
+        assert general.get(0).isDone() && general.get(1).isDone(); // FIFO within a class.
+        assert (long) ticketPool.getWaiterStatistics().get("VIP").get("served") == 8;
+    }
+
+    @Test
+    void stoppingThePoolReleasesWaiters() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        CompletableFuture<String> waiter = ticketPool.requestTicket();
+
+        ticketPool.stopSimulation();
+
+        assert waiter.get(1, TimeUnit.SECONDS) == null;
+        assert !ticketPool.offerTicket("Vendor-1-Ticket");
+    }
+
+    @Test
+    void waiterRequestedWhileThePoolStopsIsReleased() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        // The timer starts after the stopped check and before the waiter joins the queue.
+        ticketPool.setTracer(new TicketTracer(0) {
+            @Override
+            public long startTimer() {
+                ticketPool.stopSimulation();
+                return super.startTimer();
+            }
+        });
+
+        CompletableFuture<String> waiter = ticketPool.requestTicket();
+
+        assert waiter.get(1, TimeUnit.SECONDS) == null; // Released, not left parked.
+    }
+
+    @Test
+    void concurrentOffersServeEveryWaiterExactlyOnce() throws Exception {
+        int totalTickets = 5000;
+        TicketPool ticketPool = new TicketPool(100, totalTickets);
+
+        List<CompletableFuture<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < totalTickets; i++) {
+            waiters.add(ticketPool.requestTicket());
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            String ticketBase = "Vendor-" + i + "-Ticket";
+            executorService.submit(() -> {
+                while (ticketPool.getTicketsAdded() < totalTickets) {
+                    ticketPool.offerTicket(ticketBase);
+                }
+            });
+        }
+        CompletableFuture.allOf(waiters.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+
+        assert waiters.stream().map(CompletableFuture::join).distinct().count() == totalTickets;
+        assert ticketPool.getTicketsAdded() == totalTickets;
+        assert ticketPool.getTicketsSold() == totalTickets;
+        assert ticketPool.getCurrentSize() == 0;
+    }
+}
@@ -0,0 +1,125 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.Customer;
+import org.thamindu.realtimeticketing.model.TicketPool;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TicketPoolClaimTest {
+
+    @Test
+    void claimIsAllOrNothing() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        for (int i = 0; i < 4; i++) {
+            ticketPool.offerTicket("Vendor-1-Ticket");
+        }
+
+        assert ticketPool.claimTickets(6, 50, TimeUnit.MILLISECONDS).isEmpty();
+        assert ticketPool.getCurrentSize() == 4; // Nothing was taken by the failed claim.
+        assert ticketPool.getTicketsSold() == 0;
+
+        List<String> claimed = ticketPool.claimTickets(3, 50, TimeUnit.MILLISECONDS);
+        assert claimed.equals(List.of("Vendor-1-Ticket-0", "Vendor-1-Ticket-1", "Vendor-1-Ticket-2"));
+        assert ticketPool.getTicketsSold() == 3;
+        assert "Vendor-1-Ticket-3".equals(ticketPool.tryRemoveTicket()); // Single buyers still served.
+    }
+
+    @Test
+    void claimLargerThanCapacityIsRejected() {
+        TicketPool ticketPool = new TicketPool(5, 10);
+        try {
+            ticketPool.claimTickets(6, 10, TimeUnit.MILLISECONDS);
+            assert false : "Expected the claim to be rejected";
+        } catch (IllegalArgumentException | InterruptedException e) {
+            assert e instanceof IllegalArgumentException;
+        }
+    }
+
+    @Test
+    void atomicCustomerWithBatchLargerThanCapacityBuysEveryTicket() throws Exception {
+        int totalTickets = 12;
+        TicketPool ticketPool = new TicketPool(5, totalTickets);
+        Thread vendor = new Thread(() -> {
+            while (ticketPool.getTicketsAdded() < totalTickets) {
+                if (!ticketPool.offerTicket("Vendor-1-Ticket")) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        // Eight tickets per round can never be claimed from a five-ticket pool, nor the last two as eight.
+        Customer customer = new Customer("Customer-1", 8, 10, ticketPool);
+        customer.setAtomicBatch(true);
+        Thread buyer = new Thread(customer);
+        vendor.start();
+        buyer.start();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ticketPool.getTicketsSold() < totalTickets && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        boolean buyerAlive = buyer.isAlive();
+        customer.stop();
+        ticketPool.stopSimulation();
+        buyer.join(5000);
+        vendor.join(5000);
+
+        assert buyerAlive : "The customer thread died";
+        assert ticketPool.getTicketsSold() == totalTickets;
+        assert ticketPool.getCurrentSize() == 0;
+    }
+
+    @Test
+    void batchAndSingleBuyersSellOutWithoutDeadlockUnderContention() throws Exception {
+        int totalTickets = 6000;
+        TicketPool ticketPool = new TicketPool(100, totalTickets);
+        Set<String> sold = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger partialBatches = new AtomicInteger();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(40);
+        for (int i = 0; i < 4; i++) {
+            String ticketBase = "Vendor-" + i + "-Ticket";
+            executorService.submit(() -> {
+                while (ticketPool.getTicketsAdded() < totalTickets) {
+                    if (!ticketPool.offerTicket(ticketBase)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < 36; i++) {
+            boolean batchBuyer = i % 2 == 0;
+            executorService.submit(() -> {
+                while (!ticketPool.isSimulationComplete()) {
+                    List<String> tickets;
+                    if (batchBuyer) {
+                        tickets = ticketPool.claimTickets(6, 20, TimeUnit.MILLISECONDS);
+                    } else {
+                        String ticket = ticketPool.pollTicket(20, TimeUnit.MILLISECONDS);
+                        tickets = ticket == null ? List.of() : List.of(ticket);
+                    }
+                    if (batchBuyer && !tickets.isEmpty() && tickets.size() != 6) {
+                        partialBatches.incrementAndGet();
+                    }
+                    tickets.stream().filter(ticket -> !sold.add(ticket)).forEach(ticket -> duplicates.incrementAndGet());
+                }
+                return null;
+            });
+        }
+        executorService.shutdown();
+        assert executorService.awaitTermination(60, TimeUnit.SECONDS) : "Buyers did not finish";
+
+        assert partialBatches.get() == 0;
+        assert duplicates.get() == 0;
+        assert sold.size() == totalTickets;
+        assert ticketPool.getTicketsSold() == totalTickets;
+        assert ticketPool.getCurrentSize() == 0;
+    }
+}
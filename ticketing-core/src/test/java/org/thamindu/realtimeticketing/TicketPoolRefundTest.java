@@ -0,0 +1,93 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TicketPoolRefundTest {
+
+    @Test
+    void refundedTicketIsRequeuedAndCountersStayConsistent() {
+        TicketPool ticketPool = new TicketPool(10, 2);
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        String ticket = ticketPool.tryRemoveTicket();
+        assert ticketPool.getTicketState(ticket) == TicketState.SOLD;
+
+        assert ticketPool.refundTicket(ticket);
+        assert !ticketPool.refundTicket(ticket); // Already back in inventory.
+        assert ticketPool.getTicketState(ticket) == TicketState.AVAILABLE;
+        assert ticketPool.getTicketsSold() == 0;
+        assert ticketPool.getAvailableTickets() == 2;
+        assert ticketPool.getCurrentSize() == 1;
+        assert ticket.equals(ticketPool.tryRemoveTicket());
+        assert !ticketPool.refundTicket("Vendor-1-Ticket-99");
+    }
+
+    @Test
+    void stateVersionChangesWithCountersOnly() {
+        TicketPool ticketPool = new TicketPool(10, 2);
+        long initial = ticketPool.getStateVersion();
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        long offered = ticketPool.getStateVersion();
+        assert offered != initial;
+
+        ticketPool.getTicketsSold();
+        ticketPool.getAvailableTickets();
+        assert ticketPool.getStateVersion() == offered; // Reads leave the version alone.
+
+        String ticket = ticketPool.tryRemoveTicket();
+        long sold = ticketPool.getStateVersion();
+        assert sold != offered;
+        assert ticketPool.refundTicket(ticket);
+        assert ticketPool.getStateVersion() != sold;
+    }
+
+    @Test
+    void refundIsHandedStraightToAWaiter() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 1);
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        String ticket = ticketPool.tryRemoveTicket();
+        CompletableFuture<String> waiter = ticketPool.requestTicket();
+
+        assert ticketPool.refundTicket(ticket);
+        assert ticket.equals(waiter.get(1, TimeUnit.SECONDS));
+        assert ticketPool.getTicketState(ticket) == TicketState.SOLD;
+        assert ticketPool.getTicketsSold() == 1;
+        assert ticketPool.getCurrentSize() == 0;
+    }
+
+    @Test
+    void concurrentRefundsOfTheSameTicketSucceedOnce() throws Exception {
+        int totalTickets = 1000;
+        TicketPool ticketPool = new TicketPool(totalTickets, totalTickets);
+        List<String> sold = new ArrayList<>();
+        for (int i = 0; i < totalTickets; i++) {
+            ticketPool.offerTicket("Vendor-1-Ticket");
+            sold.add(ticketPool.tryRemoveTicket());
+        }
+
+        AtomicInteger refunds = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executorService.submit(() -> sold.forEach(ticket -> {
+                if (ticketPool.refundTicket(ticket)) {
+                    refunds.incrementAndGet();
+                }
+            }));
+        }
+        executorService.shutdown();
+        assert executorService.awaitTermination(10, TimeUnit.SECONDS);
+
+        assert refunds.get() == totalTickets;
+        assert ticketPool.getTicketsSold() == 0;
+        assert ticketPool.getCurrentSize() == totalTickets;
+    }
+}
@@ -0,0 +1,110 @@
+package org.thamindu.realtimeticketing;
+
+import org.thamindu.realtimeticketing.model.HeapTicketStore;
+import org.thamindu.realtimeticketing.model.OffHeapTicketStore;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketStore;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the memory footprint and garbage collection cost of the heap and off-heap ticket stores,
+ * on their own and inside a whole {@link TicketPool}. Not part of the test suite; from the
+ * repository root, run it directly, for example:
+ *
+ * <pre>
+ * mvn -pl ticketing-core test-compile
+ * java -Xmx2g -cp ticketing-core/target/classes:ticketing-core/target/test-classes:$HOME/.m2/repository/org/apache/logging/log4j/log4j-api/2.24.1/log4j-api-2.24.1.jar:$HOME/.m2/repository/org/apache/logging/log4j/log4j-core/2.24.1/log4j-core-2.24.1.jar \
+ *     org.thamindu.realtimeticketing.TicketStoreFootprintBenchmark 2000000
+ * </pre>
+ *
+ * For each store it fills the queue with the given number of tickets and reports the heap and
+ * off-heap bytes per ticket, the duration of a full collection with the store populated, and the
+ * time and collections spent churning the queue (remove one, add one) once through. For each pool
+ * it releases the given number of tickets, sells half of them, and reports the same figures for the
+ * queue and the state index together, churning by selling and refunding every unsold ticket.
+ */
+public class TicketStoreFootprintBenchmark {
+
+    public static void main(String[] args) {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        run("heap", new HeapTicketStore(), tickets);
+        run("offheap", new OffHeapTicketStore(), tickets);
+        runPool("heap", tickets);
+        runPool("offheap", tickets);
+    }
+
+    private static void runPool(String storeType, int tickets) {
+        long heapBefore = usedHeapAfterGc();
+        TicketPool pool = new TicketPool(tickets, tickets, storeType);
+        for (int i = 0; i < tickets; i++) {
+            pool.offerTicket("Vendor-" + (i % 100) + "-Ticket");
+        }
+        for (int i = 0; i < tickets / 2; i++) {
+            pool.tryRemoveTicket();
+        }
+        long heapBytes = Math.max(0, usedHeapAfterGc() - heapBefore);
+
+        long gcStarted = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - gcStarted) / 1_000_000;
+
+        long collectionsBefore = collections();
+        long gcMillisBefore = collectionMillis();
+        long started = System.nanoTime();
+        int unsold = pool.getCurrentSize();
+        for (int i = 0; i < unsold; i++) {
+            pool.refundTicket(pool.tryRemoveTicket());
+        }
+        long churnMillis = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.printf("pool-%-8s tickets=%,d heapBytes/ticket=%.1f fullGcMs=%d churnMs=%,d churnGcCount=%d churnGcMs=%d%n",
+                storeType, tickets, (double) heapBytes / tickets, fullGcMillis, churnMillis,
+                collections() - collectionsBefore, collectionMillis() - gcMillisBefore);
+        pool.stopSimulation();
+    }
+
+    private static void run(String name, TicketStore store, int tickets) {
+        long heapBefore = usedHeapAfterGc();
+        for (int i = 0; i < tickets; i++) {
+            store.add("Vendor-" + (i % 100) + "-Ticket-" + i);
+        }
+        long heapBytes = Math.max(0, usedHeapAfterGc() - heapBefore);
+        long offHeapBytes = store instanceof OffHeapTicketStore offHeap ? offHeap.getOffHeapBytes() : 0;
+
+        // A full collection must trace every live ticket the heap store holds.
+        long gcStarted = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - gcStarted) / 1_000_000;
+
+        long collectionsBefore = collections();
+        long gcMillisBefore = collectionMillis();
+        long started = System.nanoTime();
+        for (int i = 0; i < tickets; i++) {
+            store.add(store.removeFirst());
+        }
+        long churnMillis = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.printf("%-8s tickets=%,d heapBytes/ticket=%.1f offHeapBytes/ticket=%.1f fullGcMs=%d churnMs=%,d churnGcCount=%d churnGcMs=%d%n",
+                name, tickets, (double) heapBytes / tickets, (double) offHeapBytes / tickets, fullGcMillis, churnMillis,
+                collections() - collectionsBefore, collectionMillis() - gcMillisBefore);
+        store.clear();
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long collections() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long collectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
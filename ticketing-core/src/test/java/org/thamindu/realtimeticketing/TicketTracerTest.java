@@ -0,0 +1,73 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.util.TicketTracer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class TicketTracerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fullySampledPoolRecordsTimeInPoolPerVendorAndPath() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        ticketPool.setTracer(new TicketTracer(1));
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-2-Ticket");
+        assert ticketPool.tryRemoveTicket() != null;
+        assert ticketPool.pollTicket(1, TimeUnit.SECONDS) != null;
+        assert ticketPool.claimTickets(1, 1, TimeUnit.SECONDS).size() == 1;
+
+        Map<String, Object> statistics = ticketPool.getTracer().getStatistics();
+        Map<String, Map<String, Object>> byVendor = (Map<String, Map<String, Object>>) statistics.get("timeInPool");
+        Map<String, Map<String, Object>> byPath = (Map<String, Map<String, Object>>) statistics.get("timeInPoolByPath");
+        Map<String, Map<String, Object>> stages = (Map<String, Map<String, Object>>) statistics.get("stages");
+        assert (long) byVendor.get("Vendor-1-Ticket").get("count") == 2 : statistics;
+        assert (long) byVendor.get("Vendor-2-Ticket").get("count") == 1 : statistics;
+        assert (long) byPath.get("nonBlocking").get("count") == 2 : statistics;
+        assert (long) byPath.get("claim").get("count") == 1 : statistics;
+        assert (long) stages.get("purchase.poll").get("count") == 1 : statistics;
+        assert (long) stages.get("purchase.claim").get("count") == 1 : statistics;
+        assert (int) statistics.get("pendingTickets") == 0 : statistics;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unsampledPoolRecordsNothing() {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        assert ticketPool.tryRemoveTicket() != null;
+
+        Map<String, Object> statistics = ticketPool.getTracer().getStatistics();
+        assert ((Map<String, Object>) statistics.get("timeInPool")).isEmpty() : statistics;
+        assert ((Map<String, Object>) statistics.get("stages")).isEmpty() : statistics;
+        assert ticketPool.getTracer().startTimer() == TicketTracer.NOT_SAMPLED;
+    }
+
+    @Test
+    void ticketSamplingIsStableAndCloseToTheRate() {
+        TicketTracer tracer = new TicketTracer(0.1);
+        int sampled = 0;
+        for (int i = 0; i < 100_000; i++) {
+            String ticketId = "Vendor-" + (i % 50) + "-Ticket-" + i;
+            if (tracer.isSampled(ticketId)) {
+                sampled++;
+                assert tracer.isSampled(ticketId);
+            }
+        }
+        assert sampled > 9_000 && sampled < 11_000 : sampled;
+    }
+
+    @Test
+    void reinitializingThePoolDiscardsPendingTickets() {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        ticketPool.setTracer(new TicketTracer(1));
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        assert (int) ticketPool.getTracer().getStatistics().get("pendingTickets") == 1;
+        ticketPool.initialize(10, 10);
+        assert (int) ticketPool.getTracer().getStatistics().get("pendingTickets") == 0;
+    }
+}
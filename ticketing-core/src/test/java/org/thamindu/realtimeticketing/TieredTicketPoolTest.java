@@ -0,0 +1,41 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.TieredTicketPool;
+
+import java.util.List;
+
+class TieredTicketPoolTest {
+
+    @Test
+    void customerFallsBackToTheNextPreferredTier() throws Exception {
+        TieredTicketPool pool = new TieredTicketPool()
+                .addTier("PREMIUM", 5, 1)
+                .addTier("GENERAL", 5, 5);
+        pool.getTier("PREMIUM").offerTicket("Vendor-1-PREMIUM-Ticket");
+        pool.getTier("GENERAL").offerTicket("Vendor-2-GENERAL-Ticket");
+
+        List<String> preference = List.of("PREMIUM", "GENERAL");
+        assert "Vendor-1-PREMIUM-Ticket-0".equals(pool.removeTicket(preference));
+        assert "Vendor-2-GENERAL-Ticket-0".equals(pool.removeTicket(preference));
+        assert pool.getTier("PREMIUM").isSimulationComplete();
+        assert pool.removeTicket(List.of("PREMIUM")) == null; // Sold out, so no wait.
+    }
+
+    @Test
+    void countersAreKeptPerTierAndAggregated() throws Exception {
+        TieredTicketPool pool = new TieredTicketPool()
+                .addTier("PREMIUM", 5, 2)
+                .addTier("GENERAL", 5, 3);
+        pool.getTier("GENERAL").offerTicket("Vendor-1-GENERAL-Ticket");
+        pool.getTier("GENERAL").offerTicket("Vendor-1-GENERAL-Ticket");
+        pool.removeTicket(List.of("GENERAL"));
+
+        assert pool.getTotalTickets() == 5;
+        assert pool.getTicketsSold() == 1;
+        assert pool.getStatus().get("GENERAL").get("ticketsSold") == 1;
+        assert pool.getStatus().get("GENERAL").get("currentSize") == 1;
+        assert pool.getStatus().get("PREMIUM").get("ticketsSold") == 0;
+        assert pool.getTierNames().equals(List.of("PREMIUM", "GENERAL"));
+    }
+}
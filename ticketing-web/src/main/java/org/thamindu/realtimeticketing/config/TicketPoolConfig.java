@@ -0,0 +1,55 @@
+package org.thamindu.realtimeticketing.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.util.EventLogAggregator;
+import org.thamindu.realtimeticketing.util.TicketTracer;
+
+/**
+ * Configuration class that wires the core ticketing engine into the web application.
+ * The shared {@code TicketPool} is created here from the application properties.
+ *
+ * <p><strong>Rationale:</strong> The core engine carries no Spring annotations, so the CLI and
+ * benchmarks run it on a small classpath; the web application builds the same classes as beans.</p>
+ */
+@Configuration
+public class TicketPoolConfig {
+
+    /**
+     * Defines the aggregator that summarises the per-ticket log events of the application's pools.
+     * Closing it with the context logs the last, partial interval and stops its thread.
+     *
+     * @param summaryIntervalMillis how often per-ticket log events are summarised, in milliseconds.
+     * @param detailSampleRate      the fraction of tickets whose per-ticket log lines are kept at INFO.
+     * @return the event log aggregator.
+     */
+    @Bean(destroyMethod = "close")
+    public EventLogAggregator eventLogAggregator(@Value("${logging.summary.intervalMs:1000}") long summaryIntervalMillis,
+                                                 @Value("${logging.summary.detailSampleRate:0.01}") double detailSampleRate) {
+        return new EventLogAggregator(summaryIntervalMillis, detailSampleRate);
+    }
+
+    /**
+     * Defines the ticket pool shared by the simulation and the REST API.
+     *
+     * @param maxCapacity  the maximum number of tickets held in the pool at a time.
+     * @param totalTickets the total number of tickets to be added to the pool.
+     * @param storeType    {@code offheap} to keep queued tickets outside the heap; {@code heap} otherwise.
+     * @param sampleRate   the fraction of tickets and purchases traced; 0 turns tracing off.
+     * @param eventLog     the aggregator that summarises the pool's per-ticket log events.
+     * @return the shared ticket pool.
+     */
+    @Bean
+    public TicketPool ticketPool(@Value("${ticket.pool.maxCapacity:50}") int maxCapacity,
+                                 @Value("${ticket.pool.totalTickets:100}") int totalTickets,
+                                 @Value("${ticket.pool.store:heap}") String storeType,
+                                 @Value("${tracing.sampleRate:0.01}") double sampleRate,
+                                 EventLogAggregator eventLog) {
+        TicketPool ticketPool = new TicketPool(maxCapacity, totalTickets, storeType);
+        ticketPool.setTracer(new TicketTracer(sampleRate));
+        ticketPool.setEventLog(eventLog);
+        return ticketPool;
+    }
+}
@@ -0,0 +1,63 @@
+package org.thamindu.realtimeticketing.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.thamindu.realtimeticketing.service.CheckInService;
+
+import java.util.Map;
+
+/**
+ * REST controller for venue gate check-in.
+ * Each scan validates a ticket and marks it used, so a ticket admits only once.
+ *
+ * <p><strong>Rationale:</strong> Gates need a yes or no answer per scan as fast as possible;
+ * the HTTP status alone carries it, and the body explains refusals.</p>
+ */
+@RestController
+@RequestMapping("/api/checkin")
+@CrossOrigin(origins = "http://localhost:4200")
+public class CheckInController {
+
+    /**
+     * The service that validates and marks tickets.
+     */
+    private final CheckInService checkInService;
+
+    /**
+     * Constructs a CheckInController with the specified check-in service.
+     *
+     * @param checkInService the service that validates and marks tickets.
+     */
+    public CheckInController(CheckInService checkInService) {
+        this.checkInService = checkInService;
+    }
+
+    /**
+     * Checks in a ticket.
+     *
+     * @param ticketId the scanned ticket ID.
+     * @return a 200 response if the ticket admits its holder, 409 if it was already used, or 404 if
+     * it was never sold or has been refunded.
+     */
+    @PostMapping("/{ticketId}")
+    public ResponseEntity<Map<String, String>> checkIn(@PathVariable String ticketId) {
+        CheckInService.Result result = checkInService.checkIn(ticketId);
+        HttpStatus status = switch (result) {
+            case ADMITTED -> HttpStatus.OK;
+            case ALREADY_USED -> HttpStatus.CONFLICT;
+            case INVALID -> HttpStatus.NOT_FOUND;
+        };
+        return ResponseEntity.status(status).body(Map.of("ticketId", ticketId, "result", result.name()));
+    }
+
+    /**
+     * Retrieves scan counts and latency.
+     *
+     * @return a {@code ResponseEntity} containing the check-in statistics.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        return ResponseEntity.ok(checkInService.getStatistics());
+    }
+}
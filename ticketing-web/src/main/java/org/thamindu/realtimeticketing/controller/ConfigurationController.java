@@ -1,8 +1,10 @@
 package org.thamindu.realtimeticketing.controller;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.thamindu.realtimeticketing.model.Configuration;
 
 /**
@@ -20,19 +22,28 @@ public class ConfigurationController {
 
     /**
      * Retrieves the current configuration of the system.
+     * The response carries an ETag derived from the configuration version; a request whose
+     * {@code If-None-Match} matches it gets 304 Not Modified.
      *
-     * @return a {@code ResponseEntity} containing the current {@code Configuration} object.
-     * If an error occurs during retrieval, a 500 status is returned.
+     * @param request the current request, used to evaluate {@code If-None-Match}.
+     * @return a {@code ResponseEntity} containing the current {@code Configuration} object, or null
+     * if 304 Not Modified has been sent. If an error occurs during retrieval, a 500 status is returned.
      *
      * <p><strong>Rationale:</strong> Providing a retrieval endpoint enables administrators to
-     * view the current system settings dynamically without accessing backend files.</p>
+     * view the current system settings dynamically without accessing backend files. Checking the
+     * version first spares polling clients a reread of the configuration file.</p>
      */
     @GetMapping
-    public ResponseEntity<Configuration> getConfiguration(){
+    public ResponseEntity<Configuration> getConfiguration(WebRequest request){
         try {
+            // The version is read before the file, so a save in between only costs an extra fetch.
+            String etag = "\"" + Configuration.getVersion() + "\"";
+            if (request.checkNotModified(etag)) {
+                return null; // 304 Not Modified has been set on the response.
+            }
             // Load the configuration from the predefined file.
             Configuration currentConfiguration = Configuration.loadConfiguration();
-            return ResponseEntity.ok(currentConfiguration);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(currentConfiguration);
         }catch (Exception e){
             // Log the error and return a server error response.
             e.printStackTrace();
@@ -0,0 +1,154 @@
+package org.thamindu.realtimeticketing.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import org.springframework.http.HttpStatus;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.thamindu.realtimeticketing.util.IndexedLogAppender;
+import org.thamindu.realtimeticketing.util.IndexedLogStore;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * REST controller for managing and retrieving application logs.
+ * This controller provides an endpoint to retrieve filtered logs, enabling monitoring
+ * and debugging of the system in a structured manner.
+ *
+ * <p><strong>Rationale:</strong> Centralized log retrieval allows administrators and developers
+ * to analyze system behavior without directly accessing server files, improving accessibility and security.</p>
+ */
+@RestController
+@RequestMapping("/api/logs")
+@CrossOrigin(origins = "http://localhost:4200")
+public class LogController {
+
+    /**
+     * Categories returned when a request names none: the application's model, service and controller packages.
+     */
+    private static final List<String> DEFAULT_CATEGORIES = List.of("model", "service", "controller");
+
+    /**
+     * Largest number of lines returned by one request.
+     */
+    private static final int MAX_LIMIT = 10000;
+
+    /**
+     * Name of the {@code IndexedLog} appender in {@code log4j2.xml} whose store is read,
+     * configurable via application properties. Default value is {@code IndexedLog}.
+     */
+    @Value("${logging.index.appender:IndexedLog}")
+    private String appenderName;
+
+    /**
+     * Retrieves the latest log entries of the given categories and levels within a time range.
+     *
+     * @param categories the categories to include, such as {@code model}, {@code service} or
+     *                   {@code controller}; by default those three.
+     * @param levels     the levels to include; by default all.
+     * @param from       the earliest event time to include, in milliseconds since the epoch.
+     * @param to         the latest event time to include, in milliseconds since the epoch.
+     * @param limit      the largest number of entries to return, at most {@value #MAX_LIMIT}; by
+     *                   default every matching entry, as the endpoint has always returned.
+     * @return a {@code ResponseEntity} containing the matching log entries, oldest first, or 400 if
+     * the limit is not positive. If the indexed log appender is not configured, a 503 status is
+     * returned; if an error occurs while reading the log store, a 500 status is returned.
+     *
+     * <p><strong>Rationale:</strong> The store files entries by category and level as they are
+     * written, so a request reads only the matching segments and only the part of them that holds
+     * the latest entries, however large the log has grown.</p>
+     */
+    @GetMapping
+    public ResponseEntity<List<String>> getLogs(@RequestParam(name = "category", required = false) List<String> categories,
+                                                @RequestParam(name = "level", required = false) List<String> levels,
+                                                @RequestParam(required = false) Long from,
+                                                @RequestParam(required = false) Long to,
+                                                @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        IndexedLogStore store = getStore();
+        if (store == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            List<String> logs = store.query(
+                    new HashSet<>(categories == null || categories.isEmpty() ? DEFAULT_CATEGORIES : categories),
+                    levels == null ? null : new HashSet<>(levels),
+                    from == null ? Long.MIN_VALUE : from,
+                    to == null ? Long.MAX_VALUE : to,
+                    limit == null ? Integer.MAX_VALUE : Math.min(limit, MAX_LIMIT));
+            return ResponseEntity.ok(logs);
+        } catch (IOException e) {
+            // Log the exception and return a server error response.
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Finds the latest log entries within a time range that mention every given identifier, such
+     * as a ticket ID and a customer ID, answering questions like "what happened to ticket
+     * Vendor-Vendor-3-Ticket-417?" or "show all activity for Customer-12".
+     *
+     * @param terms      the identifiers the entries must all mention.
+     * @param categories the categories to include; by default all.
+     * @param levels     the levels to include; by default all.
+     * @param from       the earliest event time to include, in milliseconds since the epoch.
+     * @param to         the latest event time to include, in milliseconds since the epoch.
+     * @param limit      the largest number of entries to return, at most {@value #MAX_LIMIT}.
+     * @return a {@code ResponseEntity} containing the matching entries, oldest first, or 400 if no
+     * identifier is given or the limit is not positive. If the indexed log appender is not
+     * configured, a 503 status is returned; if an error occurs while reading the log store, a 500
+     * status is returned.
+     *
+     * <p><strong>Rationale:</strong> Each segment of the store keeps an inverted index of the
+     * identifiers in its entries, with a Bloom filter per run, and its time range, so a lookup
+     * skips the segments that cannot match, inflates only the compressed blocks that hold matching
+     * entries and never scans the log.</p>
+     */
+    @GetMapping("/find")
+    public ResponseEntity<List<String>> findLogs(@RequestParam(name = "term") List<String> terms,
+                                                 @RequestParam(name = "category", required = false) List<String> categories,
+                                                 @RequestParam(name = "level", required = false) List<String> levels,
+                                                 @RequestParam(required = false) Long from,
+                                                 @RequestParam(required = false) Long to,
+                                                 @RequestParam(defaultValue = "1000") int limit) {
+        List<String> tokens = terms.stream().map(String::trim).filter(term -> !term.isEmpty()).toList();
+        if (tokens.isEmpty() || limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        IndexedLogStore store = getStore();
+        if (store == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ResponseEntity.ok(store.find(tokens,
+                    categories == null ? null : new HashSet<>(categories),
+                    levels == null ? null : new HashSet<>(levels),
+                    from == null ? Long.MIN_VALUE : from,
+                    to == null ? Long.MAX_VALUE : to,
+                    Math.min(limit, MAX_LIMIT)));
+        } catch (IOException e) {
+            // Log the exception and return a server error response.
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Gets the store of the configured {@code IndexedLog} appender from the running log4j
+     * configuration, so the controller reads the very instance the appender writes to.
+     *
+     * @return the store, or null if no such appender is configured.
+     */
+    private IndexedLogStore getStore() {
+        Appender appender = ((LoggerContext) LogManager.getContext(false)).getConfiguration().getAppender(appenderName);
+        return appender instanceof IndexedLogAppender indexed ? indexed.getStore() : null;
+    }
+}
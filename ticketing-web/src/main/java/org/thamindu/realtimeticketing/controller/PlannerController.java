@@ -0,0 +1,57 @@
+package org.thamindu.realtimeticketing.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.thamindu.realtimeticketing.model.CapacityPlanRequest;
+import org.thamindu.realtimeticketing.service.CapacityPlanner;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for capacity planning.
+ * Runs a parameter sweep of simulations and returns one result per configuration.
+ *
+ * <p><strong>Rationale:</strong> Operators choose rates and pool capacity before an event; a sweep
+ * answers "which settings sell out fastest without overfilling the pool" in one request instead of
+ * one live simulation per guess.</p>
+ */
+@RestController
+@RequestMapping("/api/planner")
+@CrossOrigin(origins = "http://localhost:4200")
+public class PlannerController {
+
+    /**
+     * The planner that runs the sweep.
+     */
+    private final CapacityPlanner capacityPlanner;
+
+    /**
+     * Constructs a PlannerController with the specified planner.
+     *
+     * @param capacityPlanner the planner that runs the sweep.
+     */
+    public PlannerController(CapacityPlanner capacityPlanner) {
+        this.capacityPlanner = capacityPlanner;
+    }
+
+    /**
+     * Simulates every combination of the requested parameter ranges.
+     *
+     * @param request the parameter ranges and the simulated time limit.
+     * @return a {@code ResponseEntity} containing the results, fastest sell-out first, or a 400
+     * response if the request is invalid or the sweep is too large.
+     */
+    @PostMapping("/sweep")
+    public ResponseEntity<Map<String, Object>> sweep(@RequestBody CapacityPlanRequest request) {
+        try {
+            List<Map<String, Object>> results = capacityPlanner.plan(request);
+            return ResponseEntity.ok(Map.of("runs", results.size(), "results", results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.internalServerError().body(Map.of("error", "Capacity planning was interrupted."));
+        }
+    }
+}
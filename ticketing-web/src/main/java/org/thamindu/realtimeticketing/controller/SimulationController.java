@@ -0,0 +1,188 @@
+package org.thamindu.realtimeticketing.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import org.thamindu.realtimeticketing.model.Configuration;
+import org.thamindu.realtimeticketing.service.SimulationService;
+import org.thamindu.realtimeticketing.service.SimulationSession;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * REST controller for managing the ticketing simulation.
+ * This controller provides endpoints to start, stop, and check the status of the simulation,
+ * and of any number of concurrent simulation sessions.
+ *
+ * <p><strong>Rationale:</strong> Exposing simulation control through REST APIs allows the frontend
+ * to dynamically interact with the backend, providing a seamless user experience for managing
+ * the ticketing simulation in real-time.</p>
+ */
+@RestController
+@RequestMapping("/api/simulation")
+@CrossOrigin(origins = "http://localhost:4200")
+public class SimulationController {
+
+    /**
+     * The service responsible for managing the ticketing simulation.
+     */
+    private final SimulationService simulationService;
+    /**
+     * Constructs a SimulationController with the specified simulation service.
+     *
+     * @param simulationService the service responsible for managing the ticketing simulation.
+     *
+     * <p><strong>Rationale:</strong> Dependency injection ensures that the controller remains decoupled
+     * from the simulation logic, improving testability and maintainability.</p>
+     */
+    public SimulationController(SimulationService simulationService) {
+        this.simulationService = simulationService;
+    }
+    /**
+     * Retrieves the current status of the simulation.
+     *
+     * @return a {@code ResponseEntity} containing a boolean value indicating whether the simulation is running.
+     *
+     * <p><strong>Rationale:</strong> Providing a status endpoint allows the frontend to poll the server
+     * for updates, ensuring accurate and real-time feedback for users.</p>
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Boolean> getSimulationStatus() {
+        // Return the current running state of the simulation.
+        return ResponseEntity.ok(simulationService.isRunning());
+    }
+
+    /**
+     * Starts the ticketing simulation using the configuration loaded from file.
+     *
+     * @return a {@code ResponseEntity} containing a message indicating the outcome of the operation.
+     * If an error occurs while loading the configuration, a 500 status is returned.
+     *
+     * <p><strong>Rationale:</strong> Allowing the frontend to start the simulation dynamically
+     * improves the flexibility and control of the system, enabling real-time scenario testing.</p>
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, String>> startSimulation() {
+        try {
+            // Load the configuration and start the simulation.
+            Configuration config = Configuration.loadConfiguration();
+            simulationService.startSimulation(config);
+
+            // Prepare a success response.
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Simulation started successfully.");
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            // Log the error and return a failure response.
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load configuration."));
+        }
+    }
+
+    /**
+     * Stops the ticketing simulation.
+     *
+     * @return a {@code ResponseEntity} containing a message indicating that the simulation has been stopped.
+     *
+     * <p><strong>Rationale:</strong> Providing a stop endpoint ensures graceful termination of the simulation,
+     * preventing resource leaks and maintaining system stability.</p>
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, String>> stopSimulation() {
+        // Stop the simulation and prepare a success response.
+        simulationService.stopSimulation();
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Simulation stopped.");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Lists every simulation session and the shared worker budget.
+     *
+     * @return a {@code ResponseEntity} containing the worker budget and the status of each session.
+     */
+    @GetMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> getSessions() {
+        return ResponseEntity.ok(simulationService.getSessionsStatus());
+    }
+
+    /**
+     * Retrieves the status of a simulation session.
+     *
+     * @param id the session ID.
+     * @return a {@code ResponseEntity} containing the session's configuration, workers and sales,
+     * or a 404 response if there is no such session.
+     */
+    @GetMapping("/sessions/{id}")
+    public ResponseEntity<Map<String, Object>> getSessionStatus(@PathVariable String id) {
+        SimulationSession session = simulationService.getSession(id);
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No session " + id + "."));
+        }
+        return ResponseEntity.ok(session.getStatus());
+    }
+
+    /**
+     * Starts a simulation session.
+     *
+     * @param id     the session ID.
+     * @param config the configuration for the session, or none to use the saved configuration.
+     * @return a {@code ResponseEntity} containing the session status; a 400 response if the
+     * configuration is invalid, 409 if the session is already running, 503 if the worker budget is
+     * exhausted, or 500 if the saved configuration cannot be loaded.
+     */
+    @PostMapping("/sessions/{id}/start")
+    public ResponseEntity<Map<String, Object>> startSession(@PathVariable String id,
+                                                            @RequestBody(required = false) Configuration config) {
+        try {
+            SimulationSession session = simulationService.startSession(id, config != null ? config : Configuration.loadConfiguration());
+            return ResponseEntity.ok(session.getStatus());
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load configuration."));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Drains and stops a simulation session.
+     *
+     * @param id      the session ID.
+     * @param drainMs how long customers may keep buying the tickets left in the pool, in
+     *                milliseconds; the configured deadline if omitted, or 0 to stop at once.
+     * @return a {@code ResponseEntity} containing the session's final status and drain report, or a
+     * 404 response if there is no such session.
+     */
+    @PostMapping("/sessions/{id}/stop")
+    public ResponseEntity<Map<String, Object>> stopSession(@PathVariable String id,
+                                                           @RequestParam(required = false) Long drainMs) {
+        SimulationSession session = drainMs == null
+                ? simulationService.stopSession(id)
+                : simulationService.stopSession(id, drainMs);
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No session " + id + "."));
+        }
+        return ResponseEntity.ok(session.getStatus());
+    }
+
+    /**
+     * Removes a stopped simulation session.
+     *
+     * @param id the session ID.
+     * @return a 204 response if the session was removed, or 409 if it does not exist or is still running.
+     */
+    @DeleteMapping("/sessions/{id}")
+    public ResponseEntity<Void> removeSession(@PathVariable String id) {
+        return simulationService.removeSession(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,268 @@
+package org.thamindu.realtimeticketing.controller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.thamindu.realtimeticketing.model.Configuration;
+import org.thamindu.realtimeticketing.model.CustomerPriority;
+import org.thamindu.realtimeticketing.model.PurchaseResult;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.service.PurchasePipeline;
+import org.thamindu.realtimeticketing.service.PurchaseService;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST controller for managing ticket-related operations.
+ * This controller provides endpoints to retrieve the status of the ticketing system,
+ * including the total tickets, tickets sold, and tickets available.
+ *
+ * <p><strong>Rationale:</strong> By exposing ticket-related data through RESTful endpoints,
+ * this class enables seamless integration between the backend and frontend applications,
+ * allowing real-time status updates for users.</p>
+ */
+@RestController
+@RequestMapping("/api/tickets")
+@CrossOrigin(origins = "http://localhost:4200")
+public class TicketController {
+
+    /**
+     * Logger instance for logging ticket controller events.
+     */
+    private static final Logger logger = LogManager.getLogger(TicketController.class);
+
+    /**
+     * Extra time (in milliseconds) the servlet container waits beyond the purchase timeout,
+     * so that the purchase itself times out first and reports a proper result.
+     */
+    private static final long ASYNC_TIMEOUT_MARGIN_MS = 5000;
+
+    /**
+     * The ticket pool used in the ticketing system.
+     *
+     * <p><strong>Rationale:</strong> The ticket pool is a shared resource that tracks the total tickets,
+     * tickets sold, and tickets available. It is injected into the controller to provide real-time
+     * status updates to the frontend application.</p>
+     */
+    private TicketPool ticketPool;
+
+    /**
+     * The service that serves ticket purchases asynchronously.
+     */
+    private final PurchaseService purchaseService;
+
+    /**
+     * The staged pipeline that serves purchases through validate, reserve, payment and confirm stages.
+     */
+    private final PurchasePipeline purchasePipeline;
+
+    /**
+     * Constructs a TicketController with the specified ticket pool.
+     *
+     * @param ticketPool the shared ticket pool used to track tickets.
+     * @param purchaseService the service that serves ticket purchases.
+     * @param purchasePipeline the staged purchase pipeline.
+     *
+     * <p><strong>Rationale:</strong> Dependency injection ensures better testability
+     * and decouples the controller from the ticket pool's implementation details.</p>
+     */
+    @Autowired
+    public TicketController(TicketPool ticketPool, PurchaseService purchaseService, PurchasePipeline purchasePipeline) throws IOException {
+        this.ticketPool = ticketPool;
+        this.purchaseService = purchaseService;
+        this.purchasePipeline = purchasePipeline;
+    }
+
+    /**
+     * Retrieves the status of the ticketing system, including total tickets, tickets sold, and tickets available.
+     * The response carries an ETag derived from the pool's state version and the configuration
+     * version; a request whose {@code If-None-Match} matches it gets 304 Not Modified.
+     *
+     * @param request the current request, used to evaluate {@code If-None-Match}.
+     * @return a {@code ResponseEntity} containing a map of ticket-related status data, or null if
+     * 304 Not Modified has been sent. If an error occurs while loading the configuration, a 500 status is returned.
+     *
+     * <p><strong>Rationale:</strong> Centralized status retrieval enables frontend systems to
+     * display real-time information to users, improving transparency and user experience.
+     * Dashboards poll this endpoint, so an unchanged status is answered from two version reads
+     * without loading the configuration or building a body.</p>
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Integer>> getTicketStatus(WebRequest request) throws IOException {
+        String etag = "\"" + ticketPool.getStateVersion() + "-" + Configuration.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null; // 304 Not Modified has been set on the response.
+        }
+        // Load the configuration to fetch system-wide settings.
+        Configuration config = Configuration.loadConfiguration();
+//        logger.info("TicketPool instance in TicketController: {}", ticketPool.hashCode());
+//        logger.info("Fetching ticket status...");
+
+        // Prepare the ticket status response.
+        Map<String, Integer> status = new HashMap<>();
+        status.put("totalTickets", config != null ? config.getTotalTickets():0);
+        status.put("ticketsSold", ticketPool != null ? ticketPool.getTicketsSold() : 0);
+        status.put("ticketsAvailable", ticketPool != null ? ticketPool.getAvailableTickets() : 0);
+//        logger.info("Ticket status: {}", status);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(status);
+    }
+
+    /**
+     * Retrieves measured service and wait-time statistics for asynchronous purchases, per priority class.
+     *
+     * @return a {@code ResponseEntity} containing, for each class, tickets served, share of service
+     * and wait-time percentiles.
+     */
+    @GetMapping("/waiters")
+    public ResponseEntity<Map<String, Map<String, Object>>> getWaiterStatistics() {
+        return ResponseEntity.ok(ticketPool.getWaiterStatistics());
+    }
+
+    /**
+     * Retrieves the sampled lifecycle latencies of the shared pool's tickets and purchases.
+     *
+     * @return a {@code ResponseEntity} containing time-in-pool distributions per vendor and per sale
+     * path, and permit-wait and purchase-latency distributions per stage.
+     */
+    @GetMapping("/tracing")
+    public ResponseEntity<Map<String, Object>> getTracingStatistics() {
+        return ResponseEntity.ok(ticketPool.getTracer().getStatistics());
+    }
+
+    /**
+     * Purchases a ticket for a customer, waiting until inventory frees up or the timeout expires.
+     *
+     * @param customerId the customer making the purchase.
+     * @param priority   the customer's priority class; VIP and presale buyers are served first.
+     * @param timeoutMs  how long to wait for inventory, in milliseconds; capped by {@code purchase.maxWaitMs}.
+     * @param idempotencyKey an optional client-chosen key; retries with the same key replay the
+     *                       original outcome instead of buying another ticket.
+     * @param admissionToken the token issued by the waiting room, required while it is enabled.
+     * @return a {@code DeferredResult} completed with 200 and the ticket on success, 403 if the
+     * customer has not been admitted from the waiting room, 429 if the customer is over their
+     * rate limit or quota, or 503 if no ticket became available in time or sales are not running.
+     *
+     * <p><strong>Rationale:</strong> Returning a {@code DeferredResult} releases the Tomcat request
+     * thread while the purchase waits, so a large crowd of shoppers does not exhaust the thread pool.</p>
+     */
+    @PostMapping("/purchase")
+    public DeferredResult<ResponseEntity<Map<String, String>>> purchaseTicket(
+            @RequestParam String customerId,
+            @RequestParam(defaultValue = "GENERAL") CustomerPriority priority,
+            @RequestParam(required = false) Long timeoutMs,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "X-Waiting-Room-Token", required = false) String admissionToken) {
+        long timeout = timeoutMs != null ? timeoutMs : purchaseService.getMaxWaitMillis();
+        DeferredResult<ResponseEntity<Map<String, String>>> deferredResult =
+                new DeferredResult<>(Math.min(timeout, purchaseService.getMaxWaitMillis()) + ASYNC_TIMEOUT_MARGIN_MS);
+
+        CompletableFuture<PurchaseResult> purchase = purchaseService.purchase(customerId, priority, timeout, idempotencyKey, admissionToken);
+        // Withdraw the request from the pool if the client goes away first.
+        deferredResult.onTimeout(() -> purchase.cancel(false));
+        deferredResult.onError(error -> purchase.cancel(false));
+
+        purchase.thenAccept(result -> {
+            if (!deferredResult.setResult(toResponse(result)) && result.isPurchased() && !result.isReplay()) {
+                // The client has gone away without learning its ticket, so put the ticket back on sale.
+                // A replay is left alone: the request that claimed the ticket may have delivered it.
+                boolean returned = purchaseService.rollbackUndelivered(customerId, result.getTicketId());
+                logger.warn("Purchase response for customer {} could not be delivered (ticket {}, returned: {}).",
+                        customerId, result.getTicketId(), returned);
+            }
+        });
+        return deferredResult;
+    }
+
+    /**
+     * Purchases a ticket through the staged pipeline, which validates, reserves, takes payment and
+     * confirms the order in separate stages.
+     *
+     * @param customerId the customer making the purchase.
+     * @return a {@code DeferredResult} completed with 200 and the ticket on success, 429 if the
+     * customer is over their rate limit or quota, or 503 if no ticket is available or the pipeline is full.
+     */
+    @PostMapping("/pipeline/purchase")
+    public DeferredResult<ResponseEntity<Map<String, String>>> purchaseThroughPipeline(@RequestParam String customerId) {
+        DeferredResult<ResponseEntity<Map<String, String>>> deferredResult =
+                new DeferredResult<>(purchaseService.getMaxWaitMillis() + ASYNC_TIMEOUT_MARGIN_MS);
+        CompletableFuture<PurchaseResult> purchase = purchasePipeline.submit(customerId);
+        deferredResult.onTimeout(() -> purchase.cancel(false));
+        deferredResult.onError(error -> purchase.cancel(false));
+        purchase.thenAccept(result -> deferredResult.setResult(toResponse(result)));
+        return deferredResult;
+    }
+
+    /**
+     * Retrieves queue depth and throughput for each stage of the purchase pipeline.
+     *
+     * @return a {@code ResponseEntity} containing the statistics of each stage, in pipeline order.
+     */
+    @GetMapping("/pipeline/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getPipelineStatistics() {
+        return ResponseEntity.ok(purchasePipeline.getStatistics());
+    }
+
+    /**
+     * Refunds a sold ticket, returning it to inventory for other customers.
+     *
+     * @param ticketId   the ticket to refund.
+     * @param customerId the customer who bought the ticket, whose purchase quota is given back.
+     * @return a 200 response if the ticket was refunded, 404 if no such ticket exists, 403 if the
+     * customer did not buy the ticket, or 409 if the ticket is not currently sold or the pool has
+     * no room for it.
+     */
+    @PostMapping("/{ticketId}/refund")
+    public ResponseEntity<Map<String, String>> refundTicket(@PathVariable String ticketId,
+                                                            @RequestParam String customerId) {
+        Map<String, String> body = new HashMap<>();
+        body.put("ticketId", ticketId);
+        if (ticketPool.getTicketState(ticketId) == null) {
+            body.put("message", "Unknown ticket.");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+        }
+        if (!purchaseService.isBuyer(customerId, ticketId)) {
+            body.put("message", "Only the customer who bought the ticket can refund it.");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
+        }
+        if (!purchaseService.refund(customerId, ticketId)) {
+            body.put("message", "The ticket is not sold or cannot be returned to the pool right now.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+        body.put("message", "Ticket refunded.");
+        body.put("state", String.valueOf(ticketPool.getTicketState(ticketId)));
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Converts a purchase outcome into an HTTP response.
+     *
+     * @param result the purchase outcome.
+     * @return a 200 response for a purchase, 403 for a customer not yet admitted, 429 for a customer
+     * over their limits, otherwise a 503 response.
+     */
+    private ResponseEntity<Map<String, String>> toResponse(PurchaseResult result) {
+        HttpStatus status = switch (result.getStatus()) {
+            case PURCHASED -> HttpStatus.OK;
+            case NOT_ADMITTED -> HttpStatus.FORBIDDEN;
+            case RATE_LIMITED, QUOTA_EXCEEDED -> HttpStatus.TOO_MANY_REQUESTS;
+            default -> HttpStatus.SERVICE_UNAVAILABLE;
+        };
+        return ResponseEntity.status(status).body(result.toMap());
+    }
+}
@@ -0,0 +1,59 @@
+package org.thamindu.realtimeticketing.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.thamindu.realtimeticketing.service.WaitingRoomService;
+
+import java.util.Map;
+
+/**
+ * REST controller for the virtual waiting room.
+ * Customers join the waiting room before purchasing and poll or subscribe for their position.
+ *
+ * <p><strong>Rationale:</strong> Separating admission from purchasing lets the system absorb an
+ * on-sale crowd cheaply while only admitted customers reach the ticket pool.</p>
+ */
+@RestController
+@RequestMapping("/api/waiting-room")
+@CrossOrigin(origins = "http://localhost:4200")
+public class WaitingRoomController {
+
+    /**
+     * The service that queues and admits customers.
+     */
+    private final WaitingRoomService waitingRoomService;
+
+    /**
+     * Constructs a WaitingRoomController with the specified waiting room service.
+     *
+     * @param waitingRoomService the service that queues and admits customers.
+     */
+    public WaitingRoomController(WaitingRoomService waitingRoomService) {
+        this.waitingRoomService = waitingRoomService;
+    }
+
+    /**
+     * Places a customer in the waiting room.
+     *
+     * @param customerId the customer joining.
+     * @return a {@code ResponseEntity} containing the customer's position and estimated wait.
+     * Further updates are pushed to {@code /topic/waiting-room} and {@code /topic/waiting-room/{customerId}}.
+     */
+    @PostMapping("/join")
+    public ResponseEntity<Map<String, Object>> join(@RequestParam String customerId) {
+        return ResponseEntity.ok(waitingRoomService.join(customerId));
+    }
+
+    /**
+     * Retrieves a customer's place in the waiting room.
+     *
+     * @param customerId the customer.
+     * @return a {@code ResponseEntity} containing the customer's status, or 404 if the customer
+     * has not joined or their admission has been used or has expired.
+     */
+    @GetMapping("/{customerId}")
+    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String customerId) {
+        Map<String, Object> status = waitingRoomService.getStatus(customerId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,76 @@
+package org.thamindu.realtimeticketing.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.thamindu.realtimeticketing.service.WaitlistService;
+
+import java.util.Map;
+
+/**
+ * REST controller for the sold-out waitlist.
+ * Customers join once an event has sold out and are handed returned tickets in order.
+ *
+ * <p><strong>Rationale:</strong> Waiting on a list instead of retrying purchases keeps clients
+ * and server threads idle until a ticket actually comes back.</p>
+ */
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = "http://localhost:4200")
+public class WaitlistController {
+
+    /**
+     * The service that keeps the waitlist and hands out returned tickets.
+     */
+    private final WaitlistService waitlistService;
+
+    /**
+     * Constructs a WaitlistController with the specified waitlist service.
+     *
+     * @param waitlistService the service that keeps the waitlist.
+     */
+    public WaitlistController(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    /**
+     * Adds a customer to the waitlist.
+     *
+     * @param customerId the customer joining.
+     * @return a {@code ResponseEntity} containing the customer's position, or 409 if the event has
+     * not sold out. The ticket is pushed to {@code /topic/waitlist/{customerId}} when one is handed over.
+     */
+    @PostMapping("/join")
+    public ResponseEntity<Map<String, Object>> join(@RequestParam String customerId) {
+        Map<String, Object> status = waitlistService.join(customerId);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Tickets are still on sale; purchase instead."));
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Retrieves a customer's place on the waitlist, or the ticket they were handed.
+     *
+     * @param customerId the customer.
+     * @return a {@code ResponseEntity} containing the customer's status, or 404 if the customer is
+     * not on the waitlist.
+     */
+    @GetMapping("/{customerId}")
+    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String customerId) {
+        Map<String, Object> status = waitlistService.getStatus(customerId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Removes a customer from the waitlist.
+     *
+     * @param customerId the customer leaving.
+     * @return a 204 response if the customer was removed, or 404 if they were not on the waitlist.
+     */
+    @DeleteMapping("/{customerId}")
+    public ResponseEntity<Void> leave(@PathVariable String customerId) {
+        return waitlistService.leave(customerId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
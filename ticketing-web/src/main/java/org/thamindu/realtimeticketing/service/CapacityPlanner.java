@@ -0,0 +1,207 @@
+package org.thamindu.realtimeticketing.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thamindu.realtimeticketing.model.CapacityPlanRequest;
+import org.thamindu.realtimeticketing.model.ParameterRange;
+import org.thamindu.realtimeticketing.model.TicketPool;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plans ticketing configurations by simulating every combination of a parameter sweep.
+ *
+ * <p>Each run models the real simulation in virtual time, with as many vendors and customers as
+ * {@code SimulationService} requests for the configuration. In the real simulation
+ * {@code TicketPool.addTicket} and {@code removeTicket} pause for a second after each ticket, and
+ * vendors and customers pause for another second after each batch of {@code ticketReleaseRate}
+ * or {@code customerRetrievalRate} tickets. So each simulated second, every vendor and customer
+ * that is not between batches moves one ticket, using the pool's non-blocking operations, and
+ * one that finds the pool full or empty waits without advancing its batch. A thread therefore
+ * moves {@code rate / (rate + 1)} tickets per second at best, whatever its rate. A run ends when
+ * every ticket is sold or the time limit is reached. The results do not model a worker budget
+ * that gives a session fewer threads than it asked for.</p>
+ *
+ * <p><strong>Rationale:</strong> Virtual time makes a run take milliseconds instead of the minutes
+ * a real-time simulation sleeps through, and giving each run its own {@code TicketPool} rather
+ * than the Spring singleton lets runs execute in parallel on a fork-join pool without affecting
+ * each other or a live simulation.</p>
+ */
+@Service
+public class CapacityPlanner {
+
+    /**
+     * Logger instance for logging planning events.
+     */
+    private static final Logger logger = LogManager.getLogger(CapacityPlanner.class);
+
+    /**
+     * Runs the simulations of a sweep in parallel.
+     */
+    private final ForkJoinPool forkJoinPool;
+    /**
+     * The largest number of combinations a single sweep may contain.
+     */
+    private final int maxRuns;
+
+    /**
+     * Constructs a CapacityPlanner.
+     *
+     * @param parallelism the number of simulations run at once; 0 for one per processor.
+     * @param maxRuns     the largest number of combinations a single sweep may contain.
+     */
+    @Autowired
+    public CapacityPlanner(@Value("${planner.parallelism:0}") int parallelism,
+                           @Value("${planner.maxRuns:10000}") int maxRuns) {
+        this.forkJoinPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxRuns = maxRuns;
+    }
+
+    /**
+     * Simulates every combination of the requested parameter ranges.
+     *
+     * @param request the parameter ranges and the simulated time limit.
+     * @return one result per combination, fastest sell-out first; combinations that did not sell
+     * out in time come last.
+     * @throws IllegalArgumentException if a range is missing or invalid, or the sweep is too large.
+     * @throws InterruptedException if the thread is interrupted while the sweep runs.
+     */
+    public List<Map<String, Object>> plan(CapacityPlanRequest request) throws InterruptedException {
+        if (request.getTotalTickets() == null || request.getTicketReleaseRate() == null
+                || request.getCustomerRetrievalRate() == null || request.getMaxTicketCapacity() == null) {
+            throw new IllegalArgumentException("Every parameter needs a range.");
+        }
+        if (request.getMaxVirtualSeconds() <= 0) {
+            throw new IllegalArgumentException("The simulated time limit must be positive.");
+        }
+        long runs = 1;
+        for (ParameterRange range : List.of(request.getTotalTickets(), request.getTicketReleaseRate(),
+                request.getCustomerRetrievalRate(), request.getMaxTicketCapacity())) {
+            runs *= range.size(); // Checked before expanding, so a huge range is never materialized.
+            if (runs > maxRuns) {
+                throw new IllegalArgumentException("A sweep may contain at most " + maxRuns + " combinations.");
+            }
+        }
+        List<int[]> combinations = new ArrayList<>((int) runs);
+        for (int totalTickets : request.getTotalTickets().values()) {
+            for (int releaseRate : request.getTicketReleaseRate().values()) {
+                for (int retrievalRate : request.getCustomerRetrievalRate().values()) {
+                    for (int capacity : request.getMaxTicketCapacity().values()) {
+                        combinations.add(new int[]{totalTickets, releaseRate, retrievalRate, capacity});
+                    }
+                }
+            }
+        }
+
+        long started = System.nanoTime();
+        List<Map<String, Object>> results;
+        try {
+            results = forkJoinPool.submit(() -> combinations.parallelStream()
+                    .map(combination -> simulate(combination[0], combination[1], combination[2], combination[3],
+                            request.getMaxVirtualSeconds()))
+                    .toList()).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Capacity planning failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        logger.info("Capacity plan of {} runs completed in {} ms.", results.size(), (System.nanoTime() - started) / 1_000_000);
+
+        List<Map<String, Object>> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparing((Map<String, Object> result) -> !(Boolean) result.get("soldOut"))
+                .thenComparingInt(result -> (Integer) result.get("simulatedSeconds"))
+                .thenComparingInt(result -> (Integer) result.get("maxTicketCapacity")));
+        return sorted;
+    }
+
+    /**
+     * Simulates one configuration in virtual time on a private ticket pool, one ticket per second
+     * per vendor and customer, with a second's pause after each batch.
+     *
+     * @param totalTickets      the total number of tickets.
+     * @param releaseRate       the tickets each vendor releases per batch.
+     * @param retrievalRate     the tickets each customer retrieves per batch.
+     * @param capacity          the maximum number of tickets in the pool at once.
+     * @param maxVirtualSeconds the longest simulated time before the run is abandoned.
+     * @return the configuration, the number of vendors and customers, whether and when the event
+     * sold out, throughput, and mean and maximum pool depth.
+     */
+    Map<String, Object> simulate(int totalTickets, int releaseRate, int retrievalRate, int capacity, int maxVirtualSeconds) {
+        long started = System.nanoTime();
+        TicketPool ticketPool = new TicketPool(capacity, totalTickets);
+        // Same thread counts as SimulationService.startSimulation.
+        int vendors = Math.max(1, totalTickets / releaseRate);
+        int customers = Math.max(1, totalTickets / retrievalRate);
+
+        // Tickets each vendor and customer has moved in its current batch.
+        int[] vendorBatches = new int[vendors];
+        int[] customerBatches = new int[customers];
+        int second = 0;
+        long depthSum = 0;
+        int maxDepth = 0;
+        int secondsAtCapacity = 0;
+        while (ticketPool.getTicketsSold() < totalTickets && second < maxVirtualSeconds) {
+            second++;
+            boolean blocked = false; // Full or fully released, so every other vendor waits too.
+            for (int vendor = 0; vendor < vendors; vendor++) {
+                if (vendorBatches[vendor] == releaseRate) {
+                    vendorBatches[vendor] = 0; // The pause after a batch.
+                } else if (!blocked && ticketPool.offerTicket("Planner-Ticket")) {
+                    vendorBatches[vendor]++;
+                } else {
+                    blocked = true;
+                }
+            }
+            blocked = false; // Empty, so every other customer waits too.
+            for (int customer = 0; customer < customers; customer++) {
+                if (customerBatches[customer] == retrievalRate) {
+                    customerBatches[customer] = 0;
+                } else if (!blocked && ticketPool.tryRemoveTicket() != null) {
+                    customerBatches[customer]++;
+                } else {
+                    blocked = true;
+                }
+            }
+            int depth = ticketPool.getCurrentSize();
+            depthSum += depth;
+            maxDepth = Math.max(maxDepth, depth);
+            if (depth >= capacity) {
+                secondsAtCapacity++;
+            }
+        }
+
+        int sold = ticketPool.getTicketsSold();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalTickets", totalTickets);
+        result.put("ticketReleaseRate", releaseRate);
+        result.put("customerRetrievalRate", retrievalRate);
+        result.put("maxTicketCapacity", capacity);
+        result.put("vendors", vendors);
+        result.put("customers", customers);
+        result.put("soldOut", sold >= totalTickets);
+        result.put("simulatedSeconds", second);
+        result.put("ticketsSold", sold);
+        result.put("throughputPerSecond", second == 0 ? 0.0 : (double) sold / second);
+        result.put("meanPoolDepth", second == 0 ? 0.0 : (double) depthSum / second);
+        result.put("maxPoolDepth", maxDepth);
+        result.put("secondsAtCapacity", secondsAtCapacity);
+        result.put("wallMillis", (System.nanoTime() - started) / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * Stops the fork-join pool when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        forkJoinPool.shutdownNow();
+    }
+}
@@ -0,0 +1,196 @@
+package org.thamindu.realtimeticketing.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketSaleListener;
+import org.thamindu.realtimeticketing.util.BloomFilter;
+import org.thamindu.realtimeticketing.util.LatencyHistogram;
+import org.thamindu.realtimeticketing.util.OffHeapTicketSet;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Validates tickets at the venue gate and marks them used, so each ticket admits exactly once.
+ * Sold tickets are indexed as the {@code TicketPool} sells them.
+ *
+ * <p><strong>Rationale:</strong> A Bloom filter turns away forged IDs with a few bit reads, and
+ * genuine tickets are checked in with one compare-and-set in an off-heap hash set, so scans
+ * never take a lock and the index adds no garbage collection pressure however large the event.</p>
+ */
+@Service
+public class CheckInService implements TicketSaleListener {
+
+    /**
+     * Logger instance for logging check-in events.
+     */
+    private static final Logger logger = LogManager.getLogger(CheckInService.class);
+
+    /**
+     * Bits reserved per ticket in the Bloom filter, for a false-positive rate of about 1%.
+     */
+    private static final int BLOOM_BITS_PER_TICKET = 10;
+
+    /**
+     * Outcomes of a gate scan.
+     */
+    public enum Result {
+        /** The ticket is valid and has now been used. */
+        ADMITTED,
+        /** The ticket was already used. */
+        ALREADY_USED,
+        /** The ticket was never sold, or was refunded. */
+        INVALID
+    }
+
+    /**
+     * The ticket pool whose sales are indexed.
+     */
+    private final TicketPool ticketPool;
+    /**
+     * Every ticket ever sold, for cheap rejection of unknown IDs.
+     */
+    private final BloomFilter soldFilter;
+    /**
+     * Sold tickets and whether they have been used.
+     */
+    private final OffHeapTicketSet soldTickets;
+    /**
+     * Time taken by each scan.
+     */
+    private final LatencyHistogram scanLatency = new LatencyHistogram();
+    /**
+     * Number of scans per outcome.
+     */
+    private final Map<Result, LongAdder> outcomes = new LinkedHashMap<>();
+    /**
+     * Number of unknown IDs rejected by the Bloom filter alone.
+     */
+    private final LongAdder filteredOut = new LongAdder();
+
+    /**
+     * Constructs a CheckInService.
+     *
+     * @param ticketPool the ticket pool whose sales are indexed.
+     * @param capacity   the largest number of sold tickets the index holds.
+     */
+    @Autowired
+    public CheckInService(TicketPool ticketPool, @Value("${checkin.capacity:1000000}") int capacity) {
+        this.ticketPool = ticketPool;
+        this.soldFilter = new BloomFilter(capacity, BLOOM_BITS_PER_TICKET);
+        this.soldTickets = new OffHeapTicketSet(capacity);
+        for (Result result : Result.values()) {
+            outcomes.put(result, new LongAdder());
+        }
+    }
+
+    /**
+     * Starts indexing the pool's sales.
+     */
+    @PostConstruct
+    public void register() {
+        ticketPool.addSaleListener(this);
+    }
+
+    /**
+     * Stops indexing sales when the application shuts down.
+     */
+    @PreDestroy
+    public void unregister() {
+        ticketPool.removeSaleListener(this);
+    }
+
+    /**
+     * Scans a ticket at the gate, marking it used if it is valid.
+     *
+     * @param ticketId the scanned ticket ID.
+     * @return {@code ADMITTED} the first time a sold ticket is scanned, {@code ALREADY_USED} after
+     * that, or {@code INVALID} for a ticket that was never sold or was refunded.
+     */
+    public Result checkIn(String ticketId) {
+        long started = System.nanoTime();
+        long hash = OffHeapTicketSet.hash(ticketId);
+        Result result;
+        if (!soldFilter.mightContain(hash)) {
+            filteredOut.increment();
+            result = Result.INVALID;
+        } else {
+            result = switch (soldTickets.transition(hash, OffHeapTicketSet.State.VALID, OffHeapTicketSet.State.USED)) {
+                case VALID -> Result.ADMITTED;
+                case USED -> Result.ALREADY_USED;
+                default -> Result.INVALID;
+            };
+        }
+        scanLatency.record(System.nanoTime() - started);
+        outcomes.get(result).increment();
+        if (result != Result.ADMITTED) {
+            logger.warn("Ticket {} refused at check-in: {}", ticketId, result);
+        }
+        return result;
+    }
+
+    /**
+     * Indexes a sold ticket so that it can be checked in.
+     *
+     * @param ticketId the sold ticket.
+     */
+    @Override
+    public void onTicketSold(String ticketId) {
+        long hash = OffHeapTicketSet.hash(ticketId);
+        try {
+            if (soldTickets.add(hash) == OffHeapTicketSet.State.USED) {
+                logger.error("Ticket {} was sold again after being used; it stays used.", ticketId);
+            }
+            soldFilter.add(hash);
+        } catch (IllegalStateException e) {
+            logger.error("Check-in index is full; ticket {} cannot be checked in. Raise checkin.capacity.", ticketId);
+        }
+    }
+
+    /**
+     * Revokes a ticket about to be refunded so that it no longer admits its former buyer, or
+     * refuses the refund if the ticket has already been used at the gate.
+     *
+     * @param ticketId the ticket to be refunded.
+     * @return false if the ticket has been used; true otherwise.
+     *
+     * <p><strong>Rationale:</strong> The check and the revocation are one compare-and-set, so a
+     * scan racing the refund either admits the holder and the refund is refused, or finds the
+     * ticket revoked.</p>
+     */
+    @Override
+    public boolean onRefundRequested(String ticketId) {
+        OffHeapTicketSet.State previous = soldTickets.transition(OffHeapTicketSet.hash(ticketId),
+                OffHeapTicketSet.State.VALID, OffHeapTicketSet.State.REVOKED);
+        if (previous == OffHeapTicketSet.State.USED) {
+            logger.warn("Refund of ticket {} refused: it has already been used at check-in.", ticketId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reports scan counts and latency.
+     *
+     * @return the number of indexed tickets and off-heap bytes used, scans per outcome, unknown IDs
+     * rejected by the Bloom filter, and mean, 99th percentile and maximum scan time in microseconds.
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("indexedTickets", soldTickets.size());
+        statistics.put("offHeapBytes", soldTickets.getOffHeapBytes());
+        outcomes.forEach((result, count) -> statistics.put(result.name(), count.sum()));
+        statistics.put("rejectedByFilter", filteredOut.sum());
+        statistics.put("meanScanMicros", scanLatency.getMeanNanos() / 1000.0);
+        statistics.put("p99ScanMicros", scanLatency.getPercentileNanos(99) / 1000.0);
+        statistics.put("maxScanMicros", scanLatency.getMaxNanos() / 1000.0);
+        return statistics;
+    }
+}
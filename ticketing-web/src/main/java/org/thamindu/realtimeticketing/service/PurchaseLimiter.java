@@ -0,0 +1,193 @@
+package org.thamindu.realtimeticketing.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thamindu.realtimeticketing.util.HashedSlidingWindow;
+import org.thamindu.realtimeticketing.util.SlidingWindowQuota;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces per-customer purchase limits on the purchase path.
+ * Each customer may attempt a limited number of purchases within a sliding window,
+ * and may hold a limited number of tickets within the quota period. The buyer of every ticket sold
+ * is recorded, so that a refund returns quota only to the customer who spent it.
+ *
+ * <p><strong>Rationale:</strong> Both checks run before the {@code TicketPool} is touched, so a
+ * rejected request costs a few atomic reads and never competes for pool permits or its monitor.
+ * The short rate-limit window uses a fixed-size hashed sketch, where sharing a slot only briefly
+ * slows a customer down; the quota is counted exactly per customer, because over a whole day a
+ * shared slot would refuse honest customers their tickets.</p>
+ */
+@Service
+public class PurchaseLimiter {
+
+    /**
+     * Logger instance for logging limiter events.
+     */
+    private static final Logger logger = LogManager.getLogger(PurchaseLimiter.class);
+
+    /**
+     * Possible decisions for a purchase attempt.
+     */
+    public enum Decision {
+        /** The attempt may proceed and one unit of quota has been reserved. */
+        ALLOWED,
+        /** The customer has made too many attempts within the window. */
+        RATE_LIMITED,
+        /** The customer has already bought the maximum number of tickets. */
+        QUOTA_EXCEEDED
+    }
+
+    /**
+     * Purchase attempts per customer within the rate-limit window.
+     */
+    private final HashedSlidingWindow attempts;
+    /**
+     * Tickets bought per customer within the quota period.
+     */
+    private final SlidingWindowQuota purchases;
+    /**
+     * The customer who bought each sold ticket, by ticket ID.
+     */
+    private final ConcurrentHashMap<String, String> buyers = new ConcurrentHashMap<>();
+    /**
+     * The maximum number of attempts per customer within the rate-limit window.
+     */
+    private final int maxAttempts;
+    /**
+     * The maximum number of tickets per customer within the quota period.
+     */
+    private final int maxTickets;
+
+    /**
+     * Constructs a PurchaseLimiter.
+     *
+     * @param slots          the number of hashed slots of the rate-limit sketch; fixes its memory.
+     * @param maxAttempts    the maximum number of attempts per customer within the window.
+     * @param windowMillis   the length of the rate-limit window, in milliseconds.
+     * @param buckets        the number of buckets the rate-limit window is divided into.
+     * @param maxTickets     the maximum number of tickets per customer within the quota period.
+     * @param quotaMillis    the length of the quota period, in milliseconds.
+     */
+    @Autowired
+    public PurchaseLimiter(@Value("${purchase.limit.slots:32768}") int slots,
+                           @Value("${purchase.limit.maxAttempts:10}") int maxAttempts,
+                           @Value("${purchase.limit.windowMs:10000}") long windowMillis,
+                           @Value("${purchase.limit.buckets:5}") int buckets,
+                           @Value("${purchase.quota.maxTickets:6}") int maxTickets,
+                           @Value("${purchase.quota.periodMs:86400000}") long quotaMillis) {
+        this.attempts = new HashedSlidingWindow(slots, windowMillis, buckets);
+        this.purchases = new SlidingWindowQuota(quotaMillis);
+        this.maxAttempts = maxAttempts;
+        this.maxTickets = maxTickets;
+    }
+
+    /**
+     * Checks a purchase attempt against the customer's rate limit and quota.
+     * An allowed attempt reserves one ticket of quota, which must be returned with
+     * {@link #release(String)} if the purchase does not go through.
+     *
+     * @param customerId the customer making the attempt.
+     * @return the decision for the attempt.
+     */
+    public Decision tryAcquire(String customerId) {
+        long now = System.currentTimeMillis();
+        if (!attempts.tryAcquire(customerId, maxAttempts, now)) {
+            logger.warn("Customer {} is rate limited.", customerId);
+            return Decision.RATE_LIMITED;
+        }
+        if (!purchases.tryAcquire(customerId, maxTickets, now)) {
+            logger.warn("Customer {} has reached the purchase quota of {} tickets.", customerId, maxTickets);
+            return Decision.QUOTA_EXCEEDED;
+        }
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * Reserves one ticket of a customer's quota for a ticket they did not ask for at that moment,
+     * such as one handed to them from the waitlist. No rate limit applies, as the customer made no
+     * attempt. The quota must be returned with {@link #release(String)} if the hand-off does not
+     * go through.
+     *
+     * @param customerId the customer receiving the ticket.
+     * @return true if the quota was reserved, false if the customer has reached it.
+     */
+    public boolean tryReserveQuota(String customerId) {
+        if (!purchases.tryAcquire(customerId, maxTickets, System.currentTimeMillis())) {
+            logger.warn("Customer {} has reached the purchase quota of {} tickets.", customerId, maxTickets);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the quota reserved by an attempt whose purchase did not go through.
+     *
+     * @param customerId the customer who made the attempt.
+     */
+    public void release(String customerId) {
+        purchases.release(customerId, System.currentTimeMillis());
+    }
+
+    /**
+     * Records the customer who bought a ticket, keeping the quota they spent on it.
+     * Call before the sale is reported to the customer, so an immediate refund finds it.
+     *
+     * @param customerId the buyer.
+     * @param ticketId   the ticket sold.
+     */
+    public void recordSale(String customerId, String ticketId) {
+        buyers.put(ticketId, customerId);
+    }
+
+    /**
+     * Checks whether a customer bought a ticket.
+     *
+     * @param customerId the customer, or null.
+     * @param ticketId   the ticket.
+     * @return true if the ticket's recorded buyer is the customer.
+     */
+    public boolean isBuyer(String customerId, String ticketId) {
+        return customerId != null && customerId.equals(buyers.get(ticketId));
+    }
+
+    /**
+     * Undoes a recorded sale, returning the quota to its buyer.
+     *
+     * @param customerId the customer who bought the ticket.
+     * @param ticketId   the ticket given back.
+     * @return true if the customer was the ticket's recorded buyer and got their quota back.
+     */
+    public boolean releaseSale(String customerId, String ticketId) {
+        if (customerId == null || !buyers.remove(ticketId, customerId)) {
+            return false;
+        }
+        release(customerId);
+        return true;
+    }
+
+    /**
+     * Restores a sale undone by {@link #releaseSale(String, String)} whose ticket could not be
+     * given back after all, charging the quota again even if that puts the customer over it.
+     *
+     * @param customerId the customer who bought the ticket.
+     * @param ticketId   the ticket they keep.
+     */
+    public void restoreSale(String customerId, String ticketId) {
+        purchases.tryAcquire(customerId, Integer.MAX_VALUE, System.currentTimeMillis());
+        buyers.put(ticketId, customerId);
+    }
+
+    /**
+     * Stops the sweeper of the quota counts when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        purchases.close();
+    }
+}
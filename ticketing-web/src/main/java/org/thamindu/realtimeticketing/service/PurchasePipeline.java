@@ -0,0 +1,322 @@
+package org.thamindu.realtimeticketing.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thamindu.realtimeticketing.model.PurchaseResult;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.util.PipelineStage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A staged purchase pipeline: validate, reserve, pay, then confirm and journal.
+ * Each stage has its own bounded queue and worker pool and processes orders in micro-batches.
+ *
+ * <p><strong>Rationale:</strong> Splitting a sale into stages keeps each step's cost where it
+ * belongs. The reserve stage only touches the {@code TicketPool} briefly, so a slow payment
+ * provider shows up as a growing payment queue rather than as threads holding pool locks, and
+ * per-stage queue depths show at a glance where a backlog is forming.</p>
+ */
+@Service
+public class PurchasePipeline {
+
+    /**
+     * Logger instance for logging pipeline events.
+     */
+    private static final Logger logger = LogManager.getLogger(PurchasePipeline.class);
+
+    /**
+     * A purchase moving through the pipeline.
+     */
+    private static final class Order {
+        private final String customerId;
+        private final CompletableFuture<PurchaseResult> result = new CompletableFuture<>();
+        private volatile boolean limitAcquired;
+        private volatile String ticketId;
+        private volatile String stage;
+
+        private Order(String customerId) {
+            this.customerId = customerId;
+        }
+    }
+
+    /**
+     * The ticket pool from which tickets are reserved.
+     */
+    private final TicketPool ticketPool;
+    /**
+     * The per-customer rate limits and quotas checked during validation.
+     */
+    private final PurchaseLimiter purchaseLimiter;
+    /**
+     * Simulated latency (in milliseconds) of one call to the payment provider.
+     */
+    private final long paymentLatencyMillis;
+    /**
+     * Checks limits before any inventory is touched.
+     */
+    private final PipelineStage<Order> validateStage;
+    /**
+     * Reserves tickets in the pool.
+     */
+    private final PipelineStage<Order> reserveStage;
+    /**
+     * Takes payment for reserved tickets.
+     */
+    private final PipelineStage<Order> paymentStage;
+    /**
+     * Confirms paid orders and journals them.
+     */
+    private final PipelineStage<Order> confirmStage;
+
+    /**
+     * Constructs the pipeline and starts its stages.
+     *
+     * @param ticketPool           the ticket pool from which tickets are reserved.
+     * @param purchaseLimiter      the per-customer rate limits and quotas.
+     * @param queueCapacity        the maximum number of orders waiting in each stage.
+     * @param batchSize            the largest number of orders a stage processes at once.
+     * @param validateWorkers      the number of validation threads.
+     * @param reserveWorkers       the number of reservation threads.
+     * @param paymentWorkers       the number of payment threads.
+     * @param confirmWorkers       the number of confirmation threads.
+     * @param paymentLatencyMillis the simulated latency (in milliseconds) of one payment call.
+     */
+    @Autowired
+    public PurchasePipeline(TicketPool ticketPool, PurchaseLimiter purchaseLimiter,
+                            @Value("${pipeline.queueCapacity:1024}") int queueCapacity,
+                            @Value("${pipeline.batchSize:32}") int batchSize,
+                            @Value("${pipeline.workers.validate:2}") int validateWorkers,
+                            @Value("${pipeline.workers.reserve:1}") int reserveWorkers,
+                            @Value("${pipeline.workers.payment:8}") int paymentWorkers,
+                            @Value("${pipeline.workers.confirm:1}") int confirmWorkers,
+                            @Value("${pipeline.payment.latencyMs:50}") long paymentLatencyMillis) {
+        this.ticketPool = ticketPool;
+        this.purchaseLimiter = purchaseLimiter;
+        this.paymentLatencyMillis = paymentLatencyMillis;
+        // Stages are created downstream first so that each handler can forward to the next one.
+        this.confirmStage = new PipelineStage<>("confirm", queueCapacity, confirmWorkers, batchSize, this::confirm,
+                (batch, e) -> failBatch("confirm", batch));
+        this.paymentStage = new PipelineStage<>("payment", queueCapacity, paymentWorkers, batchSize, this::pay,
+                (batch, e) -> failBatch("payment", batch));
+        this.reserveStage = new PipelineStage<>("reserve", queueCapacity, reserveWorkers, batchSize, this::reserve,
+                (batch, e) -> failBatch("reserve", batch));
+        this.validateStage = new PipelineStage<>("validate", queueCapacity, validateWorkers, batchSize, this::validate,
+                (batch, e) -> failBatch("validate", batch));
+    }
+
+    /**
+     * Submits a purchase to the pipeline without blocking the caller.
+     *
+     * @param customerId the customer making the purchase.
+     * @return a future completed with the outcome of the purchase, or immediately with
+     * {@code UNAVAILABLE} if the pipeline is full. Cancelling it withdraws the order; a ticket
+     * already reserved for it is refunded.
+     */
+    public CompletableFuture<PurchaseResult> submit(String customerId) {
+        Order order = new Order(customerId);
+        order.stage = validateStage.getName();
+        if (!validateStage.offer(order)) {
+            order.result.complete(new PurchaseResult(PurchaseResult.Status.UNAVAILABLE, customerId, null,
+                    "The purchase pipeline is busy; please retry."));
+        }
+        return order.result;
+    }
+
+    /**
+     * Reports queue depth and throughput for each stage.
+     *
+     * @return the statistics of each stage, in pipeline order.
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        for (PipelineStage<Order> stage : List.of(validateStage, reserveStage, paymentStage, confirmStage)) {
+            statistics.put(stage.getName(), stage.getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Checks each order against the customer's rate limit and quota.
+     *
+     * @param batch the orders to validate.
+     */
+    private void validate(List<Order> batch) {
+        for (Order order : batch) {
+            if (order.result.isDone()) {
+                continue; // Withdrawn while queued.
+            }
+            PurchaseLimiter.Decision decision = purchaseLimiter.tryAcquire(order.customerId);
+            if (decision == PurchaseLimiter.Decision.RATE_LIMITED) {
+                fail(order, PurchaseResult.Status.RATE_LIMITED, "Too many purchase attempts; please slow down.");
+            } else if (decision == PurchaseLimiter.Decision.QUOTA_EXCEEDED) {
+                fail(order, PurchaseResult.Status.QUOTA_EXCEEDED, "The purchase limit for this customer has been reached.");
+            } else {
+                order.limitAcquired = true;
+                forward(reserveStage, order);
+            }
+        }
+    }
+
+    /**
+     * Reserves one ticket per order, claiming the whole batch from the pool at once when possible.
+     *
+     * @param batch the orders to reserve tickets for.
+     */
+    private void reserve(List<Order> batch) {
+        List<Order> live = new ArrayList<>(batch.size());
+        for (Order order : batch) {
+            if (order.result.isDone()) {
+                abandon(order);
+            } else {
+                live.add(order);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        List<String> claimed = List.of();
+        if (live.size() > 1 && live.size() <= ticketPool.getMaxCapacity()) {
+            try {
+                // One permit acquisition and one dequeue for the whole batch.
+                claimed = ticketPool.claimTickets(live.size(), 0, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int i = 0; i < claimed.size(); i++) {
+            live.get(i).ticketId = claimed.get(i); // Held by its order at once, so a failure returns it.
+        }
+        for (Order order : live) {
+            if (order.ticketId == null) {
+                order.ticketId = ticketPool.tryRemoveTicket();
+            }
+            if (order.ticketId == null) {
+                fail(order, PurchaseResult.Status.UNAVAILABLE, "No tickets are available right now.");
+            } else {
+                forward(paymentStage, order);
+            }
+        }
+    }
+
+    /**
+     * Takes payment for a batch of reserved tickets in one call to the payment provider.
+     * The provider is a local stub that only adds latency.
+     *
+     * @param batch the orders to take payment for.
+     */
+    private void pay(List<Order> batch) {
+        try {
+            Thread.sleep(paymentLatencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.forEach(order -> fail(order, PurchaseResult.Status.UNAVAILABLE, "Payment was interrupted."));
+            return;
+        }
+        batch.forEach(order -> forward(confirmStage, order));
+    }
+
+    /**
+     * Confirms paid orders and writes one journal entry for the batch.
+     *
+     * @param batch the orders to confirm.
+     */
+    private void confirm(List<Order> batch) {
+        List<String> journal = new ArrayList<>(batch.size());
+        for (Order order : batch) {
+            purchaseLimiter.recordSale(order.customerId, order.ticketId); // Before the buyer can ask for a refund.
+            if (order.result.complete(PurchaseResult.purchased(order.customerId, order.ticketId))) {
+                journal.add(order.customerId + "=" + order.ticketId);
+            } else {
+                // Withdrawn after the ticket was reserved: undo the sale, then return the ticket.
+                order.limitAcquired = !purchaseLimiter.releaseSale(order.customerId, order.ticketId);
+                abandon(order);
+            }
+        }
+        if (!journal.isEmpty()) {
+            logger.info("Confirmed {} purchases: {}", journal.size(), journal);
+        }
+    }
+
+    /**
+     * Passes an order to the next stage, waiting for room so that back-pressure reaches this stage.
+     *
+     * @param stage the next stage.
+     * @param order the order.
+     */
+    private void forward(PipelineStage<Order> stage, Order order) {
+        order.stage = stage.getName();
+        try {
+            stage.put(order);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(order, PurchaseResult.Status.UNAVAILABLE, "Ticket sales are not running.");
+        }
+    }
+
+    /**
+     * Fails the orders of a batch whose stage threw, returning their tickets and quota. Orders the
+     * stage had already completed or passed to the next stage are left alone.
+     *
+     * @param stage the name of the stage that threw.
+     * @param batch the orders of the failed batch.
+     */
+    private void failBatch(String stage, List<Order> batch) {
+        for (Order order : batch) {
+            if (order.result.isDone() || !stage.equals(order.stage)) {
+                continue;
+            }
+            if (order.ticketId != null && purchaseLimiter.releaseSale(order.customerId, order.ticketId)) {
+                order.limitAcquired = false; // The sale was recorded before the failure; its quota is back.
+            }
+            fail(order, PurchaseResult.Status.UNAVAILABLE, "The purchase could not be processed; please retry.");
+        }
+    }
+
+    /**
+     * Completes an order without a ticket and undoes its reservation and quota.
+     *
+     * @param order   the order.
+     * @param status  the outcome.
+     * @param message a human-readable description of the outcome.
+     */
+    private void fail(Order order, PurchaseResult.Status status, String message) {
+        abandon(order); // Before completing, so a caller retrying on completion finds its quota returned.
+        order.result.complete(new PurchaseResult(status, order.customerId, null, message));
+    }
+
+    /**
+     * Returns the ticket and quota held by an order that will not be confirmed.
+     *
+     * @param order the order.
+     */
+    private void abandon(Order order) {
+        if (order.ticketId != null) {
+            ticketPool.rollbackSale(order.ticketId); // Returned even if vendors have filled the pool.
+            order.ticketId = null;
+        }
+        if (order.limitAcquired) {
+            purchaseLimiter.release(order.customerId);
+            order.limitAcquired = false;
+        }
+    }
+
+    /**
+     * Stops every stage when the application shuts down, failing orders still in flight.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (PipelineStage<Order> stage : List.of(validateStage, reserveStage, paymentStage, confirmStage)) {
+            stage.shutdown().forEach(order -> fail(order, PurchaseResult.Status.UNAVAILABLE, "Ticket sales are not running."));
+        }
+    }
+}
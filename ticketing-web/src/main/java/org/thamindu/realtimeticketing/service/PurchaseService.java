@@ -0,0 +1,335 @@
+package org.thamindu.realtimeticketing.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thamindu.realtimeticketing.model.CustomerPriority;
+import org.thamindu.realtimeticketing.model.PurchaseResult;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.util.BoundedExpiringCache;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handles ticket purchases made through the REST API.
+ * A purchase waits for inventory asynchronously and completes when a vendor supplies a ticket
+ * or the request times out.
+ *
+ * <p><strong>Rationale:</strong> Waiting on a future instead of {@code TicketPool.removeTicket}
+ * means no thread is held while a shopper waits, so tens of thousands of requests can be parked
+ * at on-sale time.</p>
+ */
+@Service
+public class PurchaseService {
+
+    /**
+     * Logger instance for logging purchase events.
+     */
+    private static final Logger logger = LogManager.getLogger(PurchaseService.class);
+
+    /**
+     * The ticket pool from which purchases are served.
+     */
+    private final TicketPool ticketPool;
+
+    /**
+     * The longest time (in milliseconds) a purchase may wait for inventory.
+     */
+    private final long maxWaitMillis;
+
+    /**
+     * Outcomes of purchases made with an idempotency key, keyed by customer and key.
+     *
+     * <p><strong>Rationale:</strong> Clients retry aggressively during on-sale spikes. Replaying the
+     * cached outcome means a retry never reaches the {@code TicketPool} and cannot buy a second ticket.</p>
+     */
+    private final BoundedExpiringCache<String, CompletableFuture<PurchaseResult>> idempotentPurchases;
+
+    /**
+     * The idempotency cache key under which each ticket bought with a key was remembered, by ticket
+     * ID, so that refunding the ticket also forgets the purchase.
+     */
+    private final BoundedExpiringCache<String, String> idempotencyKeysByTicket;
+
+    /**
+     * The waiting room that admits customers to the purchase path.
+     */
+    private final WaitingRoomService waitingRoom;
+
+    /**
+     * The per-customer rate limits and quotas checked before the pool is touched.
+     */
+    private final PurchaseLimiter purchaseLimiter;
+
+    /**
+     * Constructs a PurchaseService.
+     *
+     * @param ticketPool         the shared ticket pool.
+     * @param waitingRoom        the waiting room that admits customers to the purchase path.
+     * @param purchaseLimiter    the per-customer rate limits and quotas.
+     * @param maxWaitMillis      the longest time (in milliseconds) a purchase may wait for inventory.
+     * @param idempotencyEntries the maximum number of idempotency keys remembered at once.
+     * @param idempotencyTtlMillis how long (in milliseconds) an idempotency key is remembered.
+     */
+    @Autowired
+    public PurchaseService(TicketPool ticketPool, WaitingRoomService waitingRoom, PurchaseLimiter purchaseLimiter,
+                           @Value("${purchase.maxWaitMs:30000}") long maxWaitMillis,
+                           @Value("${purchase.idempotency.maxEntries:500000}") int idempotencyEntries,
+                           @Value("${purchase.idempotency.ttlMs:600000}") long idempotencyTtlMillis) {
+        this.ticketPool = ticketPool;
+        this.waitingRoom = waitingRoom;
+        this.purchaseLimiter = purchaseLimiter;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idempotentPurchases = new BoundedExpiringCache<>(idempotencyEntries, idempotencyTtlMillis);
+        this.idempotencyKeysByTicket = new BoundedExpiringCache<>(idempotencyEntries, idempotencyTtlMillis);
+    }
+
+    /**
+     * Gets the longest time a purchase may wait for inventory.
+     *
+     * @return the maximum wait in milliseconds.
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Requests a ticket for a customer without blocking the calling thread.
+     *
+     * @param customerId    the customer making the purchase.
+     * @param priority      the customer's priority class.
+     * @param timeoutMillis how long to wait for inventory; capped at the configured maximum.
+     * @return a future completed with the outcome of the purchase. Cancelling it withdraws
+     * the request from the pool. A customer over their rate limit or quota is rejected at once.
+     */
+    public CompletableFuture<PurchaseResult> purchase(String customerId, CustomerPriority priority, long timeoutMillis) {
+        return startPurchase(customerId, priority, timeoutMillis, null);
+    }
+
+    /**
+     * Requests a ticket for a customer, recording the sale before the outcome completes.
+     *
+     * @param customerId    the customer making the purchase.
+     * @param priority      the customer's priority class.
+     * @param timeoutMillis how long to wait for inventory; capped at the configured maximum.
+     * @param cacheKey      the idempotency cache key the purchase is remembered under, or null.
+     * @return a future completed with the outcome of the purchase.
+     */
+    private CompletableFuture<PurchaseResult> startPurchase(String customerId, CustomerPriority priority,
+                                                            long timeoutMillis, String cacheKey) {
+        PurchaseLimiter.Decision decision = purchaseLimiter.tryAcquire(customerId);
+        if (decision == PurchaseLimiter.Decision.RATE_LIMITED) {
+            return CompletableFuture.completedFuture(new PurchaseResult(PurchaseResult.Status.RATE_LIMITED,
+                    customerId, null, "Too many purchase attempts; please slow down."));
+        }
+        if (decision == PurchaseLimiter.Decision.QUOTA_EXCEEDED) {
+            return CompletableFuture.completedFuture(new PurchaseResult(PurchaseResult.Status.QUOTA_EXCEEDED,
+                    customerId, null, "The purchase limit for this customer has been reached."));
+        }
+
+        long timeout = Math.max(0, Math.min(timeoutMillis, maxWaitMillis));
+        CompletableFuture<String> waiter = ticketPool.requestTicket(priority, timeout, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<PurchaseResult> result = waiter.handle((ticket, error) -> {
+            PurchaseResult outcome = toResult(customerId, ticket, error);
+            // Settled before the outcome is visible, so a customer retrying or refunding at once finds it.
+            if (!outcome.isPurchased()) {
+                purchaseLimiter.release(customerId);
+            } else {
+                purchaseLimiter.recordSale(customerId, ticket);
+                if (cacheKey != null) {
+                    idempotencyKeysByTicket.putIfAbsent(ticket, cacheKey);
+                }
+            }
+            return outcome;
+        });
+        // Propagate cancellation (e.g. a client disconnect) so the waiter does not claim a ticket.
+        result.whenComplete((outcome, error) -> {
+            if (error instanceof CancellationException) {
+                waiter.cancel(false);
+                purchaseLimiter.release(customerId); // The handle stage never runs for a cancelled result.
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Requests a ticket for a customer, replaying the original outcome if the same idempotency key
+     * was already used by that customer.
+     *
+     * @param customerId     the customer making the purchase.
+     * @param priority       the customer's priority class.
+     * @param timeoutMillis  how long to wait for inventory; capped at the configured maximum.
+     * @param idempotencyKey a client-chosen key identifying the purchase, or null for none.
+     * @return a future completed with the outcome of the purchase. For a duplicate request this is
+     * the outcome of the original request, and the {@code TicketPool} is not touched.
+     *
+     * <p>Only in-flight and successful purchases are remembered. A purchase that times out or finds
+     * sales stopped is forgotten, so a retry with the same key tries again.</p>
+     */
+    public CompletableFuture<PurchaseResult> purchase(String customerId, CustomerPriority priority,
+                                                      long timeoutMillis, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return purchase(customerId, priority, timeoutMillis);
+        }
+        String cacheKey = customerId + ":" + idempotencyKey;
+        CompletableFuture<PurchaseResult> pending = new CompletableFuture<>();
+        CompletableFuture<PurchaseResult> original = idempotentPurchases.putIfAbsent(cacheKey, pending);
+        if (original != null) {
+            logger.info("Replaying purchase for customer {} with idempotency key {}.", customerId, idempotencyKey);
+            // A new stage, so a disconnecting duplicate cannot cancel the original.
+            return original.thenApply(PurchaseResult::asReplay);
+        }
+
+        CompletableFuture<PurchaseResult> result = startPurchase(customerId, priority, timeoutMillis, cacheKey);
+        result.whenComplete((outcome, error) -> {
+            if (error != null || !outcome.isPurchased()) {
+                idempotentPurchases.remove(cacheKey, pending);
+            }
+            // Duplicates waiting on a withdrawn original are told to retry rather than left hanging.
+            pending.complete(error == null ? outcome : withdrawn(customerId));
+        });
+        return result;
+    }
+
+    /**
+     * Requests a ticket for a customer admitted from the waiting room.
+     *
+     * @param customerId     the customer making the purchase.
+     * @param priority       the customer's priority class.
+     * @param timeoutMillis  how long to wait for inventory; capped at the configured maximum.
+     * @param idempotencyKey a client-chosen key identifying the purchase, or null for none.
+     * @param admissionToken the token issued when the customer was admitted, or null.
+     * @return a future completed with the outcome of the purchase, or immediately with
+     * {@code NOT_ADMITTED} if the waiting room is enabled and the token is not valid.
+     */
+    public CompletableFuture<PurchaseResult> purchase(String customerId, CustomerPriority priority, long timeoutMillis,
+                                                      String idempotencyKey, String admissionToken) {
+        if (!waitingRoom.isAdmitted(customerId, admissionToken)) {
+            return CompletableFuture.completedFuture(new PurchaseResult(PurchaseResult.Status.NOT_ADMITTED,
+                    customerId, null, "Join the waiting room and purchase once admitted."));
+        }
+        CompletableFuture<PurchaseResult> result = purchase(customerId, priority, timeoutMillis, idempotencyKey);
+        if (waitingRoom.isEnabled()) {
+            result.thenAccept(outcome -> {
+                if (outcome.isPurchased()) {
+                    waitingRoom.release(customerId); // Free the admission slot for the next customer.
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a customer bought a ticket through the purchase path and may refund it.
+     *
+     * @param customerId the customer, or null.
+     * @param ticketId   the ticket.
+     * @return true if the customer is the ticket's recorded buyer.
+     */
+    public boolean isBuyer(String customerId, String ticketId) {
+        return purchaseLimiter.isBuyer(customerId, ticketId);
+    }
+
+    /**
+     * Refunds a ticket for the customer who bought it, returning it to inventory, giving the
+     * customer back their quota and forgetting the idempotent purchase that bought it, so a retry
+     * with the same key buys again instead of replaying a ticket no longer held.
+     *
+     * @param customerId the customer who bought the ticket.
+     * @param ticketId   the ticket to refund.
+     * @return true if the ticket was returned to inventory, false if the customer is not its buyer
+     * or it cannot be refunded.
+     *
+     * <p><strong>Rationale:</strong> The sale is released before the pool takes the ticket back,
+     * because a returned ticket can be handed straight to a waitlisted customer who then becomes
+     * its recorded buyer; releasing afterwards would find that customer and keep the refunding
+     * customer's quota spent.</p>
+     */
+    public boolean refund(String customerId, String ticketId) {
+        return returnTicket(customerId, ticketId, false);
+    }
+
+    /**
+     * Takes back a ticket whose purchase response could not be delivered to the customer, as
+     * {@link #refund(String, String)} does, but returns it to inventory even if vendors have filled
+     * the pool in the meantime.
+     *
+     * @param customerId the customer who bought the ticket.
+     * @param ticketId   the ticket that was not delivered.
+     * @return true if the ticket was returned to inventory, false if the customer is not its buyer
+     * or it is no longer sold.
+     *
+     * <p><strong>Rationale:</strong> The customer never learned the ticket, so nobody can use or
+     * refund it later; a rollback that depended on free space would lose it for good.</p>
+     */
+    public boolean rollbackUndelivered(String customerId, String ticketId) {
+        return returnTicket(customerId, ticketId, true);
+    }
+
+    /**
+     * Returns a customer's ticket to inventory, releasing their sale and forgetting the idempotent
+     * purchase that bought it.
+     *
+     * @param customerId the customer who bought the ticket.
+     * @param ticketId   the ticket to return.
+     * @param rollback   true to return it even if the pool is full, false to refund it as the customer's request.
+     * @return true if the ticket was returned to inventory.
+     */
+    private boolean returnTicket(String customerId, String ticketId, boolean rollback) {
+        if (!purchaseLimiter.releaseSale(customerId, ticketId)) {
+            return false;
+        }
+        if (!(rollback ? ticketPool.rollbackSale(ticketId) : ticketPool.refundTicket(ticketId))) {
+            purchaseLimiter.restoreSale(customerId, ticketId);
+            return false;
+        }
+        String cacheKey = idempotencyKeysByTicket.get(ticketId);
+        if (cacheKey != null && idempotencyKeysByTicket.remove(ticketId, cacheKey)) {
+            CompletableFuture<PurchaseResult> cached = idempotentPurchases.get(cacheKey);
+            if (cached != null && idempotentPurchases.remove(cacheKey, cached)) {
+                cached.complete(withdrawn(customerId)); // Duplicates still waiting are told to retry.
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the outcome replayed to duplicates of a purchase that was withdrawn or refunded.
+     *
+     * @param customerId the customer making the purchase.
+     * @return an {@code UNAVAILABLE} result asking the customer to retry.
+     */
+    private PurchaseResult withdrawn(String customerId) {
+        return new PurchaseResult(PurchaseResult.Status.UNAVAILABLE, customerId, null,
+                "The original request was withdrawn; please retry.");
+    }
+
+    /**
+     * Translates the completion of a pool waiter into a purchase outcome.
+     *
+     * @param customerId the customer making the purchase.
+     * @param ticket     the ticket handed to the customer, or null.
+     * @param error      the failure that completed the waiter, or null.
+     * @return the purchase outcome.
+     */
+    private PurchaseResult toResult(String customerId, String ticket, Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return new PurchaseResult(PurchaseResult.Status.TIMED_OUT, customerId, null,
+                    "No ticket became available before the request timed out.");
+        }
+        if (cause != null || ticket == null) {
+            return new PurchaseResult(PurchaseResult.Status.UNAVAILABLE, customerId, null,
+                    "Ticket sales are not running.");
+        }
+        logger.info("Customer {} purchased ticket: {}", customerId, ticket);
+        return PurchaseResult.purchased(customerId, ticket);
+    }
+}
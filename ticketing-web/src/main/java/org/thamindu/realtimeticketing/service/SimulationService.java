@@ -0,0 +1,357 @@
+// src/main/java/org/thamindu/realtimeticketing/service/SimulationService.java
+
+package org.thamindu.realtimeticketing.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.thamindu.realtimeticketing.model.Configuration;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketStore;
+import org.thamindu.realtimeticketing.util.TicketTracer;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Manages the ticketing simulation by coordinating vendors, customers, and the ticket pool.
+ * This service is responsible for starting and stopping the simulation, as well as maintaining its state.
+ * Several simulations can run at once as sessions identified by ID; the original single-simulation
+ * methods operate on the {@value #DEFAULT_SESSION} session, which uses the shared ticket pool.
+ *
+ * <p><strong>Rationale:</strong> Encapsulating simulation logic in a dedicated service class
+ * ensures separation of concerns and provides a centralized point for managing simulation-related tasks.</p>
+ */
+@Service
+public class SimulationService {
+
+    /**
+     * Logger instance for logging simulation events and errors.
+     */
+    private static final Logger logger = LogManager.getLogger(SimulationService.class);
+
+    /**
+     * The ticket pool used in the simulation.
+     *
+     * <p><strong>Rationale:</strong> The ticket pool is a shared resource among vendors and customers,
+     * representing the available tickets in the simulation. It is initialized based on the configuration
+     * and is accessed concurrently by multiple threads.</p>
+     */
+    private TicketPool ticketPool;
+
+    /**
+     * The ID of the session that runs on the shared ticket pool, used by the original single-simulation API.
+     */
+    public static final String DEFAULT_SESSION = "default";
+
+    /**
+     * Simulation sessions by ID, running or stopped.
+     *
+     * <p><strong>Rationale:</strong> Each session owns its pool, threads and configuration, so
+     * sessions are started and stopped independently and only this map is shared.</p>
+     */
+    private final Map<String, SimulationSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Worker threads still available to new sessions, shared by every session.
+     *
+     * <p><strong>Rationale:</strong> Vendors and customers each hold a thread for as long as they
+     * run. A global budget caps the threads all sessions can create together; a session started
+     * when the budget is low runs with fewer workers, and so more slowly, instead of adding threads
+     * without bound.</p>
+     */
+    private final Semaphore workerBudget;
+
+    /**
+     * The total number of worker threads shared by all sessions.
+     */
+    private final int maxWorkers;
+
+    /**
+     * The ticket store used by the pools of new sessions.
+     */
+    private final String storeType;
+
+    /**
+     * How long (in milliseconds) customers may keep buying after a stop before the session is halted.
+     */
+    private final long drainTimeoutMillis;
+
+    /**
+     * How long (in milliseconds) a stopped session's status and drain report are kept.
+     */
+    private final long sessionRetentionMillis;
+
+    /**
+     * Whether the customers of new sessions buy each interval's tickets together or not at all.
+     */
+    private final boolean atomicBatch;
+
+    /**
+     * Constructs a SimulationService with a specified ticket pool.
+     *
+     * @param ticketPool the shared ticket pool to be used in the simulation.
+     * @param maxWorkers the total number of worker threads shared by all sessions.
+     * @param storeType  the ticket store used by the pools of new sessions.
+     * @param drainTimeoutMillis how long (in milliseconds) customers may keep buying after a stop.
+     * @param sessionRetentionMillis how long (in milliseconds) a stopped session is kept before it is evicted.
+     * @param atomicBatch whether customers claim each interval's tickets as one all-or-nothing batch.
+     *
+     * <p><strong>Rationale:</strong> Injecting the ticket pool as a dependency
+     * ensures better testability and loose coupling.</p>
+     */
+    @Autowired
+    public SimulationService(TicketPool ticketPool,
+                             @Value("${simulation.maxWorkers:512}") int maxWorkers,
+                             @Value("${ticket.pool.store:heap}") String storeType,
+                             @Value("${simulation.drain.timeoutMs:5000}") long drainTimeoutMillis,
+                             @Value("${simulation.session.retentionMs:600000}") long sessionRetentionMillis,
+                             @Value("${simulation.customer.atomicBatch:false}") boolean atomicBatch) {
+        this.ticketPool = ticketPool;
+        this.maxWorkers = maxWorkers;
+        this.workerBudget = new Semaphore(maxWorkers);
+        this.storeType = storeType;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+        this.sessionRetentionMillis = sessionRetentionMillis;
+        this.atomicBatch = atomicBatch;
+    }
+
+    /**
+     * Starts the ticketing simulation by initializing vendor and customer threads
+     * based on the provided configuration.
+     *
+     * @param config the configuration for the simulation.
+     *
+     * <p><strong>Rationale:</strong> Initializing threads dynamically based on the configuration
+     * allows for flexibility in testing different scenarios.</p>
+     */
+    public void startSimulation(Configuration config) {
+        if (isRunning()) {
+            logger.warn("Attempted to start simulation, but it's already running.");
+            return;
+        }
+
+        // Load the configuration and initialize the ticket pool.
+        try {
+            config = Configuration.loadConfiguration(); // Update the passed config object to match the loaded configuration.
+        } catch (IOException e) {
+            logger.error("Failed to load configuration: {}", e.getMessage());
+            return;
+        }
+        try {
+            startSession(DEFAULT_SESSION, config);
+        } catch (IllegalStateException | RejectedExecutionException e) {
+            logger.warn("Simulation not started: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the ticketing simulation by terminating all vendor and customer threads
+     * and shutting down the thread pool.
+     *
+     * <p><strong>Rationale:</strong> Graceful shutdown ensures all resources are released
+     * properly and prevents potential memory leaks.</p>
+     */
+    public void stopSimulation() {
+        if (!isRunning()) {
+            logger.warn("Attempted to stop simulation, but it's not running.");
+            return;
+        }
+        stopSession(DEFAULT_SESSION);
+        logger.info("Simulation stopped.");
+    }
+
+    /**
+     * Starts a simulation session.
+     * The default session sells from the shared ticket pool; any other session gets a pool of its own.
+     * Stopped sessions kept longer than the retention period are evicted first.
+     *
+     * @param id     the session ID; a stopped session with the same ID is replaced.
+     * @param config the simulation configuration.
+     * @return the started session.
+     * @throws IllegalArgumentException   if the configuration is invalid.
+     * @throws IllegalStateException      if a session with the ID is already running.
+     * @throws RejectedExecutionException if the worker budget has fewer than two threads left.
+     *
+     * <p><strong>Rationale:</strong> Workers are taken from the budget before, not inside, the
+     * atomic update of the session map, and given back if the session is not created, so neither a
+     * rejected start nor a failing session constructor leaks them.</p>
+     */
+    public SimulationSession startSession(String id, Configuration config) {
+        if (config.getTotalTickets() <= 0 || config.getTicketReleaseRate() <= 0
+                || config.getCustomerRetrievalRate() <= 0 || config.getMaxTicketCapacity() <= 0) {
+            throw new IllegalArgumentException("All configuration values must be positive.");
+        }
+        evictStoppedSessions();
+        SimulationSession current = sessions.get(id);
+        if (current != null && current.isRunning()) {
+            throw new IllegalStateException("Session " + id + " is already running.");
+        }
+        int workers = acquireWorkers(SimulationSession.requestedWorkers(config));
+        SimulationSession[] started = new SimulationSession[1];
+        try {
+            sessions.compute(id, (key, existing) -> {
+                if (existing != null && existing.isRunning()) {
+                    throw new IllegalStateException("Session " + id + " is already running.");
+                }
+                started[0] = createSession(id, config, workers);
+                return started[0];
+            });
+        } finally {
+            if (started[0] == null) {
+                workerBudget.release(workers);
+            }
+        }
+        return started[0];
+    }
+
+    /**
+     * Creates a session and starts its workers.
+     * The default session sells from the shared ticket pool; any other session gets a pool of its own.
+     *
+     * @param id      the session ID.
+     * @param config  the simulation configuration.
+     * @param workers the number of worker threads taken from the budget for the session.
+     * @return the started session.
+     */
+    private SimulationSession createSession(String id, Configuration config, int workers) {
+        TicketPool pool;
+        if (DEFAULT_SESSION.equals(id)) {
+            pool = ticketPool;
+            pool.initialize(config.getMaxTicketCapacity(), config.getTotalTickets());
+            logger.info("TicketPool reinitialized: Max Capacity = {}, Total Tickets = {}",
+                    config.getMaxTicketCapacity(), config.getTotalTickets());
+        } else {
+            pool = new TicketPool(config.getMaxTicketCapacity(), config.getTotalTickets(), TicketStore.create(storeType));
+            pool.setTracer(new TicketTracer(ticketPool.getTracer().getSampleRate()));
+            pool.setEventLog(ticketPool.getEventLog());
+        }
+        return new SimulationSession(id, config, pool, workers, atomicBatch);
+    }
+
+    /**
+     * Drains and stops a simulation session within the configured drain deadline.
+     *
+     * @param id the session ID.
+     * @return the stopped session, or null if there is no session with the ID.
+     * @see #stopSession(String, long)
+     */
+    public SimulationSession stopSession(String id) {
+        return stopSession(id, drainTimeoutMillis);
+    }
+
+    /**
+     * Drains and stops a simulation session and returns its workers to the budget.
+     * The session's final status and drain report remain available until it is removed, restarted
+     * or evicted once the retention period has passed.
+     *
+     * @param id                 the session ID.
+     * @param drainTimeoutMillis how long customers may keep buying, in milliseconds; 0 stops at once.
+     * @return the stopped session, or null if there is no session with the ID.
+     */
+    public SimulationSession stopSession(String id, long drainTimeoutMillis) {
+        SimulationSession session = sessions.get(id);
+        if (session == null) {
+            logger.warn("Attempted to stop session {}, but it does not exist.", id);
+            return null;
+        }
+        if (session.stop(Math.max(0, drainTimeoutMillis)) != null) {
+            workerBudget.release(session.getWorkers());
+        }
+        return session;
+    }
+
+    /**
+     * Removes a stopped session.
+     *
+     * @param id the session ID.
+     * @return true if the session was removed, false if it does not exist or is still running.
+     */
+    public boolean removeSession(String id) {
+        SimulationSession session = sessions.get(id);
+        return session != null && !session.isRunning() && sessions.remove(id, session);
+    }
+
+    /**
+     * Gets a simulation session.
+     *
+     * @param id the session ID.
+     * @return the session, or null if there is no session with the ID.
+     */
+    public SimulationSession getSession(String id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Reports every session and the shared worker budget.
+     *
+     * @return the worker budget, the workers still available, and the status of each session.
+     */
+    public Map<String, Object> getSessionsStatus() {
+        evictStoppedSessions();
+        List<Map<String, Object>> statuses = new ArrayList<>();
+        sessions.values().forEach(session -> statuses.add(session.getStatus()));
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("maxWorkers", maxWorkers);
+        status.put("availableWorkers", workerBudget.availablePermits());
+        status.put("sessions", statuses);
+        return status;
+    }
+
+    /**
+     * Removes the sessions that stopped longer ago than the retention period.
+     */
+    private void evictStoppedSessions() {
+        long cutoff = System.currentTimeMillis() - sessionRetentionMillis;
+        sessions.values().removeIf(session -> !session.isRunning()
+                && session.getStoppedMillis() != 0 && session.getStoppedMillis() <= cutoff);
+    }
+
+    /**
+     * Takes worker threads from the budget: as many as requested, or as many as are left.
+     *
+     * @param requested the number of workers the configuration asks for.
+     * @return the number of workers taken, at least 2.
+     * @throws RejectedExecutionException if fewer than two workers are left.
+     */
+    private int acquireWorkers(int requested) {
+        while (true) {
+            int available = workerBudget.availablePermits();
+            int granted = Math.min(requested, available);
+            if (granted < 2) {
+                throw new RejectedExecutionException("The simulation worker budget is exhausted; stop another session first.");
+            }
+            if (workerBudget.tryAcquire(granted)) {
+                return granted;
+            }
+        }
+    }
+
+    /**
+     * Stops every running session when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sessions.keySet().forEach(this::stopSession);
+    }
+
+    /**
+     * Checks whether the simulation is currently running.
+     *
+     * @return true if the simulation is running, false otherwise.
+     */
+    public boolean isRunning() {
+        SimulationSession session = sessions.get(DEFAULT_SESSION);
+        return session != null && session.isRunning();
+    }
+}
\ No newline at end of file
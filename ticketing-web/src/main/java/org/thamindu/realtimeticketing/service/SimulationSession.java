@@ -0,0 +1,304 @@
+package org.thamindu.realtimeticketing.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.thamindu.realtimeticketing.model.Configuration;
+import org.thamindu.realtimeticketing.model.Customer;
+import org.thamindu.realtimeticketing.model.DrainReport;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.Vendor;
+import org.thamindu.realtimeticketing.util.TicketingEvents;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One running simulation: a ticket pool with its own vendors, customers, worker threads and configuration.
+ *
+ * <p>A session is given a number of worker threads by {@code SimulationService}. When it is given
+ * fewer than its configuration asks for, it runs fewer vendors and customers, in the same
+ * proportion, at the configured rates. The pool paces every worker to about one ticket per
+ * second whatever its rate, so such a session releases and sells proportionally more slowly.</p>
+ *
+ * <p><strong>Rationale:</strong> Keeping every piece of simulation state in a session object,
+ * rather than in fields of the singleton service, is what lets several simulations run side by
+ * side without sharing a pool, a flag or an executor.</p>
+ */
+public class SimulationSession {
+
+    /**
+     * Logger instance for logging session events.
+     */
+    private static final Logger logger = LogManager.getLogger(SimulationSession.class);
+
+    /**
+     * How often (in milliseconds) a drain checks whether the pool is empty.
+     */
+    private static final long DRAIN_POLL_MS = 10;
+    /**
+     * How long (in milliseconds) workers are given to finish after the drain before they are interrupted.
+     */
+    private static final long STOP_GRACE_MS = 1000;
+
+    /**
+     * The session ID.
+     */
+    private final String id;
+    /**
+     * The configuration the session was started with.
+     */
+    private final Configuration config;
+    /**
+     * The session's ticket pool.
+     */
+    private final TicketPool ticketPool;
+    /**
+     * The number of worker threads the configuration asks for.
+     */
+    private final int requestedWorkers;
+    /**
+     * The number of worker threads the session was given.
+     */
+    private final int workers;
+    /**
+     * The session's vendors.
+     */
+    private final List<Vendor> vendors = new ArrayList<>();
+    /**
+     * The session's customers.
+     */
+    private final List<Customer> customers = new ArrayList<>();
+    /**
+     * Runs the session's vendors and customers, one thread each.
+     */
+    private final ExecutorService executorService;
+    /**
+     * Whether the session is running; cleared by the first call to {@link #stop(long)}.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    /**
+     * When the session started, in milliseconds since the epoch.
+     */
+    private final long startedMillis = System.currentTimeMillis();
+    /**
+     * When the session stopped, in milliseconds since the epoch, or 0 while it is running.
+     */
+    private volatile long stoppedMillis;
+    /**
+     * What was sold and left unsold when the session stopped, or null while it is running.
+     */
+    private volatile DrainReport drainReport;
+    /**
+     * The JFR event spanning the session, committed when it stops.
+     */
+    private final TicketingEvents.Simulation simulationEvent = new TicketingEvents.Simulation();
+
+    /**
+     * Creates a session and starts its vendors and customers.
+     *
+     * @param id         the session ID.
+     * @param config     the simulation configuration.
+     * @param ticketPool the pool the session sells from, already sized for the configuration.
+     * @param workers    the number of worker threads the session may use; at least 2.
+     * @param atomicBatch whether customers buy each interval's tickets together or not at all.
+     */
+    SimulationSession(String id, Configuration config, TicketPool ticketPool, int workers, boolean atomicBatch) {
+        this.id = id;
+        this.config = config;
+        this.ticketPool = ticketPool;
+        this.requestedWorkers = requestedWorkers(config);
+        this.workers = workers;
+        simulationEvent.begin();
+
+        int requestedVendors = Math.max(1, config.getTotalTickets() / config.getTicketReleaseRate());
+        // Split the granted threads in the same proportion as the request, keeping at least one of each.
+        int vendorCount = Math.max(1, Math.min(workers - 1, (int) ((long) workers * requestedVendors / requestedWorkers)));
+        int customerCount = workers - vendorCount;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "session-" + id + "-worker-" + threadNumber.incrementAndGet()));
+        for (int i = 0; i < vendorCount; i++) {
+            Vendor vendor = new Vendor(id + "-Vendor-" + (i + 1), config.getTicketReleaseRate(), ticketPool);
+            vendors.add(vendor);
+            executorService.submit(vendor);
+        }
+        for (int i = 0; i < customerCount; i++) {
+            Customer customer = new Customer(id + "-Customer-" + (i + 1), config.getCustomerRetrievalRate(), 1000, ticketPool);
+            customer.setAtomicBatch(atomicBatch);
+            customers.add(customer);
+            executorService.submit(customer);
+        }
+        if (workers < requestedWorkers) {
+            logger.warn("Session {} was given {} of {} requested workers; running {} vendors and {} customers, so it will run slower.",
+                    id, workers, requestedWorkers, vendorCount, customerCount);
+        }
+        logger.info("Session {} started with configuration: {}", id, config);
+    }
+
+    /**
+     * Counts the worker threads a configuration asks for: one per vendor and one per customer.
+     *
+     * @param config the simulation configuration.
+     * @return the number of vendors plus the number of customers.
+     */
+    static int requestedWorkers(Configuration config) {
+        int vendors = Math.max(1, config.getTotalTickets() / config.getTicketReleaseRate());
+        int customers = Math.max(1, config.getTotalTickets() / config.getCustomerRetrievalRate());
+        return vendors + customers;
+    }
+
+    /**
+     * Drains and stops the session.
+     * Vendors stop releasing tickets at once, customers keep buying the tickets already in the pool
+     * without pausing until it is empty or the deadline passes, and then every worker is woken and
+     * left to finish. Workers are only interrupted if they are still running a second after the deadline.
+     *
+     * @param drainTimeoutMillis how long customers may keep buying, in milliseconds; 0 stops at once.
+     * @return the report of what was sold and left unsold, or null if the session was already stopped.
+     */
+    DrainReport stop(long drainTimeoutMillis) {
+        if (!running.compareAndSet(true, false)) {
+            return null;
+        }
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        vendors.forEach(Vendor::stop);
+        ticketPool.startDrain();
+        boolean deadlineExceeded = false;
+        try {
+            while (ticketPool.getCurrentSize() > 0) {
+                if (System.nanoTime() >= deadline) {
+                    deadlineExceeded = true;
+                    break;
+                }
+                Thread.sleep(DRAIN_POLL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        customers.forEach(Customer::stop);
+        ticketPool.stopSimulation();
+        executorService.shutdown();
+        boolean workersInterrupted = false;
+        try {
+            long graceMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())) + STOP_GRACE_MS;
+            if (!executorService.awaitTermination(graceMillis, TimeUnit.MILLISECONDS)) {
+                executorService.shutdownNow();
+                workersInterrupted = true;
+            }
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while stopping session {}.", id);
+            executorService.shutdownNow();
+            workersInterrupted = true;
+            Thread.currentThread().interrupt();
+        }
+        stoppedMillis = System.currentTimeMillis();
+        ticketPool.getEventLog().flush(); // Log the counts of the last, partial interval.
+
+        drainReport = new DrainReport(ticketPool.getTotalTickets(), ticketPool.getTicketsAdded(), ticketPool.getTicketsSold(),
+                ticketPool.getCurrentSize(), ticketPool.getUnsoldTickets(DrainReport.MAX_LISTED_TICKETS),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), deadlineExceeded, workersInterrupted);
+        simulationEvent.sessionId = id;
+        simulationEvent.workers = workers;
+        simulationEvent.ticketsSold = drainReport.getTicketsSold();
+        simulationEvent.commit();
+        logger.info("Session {} stopped: {}", id, drainReport);
+        return drainReport;
+    }
+
+    /**
+     * Gets the report of the session's drain.
+     *
+     * @return the drain report, or null while the session is running.
+     */
+    public DrainReport getDrainReport() {
+        return drainReport;
+    }
+
+    /**
+     * Reports the session's configuration, workers and sales.
+     *
+     * @return the session ID, whether it is running, its configuration, the numbers of vendors,
+     * customers and worker threads, tickets added, sold and in the pool, its elapsed time, and the
+     * sampled ticket and purchase latencies of its pool.
+     */
+    public Map<String, Object> getStatus() {
+        long endMillis = stoppedMillis == 0 ? System.currentTimeMillis() : stoppedMillis;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", id);
+        status.put("running", running.get());
+        status.put("totalTickets", config.getTotalTickets());
+        status.put("ticketReleaseRate", config.getTicketReleaseRate());
+        status.put("customerRetrievalRate", config.getCustomerRetrievalRate());
+        status.put("maxTicketCapacity", config.getMaxTicketCapacity());
+        status.put("vendors", vendors.size());
+        status.put("customers", customers.size());
+        status.put("requestedWorkers", requestedWorkers);
+        status.put("workers", workers);
+        status.put("ticketsAdded", ticketPool.getTicketsAdded());
+        status.put("ticketsSold", ticketPool.getTicketsSold());
+        status.put("currentSize", ticketPool.getCurrentSize());
+        status.put("soldOut", ticketPool.getTicketsSold() >= config.getTotalTickets());
+        status.put("elapsedMillis", endMillis - startedMillis);
+        status.put("tracing", ticketPool.getTracer().getStatistics());
+        DrainReport report = drainReport;
+        if (report != null) {
+            status.put("drain", report.toMap());
+        }
+        return status;
+    }
+
+    /**
+     * Gets the session ID.
+     *
+     * @return the session ID.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the session's ticket pool.
+     *
+     * @return the ticket pool.
+     */
+    public TicketPool getTicketPool() {
+        return ticketPool;
+    }
+
+    /**
+     * Gets the number of worker threads the session was given.
+     *
+     * @return the number of worker threads.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Gets when the session stopped.
+     *
+     * @return the time in milliseconds since the epoch, or 0 while the session is running.
+     */
+    long getStoppedMillis() {
+        return stoppedMillis;
+    }
+
+    /**
+     * Checks whether the session is running.
+     *
+     * @return true until the session is stopped.
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+}
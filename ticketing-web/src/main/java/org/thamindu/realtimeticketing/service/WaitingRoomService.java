@@ -0,0 +1,369 @@
+package org.thamindu.realtimeticketing.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A virtual waiting room in front of the ticket pool.
+ * Arriving customers are given a queue position and admitted into a fixed number of active slots.
+ * Admitted customers receive a short-lived token that the purchase path requires while the waiting
+ * room is enabled; a slot is freed when its customer's purchase is done or the token expires.
+ *
+ * <p>The admission rate follows the slots: while slots stay free it doubles each tick, and once
+ * they are all taken it falls to the rate at which admitted customers complete purchases, the
+ * drain rate. Slots freed by expired tokens are reused but not counted in the drain rate, so
+ * customers who abandon their slot do not raise admissions above what the pool is selling.
+ * Admissions never exceed one tick's worth of the rate, however long a tick was delayed.</p>
+ *
+ * <p>Progress is pushed over the STOMP broker: {@code /topic/waiting-room} carries the number
+ * now being served and the admission rate, from which every client computes its own position
+ * and ETA, and {@code /topic/waiting-room/{customerId}} carries the token once a customer is admitted.</p>
+ *
+ * <p><strong>Rationale:</strong> Admitting buyers only as fast as the pool can serve them keeps
+ * latency flat for admitted buyers however large the crowd is. Broadcasting one "now serving"
+ * number per tick costs the same for ten waiters or a million.</p>
+ */
+@Service
+public class WaitingRoomService {
+
+    /**
+     * Logger instance for logging waiting room events.
+     */
+    private static final Logger logger = LogManager.getLogger(WaitingRoomService.class);
+
+    /**
+     * Weight given to the newest drain rate sample in the moving average.
+     */
+    private static final double DRAIN_SMOOTHING = 0.3;
+
+    /**
+     * A customer's place in the waiting room.
+     */
+    private static final class Entry {
+        private final String customerId;
+        private final long position;
+        private volatile String token;
+        private volatile long tokenExpiresAt;
+
+        private Entry(String customerId, long position) {
+            this.customerId = customerId;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Template used to push waiting room updates to STOMP subscribers.
+     */
+    private final SimpMessagingTemplate messagingTemplate;
+    /**
+     * Whether purchases must present an admission token.
+     */
+    private final boolean enabled;
+    /**
+     * The interval (in milliseconds) between admission ticks.
+     */
+    private final long tickMillis;
+    /**
+     * How long (in milliseconds) an admission token stays valid.
+     */
+    private final long tokenTtlMillis;
+    /**
+     * The smallest number of customers admitted per second, used until the drain rate is measured.
+     */
+    private final double minAdmissionRate;
+    /**
+     * The largest number of admitted customers holding a token at once.
+     */
+    private final int maxActive;
+    /**
+     * Customers waiting to be admitted, in arrival order.
+     */
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * Admitted customers in admission order, which is also token expiry order.
+     */
+    private final ConcurrentLinkedQueue<Entry> admittedQueue = new ConcurrentLinkedQueue<>();
+    /**
+     * Waiting and admitted customers by customer ID.
+     */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * The last position handed out.
+     */
+    private final AtomicLong lastPosition = new AtomicLong();
+    /**
+     * The number of admitted customers holding a valid token.
+     */
+    private final AtomicInteger activeTokens = new AtomicInteger();
+    /**
+     * The number of slots freed by completed purchases since the previous tick.
+     */
+    private final AtomicInteger completedPurchases = new AtomicInteger();
+    /**
+     * The highest position admitted so far.
+     */
+    private volatile long nowServing = 0;
+    /**
+     * The current admission rate, in customers per second.
+     */
+    private volatile double admissionRate;
+    /**
+     * Moving average of purchases completed per second by admitted customers.
+     */
+    private double drainRate = 0;
+    /**
+     * Whether the previous tick stopped admitting because it ran out of credit while customers
+     * were waiting and slots were free.
+     */
+    private boolean rateLimited = false;
+    /**
+     * Time of the previous tick, in nanoseconds.
+     */
+    private long lastTickNanos = System.nanoTime();
+    /**
+     * Fractional admissions carried between ticks, at most one tick's worth.
+     */
+    private double admissionCredit = 0;
+    /**
+     * Single thread that runs the admission ticks.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a WaitingRoomService. The admission ticks start once the bean is initialised.
+     *
+     * @param messagingTemplate template used to push updates to STOMP subscribers.
+     * @param enabled           whether purchases must present an admission token.
+     * @param tickMillis        the interval (in milliseconds) between admission ticks.
+     * @param tokenTtlMillis    how long (in milliseconds) an admission token stays valid.
+     * @param minAdmissionRate  the smallest number of customers admitted per second.
+     * @param maxActive         the largest number of admitted customers holding a token at once.
+     */
+    @Autowired
+    public WaitingRoomService(SimpMessagingTemplate messagingTemplate,
+                              @Value("${waitingroom.enabled:false}") boolean enabled,
+                              @Value("${waitingroom.tickMs:1000}") long tickMillis,
+                              @Value("${waitingroom.tokenTtlMs:60000}") long tokenTtlMillis,
+                              @Value("${waitingroom.minAdmissionRate:10}") double minAdmissionRate,
+                              @Value("${waitingroom.maxActive:1000}") int maxActive) {
+        this.messagingTemplate = messagingTemplate;
+        this.enabled = enabled;
+        this.tickMillis = tickMillis;
+        this.tokenTtlMillis = tokenTtlMillis;
+        this.minAdmissionRate = minAdmissionRate;
+        this.maxActive = maxActive;
+        this.admissionRate = minAdmissionRate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waiting-room");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the admission ticks if the waiting room is enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            lastTickNanos = System.nanoTime();
+            scheduler.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Checks whether purchases must present an admission token.
+     *
+     * @return true if the waiting room is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Places a customer in the waiting room. Joining again returns the existing place.
+     *
+     * @param customerId the customer joining.
+     * @return the customer's status, as returned by {@link #getStatus(String)}.
+     */
+    public Map<String, Object> join(String customerId) {
+        Entry entry = entries.computeIfAbsent(customerId, id -> {
+            Entry created = new Entry(id, lastPosition.incrementAndGet());
+            queue.offer(created);
+            return created;
+        });
+        logger.info("Customer {} joined the waiting room at position {}.", customerId, entry.position);
+        return toStatus(entry);
+    }
+
+    /**
+     * Returns a customer's place in the waiting room.
+     *
+     * @param customerId the customer.
+     * @return a map with the customer's position, the number now serving, the estimated wait and,
+     * once admitted, the token; or null if the customer has not joined.
+     */
+    public Map<String, Object> getStatus(String customerId) {
+        Entry entry = entries.get(customerId);
+        return entry == null ? null : toStatus(entry);
+    }
+
+    /**
+     * Checks whether a customer may purchase.
+     *
+     * @param customerId the customer.
+     * @param token      the admission token presented by the customer.
+     * @return true if the waiting room is disabled or the token is valid for the customer.
+     */
+    public boolean isAdmitted(String customerId, String token) {
+        if (!enabled) {
+            return true;
+        }
+        Entry entry = entries.get(customerId);
+        return entry != null && token != null && token.equals(entry.token)
+                && System.currentTimeMillis() < entry.tokenExpiresAt;
+    }
+
+    /**
+     * Releases a customer's admission once their purchase is done, freeing a slot for the next customer.
+     *
+     * @param customerId the customer.
+     */
+    public void release(String customerId) {
+        Entry entry = entries.get(customerId);
+        if (entry != null && entry.token != null && entries.remove(customerId, entry)) {
+            activeTokens.decrementAndGet();
+            completedPurchases.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of customers still waiting to be admitted.
+     *
+     * @return the number of waiting customers.
+     */
+    public int getWaitingCount() {
+        return (int) Math.max(0, lastPosition.get() - nowServing);
+    }
+
+    /**
+     * Admits the next batch of customers and publishes progress.
+     * Runs on the waiting room thread only, so the rate fields need no synchronization.
+     */
+    private void tick() {
+        try {
+            long now = System.nanoTime();
+            double elapsedSeconds = Math.max(1e-3, (now - lastTickNanos) / 1e9);
+            lastTickNanos = now;
+
+            expireTokens();
+            drainRate = DRAIN_SMOOTHING * (completedPurchases.getAndSet(0) / elapsedSeconds)
+                    + (1 - DRAIN_SMOOTHING) * drainRate;
+            double tickSeconds = tickMillis / 1000.0;
+            if (activeTokens.get() >= maxActive) {
+                // Every slot is taken: admit only as fast as admitted customers buy.
+                admissionRate = Math.max(minAdmissionRate, drainRate);
+            } else if (rateLimited) {
+                // Slots stayed free while customers waited: the pool can serve more.
+                admissionRate = Math.min(admissionRate * 2, maxActive / tickSeconds);
+            }
+
+            // Credit left over from a slow tick must not turn into a burst on the next one.
+            double perTick = Math.max(1, admissionRate * tickSeconds);
+            admissionCredit = Math.min(admissionCredit + admissionRate * elapsedSeconds, perTick);
+            int admitted = 0;
+            Entry entry;
+            while (admissionCredit >= 1 && activeTokens.get() < maxActive && (entry = queue.poll()) != null) {
+                admit(entry);
+                admissionCredit--;
+                admitted++;
+            }
+            rateLimited = admissionCredit < 1 && activeTokens.get() < maxActive && !queue.isEmpty();
+            if (admitted > 0) {
+                logger.info("Admitted {} customers from the waiting room (rate {}/s).", admitted, Math.round(admissionRate));
+            }
+            messagingTemplate.convertAndSend("/topic/waiting-room", Map.of(
+                    "nowServing", nowServing,
+                    "waiting", getWaitingCount(),
+                    "admissionRate", admissionRate));
+        } catch (RuntimeException e) {
+            logger.error("Waiting room tick failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Issues an admission token to a customer and notifies them.
+     *
+     * @param entry the customer's place in the waiting room.
+     */
+    private void admit(Entry entry) {
+        entry.tokenExpiresAt = System.currentTimeMillis() + tokenTtlMillis;
+        entry.token = UUID.randomUUID().toString();
+        activeTokens.incrementAndGet();
+        admittedQueue.offer(entry);
+        nowServing = Math.max(nowServing, entry.position);
+        messagingTemplate.convertAndSend("/topic/waiting-room/" + entry.customerId, toStatus(entry));
+    }
+
+    /**
+     * Removes admitted customers whose tokens have expired, freeing their slots. The slots are
+     * not counted in the drain rate, as no ticket was sold through them.
+     * Tokens share one lifetime, so only the head of the admission queue needs checking.
+     */
+    private void expireTokens() {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        while ((entry = admittedQueue.peek()) != null && now >= entry.tokenExpiresAt) {
+            admittedQueue.poll();
+            if (entries.remove(entry.customerId, entry)) {
+                activeTokens.decrementAndGet(); // Not already released by a purchase.
+            }
+        }
+    }
+
+    /**
+     * Builds the status of a customer's place in the waiting room.
+     *
+     * @param entry the customer's place.
+     * @return the status map.
+     */
+    private Map<String, Object> toStatus(Entry entry) {
+        long ahead = Math.max(0, entry.position - nowServing - 1);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("customerId", entry.customerId);
+        status.put("position", entry.position);
+        status.put("nowServing", nowServing);
+        status.put("admitted", entry.token != null);
+        status.put("estimatedWaitSeconds", entry.token != null ? 0 : (long) Math.ceil(ahead / admissionRate));
+        if (entry.token != null) {
+            status.put("token", entry.token);
+            status.put("tokenExpiresAt", entry.tokenExpiresAt);
+        }
+        return status;
+    }
+
+    /**
+     * Stops the admission ticks when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,285 @@
+package org.thamindu.realtimeticketing.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketReturnListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A waitlist for customers who arrive after an event has sold out.
+ * Tickets returned to the {@code TicketPool} are handed to the customer at the head of the
+ * waitlist without re-entering general inventory, and the winner is notified on
+ * {@code /topic/waitlist/{customerId}}. A hand-off counts against the customer's purchase quota
+ * like any other purchase; customers at their quota are skipped. The assigned ticket stays visible
+ * in the customer's status until it is refunded or the assignment expires.
+ *
+ * <p><strong>Rationale:</strong> Registered customers wait as a queue entry rather than a thread
+ * looping on {@code removeTicket}. Registration is one map insert and one lock-free enqueue,
+ * and each hand-off polls the head, so both cost O(1) however long the waitlist grows.</p>
+ */
+@Service
+public class WaitlistService implements TicketReturnListener {
+
+    /**
+     * Logger instance for logging waitlist events.
+     */
+    private static final Logger logger = LogManager.getLogger(WaitlistService.class);
+
+    /**
+     * A customer's place on the waitlist.
+     */
+    private static final class Entry {
+        private final String customerId;
+        private final long position;
+
+        private Entry(String customerId, long position) {
+            this.customerId = customerId;
+            this.position = position;
+        }
+    }
+
+    /**
+     * A ticket handed to a waitlisted customer.
+     */
+    private static final class Assignment {
+        private final String customerId;
+        private final String ticketId;
+        private final long assignedMillis;
+
+        private Assignment(String customerId, String ticketId, long assignedMillis) {
+            this.customerId = customerId;
+            this.ticketId = ticketId;
+            this.assignedMillis = assignedMillis;
+        }
+    }
+
+    /**
+     * The ticket pool whose returned tickets are handed out.
+     */
+    private final TicketPool ticketPool;
+    /**
+     * Template used to notify customers who are handed a ticket.
+     */
+    private final SimpMessagingTemplate messagingTemplate;
+    /**
+     * The per-customer quotas that hand-offs count against, and the record of each ticket's buyer.
+     */
+    private final PurchaseLimiter purchaseLimiter;
+    /**
+     * How long (in milliseconds) a hand-off stays visible in the customer's status.
+     */
+    private final long assignmentTtlMillis;
+    /**
+     * Waitlisted customers in registration order. Entries of customers who left are skipped lazily.
+     */
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * The current registration of each waitlisted customer.
+     */
+    private final ConcurrentHashMap<String, Entry> registrations = new ConcurrentHashMap<>();
+    /**
+     * The latest ticket handed to each waitlisted customer, by customer ID.
+     */
+    private final ConcurrentHashMap<String, Assignment> assignments = new ConcurrentHashMap<>();
+    /**
+     * Assignments in the order they were made, oldest first, so expired ones are found at the head.
+     *
+     * <p><strong>Rationale:</strong> Assignments are appended as they are made, so expiring them
+     * never scans the map: each call removes only the expired entries at the head.</p>
+     */
+    private final ConcurrentLinkedQueue<Assignment> assignmentOrder = new ConcurrentLinkedQueue<>();
+    /**
+     * The last position handed out.
+     */
+    private final AtomicLong lastPosition = new AtomicLong();
+    /**
+     * The position of the most recent customer to be handed a ticket.
+     */
+    private volatile long nowServing = 0;
+
+    /**
+     * Constructs a WaitlistService.
+     *
+     * @param ticketPool        the ticket pool whose returned tickets are handed out.
+     * @param messagingTemplate template used to notify customers who are handed a ticket.
+     * @param purchaseLimiter   the per-customer quotas that hand-offs count against.
+     * @param assignmentTtlMillis how long (in milliseconds) a hand-off stays visible in the customer's status.
+     */
+    @Autowired
+    public WaitlistService(TicketPool ticketPool, SimpMessagingTemplate messagingTemplate, PurchaseLimiter purchaseLimiter,
+                           @Value("${waitlist.assignmentTtlMs:600000}") long assignmentTtlMillis) {
+        this.ticketPool = ticketPool;
+        this.messagingTemplate = messagingTemplate;
+        this.purchaseLimiter = purchaseLimiter;
+        this.assignmentTtlMillis = assignmentTtlMillis;
+    }
+
+    /**
+     * Starts receiving tickets returned to the pool.
+     */
+    @PostConstruct
+    public void register() {
+        ticketPool.setReturnListener(this);
+    }
+
+    /**
+     * Stops receiving returned tickets when the application shuts down.
+     */
+    @PreDestroy
+    public void unregister() {
+        ticketPool.setReturnListener(null);
+    }
+
+    /**
+     * Adds a customer to the waitlist. Joining again returns the existing place.
+     *
+     * @param customerId the customer joining.
+     * @return the customer's status, as returned by {@link #getStatus(String)}, or null if the
+     * event has not sold out and the customer should purchase normally.
+     */
+    public Map<String, Object> join(String customerId) {
+        if (!ticketPool.isSimulationComplete() && !registrations.containsKey(customerId)) {
+            return null;
+        }
+        Entry entry = registrations.computeIfAbsent(customerId, id -> {
+            Entry created = new Entry(id, lastPosition.incrementAndGet());
+            queue.offer(created);
+            return created;
+        });
+        logger.info("Customer {} joined the waitlist at position {}.", customerId, entry.position);
+        return getStatus(customerId);
+    }
+
+    /**
+     * Removes a customer from the waitlist. Their queue entry is skipped when it reaches the head.
+     *
+     * @param customerId the customer leaving.
+     * @return true if the customer was on the waitlist.
+     */
+    public boolean leave(String customerId) {
+        return registrations.remove(customerId) != null;
+    }
+
+    /**
+     * Returns a customer's place on the waitlist, or the ticket they were handed.
+     *
+     * @param customerId the customer.
+     * @return a map with the customer's status and either their position or their ticket,
+     * or null if the customer is not on the waitlist and holds no unexpired ticket from it.
+     */
+    public Map<String, Object> getStatus(String customerId) {
+        expireAssignments(System.currentTimeMillis());
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("customerId", customerId);
+        Assignment assignment = assignments.get(customerId);
+        if (assignment != null && !purchaseLimiter.isBuyer(customerId, assignment.ticketId)) {
+            assignments.remove(customerId, assignment); // Refunded since it was handed over.
+            assignment = null;
+        }
+        if (assignment != null) {
+            status.put("status", "TICKET_ASSIGNED");
+            status.put("ticketId", assignment.ticketId);
+            return status;
+        }
+        Entry entry = registrations.get(customerId);
+        if (entry == null) {
+            return null;
+        }
+        status.put("status", "WAITING");
+        status.put("position", entry.position);
+        status.put("ahead", Math.max(0, entry.position - nowServing - 1));
+        return status;
+    }
+
+    /**
+     * Gets the number of customers registered on the waitlist.
+     *
+     * @return the number of waitlisted customers.
+     */
+    public int getWaitingCount() {
+        return registrations.size();
+    }
+
+    /**
+     * Gets the number of hand-offs still visible in customers' status.
+     *
+     * @return the number of unexpired assignments.
+     */
+    public int getAssignedCount() {
+        expireAssignments(System.currentTimeMillis());
+        return assignments.size();
+    }
+
+    /**
+     * Hands a returned ticket to the first customer at the head of the waitlist who is within their
+     * purchase quota and notifies them. The hand-off reserves one ticket of the customer's quota and
+     * records them as the buyer; if the customer cannot be notified, both are undone and the ticket
+     * goes to the next customer.
+     *
+     * @param ticketId the returned ticket.
+     * @return true if a waitlisted customer took the ticket, false if no waitlisted customer could.
+     *
+     * <p><strong>Rationale:</strong> The pool counts a ticket taken here as sold, so the hand-off
+     * is charged like a purchase; otherwise the waitlist would let a customer exceed their quota.</p>
+     */
+    @Override
+    public boolean onTicketReturned(String ticketId) {
+        long now = System.currentTimeMillis();
+        expireAssignments(now);
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            // Skip customers who left, or whose entry was superseded by a later registration.
+            if (!registrations.remove(entry.customerId, entry)) {
+                continue;
+            }
+            nowServing = entry.position;
+            if (!purchaseLimiter.tryReserveQuota(entry.customerId)) {
+                logger.info("Waitlisted customer {} is at their purchase quota and was passed over.", entry.customerId);
+                continue;
+            }
+            purchaseLimiter.recordSale(entry.customerId, ticketId);
+            Assignment assignment = new Assignment(entry.customerId, ticketId, now);
+            assignments.put(entry.customerId, assignment);
+            try {
+                messagingTemplate.convertAndSend("/topic/waitlist/" + entry.customerId, Map.of(
+                        "status", "TICKET_ASSIGNED",
+                        "ticketId", ticketId));
+            } catch (RuntimeException e) {
+                logger.error("Could not notify waitlisted customer {} of ticket {}: {}", entry.customerId, ticketId, e.getMessage());
+                assignments.remove(entry.customerId, assignment);
+                purchaseLimiter.releaseSale(entry.customerId, ticketId);
+                continue;
+            }
+            assignmentOrder.offer(assignment);
+            logger.info("Waitlisted customer {} was handed returned ticket {}.", entry.customerId, ticketId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the assignments older than the assignment lifetime.
+     *
+     * @param nowMillis the current time, in milliseconds.
+     */
+    private void expireAssignments(long nowMillis) {
+        Assignment oldest;
+        while ((oldest = assignmentOrder.peek()) != null && nowMillis - oldest.assignedMillis >= assignmentTtlMillis) {
+            if (assignmentOrder.remove(oldest)) {
+                assignments.remove(oldest.customerId, oldest);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.CapacityPlanRequest;
+import org.thamindu.realtimeticketing.model.ParameterRange;
+import org.thamindu.realtimeticketing.service.CapacityPlanner;
+
+import java.util.List;
+import java.util.Map;
+
+class CapacityPlannerTest {
+
+    private static CapacityPlanRequest request(ParameterRange capacity) {
+        CapacityPlanRequest request = new CapacityPlanRequest();
+        request.setTotalTickets(new ParameterRange(100, 100, 1));
+        request.setTicketReleaseRate(new ParameterRange(5, 10, 5));
+        request.setCustomerRetrievalRate(new ParameterRange(10, 10, 1));
+        request.setMaxTicketCapacity(capacity);
+        return request;
+    }
+
+    private static CapacityPlanRequest request(int totalTickets, int releaseRate, int retrievalRate, int capacity) {
+        CapacityPlanRequest request = new CapacityPlanRequest();
+        request.setTotalTickets(new ParameterRange(totalTickets, totalTickets, 1));
+        request.setTicketReleaseRate(new ParameterRange(releaseRate, releaseRate, 1));
+        request.setCustomerRetrievalRate(new ParameterRange(retrievalRate, retrievalRate, 1));
+        request.setMaxTicketCapacity(new ParameterRange(capacity, capacity, 1));
+        return request;
+    }
+
+    @Test
+    void sweepRunsEveryCombinationAndRanksBySellOutTime() throws Exception {
+        CapacityPlanner planner = new CapacityPlanner(2, 100);
+        try {
+            List<Map<String, Object>> results = planner.plan(request(new ParameterRange(1, 20, 19)));
+
+            assert results.size() == 4;
+            for (Map<String, Object> result : results) {
+                assert (Boolean) result.get("soldOut");
+                assert (Integer) result.get("ticketsSold") == 100;
+                assert (Integer) result.get("maxPoolDepth") <= (Integer) result.get("maxTicketCapacity");
+            }
+            for (int i = 1; i < results.size(); i++) {
+                assert (Integer) results.get(i - 1).get("simulatedSeconds") <= (Integer) results.get(i).get("simulatedSeconds");
+            }
+            // A one-ticket pool admits one ticket per second, so it is the slowest configuration.
+            assert (Integer) results.get(3).get("maxTicketCapacity") == 1;
+            assert (Integer) results.get(3).get("simulatedSeconds") == 100;
+        } finally {
+            planner.shutdown();
+        }
+    }
+
+    @Test
+    void eachThreadMovesOneTicketPerSecondWhateverItsRate() throws Exception {
+        CapacityPlanner planner = new CapacityPlanner(1, 100);
+        try {
+            // One vendor releasing batches of 100 still adds only one ticket per second.
+            Map<String, Object> result = planner.plan(request(100, 100, 10, 100)).get(0);
+            assert (Integer) result.get("vendors") == 1;
+            assert (Integer) result.get("simulatedSeconds") == 100 : result;
+
+            // Two vendors outpace one customer, who buys one ticket per second.
+            result = planner.plan(request(10, 5, 10, 10)).get(0);
+            assert (Integer) result.get("customers") == 1;
+            assert (Integer) result.get("simulatedSeconds") == 10 : result;
+        } finally {
+            planner.shutdown();
+        }
+    }
+
+    @Test
+    void oversizedSweepIsRejectedBeforeRunning() throws Exception {
+        CapacityPlanner planner = new CapacityPlanner(2, 100);
+        try {
+            planner.plan(request(new ParameterRange(1, Integer.MAX_VALUE, 1)));
+            assert false : "Expected the sweep to be rejected";
+        } catch (IllegalArgumentException expected) {
+            // Rejected.
+        } finally {
+            planner.shutdown();
+        }
+    }
+}
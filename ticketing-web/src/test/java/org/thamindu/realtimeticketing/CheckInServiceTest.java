@@ -0,0 +1,77 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.service.CheckInService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CheckInServiceTest {
+
+    @Test
+    void soldTicketAdmitsOnceAndUnknownOrRefundedTicketsAreRefused() {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        CheckInService checkIn = new CheckInService(ticketPool, 100);
+        checkIn.register();
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        String used = ticketPool.tryRemoveTicket();
+        String refunded = ticketPool.tryRemoveTicket();
+        ticketPool.refundTicket(refunded);
+
+        assert checkIn.checkIn(used) == CheckInService.Result.ADMITTED;
+        assert checkIn.checkIn(used) == CheckInService.Result.ALREADY_USED;
+        assert checkIn.checkIn(refunded) == CheckInService.Result.INVALID;
+        assert checkIn.checkIn("Vendor-1-Ticket-999") == CheckInService.Result.INVALID;
+    }
+
+    @Test
+    void usedTicketCannotBeRefundedAndScannedAgain() {
+        TicketPool ticketPool = new TicketPool(1, 1);
+        CheckInService checkIn = new CheckInService(ticketPool, 100);
+        checkIn.register();
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        String ticket = ticketPool.tryRemoveTicket();
+
+        assert checkIn.checkIn(ticket) == CheckInService.Result.ADMITTED;
+        assert !ticketPool.refundTicket(ticket);
+        assert ticketPool.getTicketsSold() == 1 && ticketPool.getCurrentSize() == 0;
+        assert checkIn.checkIn(ticket) == CheckInService.Result.ALREADY_USED;
+
+        checkIn.onTicketSold(ticket); // Even a repeated sale notice leaves a used ticket used.
+        assert checkIn.checkIn(ticket) == CheckInService.Result.ALREADY_USED;
+    }
+
+    @Test
+    void concurrentScansOfTheSameTicketAdmitExactlyOnce() throws Exception {
+        int totalTickets = 10000;
+        TicketPool ticketPool = new TicketPool(totalTickets, totalTickets);
+        CheckInService checkIn = new CheckInService(ticketPool, totalTickets);
+        checkIn.register();
+        List<String> sold = new ArrayList<>();
+        for (int i = 0; i < totalTickets; i++) {
+            ticketPool.offerTicket("Vendor-1-Ticket");
+            sold.add(ticketPool.tryRemoveTicket());
+        }
+
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executorService.submit(() -> sold.forEach(ticket -> {
+                if (checkIn.checkIn(ticket) == CheckInService.Result.ADMITTED) {
+                    admitted.incrementAndGet();
+                }
+            }));
+        }
+        executorService.shutdown();
+        assert executorService.awaitTermination(10, TimeUnit.SECONDS);
+
+        assert admitted.get() == totalTickets;
+        assert (long) checkIn.getStatistics().get("ALREADY_USED") == 3L * totalTickets;
+    }
+}
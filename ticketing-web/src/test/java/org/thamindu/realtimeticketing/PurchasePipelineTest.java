@@ -0,0 +1,125 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.PurchaseResult;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketState;
+import org.thamindu.realtimeticketing.service.PurchaseLimiter;
+import org.thamindu.realtimeticketing.service.PurchasePipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class PurchasePipelineTest {
+
+    @Test
+    void slowPaymentQueuesAtThePaymentStageAndEveryOrderCompletes() throws Exception {
+        int orders = 200;
+        TicketPool ticketPool = new TicketPool(orders, orders);
+        for (int i = 0; i < orders; i++) {
+            ticketPool.offerTicket("Vendor-1-Ticket");
+        }
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 6, 86400000);
+        PurchasePipeline pipeline = new PurchasePipeline(ticketPool, limiter, 1024, 8, 1, 1, 1, 1, 20);
+        try {
+            List<CompletableFuture<PurchaseResult>> results = new ArrayList<>();
+            for (int i = 0; i < orders; i++) {
+                results.add(pipeline.submit("Customer-" + i));
+            }
+            Thread.sleep(100);
+            // Payment handles 8 orders per 20 ms, so the backlog sits in its queue, not upstream.
+            assert (int) pipeline.getStatistics().get("payment").get("queueDepth") > 0;
+            assert (int) pipeline.getStatistics().get("reserve").get("queueDepth") == 0;
+
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+            assert results.stream().allMatch(result -> result.join().isPurchased());
+            assert results.stream().map(result -> result.join().getTicketId()).distinct().count() == orders;
+            assert ticketPool.getTicketsSold() == orders;
+            assert (double) pipeline.getStatistics().get("payment").get("meanBatchSize") > 1;
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void ordersWithoutInventoryAreRejectedAndReleaseTheirQuota() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 1, 86400000);
+        PurchasePipeline pipeline = new PurchasePipeline(ticketPool, limiter, 16, 4, 1, 1, 1, 1, 0);
+        try {
+            PurchaseResult first = pipeline.submit("Customer-1").get(5, TimeUnit.SECONDS);
+            assert first.getStatus() == PurchaseResult.Status.UNAVAILABLE;
+
+            ticketPool.offerTicket("Vendor-1-Ticket");
+            PurchaseResult second = pipeline.submit("Customer-1").get(5, TimeUnit.SECONDS);
+            assert second.isPurchased(); // The quota of one was returned by the failed order.
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void ordersOfABatchWhoseStageThrowsFailAndReturnTicketAndQuota() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        for (int i = 0; i < 2; i++) {
+            ticketPool.offerTicket("Vendor-1-Ticket");
+        }
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 1, 86400000) {
+            @Override
+            public void recordSale(String customerId, String ticketId) {
+                if ("Customer-1".equals(customerId)) {
+                    throw new IllegalStateException("Journal unavailable");
+                }
+                super.recordSale(customerId, ticketId);
+            }
+        };
+        PurchasePipeline pipeline = new PurchasePipeline(ticketPool, limiter, 16, 4, 1, 1, 1, 1, 0);
+        try {
+            PurchaseResult failed = pipeline.submit("Customer-1").get(5, TimeUnit.SECONDS);
+            assert failed.getStatus() == PurchaseResult.Status.UNAVAILABLE : failed.getStatus();
+            assert ticketPool.getCurrentSize() == 2; // The reserved ticket went back to the pool.
+            assert ticketPool.getTicketsSold() == 0;
+            assert limiter.tryReserveQuota("Customer-1"); // The quota of one was returned.
+
+            // The stage keeps working after the failed batch.
+            assert pipeline.submit("Customer-2").get(5, TimeUnit.SECONDS).isPurchased();
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void withdrawnOrderReturnsItsTicketEvenAfterVendorsFilledThePool() throws Exception {
+        TicketPool ticketPool = new TicketPool(2, 10);
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 1, 86400000);
+        PurchasePipeline pipeline = new PurchasePipeline(ticketPool, limiter, 16, 4, 1, 1, 1, 1, 300);
+        try {
+            CompletableFuture<PurchaseResult> order = pipeline.submit("Customer-1");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (ticketPool.getTicketsSold() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5); // Until the order reserves Vendor-1-Ticket-0 and waits on payment.
+            }
+            assert ticketPool.offerTicket("Vendor-1-Ticket"); // Vendors refill the reserved ticket's space.
+            assert !ticketPool.offerTicket("Vendor-1-Ticket");
+
+            order.cancel(false);
+            while (ticketPool.getTicketsSold() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assert ticketPool.getTicketState("Vendor-1-Ticket-0") == TicketState.AVAILABLE;
+            assert ticketPool.getCurrentSize() == 3; // Over capacity rather than lost.
+            assert limiter.tryReserveQuota("Customer-1");
+
+            assert "Vendor-1-Ticket-0".equals(ticketPool.tryRemoveTicket()); // Back at the head of the queue.
+            assert !ticketPool.offerTicket("Vendor-1-Ticket"); // Still at capacity.
+            assert ticketPool.tryRemoveTicket() != null;
+            assert ticketPool.offerTicket("Vendor-1-Ticket");
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+}
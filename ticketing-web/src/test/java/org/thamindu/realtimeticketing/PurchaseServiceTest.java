@@ -0,0 +1,92 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.CustomerPriority;
+import org.thamindu.realtimeticketing.model.PurchaseResult;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketState;
+import org.thamindu.realtimeticketing.service.PurchaseLimiter;
+import org.thamindu.realtimeticketing.service.PurchaseService;
+
+import java.util.concurrent.TimeUnit;
+
+class PurchaseServiceTest {
+
+    @Test
+    void failedPurchaseReturnsItsQuotaBeforeTheOutcomeIsSeen() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 1, 86400000);
+        PurchaseService purchases = new PurchaseService(ticketPool, null, limiter, 1000, 100, 60000);
+
+        // A client that retries as soon as it sees the failure must find its quota returned.
+        PurchaseLimiter.Decision retry = purchases.purchase("Customer-1", CustomerPriority.GENERAL, 0)
+                .thenApply(outcome -> {
+                    assert outcome.getStatus() == PurchaseResult.Status.TIMED_OUT : outcome.getStatus();
+                    return limiter.tryAcquire("Customer-1");
+                })
+                .get(5, TimeUnit.SECONDS);
+        assert retry == PurchaseLimiter.Decision.ALLOWED : retry;
+    }
+
+    @Test
+    void onlyTheBuyerCanRefundAndGetsTheirQuotaBack() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 1, 86400000);
+        PurchaseService purchases = new PurchaseService(ticketPool, null, limiter, 1000, 100, 60000);
+        ticketPool.offerTicket("Vendor-1-Ticket");
+
+        PurchaseResult bought = purchases.purchase("Customer-1", CustomerPriority.GENERAL, 1000).get(5, TimeUnit.SECONDS);
+        assert bought.isPurchased() : bought.getStatus();
+        String ticket = bought.getTicketId();
+
+        assert !purchases.refund("Customer-2", ticket);
+        assert !purchases.refund(null, ticket);
+        assert ticketPool.getTicketState(ticket) == TicketState.SOLD;
+        assert limiter.tryAcquire("Customer-1") == PurchaseLimiter.Decision.QUOTA_EXCEEDED;
+
+        assert purchases.refund("Customer-1", ticket);
+        assert !purchases.refund("Customer-1", ticket); // The sale is no longer recorded.
+        assert ticketPool.getTicketState(ticket) == TicketState.AVAILABLE;
+        assert limiter.tryAcquire("Customer-1") == PurchaseLimiter.Decision.ALLOWED;
+    }
+
+    @Test
+    void replaysAreMarkedAndRefundForgetsTheIdempotentPurchase() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 10);
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 6, 86400000);
+        PurchaseService purchases = new PurchaseService(ticketPool, null, limiter, 1000, 100, 60000);
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-1-Ticket");
+
+        PurchaseResult original = purchases.purchase("Customer-1", CustomerPriority.GENERAL, 1000, "key-1")
+                .get(5, TimeUnit.SECONDS);
+        PurchaseResult replay = purchases.purchase("Customer-1", CustomerPriority.GENERAL, 1000, "key-1")
+                .get(5, TimeUnit.SECONDS);
+        assert original.isPurchased() && !original.isReplay();
+        assert replay.isReplay() && original.getTicketId().equals(replay.getTicketId());
+
+        // Once refunded, the same key buys again rather than replaying a ticket no longer held.
+        assert purchases.refund("Customer-1", original.getTicketId());
+        PurchaseResult retry = purchases.purchase("Customer-1", CustomerPriority.GENERAL, 1000, "key-1")
+                .get(5, TimeUnit.SECONDS);
+        assert retry.isPurchased() && !retry.isReplay();
+    }
+
+    @Test
+    void undeliveredPurchaseIsReturnedEvenAfterVendorsFilledThePool() throws Exception {
+        TicketPool ticketPool = new TicketPool(1, 10);
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 1, 86400000);
+        PurchaseService purchases = new PurchaseService(ticketPool, null, limiter, 1000, 100, 60000);
+        ticketPool.offerTicket("Vendor-1-Ticket");
+
+        PurchaseResult bought = purchases.purchase("Customer-1", CustomerPriority.GENERAL, 1000).get(5, TimeUnit.SECONDS);
+        assert bought.isPurchased() : bought.getStatus();
+        assert ticketPool.offerTicket("Vendor-1-Ticket"); // The pool is full again.
+        assert !purchases.refund("Customer-1", bought.getTicketId()); // A customer's refund needs room.
+
+        assert purchases.rollbackUndelivered("Customer-1", bought.getTicketId());
+        assert ticketPool.getTicketState(bought.getTicketId()) == TicketState.AVAILABLE;
+        assert ticketPool.getTicketsSold() == 0;
+        assert limiter.tryAcquire("Customer-1") == PurchaseLimiter.Decision.ALLOWED;
+    }
+}
@@ -0,0 +1,136 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.thamindu.realtimeticketing.model.Configuration;
+import org.thamindu.realtimeticketing.model.DrainReport;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.service.SimulationService;
+import org.thamindu.realtimeticketing.service.SimulationSession;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+class SimulationSessionTest {
+
+    @Test
+    void sessionsRunIndependentlyOnTheirOwnPools() throws Exception {
+        SimulationService service = new SimulationService(new TicketPool(10, 10), 64, "heap", 1000, 600_000, false);
+        try {
+            SimulationSession first = service.startSession("a", new Configuration(20, 10, 10, 10));
+            SimulationSession second = service.startSession("b", new Configuration(40, 10, 10, 20));
+            assert first.getTicketPool() != second.getTicketPool();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (second.getTicketPool().getTicketsSold() < 40 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            service.stopSession("a");
+
+            assert !first.isRunning();
+            assert second.isRunning();
+            assert second.getTicketPool().getTicketsSold() == 40;
+            assert (int) first.getStatus().get("ticketsSold") <= 20;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void runningSessionCannotBeStartedTwice() {
+        SimulationService service = new SimulationService(new TicketPool(10, 10), 64, "heap", 1000, 600_000, false);
+        try {
+            service.startSession("a", new Configuration(20, 10, 10, 10));
+            try {
+                service.startSession("a", new Configuration(20, 10, 10, 10));
+                assert false : "Expected the second start to be rejected";
+            } catch (IllegalStateException expected) {
+                // Rejected, without keeping the workers it would have taken.
+            }
+            assert (int) service.getSessionsStatus().get("availableWorkers") == 64 - 4;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void workerBudgetShrinksSessionsAndIsReturnedOnStop() {
+        SimulationService service = new SimulationService(new TicketPool(10, 10), 10, "heap", 1000, 600_000, false);
+        try {
+            // 100 / 10 vendors + 100 / 10 customers = 20 requested workers, but only 10 exist.
+            SimulationSession session = service.startSession("a", new Configuration(100, 10, 10, 50));
+            assert session.getWorkers() == 10;
+            assert (int) session.getStatus().get("requestedWorkers") == 20;
+            assert (int) session.getStatus().get("vendors") + (int) session.getStatus().get("customers") == 10;
+            try {
+                service.startSession("b", new Configuration(100, 10, 10, 50));
+                assert false : "Expected the budget to be exhausted";
+            } catch (RejectedExecutionException expected) {
+                // Rejected.
+            }
+
+            service.stopSession("a");
+            assert (int) service.getSessionsStatus().get("availableWorkers") == 10;
+            assert service.startSession("b", new Configuration(100, 10, 10, 50)).getWorkers() == 10;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void stoppedSessionsAreEvictedAfterTheRetentionPeriod() {
+        SimulationService service = new SimulationService(new TicketPool(10, 10), 64, "heap", 1000, 0, false);
+        try {
+            service.startSession("a", new Configuration(20, 10, 10, 10));
+            service.startSession("b", new Configuration(20, 10, 10, 10));
+            service.stopSession("a", 0);
+
+            assert ((List<?>) service.getSessionsStatus().get("sessions")).size() == 1;
+            assert service.getSession("a") == null;
+            assert service.getSession("b").isRunning();
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void drainSellsWhatIsLeftAndAccountsForEveryTicket() throws Exception {
+        SimulationService service = new SimulationService(new TicketPool(10, 10), 64, "heap", 1000, 600_000, false);
+        try {
+            SimulationSession session = service.startSession("a", new Configuration(200, 1, 100, 200));
+            Thread.sleep(300); // Many vendors have released a ticket each; the single customer has bought one.
+
+            service.stopSession("a", 3000);
+            DrainReport report = session.getDrainReport();
+
+            assert report.isFullyAccounted() : report;
+            assert report.getTicketsAdded() > 1 : report;
+            assert report.getTicketsInPool() == 0 : report;
+            assert report.getTicketsSold() == report.getTicketsAdded();
+            assert !report.isDeadlineExceeded();
+            assert !report.isWorkersInterrupted();
+            assert report.getDrainMillis() < 3000 : report;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void immediateStopWakesWorkersAndReportsUnsoldTickets() throws Exception {
+        SimulationService service = new SimulationService(new TicketPool(10, 10), 64, "heap", 1000, 600_000, false);
+        try {
+            SimulationSession session = service.startSession("a", new Configuration(200, 1, 100, 200));
+            Thread.sleep(300);
+
+            service.stopSession("a", 0);
+            DrainReport report = session.getDrainReport();
+
+            assert report.isFullyAccounted() : report;
+            assert report.getTicketsInPool() > 0 : report;
+            assert report.getUnsoldTickets().size() == Math.min(report.getTicketsInPool(), DrainReport.MAX_LISTED_TICKETS);
+            assert !report.isWorkersInterrupted() : report; // Paced and parked workers were woken, not interrupted.
+            assert report.getDrainMillis() < 1000 : report;
+        } finally {
+            service.shutdown();
+        }
+    }
+}
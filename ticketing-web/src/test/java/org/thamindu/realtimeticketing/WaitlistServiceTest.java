@@ -0,0 +1,119 @@
+package org.thamindu.realtimeticketing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.thamindu.realtimeticketing.model.TicketPool;
+import org.thamindu.realtimeticketing.model.TicketState;
+import org.thamindu.realtimeticketing.service.PurchaseLimiter;
+import org.thamindu.realtimeticketing.service.WaitlistService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class WaitlistServiceTest {
+
+    @Test
+    void returnedTicketGoesToTheHeadOfTheWaitlist() {
+        TicketPool ticketPool = new TicketPool(10, 1);
+        List<Message<?>> notifications = new ArrayList<>();
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 6, 86400000);
+        WaitlistService waitlist = new WaitlistService(ticketPool, new SimpMessagingTemplate((message, timeout) -> notifications.add(message)),
+                limiter, 600_000);
+        waitlist.register();
+
+        assert waitlist.join("Customer-0") == null; // Still on sale.
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        String ticket = ticketPool.tryRemoveTicket();
+
+        assert waitlist.join("Customer-1") != null;
+        assert waitlist.join("Customer-2") != null;
+        assert (long) waitlist.getStatus("Customer-2").get("ahead") == 1;
+        assert waitlist.leave("Customer-1");
+
+        assert ticketPool.refundTicket(ticket);
+        assert ticket.equals(waitlist.getStatus("Customer-2").get("ticketId"));
+        assert ticketPool.getTicketState(ticket) == TicketState.SOLD;
+        assert ticketPool.getCurrentSize() == 0; // Never re-entered the pool.
+        assert ticketPool.getTicketsSold() == 1;
+        assert notifications.size() == 1;
+        assert "/topic/waitlist/Customer-2".equals(notifications.get(0).getHeaders().get("simpDestination"));
+        assert limiter.isBuyer("Customer-2", ticket);
+    }
+
+    @Test
+    void handOffCountsAgainstTheQuotaAndSkipsCustomersAtIt() {
+        TicketPool ticketPool = new TicketPool(10, 2);
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 1, 86400000);
+        WaitlistService waitlist = new WaitlistService(ticketPool, new SimpMessagingTemplate((message, timeout) -> true), limiter, 600_000);
+        waitlist.register();
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        String first = ticketPool.tryRemoveTicket();
+        String second = ticketPool.tryRemoveTicket();
+        assert limiter.tryReserveQuota("Customer-1"); // Customer-1 already bought their one ticket.
+
+        waitlist.join("Customer-1");
+        waitlist.join("Customer-2");
+        assert ticketPool.refundTicket(first);
+        assert waitlist.getStatus("Customer-1") == null; // Passed over and off the waitlist.
+        assert first.equals(waitlist.getStatus("Customer-2").get("ticketId"));
+        assert !limiter.tryReserveQuota("Customer-2"); // The hand-off spent Customer-2's quota.
+
+        // Nobody left within their quota: the ticket goes back into the pool.
+        waitlist.join("Customer-1");
+        assert ticketPool.refundTicket(second);
+        assert ticketPool.getCurrentSize() == 1;
+    }
+
+    @Test
+    void failedNotificationReturnsTheQuotaAndPassesTheTicketOn() {
+        TicketPool ticketPool = new TicketPool(10, 1);
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 1, 86400000);
+        WaitlistService waitlist = new WaitlistService(ticketPool, new SimpMessagingTemplate((message, timeout) -> {
+            if ("/topic/waitlist/Customer-1".equals(message.getHeaders().get("simpDestination"))) {
+                throw new IllegalStateException("Broker unavailable");
+            }
+            return true;
+        }), limiter, 600_000);
+        waitlist.register();
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        String ticket = ticketPool.tryRemoveTicket();
+
+        waitlist.join("Customer-1");
+        waitlist.join("Customer-2");
+        assert ticketPool.refundTicket(ticket);
+
+        assert waitlist.getStatus("Customer-1") == null;
+        assert limiter.tryReserveQuota("Customer-1"); // Not charged for the failed hand-off.
+        assert ticket.equals(waitlist.getStatus("Customer-2").get("ticketId"));
+        assert limiter.isBuyer("Customer-2", ticket);
+    }
+
+    @Test
+    void assignmentsAreForgottenOnceRefundedOrExpired() throws Exception {
+        TicketPool ticketPool = new TicketPool(10, 2);
+        PurchaseLimiter limiter = new PurchaseLimiter(1024, 10, 10000, 5, 6, 86400000);
+        WaitlistService waitlist = new WaitlistService(ticketPool, new SimpMessagingTemplate((message, timeout) -> true), limiter, 200);
+        waitlist.register();
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        ticketPool.offerTicket("Vendor-1-Ticket");
+        String first = ticketPool.tryRemoveTicket();
+        String second = ticketPool.tryRemoveTicket();
+
+        waitlist.join("Customer-1");
+        waitlist.join("Customer-2");
+        assert ticketPool.refundTicket(first);
+        assert ticketPool.refundTicket(second);
+        assert waitlist.getAssignedCount() == 2;
+
+        // Customer-1 gives the ticket back; it is no longer theirs.
+        assert limiter.releaseSale("Customer-1", first);
+        assert ticketPool.refundTicket(first);
+        assert waitlist.getStatus("Customer-1") == null;
+
+        Thread.sleep(250);
+        assert waitlist.getStatus("Customer-2") == null;
+        assert waitlist.getAssignedCount() == 0;
+    }
+}